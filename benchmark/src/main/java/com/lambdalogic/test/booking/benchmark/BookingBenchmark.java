@@ -0,0 +1,102 @@
+package com.lambdalogic.test.booking.benchmark;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.lambdalogic.test.booking.model.Booking;
+import com.lambdalogic.test.booking.model.BookingTotals;
+
+/**
+ * Cost of the totals of a single {@link Booking}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingBenchmark {
+
+	private static final int POOL_SIZE = 1 << 12;
+
+	@Param({ "0", "50", "100" })
+	public int grossPercent;
+
+	private Booking[] bookings;
+	private int index;
+
+	private final BookingTotals totals = new BookingTotals();
+
+
+	@Setup(Level.Trial)
+	public void setup() {
+		List<Booking> bookingList = new BookingDataGenerator(2).generate(POOL_SIZE, 100, grossPercent, 1);
+		bookings = bookingList.toArray(new Booking[POOL_SIZE]);
+	}
+
+
+	private Booking next() {
+		index = (index + 1) & (POOL_SIZE - 1);
+		return bookings[index];
+	}
+
+
+	@Benchmark
+	public BigDecimal totalAmountGross() {
+		return next().getTotalAmountGross();
+	}
+
+
+	@Benchmark
+	public BigDecimal totalAmountNet() {
+		return next().getTotalAmountNet();
+	}
+
+
+	@Benchmark
+	public BigDecimal totalAmountTax() {
+		return next().getTotalAmountTax();
+	}
+
+
+	@Benchmark
+	public BigDecimal openAmount() {
+		return next().getOpenAmount();
+	}
+
+
+	@Benchmark
+	public void allTotalsSeparately(Blackhole blackhole) {
+		Booking booking = next();
+		blackhole.consume(booking.getTotalAmountGross());
+		blackhole.consume(booking.getTotalAmountNet());
+		blackhole.consume(booking.getTotalAmountTax());
+		blackhole.consume(booking.getOpenAmount());
+	}
+
+
+	@Benchmark
+	public void allTotalsFused(Blackhole blackhole) {
+		totals.compute(next());
+		blackhole.consume(totals.getGrossCents());
+		blackhole.consume(totals.getNetCents());
+		blackhole.consume(totals.getTaxCents());
+		blackhole.consume(totals.getOpenCents());
+	}
+
+}
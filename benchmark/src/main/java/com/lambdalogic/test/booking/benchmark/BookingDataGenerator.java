@@ -0,0 +1,93 @@
+package com.lambdalogic.test.booking.benchmark;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import com.lambdalogic.test.booking.model.Booking;
+import com.lambdalogic.test.booking.model.Price;
+
+/**
+ * Generates reproducible booking lists for the benchmarks.
+ */
+public class BookingDataGenerator {
+
+	private static final String[] CURRENCIES = { "EUR", "USD", "CHF", "GBP" };
+	private static final String[] TAX_RATES = { "0", "7", "19" };
+	private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
+
+	private final Random random;
+
+
+	public BookingDataGenerator(long seed) {
+		random = new Random(seed);
+	}
+
+
+	/**
+	 * @param bookingCount - number of bookings
+	 * @param recipientCount - number of different invoice recipients
+	 * @param grossPercent - percentage of gross bookings (0 to 100)
+	 * @param currencyCount - number of currencies (1 to 4); every invoice recipient uses only one currency
+	 * @return
+	 */
+	public List<Booking> generate(int bookingCount, int recipientCount, int grossPercent, int currencyCount) {
+		List<Booking> bookings = new ArrayList<>(bookingCount);
+		long now = System.currentTimeMillis();
+
+		for (int i = 0; i < bookingCount; i++) {
+			long invoiceRecipientPK = random.nextInt(recipientCount);
+			String currency = CURRENCIES[(int) (invoiceRecipientPK % currencyCount)];
+			boolean gross = random.nextInt(100) < grossPercent;
+
+			Booking booking = new Booking();
+			booking.setID((long) i);
+			booking.setInvoiceRecipientPK(invoiceRecipientPK);
+			booking.setOfferingPK((long) random.nextInt(1000));
+			booking.setBenefitRecipientPKs(Collections.singletonList(invoiceRecipientPK));
+			booking.setMainPrice(price(currency, gross, 500000));
+			if (random.nextBoolean()) {
+				booking.setAdd1Price(price(currency, gross, 50000));
+			}
+			if (random.nextInt(4) == 0) {
+				booking.setAdd2Price(price(currency, gross, 20000));
+			}
+			if (random.nextInt(20) == 0) {
+				booking.setCancelFeePrice(price(currency, gross, 10000));
+				booking.setCancelationDate(new Date(now - random.nextInt(100) * DAY_MILLIS));
+			}
+			booking.setPaidAmount(BigDecimal.valueOf(random.nextInt(3) == 0 ? random.nextInt(100000) : 0, 2));
+			booking.setBookingDate(new Date(now - random.nextInt(365) * DAY_MILLIS));
+			bookings.add(booking);
+		}
+		return bookings;
+	}
+
+
+	/**
+	 * Generate single prices.
+	 *
+	 * @param count
+	 * @param gross
+	 * @return
+	 */
+	public Price[] generatePrices(int count, boolean gross) {
+		Price[] prices = new Price[count];
+		for (int i = 0; i < count; i++) {
+			prices[i] = price(CURRENCIES[0], gross, 500000);
+		}
+		return prices;
+	}
+
+
+	private Price price(String currency, boolean gross, int maxCents) {
+		BigDecimal amount = BigDecimal.valueOf(random.nextInt(maxCents), 2);
+		BigDecimal taxRate = new BigDecimal(TAX_RATES[random.nextInt(TAX_RATES.length)]);
+		return new Price(amount, currency, taxRate, gross);
+	}
+
+}
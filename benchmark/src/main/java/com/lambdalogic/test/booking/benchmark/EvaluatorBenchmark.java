@@ -0,0 +1,110 @@
+package com.lambdalogic.test.booking.benchmark;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.lambdalogic.test.booking.BookingBatchCurrencyAmountsEvaluator;
+import com.lambdalogic.test.booking.BookingsCurrencyAmountsBatchEvaluator;
+import com.lambdalogic.test.booking.BookingsCurrencyAmountsEvaluator;
+import com.lambdalogic.test.booking.IBookingsCurrencyAmountsEvaluator;
+import com.lambdalogic.test.booking.IndexedBookingsCurrencyAmountsEvaluator;
+import com.lambdalogic.test.booking.ParallelBookingsCurrencyAmountsEvaluator;
+import com.lambdalogic.test.booking.exception.InconsistentCurrenciesException;
+import com.lambdalogic.test.booking.index.BookingIndex;
+import com.lambdalogic.test.booking.model.Booking;
+import com.lambdalogic.test.booking.model.BookingBatch;
+import com.lambdalogic.test.booking.model.CurrencyAmount;
+import com.lambdalogic.test.booking.model.CurrencyAmountsResult;
+
+/**
+ * Cost of evaluating one invoice recipient (and all invoice recipients) of a booking list.
+ * <p>
+ * The largest data sets need a big heap, e.g. <code>-jvmArgsAppend -Xmx16g</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx16g" })
+public class EvaluatorBenchmark {
+
+	@Param({ "1000", "100000", "1000000", "10000000" })
+	public int bookingCount;
+
+	@Param({ "10", "1000", "40000" })
+	public int recipientCount;
+
+	@Param({ "0", "50", "100" })
+	public int grossPercent;
+
+	@Param({ "1", "2" })
+	public int currencyCount;
+
+	private List<Booking> bookings;
+	private BookingBatch batch;
+	private BookingIndex index;
+	private Long invoiceRecipientPK;
+
+	private final BookingsCurrencyAmountsBatchEvaluator batchEvaluator = new BookingsCurrencyAmountsBatchEvaluator();
+	private final BookingBatchCurrencyAmountsEvaluator columnEvaluator = new BookingBatchCurrencyAmountsEvaluator();
+	private final IndexedBookingsCurrencyAmountsEvaluator indexedEvaluator = new IndexedBookingsCurrencyAmountsEvaluator();
+	private final ParallelBookingsCurrencyAmountsEvaluator parallelEvaluator = new ParallelBookingsCurrencyAmountsEvaluator();
+
+
+	@Setup(Level.Trial)
+	public void setup() {
+		bookings = new BookingDataGenerator(3).generate(bookingCount, recipientCount, grossPercent, currencyCount);
+		batch = new BookingBatch(bookings);
+		index = new BookingIndex(bookings);
+		invoiceRecipientPK = 1L % recipientCount;
+	}
+
+
+	@Benchmark
+	public CurrencyAmount calculate() throws InconsistentCurrenciesException {
+		IBookingsCurrencyAmountsEvaluator evaluator = new BookingsCurrencyAmountsEvaluator();
+		evaluator.calculate(bookings, invoiceRecipientPK);
+		return evaluator.getTotalAmount();
+	}
+
+
+	@Benchmark
+	public CurrencyAmount calculateParallel() throws InconsistentCurrenciesException {
+		parallelEvaluator.calculate(bookings, invoiceRecipientPK);
+		return parallelEvaluator.getTotalAmount();
+	}
+
+
+	@Benchmark
+	public CurrencyAmountsResult evaluateBatchColumns() {
+		return columnEvaluator.evaluate(batch, invoiceRecipientPK);
+	}
+
+
+	@Benchmark
+	public CurrencyAmountsResult evaluateIndexed() {
+		return indexedEvaluator.evaluate(index, invoiceRecipientPK);
+	}
+
+
+	@Benchmark
+	public Map<Long, CurrencyAmountsResult> calculateAllRecipients() {
+		return batchEvaluator.calculateAll(bookings);
+	}
+
+}
@@ -0,0 +1,71 @@
+package com.lambdalogic.test.booking.benchmark;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.lambdalogic.test.booking.model.Price;
+
+/**
+ * Cost of the derived amounts of a single {@link Price}.
+ * Every invocation reads the next price of a pool, so the results are not dominated by a single cached object.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PriceBenchmark {
+
+	private static final int POOL_SIZE = 1 << 12;
+
+	@Param({ "true", "false" })
+	public boolean gross;
+
+	private Price[] prices;
+	private int index;
+
+
+	@Setup(Level.Trial)
+	public void setup() {
+		prices = new BookingDataGenerator(1).generatePrices(POOL_SIZE, gross);
+	}
+
+
+	private Price next() {
+		index = (index + 1) & (POOL_SIZE - 1);
+		return prices[index];
+	}
+
+
+	@Benchmark
+	public BigDecimal amountGross() {
+		return next().getAmountGross();
+	}
+
+
+	@Benchmark
+	public BigDecimal amountNet() {
+		return next().getAmountNet();
+	}
+
+
+	@Benchmark
+	public BigDecimal amountTax() {
+		return next().getAmountTax();
+	}
+
+}
@@ -0,0 +1,81 @@
+package com.lambdalogic.test.booking.benchmark;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.lambdalogic.test.booking.BookingsCurrencyAmountsService;
+import com.lambdalogic.test.booking.StatelessBookingsCurrencyAmountsEvaluator;
+import com.lambdalogic.test.booking.model.Booking;
+import com.lambdalogic.test.booking.model.CurrencyAmountsResult;
+
+/**
+ * Throughput of many concurrent single recipient requests: one scan per request versus micro-batched scans of
+ * {@link BookingsCurrencyAmountsService}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(64)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx4g" })
+public class ServiceBenchmark {
+
+	@Param({ "100000" })
+	public int bookingCount;
+
+	@Param({ "1000" })
+	public int recipientCount;
+
+	private List<Booking> bookings;
+	private BookingsCurrencyAmountsService service;
+
+	private final StatelessBookingsCurrencyAmountsEvaluator evaluator = new StatelessBookingsCurrencyAmountsEvaluator();
+
+
+	@Setup(Level.Trial)
+	public void setup() {
+		bookings = new BookingDataGenerator(5).generate(bookingCount, recipientCount, 50, 1);
+		service = new BookingsCurrencyAmountsService();
+	}
+
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		service.close();
+	}
+
+
+	@Benchmark
+	public CurrencyAmountsResult scanPerRequest() {
+		return evaluator.evaluate(bookings, randomRecipient());
+	}
+
+
+	@Benchmark
+	public CurrencyAmountsResult batchedRequest() {
+		return service.evaluate(bookings, randomRecipient()).join();
+	}
+
+
+	private Long randomRecipient() {
+		return Long.valueOf(ThreadLocalRandom.current().nextInt(recipientCount));
+	}
+
+}
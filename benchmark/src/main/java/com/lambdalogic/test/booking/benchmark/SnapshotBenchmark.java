@@ -0,0 +1,79 @@
+package com.lambdalogic.test.booking.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.lambdalogic.test.booking.BookingBatchCurrencyAmountsEvaluator;
+import com.lambdalogic.test.booking.io.BookingSnapshot;
+import com.lambdalogic.test.booking.io.BookingSnapshotWriter;
+import com.lambdalogic.test.booking.model.CurrencyAmountsResult;
+
+/**
+ * Cost of loading a binary snapshot and evaluating one invoice recipient directly from the mapped file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx16g" })
+public class SnapshotBenchmark {
+
+	@Param({ "100000", "1000000", "10000000" })
+	public int bookingCount;
+
+	@Param({ "1000" })
+	public int recipientCount;
+
+	private Path file;
+	private BookingSnapshot snapshot;
+
+	private final BookingBatchCurrencyAmountsEvaluator columnEvaluator = new BookingBatchCurrencyAmountsEvaluator();
+
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		file = Files.createTempFile("bookings", ".snapshot");
+		new BookingSnapshotWriter().write(
+			new BookingDataGenerator(3).generate(bookingCount, recipientCount, 50, 1),
+			file
+		);
+		snapshot = BookingSnapshot.open(file);
+	}
+
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		snapshot = null;
+		Files.deleteIfExists(file);
+	}
+
+
+	@Benchmark
+	public CurrencyAmountsResult openAndEvaluate() throws IOException {
+		return columnEvaluator.evaluate(BookingSnapshot.open(file), 1L);
+	}
+
+
+	@Benchmark
+	public CurrencyAmountsResult evaluateMapped() {
+		return columnEvaluator.evaluate(snapshot, 1L);
+	}
+
+}
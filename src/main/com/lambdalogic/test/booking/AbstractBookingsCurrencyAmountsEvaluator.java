@@ -0,0 +1,65 @@
+package com.lambdalogic.test.booking;
+
+import com.lambdalogic.test.booking.exception.InconsistentCurrenciesException;
+import com.lambdalogic.test.booking.model.CurrencyAmount;
+import com.lambdalogic.test.booking.model.CurrencyAmountsResult;
+
+/**
+ * Base class for implementations of {@link IBookingsCurrencyAmountsEvaluator} that compute a
+ * {@link CurrencyAmountsResult} and provide its values until the next calculation.
+ */
+public abstract class AbstractBookingsCurrencyAmountsEvaluator implements IBookingsCurrencyAmountsEvaluator {
+
+	private CurrencyAmountsResult result;
+
+
+	/**
+	 * Store the result of a calculation.
+	 *
+	 * @param result
+	 * @throws InconsistentCurrenciesException if the result contains one
+	 */
+	protected void setResult(CurrencyAmountsResult result) throws InconsistentCurrenciesException {
+		this.result = result;
+		if (result != null && result.getException() != null) {
+			throw result.getException();
+		}
+	}
+
+
+	/**
+	 * Forget the result of the last calculation.
+	 * Should be called at the beginning of every calculation, so that no old values are returned if it fails.
+	 */
+	protected void clearResult() {
+		result = null;
+	}
+
+
+	/**
+	 * Return the result of the last calculation or null if there is none.
+	 * @return
+	 */
+	public CurrencyAmountsResult getResult() {
+		return result;
+	}
+
+
+	@Override
+	public CurrencyAmount getTotalAmount() {
+		return result != null ? result.getTotalAmount() : null;
+	}
+
+
+	@Override
+	public CurrencyAmount getTotalPaidAmount() {
+		return result != null ? result.getTotalPaidAmount() : null;
+	}
+
+
+	@Override
+	public CurrencyAmount getTotalOpenAmount() {
+		return result != null ? result.getTotalOpenAmount() : null;
+	}
+
+}
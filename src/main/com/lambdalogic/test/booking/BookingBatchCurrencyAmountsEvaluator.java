@@ -0,0 +1,123 @@
+package com.lambdalogic.test.booking;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+import com.lambdalogic.test.booking.exception.InconsistentCurrenciesException;
+import com.lambdalogic.test.booking.model.Booking;
+import com.lambdalogic.test.booking.model.BookingBatch;
+import com.lambdalogic.test.booking.model.BookingColumns;
+import com.lambdalogic.test.booking.model.CurrencyAmount;
+import com.lambdalogic.test.booking.model.CurrencyAmountsResult;
+import com.lambdalogic.test.booking.model.MoneySum;
+import com.lambdalogic.test.booking.model.TaxRateAmountAccumulator;
+
+/**
+ * Implementation of {@link IBookingsCurrencyAmountsEvaluator} that scans the primitive columns of a
+ * {@link BookingBatch} or any other {@link BookingColumns}, e.g. a memory-mapped snapshot.
+ * <p>
+ * Callers have to create the {@link BookingBatch} once and call {@link #calculate(BookingColumns, long)} or
+ * {@link #evaluate(BookingColumns, long)} for every invoice recipient. Building the columns costs more than adding up
+ * the bookings, so {@link #calculate(List, Long)} and {@link #evaluate(List, Long)} do not convert the list but add up
+ * the {@link Booking}s with a {@link StatelessBookingsCurrencyAmountsEvaluator}. This also covers bookings that a
+ * batch cannot store, e.g. paid amounts with more than 2 decimal places.
+ * <p>
+ * The results are the same as those of {@link BookingsCurrencyAmountsBatchEvaluator}: the amounts are collected in a
+ * {@link TaxRateAmountAccumulator}, which converts net amounts to gross once per tax rate.
+ */
+public class BookingBatchCurrencyAmountsEvaluator extends AbstractBookingsCurrencyAmountsEvaluator
+	implements IStatelessBookingsCurrencyAmountsEvaluator {
+
+	private static final StatelessBookingsCurrencyAmountsEvaluator LIST_EVALUATOR =
+		new StatelessBookingsCurrencyAmountsEvaluator();
+
+
+	@Override
+	public void calculate(List<Booking> bookingList, Long invoiceRecipientID) throws InconsistentCurrenciesException {
+		clearResult();
+		setResult(evaluate(bookingList, invoiceRecipientID));
+	}
+
+
+	/**
+	 * Add up the amounts of the bookings of a list without converting them into a {@link BookingBatch}.
+	 */
+	@Override
+	public CurrencyAmountsResult evaluate(List<Booking> bookingList, Long invoiceRecipientID) {
+		return LIST_EVALUATOR.evaluate(bookingList, invoiceRecipientID);
+	}
+
+
+	/**
+	 * Add up the total amount, the paid amount and open amount of the bookings in {@link BookingColumns}.
+	 *
+	 * @param batch
+	 * @param invoiceRecipientID - the PK of the invoice recipient or {@link BookingColumns#NULL_PK}
+	 * @throws InconsistentCurrenciesException
+	 * @see IBookingsCurrencyAmountsEvaluator#calculate(List, Long)
+	 */
+	public void calculate(BookingColumns batch, long invoiceRecipientID) throws InconsistentCurrenciesException {
+		clearResult();
+		setResult(evaluate(batch, invoiceRecipientID));
+	}
+
+
+	/**
+	 * Add up the amounts of the bookings in {@link BookingColumns} and return them instead of storing them.
+	 * This method does not change the state of the evaluator and is therefore thread-safe.
+	 *
+	 * @param batch
+	 * @param invoiceRecipientID - the PK of the invoice recipient or {@link BookingColumns#NULL_PK}
+	 * @return
+	 */
+	public CurrencyAmountsResult evaluate(BookingColumns batch, long invoiceRecipientID) {
+		int currencyID = -1;
+		TaxRateAmountAccumulator amounts = new TaxRateAmountAccumulator();
+		MoneySum sumPaid = new MoneySum();
+
+		for (int i = 0, size = batch.size(); i < size; i++) {
+			if (batch.getInvoiceRecipientPK(i) != invoiceRecipientID || (batch.isZero(i) && batch.getPaidCents(i) == 0)) {
+				continue;
+			}
+
+			int bookingCurrencyID = batch.getCurrencyID(i);
+			if (currencyID == -1) {
+				currencyID = bookingCurrencyID;
+			}
+			else if (currencyID != bookingCurrencyID) {
+				return new CurrencyAmountsResult(
+					invoiceRecipientID == BookingColumns.NULL_PK ? null : invoiceRecipientID,
+					new InconsistentCurrenciesException(batch.getCurrency(currencyID), batch.getCurrency(bookingCurrencyID))
+				);
+			}
+
+			boolean gross = batch.isGross(i);
+			for (int p = 0; p < BookingColumns.PRICE_COUNT; p++) {
+				long amountCents = batch.getAmountCents(p, i);
+				if (amountCents != 0) {
+					int taxRateBasisPoints = batch.getTaxRateBasisPoints(batch.getTaxRateID(p, i));
+					if (gross) {
+						amounts.addGross(taxRateBasisPoints, amountCents);
+					}
+					else {
+						amounts.addNet(taxRateBasisPoints, amountCents);
+					}
+				}
+			}
+
+			sumPaid.add(batch.getPaidCents(i));
+		}
+
+		String currency = (currencyID == -1 ? null : batch.getCurrency(currencyID));
+		BigDecimal total = amounts.toGross();
+		BigDecimal paid = sumPaid.toBigDecimal().setScale(2, RoundingMode.HALF_UP);
+		return new CurrencyAmountsResult(
+			invoiceRecipientID == BookingColumns.NULL_PK ? null : invoiceRecipientID,
+			new CurrencyAmount(total, currency),
+			new CurrencyAmount(paid, currency),
+			new CurrencyAmount(total.subtract(paid), currency)
+		);
+	}
+
+}
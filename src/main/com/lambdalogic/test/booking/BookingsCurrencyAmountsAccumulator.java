@@ -0,0 +1,148 @@
+package com.lambdalogic.test.booking;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import com.lambdalogic.test.booking.model.Booking;
+import com.lambdalogic.test.booking.model.CurrencyAmount;
+import com.lambdalogic.test.booking.model.CurrencyAmountsResult;
+import com.lambdalogic.test.booking.model.MoneySum;
+import com.lambdalogic.test.booking.model.TaxRateAmountAccumulator;
+
+
+/**
+ * Adds up the amounts of the relevant {@link Booking}s of one invoice recipient without summing up rounding errors.
+ * <p>
+ * The prices are collected in a {@link TaxRateAmountAccumulator}: gross prices are exact and therefore added as
+ * they are, net prices are added up per tax rate and converted to gross only once per tax rate when the result is
+ * created. Paid amounts are always gross and therefore exact.
+ * <p>
+ * All sums are kept in cents as long as possible, so adding a booking does usually not create any objects.
+ * <p>
+ * The accumulator also counts the added bookings (see {@link CurrencyAmountsResult#getBookingCount()}), so that
+ * {@link InstrumentedBookingsCurrencyAmountsEvaluator} can record them without another pass over the bookings.
+ * <p>
+ * Two accumulators can be merged. Merging the accumulators of two consecutive parts of a booking list leads to the
+ * same result as adding all bookings to one accumulator, so this class is the building block of all evaluator
+ * implementations.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class BookingsCurrencyAmountsAccumulator {
+
+	private final CurrencyTracker currency = new CurrencyTracker();
+	private final TaxRateAmountAccumulator amounts = new TaxRateAmountAccumulator();
+	private final MoneySum sumPaid = new MoneySum();
+
+	private int bookingCount;
+	private int zeroBookingCount;
+	private int grossBookingCount;
+
+
+	/**
+	 * Return true if a booking is relevant at all.
+	 * Bookings whose amount and paid amount are both 0 are ignored.
+	 *
+	 * @param booking
+	 * @return
+	 */
+	public static boolean isRelevant(Booking booking) {
+		return !booking.isZero() || booking.getPaidAmountOrZero().signum() != 0;
+	}
+
+
+	/**
+	 * Add a booking.
+	 * The caller is responsible for passing only bookings of the same invoice recipient.
+	 * Irrelevant bookings (see {@link #isRelevant(Booking)}) are ignored.
+	 *
+	 * @param booking
+	 */
+	public void add(Booking booking) {
+		bookingCount++;
+		if (!isRelevant(booking)) {
+			zeroBookingCount++;
+			return;
+		}
+		if (booking.isGross()) {
+			grossBookingCount++;
+		}
+
+		if (!currency.add(booking.getCurrencyID(), booking.getCurrency())) {
+			return;
+		}
+
+		amounts.add(booking.getMainPriceOrZero());
+		amounts.add(booking.getAdd1PriceOrZero());
+		amounts.add(booking.getAdd2PriceOrZero());
+		amounts.add(booking.getCancelFeePriceOrZero());
+
+		sumPaid.add(booking.getPaidAmountOrZero());
+	}
+
+
+	/**
+	 * Add the values of another accumulator.
+	 * If this accumulator collected the bookings before the bookings of <code>other</code>, the result is the same as
+	 * if all bookings had been added to this accumulator.
+	 *
+	 * @param other
+	 */
+	public void merge(BookingsCurrencyAmountsAccumulator other) {
+		bookingCount += other.bookingCount;
+		zeroBookingCount += other.zeroBookingCount;
+		grossBookingCount += other.grossBookingCount;
+
+		if (!currency.merge(other.currency)) {
+			return;
+		}
+
+		amounts.merge(other.amounts);
+		sumPaid.add(other.sumPaid);
+	}
+
+
+	/**
+	 * Return true if no relevant booking has been added yet.
+	 * @return
+	 */
+	public boolean isEmpty() {
+		return currency.isEmpty();
+	}
+
+
+	/**
+	 * Return true if the relevant bookings have different currencies.
+	 * @return
+	 */
+	public boolean isInconsistent() {
+		return currency.isInconsistent();
+	}
+
+
+	/**
+	 * Create the result for the given invoice recipient.
+	 *
+	 * @param invoiceRecipientPK
+	 * @return
+	 */
+	public CurrencyAmountsResult toResult(Long invoiceRecipientPK) {
+		if (currency.isInconsistent()) {
+			return new CurrencyAmountsResult(invoiceRecipientPK, currency.toException());
+		}
+
+		String code = currency.getCurrency();
+		BigDecimal total = amounts.toGross();
+		BigDecimal paid = sumPaid.toBigDecimal().setScale(2, RoundingMode.HALF_UP);
+		return new CurrencyAmountsResult(
+			invoiceRecipientPK,
+			new CurrencyAmount(total, code),
+			new CurrencyAmount(paid, code),
+			new CurrencyAmount(total.subtract(paid), code),
+			bookingCount,
+			zeroBookingCount,
+			grossBookingCount
+		);
+	}
+
+}
@@ -0,0 +1,60 @@
+package com.lambdalogic.test.booking;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.lambdalogic.test.booking.model.Booking;
+import com.lambdalogic.test.booking.model.CurrencyAmountsResult;
+
+/**
+ * Evaluates all invoice recipients of a booking list in a single pass.
+ * <p>
+ * The bookings are grouped by {@link Booking#getInvoiceRecipientPK()} into one
+ * {@link BookingsCurrencyAmountsAccumulator} per invoice recipient, so the effort is linear in the number of bookings
+ * instead of bookings times invoice recipients.
+ * <p>
+ * This class has no state and is therefore thread-safe.
+ */
+public class BookingsCurrencyAmountsBatchEvaluator implements IBookingsCurrencyAmountsBatchEvaluator {
+
+	@Override
+	public Map<Long, CurrencyAmountsResult> calculateAll(List<Booking> bookingList) {
+		Map<Long, BookingsCurrencyAmountsAccumulator> accumulators = new HashMap<>();
+		for (Booking booking : bookingList) {
+			accumulators.computeIfAbsent(
+				booking.getInvoiceRecipientPK(),
+				pk -> new BookingsCurrencyAmountsAccumulator()
+			).add(booking);
+		}
+		return toResults(accumulators);
+	}
+
+
+	@Override
+	public Map<Long, CurrencyAmountsResult> calculate(List<Booking> bookingList, Collection<Long> invoiceRecipientIDs) {
+		Map<Long, BookingsCurrencyAmountsAccumulator> accumulators = new HashMap<>();
+		for (Long invoiceRecipientID : invoiceRecipientIDs) {
+			accumulators.put(invoiceRecipientID, new BookingsCurrencyAmountsAccumulator());
+		}
+
+		for (Booking booking : bookingList) {
+			BookingsCurrencyAmountsAccumulator accumulator = accumulators.get(booking.getInvoiceRecipientPK());
+			if (accumulator != null) {
+				accumulator.add(booking);
+			}
+		}
+		return toResults(accumulators);
+	}
+
+
+	private static Map<Long, CurrencyAmountsResult> toResults(Map<Long, BookingsCurrencyAmountsAccumulator> accumulators) {
+		Map<Long, CurrencyAmountsResult> results = new HashMap<>(accumulators.size() * 4 / 3 + 1);
+		for (Map.Entry<Long, BookingsCurrencyAmountsAccumulator> entry : accumulators.entrySet()) {
+			results.put(entry.getKey(), entry.getValue().toResult(entry.getKey()));
+		}
+		return results;
+	}
+
+}
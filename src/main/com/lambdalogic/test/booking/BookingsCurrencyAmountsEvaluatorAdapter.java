@@ -0,0 +1,51 @@
+package com.lambdalogic.test.booking;
+
+import java.util.List;
+
+import com.lambdalogic.test.booking.exception.InconsistentCurrenciesException;
+import com.lambdalogic.test.booking.model.Booking;
+
+/**
+ * Implementation of {@link IBookingsCurrencyAmountsEvaluator} on top of an
+ * {@link IStatelessBookingsCurrencyAmountsEvaluator}.
+ * <p>
+ * The adapter keeps the result of the last calculation for the getters, so like every
+ * {@link IBookingsCurrencyAmountsEvaluator} it must not be shared between threads. The wrapped evaluator can be
+ * shared by any number of adapters.
+ */
+public class BookingsCurrencyAmountsEvaluatorAdapter extends AbstractBookingsCurrencyAmountsEvaluator {
+
+	private final IStatelessBookingsCurrencyAmountsEvaluator evaluator;
+
+
+	/**
+	 * Create an adapter for a {@link StatelessBookingsCurrencyAmountsEvaluator}.
+	 */
+	public BookingsCurrencyAmountsEvaluatorAdapter() {
+		this(new StatelessBookingsCurrencyAmountsEvaluator());
+	}
+
+
+	/**
+	 * @param evaluator - the evaluator that does the calculation
+	 */
+	public BookingsCurrencyAmountsEvaluatorAdapter(IStatelessBookingsCurrencyAmountsEvaluator evaluator) {
+		if (evaluator == null) {
+			throw new IllegalArgumentException("Parameter 'evaluator' must not be null.");
+		}
+		this.evaluator = evaluator;
+	}
+
+
+	public IStatelessBookingsCurrencyAmountsEvaluator getEvaluator() {
+		return evaluator;
+	}
+
+
+	@Override
+	public void calculate(List<Booking> bookingList, Long invoiceRecipientID) throws InconsistentCurrenciesException {
+		clearResult();
+		setResult(evaluator.evaluate(bookingList, invoiceRecipientID));
+	}
+
+}
@@ -0,0 +1,392 @@
+package com.lambdalogic.test.booking;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.lambdalogic.test.booking.model.Booking;
+import com.lambdalogic.test.booking.model.CurrencyAmountsResult;
+
+/**
+ * Asynchronous evaluation of the bookings of many invoice recipients.
+ * <p>
+ * Requests do not block the calling thread but return a {@link CompletableFuture}. Requests for the same booking
+ * list (the same instance) that arrive within a short window are collected in a batch, which is evaluated by a
+ * single scan of {@link IBookingsCurrencyAmountsBatchEvaluator#calculate(List, Collection)} for all requested
+ * invoice recipients. So the work grows with the number of batches instead of the number of requests, and the
+ * number of threads that scan is limited by the executor.
+ * <p>
+ * A batch is evaluated when its window has elapsed or when it contains the maximum number of requests. A timer
+ * thread only hands batches over to the executor and never calculates itself.
+ * <p>
+ * On Java 8 the default executor is a fixed pool with one thread per core. On newer JDKs callers can pass an
+ * executor of virtual threads. Since nothing blocks while waiting for a batch, any number of callers can wait for
+ * their results on virtual threads.
+ * <p>
+ * The booking lists must not change while requests for them are pending. This class is thread-safe.
+ */
+public class BookingsCurrencyAmountsService implements AutoCloseable {
+
+	/**
+	 * Default time that a batch waits for further requests.
+	 */
+	public static final long DEFAULT_WINDOW_MILLIS = 2;
+
+	/**
+	 * Default maximum number of requests per batch.
+	 */
+	public static final int DEFAULT_MAX_BATCH_SIZE = 1024;
+
+	private static final AtomicInteger SERVICE_COUNT = new AtomicInteger();
+
+	private final IBookingsCurrencyAmountsBatchEvaluator evaluator;
+	private final Executor executor;
+
+	/**
+	 * The executor that has been created by this service and has to be shut down by {@link #close()}.
+	 */
+	private final ExecutorService ownExecutor;
+
+	private final ScheduledExecutorService timer;
+	private final long windowNanos;
+	private final int maxBatchSize;
+
+	/**
+	 * The open batches by booking list.
+	 */
+	private final ConcurrentHashMap<DatasetKey, Batch> batches = new ConcurrentHashMap<>();
+
+	private volatile boolean closed;
+
+
+	/**
+	 * Create a service with a fixed thread pool of one thread per core, the {@link #DEFAULT_WINDOW_MILLIS} and the
+	 * {@link #DEFAULT_MAX_BATCH_SIZE}.
+	 */
+	public BookingsCurrencyAmountsService() {
+		this(null, DEFAULT_WINDOW_MILLIS, TimeUnit.MILLISECONDS, DEFAULT_MAX_BATCH_SIZE);
+	}
+
+
+	/**
+	 * @param executor - the executor that evaluates the batches, null for a fixed thread pool of one thread per core
+	 * that is shut down by {@link #close()}
+	 * @param window - the time a batch waits for further requests, 0 to evaluate every request on its own
+	 * @param unit - the unit of window
+	 * @param maxBatchSize - the number of requests after which a batch is evaluated without waiting any longer
+	 */
+	public BookingsCurrencyAmountsService(Executor executor, long window, TimeUnit unit, int maxBatchSize) {
+		this(new BookingsCurrencyAmountsBatchEvaluator(), executor, window, unit, maxBatchSize);
+	}
+
+
+	/**
+	 * @param evaluator - the evaluator that scans the bookings, must be thread-safe
+	 * @param executor - the executor that evaluates the batches, null for a fixed thread pool of one thread per core
+	 * that is shut down by {@link #close()}
+	 * @param window - the time a batch waits for further requests, 0 to evaluate every request on its own
+	 * @param unit - the unit of window
+	 * @param maxBatchSize - the number of requests after which a batch is evaluated without waiting any longer
+	 */
+	public BookingsCurrencyAmountsService(
+		IBookingsCurrencyAmountsBatchEvaluator evaluator,
+		Executor executor,
+		long window,
+		TimeUnit unit,
+		int maxBatchSize
+	) {
+		if (evaluator == null) {
+			throw new IllegalArgumentException("Parameter 'evaluator' must not be null.");
+		}
+		if (window < 0) {
+			throw new IllegalArgumentException("Parameter 'window' must not be negative.");
+		}
+		if (unit == null) {
+			throw new IllegalArgumentException("Parameter 'unit' must not be null.");
+		}
+		if (maxBatchSize < 1) {
+			throw new IllegalArgumentException("Parameter 'maxBatchSize' must be positive.");
+		}
+
+		int serviceNumber = SERVICE_COUNT.incrementAndGet();
+		this.evaluator = evaluator;
+		if (executor != null) {
+			this.executor = executor;
+			this.ownExecutor = null;
+		}
+		else {
+			this.ownExecutor = Executors.newFixedThreadPool(
+				Runtime.getRuntime().availableProcessors(),
+				new DaemonThreadFactory("bookings-service-" + serviceNumber + "-worker-")
+			);
+			this.executor = ownExecutor;
+		}
+
+		ScheduledThreadPoolExecutor timer =
+			new ScheduledThreadPoolExecutor(1, new DaemonThreadFactory("bookings-service-" + serviceNumber + "-timer-"));
+		timer.setRemoveOnCancelPolicy(true);
+		this.timer = timer;
+		this.windowNanos = unit.toNanos(window);
+		this.maxBatchSize = maxBatchSize;
+	}
+
+
+	/**
+	 * Request the result of one invoice recipient.
+	 *
+	 * @param bookingList - a list of {@link Booking}s
+	 * @param invoiceRecipientID - the PK of the invoice recipient
+	 * @return a future of the result, which may report inconsistent currencies
+	 * @throws IllegalStateException if the service has been closed
+	 */
+	public CompletableFuture<CurrencyAmountsResult> evaluate(List<Booking> bookingList, Long invoiceRecipientID) {
+		return evaluate(bookingList, Collections.singleton(invoiceRecipientID))
+			.thenApply(results -> results.get(invoiceRecipientID));
+	}
+
+
+	/**
+	 * Request the results of many invoice recipients.
+	 * Every given invoice recipient is contained in the result, even if no booking belongs to it.
+	 *
+	 * @param bookingList - a list of {@link Booking}s
+	 * @param invoiceRecipientIDs - the PKs of the invoice recipients
+	 * @return a future of the results mapped by the PK of the invoice recipient
+	 * @throws IllegalStateException if the service has been closed
+	 */
+	public CompletableFuture<Map<Long, CurrencyAmountsResult>> evaluate(
+		List<Booking> bookingList,
+		Collection<Long> invoiceRecipientIDs
+	) {
+		if (bookingList == null) {
+			throw new IllegalArgumentException("Parameter 'bookingList' must not be null.");
+		}
+		if (invoiceRecipientIDs == null) {
+			throw new IllegalArgumentException("Parameter 'invoiceRecipientIDs' must not be null.");
+		}
+		if (closed) {
+			throw new IllegalStateException("The service has been closed.");
+		}
+
+		Request request = new Request(invoiceRecipientIDs);
+		DatasetKey key = new DatasetKey(bookingList);
+		while (true) {
+			Batch batch = batches.computeIfAbsent(key, Batch::new);
+			int size = batch.add(request);
+			if (size == Batch.CLOSED) {
+				// the batch is being dispatched, retry with a new one
+				batches.remove(key, batch);
+				continue;
+			}
+
+			if (size >= maxBatchSize || windowNanos == 0) {
+				dispatch(batch);
+			}
+			else if (size == 1) {
+				try {
+					timer.schedule(() -> dispatch(batch), windowNanos, TimeUnit.NANOSECONDS);
+				}
+				catch (RejectedExecutionException e) {
+					// the service is being closed
+					dispatch(batch);
+				}
+			}
+			return request.future;
+		}
+	}
+
+
+	/**
+	 * Stop accepting requests.
+	 * Pending batches are still evaluated, but an executor created by this service does not accept further tasks.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		for (Batch batch : batches.values()) {
+			dispatch(batch);
+		}
+		timer.shutdown();
+		if (ownExecutor != null) {
+			ownExecutor.shutdown();
+		}
+	}
+
+
+	/**
+	 * Hand a batch over to the executor, unless this has already happened.
+	 */
+	private void dispatch(Batch batch) {
+		List<Request> requests = batch.close();
+		if (requests == null) {
+			return;
+		}
+		batches.remove(batch.key, batch);
+
+		try {
+			executor.execute(() -> run(batch.key.bookingList, requests));
+		}
+		catch (RuntimeException e) {
+			for (Request request : requests) {
+				request.future.completeExceptionally(e);
+			}
+		}
+	}
+
+
+	/**
+	 * Evaluate the requests of a batch in a single scan.
+	 */
+	private void run(List<Booking> bookingList, List<Request> requests) {
+		try {
+			Set<Long> invoiceRecipientIDs = new HashSet<>();
+			for (Request request : requests) {
+				invoiceRecipientIDs.addAll(request.invoiceRecipientIDs);
+			}
+
+			Map<Long, CurrencyAmountsResult> results = evaluator.calculate(bookingList, invoiceRecipientIDs);
+
+			for (Request request : requests) {
+				Map<Long, CurrencyAmountsResult> requestResults =
+					new HashMap<>(request.invoiceRecipientIDs.size() * 4 / 3 + 1);
+				for (Long invoiceRecipientID : request.invoiceRecipientIDs) {
+					requestResults.put(invoiceRecipientID, results.get(invoiceRecipientID));
+				}
+				request.future.complete(requestResults);
+			}
+		}
+		catch (RuntimeException | Error e) {
+			for (Request request : requests) {
+				request.future.completeExceptionally(e);
+			}
+			if (e instanceof Error) {
+				throw (Error) e;
+			}
+		}
+	}
+
+
+	/**
+	 * Identifies a booking list by its identity instead of its content, because comparing lists would cost as much
+	 * as scanning them.
+	 */
+	private static final class DatasetKey {
+
+		final List<Booking> bookingList;
+
+
+		DatasetKey(List<Booking> bookingList) {
+			this.bookingList = bookingList;
+		}
+
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(bookingList);
+		}
+
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof DatasetKey && ((DatasetKey) obj).bookingList == bookingList;
+		}
+
+	}
+
+
+	private static final class Request {
+
+		final Collection<Long> invoiceRecipientIDs;
+		final CompletableFuture<Map<Long, CurrencyAmountsResult>> future = new CompletableFuture<>();
+
+
+		Request(Collection<Long> invoiceRecipientIDs) {
+			// copy the IDs, the caller may change the collection while the request is pending
+			this.invoiceRecipientIDs = new ArrayList<>(invoiceRecipientIDs);
+		}
+
+	}
+
+
+	/**
+	 * The requests for one booking list that are evaluated together.
+	 */
+	private static final class Batch {
+
+		static final int CLOSED = -1;
+
+		final DatasetKey key;
+		private List<Request> requests = new ArrayList<>();
+
+
+		Batch(DatasetKey key) {
+			this.key = key;
+		}
+
+
+		/**
+		 * Add a request.
+		 *
+		 * @return the number of requests including the new one or {@link #CLOSED} if the batch does not accept
+		 * requests anymore
+		 */
+		synchronized int add(Request request) {
+			if (requests == null) {
+				return CLOSED;
+			}
+			requests.add(request);
+			return requests.size();
+		}
+
+
+		/**
+		 * Stop accepting requests.
+		 *
+		 * @return the requests or null if the batch has already been closed
+		 */
+		synchronized List<Request> close() {
+			List<Request> result = requests;
+			requests = null;
+			return result;
+		}
+
+	}
+
+
+	private static final class DaemonThreadFactory implements ThreadFactory {
+
+		private final String prefix;
+		private final AtomicInteger threadCount = new AtomicInteger();
+
+
+		DaemonThreadFactory(String prefix) {
+			this.prefix = prefix;
+		}
+
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, prefix + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+
+	}
+
+}
@@ -0,0 +1,399 @@
+package com.lambdalogic.test.booking;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.lambdalogic.test.booking.model.Booking;
+import com.lambdalogic.test.booking.model.BookingList;
+import com.lambdalogic.test.booking.model.CurrencyAmountsResult;
+
+/**
+ * Implementation of {@link IStatelessBookingsCurrencyAmountsEvaluator} that caches the results of another evaluator.
+ * <p>
+ * Results are cached by the version of the booking list and the PK of the invoice recipient. The version of a
+ * booking list changes when a booking is added, removed or replaced or when a setter of a booking or of one of its
+ * prices has been called. A {@link BookingList} is notified of these changes, so its version is checked by comparing
+ * {@link BookingList#getVersion()}, which costs the same for any number of bookings. Other lists are scanned on every
+ * call and {@link Booking#getVersion()} of every booking is compared, which is still much cheaper than adding up the
+ * amounts. Booking lists are identified by their identity, not by their content.
+ * <p>
+ * Since {@link CurrencyAmountsResult} is immutable, a cache hit returns the same instance that the wrapped
+ * evaluator has returned for the same data. The number of cached results is limited by evicting the least recently
+ * used ones, the number of booking lists whose versions are tracked is limited in the same way. Results of an
+ * outdated version of a booking list are removed as soon as the change is recognized, results of a booking list
+ * that is no longer tracked are removed together with it.
+ * <p>
+ * The cache keeps references to the booking lists and their bookings until they are evicted or
+ * {@link #invalidate()} is called. The booking lists must not change during a call of
+ * {@link #evaluate(List, Long)}. This class is thread-safe, if the wrapped evaluator is.
+ */
+public class CachingBookingsCurrencyAmountsEvaluator implements IStatelessBookingsCurrencyAmountsEvaluator {
+
+	/**
+	 * Default maximum number of cached results.
+	 */
+	public static final int DEFAULT_MAX_RESULTS = 10_000;
+
+	/**
+	 * Default maximum number of booking lists whose versions are tracked.
+	 */
+	public static final int DEFAULT_MAX_DATASETS = 16;
+
+	private final IStatelessBookingsCurrencyAmountsEvaluator evaluator;
+	private final int maxResults;
+	private final int maxDatasets;
+
+	private final AtomicLong lastDatasetVersion = new AtomicLong();
+
+	/**
+	 * The tracked booking lists in access order.
+	 * Access has to be synchronized on the map. When a booking list is evicted, its results are removed while
+	 * holding this lock, so locks are always taken in the order datasets, dataset, results.
+	 */
+	private final LinkedHashMap<DatasetKey, Dataset> datasets;
+
+	/**
+	 * The cached results in access order.
+	 * Access has to be synchronized on the map.
+	 */
+	private final LinkedHashMap<ResultKey, CurrencyAmountsResult> results;
+
+	private final LongAdder hitCount = new LongAdder();
+	private final LongAdder missCount = new LongAdder();
+	private final LongAdder evictionCount = new LongAdder();
+
+
+	/**
+	 * Create a cache for a {@link StatelessBookingsCurrencyAmountsEvaluator} with {@link #DEFAULT_MAX_RESULTS} and
+	 * {@link #DEFAULT_MAX_DATASETS}.
+	 */
+	public CachingBookingsCurrencyAmountsEvaluator() {
+		this(new StatelessBookingsCurrencyAmountsEvaluator());
+	}
+
+
+	/**
+	 * Create a cache with {@link #DEFAULT_MAX_RESULTS} and {@link #DEFAULT_MAX_DATASETS}.
+	 *
+	 * @param evaluator - the evaluator that does the calculation
+	 */
+	public CachingBookingsCurrencyAmountsEvaluator(IStatelessBookingsCurrencyAmountsEvaluator evaluator) {
+		this(evaluator, DEFAULT_MAX_RESULTS, DEFAULT_MAX_DATASETS);
+	}
+
+
+	/**
+	 * @param evaluator - the evaluator that does the calculation
+	 * @param maxResults - the maximum number of cached results
+	 * @param maxDatasets - the maximum number of booking lists whose versions are tracked
+	 */
+	public CachingBookingsCurrencyAmountsEvaluator(
+		IStatelessBookingsCurrencyAmountsEvaluator evaluator,
+		int maxResults,
+		int maxDatasets
+	) {
+		if (evaluator == null) {
+			throw new IllegalArgumentException("Parameter 'evaluator' must not be null.");
+		}
+		if (maxResults < 1) {
+			throw new IllegalArgumentException("Parameter 'maxResults' must be positive.");
+		}
+		if (maxDatasets < 1) {
+			throw new IllegalArgumentException("Parameter 'maxDatasets' must be positive.");
+		}
+
+		this.evaluator = evaluator;
+		this.maxResults = maxResults;
+		this.maxDatasets = maxDatasets;
+
+		datasets = new LinkedHashMap<DatasetKey, Dataset>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<DatasetKey, Dataset> eldest) {
+				if (size() > CachingBookingsCurrencyAmountsEvaluator.this.maxDatasets) {
+					// the results of an untracked booking list could never be hit again
+					Dataset dataset = eldest.getValue();
+					synchronized (dataset) {
+						if (dataset.version != Dataset.NO_VERSION) {
+							removeResults(dataset.version);
+						}
+					}
+					return true;
+				}
+				return false;
+			}
+		};
+
+		results = new LinkedHashMap<ResultKey, CurrencyAmountsResult>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<ResultKey, CurrencyAmountsResult> eldest) {
+				if (size() > CachingBookingsCurrencyAmountsEvaluator.this.maxResults) {
+					evictionCount.increment();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+
+	public IStatelessBookingsCurrencyAmountsEvaluator getEvaluator() {
+		return evaluator;
+	}
+
+
+	@Override
+	public CurrencyAmountsResult evaluate(List<Booking> bookingList, Long invoiceRecipientID) {
+		if (bookingList == null) {
+			throw new IllegalArgumentException("Parameter 'bookingList' must not be null.");
+		}
+
+		ResultKey key = new ResultKey(getDatasetVersion(bookingList), invoiceRecipientID);
+		CurrencyAmountsResult result;
+		synchronized (results) {
+			result = results.get(key);
+		}
+		if (result != null) {
+			hitCount.increment();
+			return result;
+		}
+
+		missCount.increment();
+		result = evaluator.evaluate(bookingList, invoiceRecipientID);
+		synchronized (results) {
+			results.put(key, result);
+		}
+		return result;
+	}
+
+
+	/**
+	 * Return the current version of a booking list and start tracking it if necessary.
+	 */
+	private long getDatasetVersion(List<Booking> bookingList) {
+		DatasetKey key = new DatasetKey(bookingList);
+		Dataset dataset;
+		synchronized (datasets) {
+			dataset = datasets.get(key);
+			if (dataset == null) {
+				dataset = new Dataset();
+				datasets.put(key, dataset);
+			}
+		}
+
+		synchronized (dataset) {
+			long oldVersion = dataset.version;
+			if (!dataset.update(bookingList)) {
+				dataset.version = lastDatasetVersion.incrementAndGet();
+				if (oldVersion != Dataset.NO_VERSION) {
+					removeResults(oldVersion);
+				}
+			}
+			return dataset.version;
+		}
+	}
+
+
+	/**
+	 * Remove the results of an outdated version of a booking list.
+	 */
+	private void removeResults(long datasetVersion) {
+		synchronized (results) {
+			results.keySet().removeIf(key -> key.datasetVersion == datasetVersion);
+		}
+	}
+
+
+	/**
+	 * Remove all cached results and stop tracking all booking lists.
+	 * The statistics are not reset.
+	 */
+	public void invalidate() {
+		synchronized (datasets) {
+			datasets.clear();
+		}
+		synchronized (results) {
+			results.clear();
+		}
+	}
+
+
+	/**
+	 * Remove the cached results of a booking list and stop tracking it.
+	 * This is only necessary if a booking has been changed in a way that is not recognized by
+	 * {@link Booking#getVersion()}.
+	 *
+	 * @param bookingList
+	 */
+	public void invalidate(List<Booking> bookingList) {
+		Dataset dataset;
+		synchronized (datasets) {
+			dataset = datasets.remove(new DatasetKey(bookingList));
+		}
+		if (dataset != null) {
+			synchronized (dataset) {
+				if (dataset.version != Dataset.NO_VERSION) {
+					removeResults(dataset.version);
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Return the number of cached results.
+	 * @return
+	 */
+	public int size() {
+		synchronized (results) {
+			return results.size();
+		}
+	}
+
+
+	public long getHitCount() {
+		return hitCount.sum();
+	}
+
+
+	public long getMissCount() {
+		return missCount.sum();
+	}
+
+
+	/**
+	 * Return the number of results that have been removed because the maximum number of results has been
+	 * reached. Results of outdated booking lists are not counted.
+	 * @return
+	 */
+	public long getEvictionCount() {
+		return evictionCount.sum();
+	}
+
+
+	/**
+	 * Return the ratio of cache hits to all calls of {@link #evaluate(List, Long)}.
+	 * @return 0 if there have been no calls yet
+	 */
+	public double getHitRate() {
+		long hits = hitCount.sum();
+		long total = hits + missCount.sum();
+		return total == 0 ? 0 : (double) hits / total;
+	}
+
+
+	/**
+	 * Identifies a booking list by its identity instead of its content.
+	 */
+	private static final class DatasetKey {
+
+		final List<Booking> bookingList;
+
+
+		DatasetKey(List<Booking> bookingList) {
+			this.bookingList = bookingList;
+		}
+
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(bookingList);
+		}
+
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof DatasetKey && ((DatasetKey) obj).bookingList == bookingList;
+		}
+
+	}
+
+
+	/**
+	 * The version of a {@link BookingList} or the bookings of another booking list and their versions at the time the
+	 * dataset version has been assigned.
+	 * Access has to be synchronized on the dataset.
+	 */
+	private static final class Dataset {
+
+		static final long NO_VERSION = 0;
+
+		long version = NO_VERSION;
+		private long listVersion;
+		private Booking[] bookings = new Booking[0];
+		private long[] bookingVersions = new long[0];
+
+
+		/**
+		 * Compare the version of the booking list or the bookings with the known ones and take them over.
+		 *
+		 * @return true if the bookings and their versions have not changed
+		 */
+		boolean update(List<Booking> bookingList) {
+			if (bookingList instanceof BookingList) {
+				long newListVersion = ((BookingList) bookingList).getVersion();
+				boolean unchanged = version != NO_VERSION && newListVersion == listVersion;
+				listVersion = newListVersion;
+				return unchanged;
+			}
+
+			int size = bookingList.size();
+			boolean unchanged = version != NO_VERSION && size == bookings.length;
+			if (!unchanged) {
+				bookings = new Booking[size];
+				bookingVersions = new long[size];
+			}
+
+			int i = 0;
+			for (Booking booking : bookingList) {
+				long bookingVersion = booking.getVersion();
+				if (unchanged && (bookings[i] != booking || bookingVersions[i] != bookingVersion)) {
+					unchanged = false;
+				}
+				bookings[i] = booking;
+				bookingVersions[i] = bookingVersion;
+				i++;
+			}
+			return unchanged;
+		}
+
+	}
+
+
+	private static final class ResultKey {
+
+		final long datasetVersion;
+		final Long invoiceRecipientID;
+
+
+		ResultKey(long datasetVersion, Long invoiceRecipientID) {
+			this.datasetVersion = datasetVersion;
+			this.invoiceRecipientID = invoiceRecipientID;
+		}
+
+
+		@Override
+		public int hashCode() {
+			return Long.hashCode(datasetVersion) * 31 + Objects.hashCode(invoiceRecipientID);
+		}
+
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof ResultKey)) {
+				return false;
+			}
+			ResultKey other = (ResultKey) obj;
+			return other.datasetVersion == datasetVersion && Objects.equals(other.invoiceRecipientID, invoiceRecipientID);
+		}
+
+	}
+
+}
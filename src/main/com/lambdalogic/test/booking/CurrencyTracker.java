@@ -0,0 +1,105 @@
+package com.lambdalogic.test.booking;
+
+import com.lambdalogic.test.booking.exception.InconsistentCurrenciesException;
+import com.lambdalogic.test.booking.model.CurrencyRegistry;
+
+
+/**
+ * Remembers the currency of the first relevant booking of an accumulator and detects bookings with another currency.
+ * <p>
+ * Used by {@link BookingsCurrencyAmountsAccumulator} and by {@link OfferingRevenueEvaluator}, which decide themselves
+ * which bookings are relevant.
+ * <p>
+ * This class is not thread-safe.
+ */
+final class CurrencyTracker {
+
+	private boolean empty = true;
+	private String currency;
+	private int currencyID;
+
+	/**
+	 * True if a relevant booking had another currency than {@link #currency}.
+	 */
+	private boolean inconsistent;
+
+	/**
+	 * The first currency that differs from {@link #currency}.
+	 */
+	private String inconsistentCurrency;
+
+
+	/**
+	 * Record the currency of a relevant booking.
+	 *
+	 * @param bookingCurrencyID - the ID of the currency in {@link CurrencyRegistry}
+	 * @param bookingCurrency
+	 * @return false if the currencies are inconsistent and the amounts of the booking must be ignored
+	 */
+	boolean add(int bookingCurrencyID, String bookingCurrency) {
+		if (inconsistent) {
+			return false;
+		}
+
+		if (empty) {
+			empty = false;
+			currencyID = bookingCurrencyID;
+			currency = bookingCurrency;
+		}
+		else if (currencyID != bookingCurrencyID) {
+			inconsistent = true;
+			inconsistentCurrency = bookingCurrency;
+			return false;
+		}
+		return true;
+	}
+
+
+	/**
+	 * Record the currency of the bookings of another tracker, which followed the bookings of this one.
+	 *
+	 * @param other
+	 * @return true if the amounts that belong to <code>other</code> have to be merged
+	 */
+	boolean merge(CurrencyTracker other) {
+		if (other.empty || !add(other.currencyID, other.currency)) {
+			return false;
+		}
+
+		if (other.inconsistent) {
+			inconsistent = true;
+			inconsistentCurrency = other.inconsistentCurrency;
+			return false;
+		}
+		return true;
+	}
+
+
+	boolean isEmpty() {
+		return empty;
+	}
+
+
+	boolean isInconsistent() {
+		return inconsistent;
+	}
+
+
+	/**
+	 * Return the currency of the first relevant booking or null if there was none.
+	 * @return
+	 */
+	String getCurrency() {
+		return currency;
+	}
+
+
+	/**
+	 * Return the exception that describes the inconsistent currencies or null if they are consistent.
+	 * @return
+	 */
+	InconsistentCurrenciesException toException() {
+		return inconsistent ? new InconsistentCurrenciesException(currency, inconsistentCurrency) : null;
+	}
+
+}
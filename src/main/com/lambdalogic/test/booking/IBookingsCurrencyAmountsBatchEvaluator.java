@@ -0,0 +1,45 @@
+package com.lambdalogic.test.booking;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import com.lambdalogic.test.booking.exception.InconsistentCurrenciesException;
+import com.lambdalogic.test.booking.model.Booking;
+import com.lambdalogic.test.booking.model.CurrencyAmountsResult;
+
+/**
+ * Implementations of this interface add up the total amount, the paid amount and open amount of a list of
+ * {@link Booking}s for many invoice recipients at once.
+ * <p>
+ * The results are the same as if {@link IBookingsCurrencyAmountsEvaluator#calculate(List, Long)} was called for
+ * every invoice recipient, but the list of bookings is only read once.
+ * <p>
+ * An {@link InconsistentCurrenciesException} does not abort the whole calculation. Instead it is reported in the
+ * {@link CurrencyAmountsResult} of the invoice recipient whose relevant bookings have different currencies.
+ */
+public interface IBookingsCurrencyAmountsBatchEvaluator {
+
+	/**
+	 * Add up the total amount, the paid amount and open amount of a list of {@link Booking}s for every invoice
+	 * recipient that occurs in the list.
+	 *
+	 * @param bookingList - a list of {@link Booking}s
+	 * @return the results mapped by the PK of the invoice recipient ( {@link Booking#getInvoiceRecipientPK()} )
+	 */
+	Map<Long, CurrencyAmountsResult> calculateAll(List<Booking> bookingList);
+
+
+	/**
+	 * Add up the total amount, the paid amount and open amount of a list of {@link Booking}s for the given invoice
+	 * recipients.
+	 * Bookings of other invoice recipients are ignored.
+	 * Every given invoice recipient is contained in the result, even if no booking belongs to it.
+	 *
+	 * @param bookingList - a list of {@link Booking}s
+	 * @param invoiceRecipientIDs - the PKs of the invoice recipients
+	 * @return the results mapped by the PK of the invoice recipient
+	 */
+	Map<Long, CurrencyAmountsResult> calculate(List<Booking> bookingList, Collection<Long> invoiceRecipientIDs);
+
+}
@@ -0,0 +1,29 @@
+package com.lambdalogic.test.booking;
+
+import java.util.List;
+
+import com.lambdalogic.test.booking.exception.InconsistentCurrenciesException;
+import com.lambdalogic.test.booking.model.Booking;
+import com.lambdalogic.test.booking.model.MultiCurrencyAmountsResult;
+
+/**
+ * Implementations of this interface add up the total amount, the paid amount and open amount of a list of
+ * {@link Booking}s separately for every currency.
+ * <p>
+ * Unlike {@link IBookingsCurrencyAmountsEvaluator#calculate(List, Long)}, bookings with different currencies do not
+ * cause an {@link InconsistentCurrenciesException}. Apart from that the same rules apply to every currency.
+ * Callers that need the strict behaviour can use {@link MultiCurrencyAmountsResult#toSingleCurrencyResult()}.
+ */
+public interface IBookingsMultiCurrencyAmountsEvaluator {
+
+	/**
+	 * Add up the total amount, the paid amount and open amount of the {@link Booking}s of an invoice recipient per
+	 * currency.
+	 *
+	 * @param bookingList - a list of {@link Booking}s
+	 * @param invoiceRecipientID - the PK of the invoice recipient ( {@link Booking#getInvoiceRecipientPK()} )
+	 * @return
+	 */
+	MultiCurrencyAmountsResult calculatePerCurrency(List<Booking> bookingList, Long invoiceRecipientID);
+
+}
@@ -0,0 +1,35 @@
+package com.lambdalogic.test.booking;
+
+import java.util.List;
+
+import com.lambdalogic.test.booking.exception.InconsistentCurrenciesException;
+import com.lambdalogic.test.booking.model.Booking;
+import com.lambdalogic.test.booking.model.CurrencyAmountsResult;
+
+/**
+ * Implementations of this interface add up the total amount, the paid amount and open amount of the {@link Booking}s
+ * of an invoice recipient like {@link IBookingsCurrencyAmountsEvaluator}, but return the amounts as an immutable
+ * {@link CurrencyAmountsResult} instead of keeping them.
+ * <p>
+ * Implementations must be thread-safe, so one instance can be shared by all threads. Calls must not influence each
+ * other.
+ * <p>
+ * Inconsistent currencies do not lead to an exception. Instead the {@link InconsistentCurrenciesException} is
+ * reported by {@link CurrencyAmountsResult#getException()}.
+ * <p>
+ * {@link BookingsCurrencyAmountsEvaluatorAdapter} provides the stateful {@link IBookingsCurrencyAmountsEvaluator}
+ * interface for any implementation.
+ */
+public interface IStatelessBookingsCurrencyAmountsEvaluator {
+
+	/**
+	 * Add up the total amount, the paid amount and open amount of the bookings of an invoice recipient.
+	 * The bookings that are relevant are the same as for {@link IBookingsCurrencyAmountsEvaluator#calculate(List, Long)}.
+	 *
+	 * @param bookingList - a list of {@link Booking}s
+	 * @param invoiceRecipientID - the PK of the person who is the booking's invoice recipient
+	 * @return
+	 */
+	CurrencyAmountsResult evaluate(List<Booking> bookingList, Long invoiceRecipientID);
+
+}
@@ -0,0 +1,364 @@
+package com.lambdalogic.test.booking;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.lambdalogic.test.booking.exception.InconsistentCurrenciesException;
+import com.lambdalogic.test.booking.model.Booking;
+import com.lambdalogic.test.booking.model.Cents;
+import com.lambdalogic.test.booking.model.CurrencyAmount;
+import com.lambdalogic.test.booking.model.CurrencyAmountsResult;
+import com.lambdalogic.test.booking.model.CurrencyRegistry;
+import com.lambdalogic.test.booking.model.MoneySum;
+import com.lambdalogic.test.booking.model.Price;
+import com.lambdalogic.test.booking.model.TaxRateAmountAccumulator;
+
+/**
+ * Keeps the total amount, the paid amount and open amount of every invoice recipient up to date while bookings are
+ * inserted, changed and removed.
+ * <p>
+ * When a booking is inserted, its contribution (invoice recipient, currency ID, the amounts of its prices in cents
+ * with their tax rates in basis points and the paid amount in cents) is recorded under its ID
+ * ( {@link Booking#getID()} ). These are a few primitive values per booking, so millions of bookings can be tracked.
+ * Removing or updating a booking subtracts the recorded contribution, so bookings may be changed in place before
+ * {@link #update(Booking)} is called.
+ * Every change costs O(1), reading the result of an invoice recipient costs O(number of tax rates).
+ * <p>
+ * The results follow the same rules as {@link IBookingsCurrencyAmountsEvaluator}: net amounts are added per tax rate
+ * and converted to gross only when a result is read, and bookings whose amount and paid amount are both 0 are
+ * ignored. The amounts of bookings in different currencies are kept apart, so an inconsistency disappears as soon as
+ * the offending bookings are removed.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class IncrementalBookingsCurrencyAmountsAggregator {
+
+	/**
+	 * Recorded contributions by booking ID.
+	 */
+	private final Map<Long, Contribution> contributions = new HashMap<>();
+
+	/**
+	 * Running totals by invoice recipient PK.
+	 */
+	private final Map<Long, RecipientTotals> recipientTotals = new HashMap<>();
+
+
+	/**
+	 * Add a new booking.
+	 *
+	 * @param booking
+	 * @throws IllegalArgumentException if the booking has no ID or a booking with the same ID has already been added
+	 */
+	public void insert(Booking booking) {
+		Long bookingID = getID(booking);
+		if (contributions.containsKey(bookingID)) {
+			throw new IllegalArgumentException("A booking with the ID " + bookingID + " has already been inserted.");
+		}
+
+		Contribution contribution = new Contribution(booking);
+		contributions.put(bookingID, contribution);
+		if (contribution.relevant) {
+			recipientTotals.computeIfAbsent(contribution.invoiceRecipientPK, pk -> new RecipientTotals())
+				.add(contribution);
+		}
+	}
+
+
+	/**
+	 * Remove a booking.
+	 * The values that are subtracted are the ones that were recorded when the booking was inserted or updated the
+	 * last time, not the current values of the booking.
+	 *
+	 * @param booking
+	 * @return false if the booking has not been inserted before
+	 */
+	public boolean remove(Booking booking) {
+		return remove(getID(booking));
+	}
+
+
+	/**
+	 * Remove a booking by its ID.
+	 *
+	 * @param bookingID
+	 * @return false if the booking has not been inserted before
+	 */
+	public boolean remove(Long bookingID) {
+		Contribution contribution = contributions.remove(bookingID);
+		if (contribution == null) {
+			return false;
+		}
+
+		if (contribution.relevant) {
+			RecipientTotals totals = recipientTotals.get(contribution.invoiceRecipientPK);
+			totals.subtract(contribution);
+			if (totals.isEmpty()) {
+				recipientTotals.remove(contribution.invoiceRecipientPK);
+			}
+		}
+		return true;
+	}
+
+
+	/**
+	 * Replace a booking by another one.
+	 * The bookings may have different IDs.
+	 *
+	 * @param oldBooking - the booking that has been inserted before
+	 * @param newBooking - the booking that replaces it
+	 */
+	public void replace(Booking oldBooking, Booking newBooking) {
+		remove(oldBooking);
+		insert(newBooking);
+	}
+
+
+	/**
+	 * Record the current values of a booking that has been changed in place, e.g. by
+	 * {@link Booking#setPaidAmount(BigDecimal)}.
+	 * Bookings that have not been inserted before are inserted.
+	 *
+	 * @param booking
+	 */
+	public void update(Booking booking) {
+		remove(booking);
+		insert(booking);
+	}
+
+
+	/**
+	 * Return the number of recorded bookings.
+	 * @return
+	 */
+	public int size() {
+		return contributions.size();
+	}
+
+
+	/**
+	 * Return the current totals of an invoice recipient.
+	 *
+	 * @param invoiceRecipientPK
+	 * @return
+	 */
+	public CurrencyAmountsResult getResult(Long invoiceRecipientPK) {
+		RecipientTotals totals = recipientTotals.get(invoiceRecipientPK);
+		if (totals == null) {
+			return new CurrencyAmountsResult(
+				invoiceRecipientPK,
+				new CurrencyAmount(Price.ZERO, null),
+				new CurrencyAmount(Price.ZERO, null),
+				new CurrencyAmount(Price.ZERO, null)
+			);
+		}
+		return totals.toResult(invoiceRecipientPK);
+	}
+
+
+	private static Long getID(Booking booking) {
+		Long bookingID = booking.getID();
+		if (bookingID == null) {
+			throw new IllegalArgumentException("Only bookings with an ID can be aggregated incrementally.");
+		}
+		return bookingID;
+	}
+
+
+	/**
+	 * Exact sums of bookings in one currency.
+	 */
+	private static class CurrencyTotals {
+
+		int bookingCount;
+		final TaxRateAmountAccumulator amounts = new TaxRateAmountAccumulator();
+		final MoneySum sumPaid = new MoneySum();
+
+	}
+
+
+	/**
+	 * The recorded values of one booking.
+	 * <p>
+	 * Usually these are only a few primitive values: the amount of every price in cents and its tax rate in basis
+	 * points together with the gross flag. Only bookings with amounts or tax rates that cannot be represented this way
+	 * keep their values in {@link #exact}.
+	 */
+	private static final class Contribution {
+
+		/**
+		 * Key of a price that is 0.
+		 */
+		static final int NO_PRICE = -1;
+
+		final Long invoiceRecipientPK;
+		final int currencyID;
+		final boolean relevant;
+
+		/**
+		 * Keys of the prices: tax rate in basis points * 2 + (gross ? 1 : 0), or {@link #NO_PRICE}.
+		 */
+		int mainKey = NO_PRICE;
+		int add1Key = NO_PRICE;
+		int add2Key = NO_PRICE;
+		int cancelFeeKey = NO_PRICE;
+
+		long mainCents;
+		long add1Cents;
+		long add2Cents;
+		long cancelFeeCents;
+		long paidCents;
+
+		/**
+		 * The values of a booking that do not fit into the fields above, null for all other bookings.
+		 */
+		CurrencyTotals exact;
+
+
+		Contribution(Booking booking) {
+			invoiceRecipientPK = booking.getInvoiceRecipientPK();
+			currencyID = booking.getCurrencyID();
+			relevant = BookingsCurrencyAmountsAccumulator.isRelevant(booking);
+			if (!relevant) {
+				return;
+			}
+
+			Price main = booking.getMainPriceOrZero();
+			Price add1 = booking.getAdd1PriceOrZero();
+			Price add2 = booking.getAdd2PriceOrZero();
+			Price cancelFee = booking.getCancelFeePriceOrZero();
+			long paid = Cents.toCents(booking.getPaidAmountOrZero());
+
+			if (fits(main) && fits(add1) && fits(add2) && fits(cancelFee) && paid != Cents.NaN) {
+				mainKey = toKey(main);
+				mainCents = toCents(main);
+				add1Key = toKey(add1);
+				add1Cents = toCents(add1);
+				add2Key = toKey(add2);
+				add2Cents = toCents(add2);
+				cancelFeeKey = toKey(cancelFee);
+				cancelFeeCents = toCents(cancelFee);
+				paidCents = paid;
+			}
+			else {
+				exact = new CurrencyTotals();
+				exact.amounts.add(main);
+				exact.amounts.add(add1);
+				exact.amounts.add(add2);
+				exact.amounts.add(cancelFee);
+				exact.sumPaid.add(booking.getPaidAmountOrZero());
+			}
+		}
+
+
+		/**
+		 * Add (sign 1) or subtract (sign -1) the recorded values.
+		 */
+		void addTo(CurrencyTotals totals, int sign) {
+			totals.bookingCount += sign;
+			addPrice(totals.amounts, mainKey, sign * mainCents);
+			addPrice(totals.amounts, add1Key, sign * add1Cents);
+			addPrice(totals.amounts, add2Key, sign * add2Cents);
+			addPrice(totals.amounts, cancelFeeKey, sign * cancelFeeCents);
+			totals.sumPaid.add(sign * paidCents);
+
+			if (exact != null) {
+				if (sign > 0) {
+					totals.amounts.merge(exact.amounts);
+					totals.sumPaid.add(exact.sumPaid);
+				}
+				else {
+					totals.amounts.subtract(exact.amounts);
+					totals.sumPaid.subtract(exact.sumPaid);
+				}
+			}
+		}
+
+
+		private static boolean fits(Price price) {
+			return price.isZero() ||
+				(price.getAmountCents() != Cents.NaN && price.getTaxRateBasisPoints() != Cents.NO_BASIS_POINTS);
+		}
+
+
+		private static int toKey(Price price) {
+			return price.isZero() ? NO_PRICE : (price.getTaxRateBasisPoints() << 1) | (price.isGross() ? 1 : 0);
+		}
+
+
+		private static long toCents(Price price) {
+			return price.isZero() ? 0 : price.getAmountCents();
+		}
+
+
+		private static void addPrice(TaxRateAmountAccumulator amounts, int key, long cents) {
+			if (key == NO_PRICE) {
+				return;
+			}
+			if ((key & 1) != 0) {
+				amounts.addGross(key >>> 1, cents);
+			}
+			else {
+				amounts.addNet(key >>> 1, cents);
+			}
+		}
+
+	}
+
+
+	/**
+	 * Running totals of one invoice recipient, kept apart by currency in the order the currencies occurred.
+	 */
+	private static class RecipientTotals {
+
+		final Map<Integer, CurrencyTotals> totalsByCurrency = new LinkedHashMap<>(2);
+
+
+		void add(Contribution contribution) {
+			contribution.addTo(totalsByCurrency.computeIfAbsent(contribution.currencyID, id -> new CurrencyTotals()), 1);
+		}
+
+
+		void subtract(Contribution contribution) {
+			CurrencyTotals totals = totalsByCurrency.get(contribution.currencyID);
+			contribution.addTo(totals, -1);
+			if (totals.bookingCount == 0) {
+				totalsByCurrency.remove(contribution.currencyID);
+			}
+		}
+
+
+		boolean isEmpty() {
+			return totalsByCurrency.isEmpty();
+		}
+
+
+		CurrencyAmountsResult toResult(Long invoiceRecipientPK) {
+			Iterator<Map.Entry<Integer, CurrencyTotals>> iterator = totalsByCurrency.entrySet().iterator();
+			Map.Entry<Integer, CurrencyTotals> entry = iterator.next();
+			String currency = CurrencyRegistry.getCode(entry.getKey());
+			if (iterator.hasNext()) {
+				return new CurrencyAmountsResult(
+					invoiceRecipientPK,
+					new InconsistentCurrenciesException(currency, CurrencyRegistry.getCode(iterator.next().getKey()))
+				);
+			}
+
+			CurrencyTotals totals = entry.getValue();
+			BigDecimal total = totals.amounts.toGross();
+			BigDecimal paid = totals.sumPaid.toBigDecimal().setScale(2, RoundingMode.HALF_UP);
+			return new CurrencyAmountsResult(
+				invoiceRecipientPK,
+				new CurrencyAmount(total, currency),
+				new CurrencyAmount(paid, currency),
+				new CurrencyAmount(total.subtract(paid), currency)
+			);
+		}
+
+	}
+
+}
@@ -0,0 +1,71 @@
+package com.lambdalogic.test.booking;
+
+import java.util.List;
+
+import com.lambdalogic.test.booking.exception.InconsistentCurrenciesException;
+import com.lambdalogic.test.booking.index.BookingIndex;
+import com.lambdalogic.test.booking.model.Booking;
+import com.lambdalogic.test.booking.model.CurrencyAmountsResult;
+
+/**
+ * Implementation of {@link IBookingsCurrencyAmountsEvaluator} that visits only the bookings of the invoice recipient,
+ * which are found by a {@link BookingIndex}.
+ * <p>
+ * Callers that evaluate the same bookings repeatedly should build the {@link BookingIndex} once, keep it up to date
+ * while the bookings change and call {@link #calculate(BookingIndex, Long)}. Building an index costs a scan of all
+ * bookings and requires unique booking IDs, so {@link #calculate(List, Long)} does not build one but filters the
+ * list like every other {@link IBookingsCurrencyAmountsEvaluator}.
+ * <p>
+ * The results are the same as those of {@link BookingsCurrencyAmountsBatchEvaluator}.
+ */
+public class IndexedBookingsCurrencyAmountsEvaluator extends AbstractBookingsCurrencyAmountsEvaluator
+	implements IStatelessBookingsCurrencyAmountsEvaluator {
+
+	private static final StatelessBookingsCurrencyAmountsEvaluator LIST_EVALUATOR =
+		new StatelessBookingsCurrencyAmountsEvaluator();
+
+	@Override
+	public void calculate(List<Booking> bookingList, Long invoiceRecipientID) throws InconsistentCurrenciesException {
+		clearResult();
+		setResult(evaluate(bookingList, invoiceRecipientID));
+	}
+
+
+	/**
+	 * Filter the list like {@link StatelessBookingsCurrencyAmountsEvaluator} without building an index.
+	 */
+	@Override
+	public CurrencyAmountsResult evaluate(List<Booking> bookingList, Long invoiceRecipientID) {
+		return LIST_EVALUATOR.evaluate(bookingList, invoiceRecipientID);
+	}
+
+
+	/**
+	 * Add up the total amount, the paid amount and open amount of the bookings of an invoice recipient.
+	 *
+	 * @param index
+	 * @param invoiceRecipientID
+	 * @throws InconsistentCurrenciesException
+	 * @see IBookingsCurrencyAmountsEvaluator#calculate(List, Long)
+	 */
+	public void calculate(BookingIndex index, Long invoiceRecipientID) throws InconsistentCurrenciesException {
+		clearResult();
+		setResult(evaluate(index, invoiceRecipientID));
+	}
+
+
+	/**
+	 * Add up the amounts of the bookings of an invoice recipient and return them instead of storing them.
+	 * This method does not change the state of the evaluator.
+	 *
+	 * @param index
+	 * @param invoiceRecipientID
+	 * @return
+	 */
+	public CurrencyAmountsResult evaluate(BookingIndex index, Long invoiceRecipientID) {
+		BookingsCurrencyAmountsAccumulator accumulator = new BookingsCurrencyAmountsAccumulator();
+		index.forEach(invoiceRecipientID, accumulator::add);
+		return accumulator.toResult(invoiceRecipientID);
+	}
+
+}
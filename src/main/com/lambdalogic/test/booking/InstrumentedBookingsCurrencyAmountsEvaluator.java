@@ -0,0 +1,137 @@
+package com.lambdalogic.test.booking;
+
+import java.util.List;
+
+import com.lambdalogic.test.booking.exception.InconsistentCurrenciesException;
+import com.lambdalogic.test.booking.metrics.EvaluatorMetrics;
+import com.lambdalogic.test.booking.model.Booking;
+import com.lambdalogic.test.booking.model.CurrencyAmount;
+import com.lambdalogic.test.booking.model.CurrencyAmountsResult;
+
+/**
+ * Implementation of {@link IBookingsCurrencyAmountsEvaluator} that records the calls of another implementation in
+ * {@link EvaluatorMetrics}: their latency, inconsistent currencies, other failures and the numbers of scanned,
+ * matched, zero, net and gross bookings.
+ * <p>
+ * The bookings are counted by the {@link BookingsCurrencyAmountsAccumulator} of the wrapped evaluator during its
+ * pass over the list and taken from its {@link CurrencyAmountsResult}, so counting does not cost another pass. This
+ * requires an {@link AbstractBookingsCurrencyAmountsEvaluator}; for other evaluators and for results without counts
+ * (see {@link CurrencyAmountsResult#getBookingCount()}) only the scanned bookings are recorded.
+ * <p>
+ * Use {@link #wrap(IBookingsCurrencyAmountsEvaluator, EvaluatorMetrics)} instead of the constructor, so that
+ * evaluators are not wrapped at all if metrics are disabled.
+ */
+public class InstrumentedBookingsCurrencyAmountsEvaluator implements IBookingsCurrencyAmountsEvaluator {
+
+	private final IBookingsCurrencyAmountsEvaluator evaluator;
+	private final EvaluatorMetrics metrics;
+
+
+	/**
+	 * Wrap an evaluator if metrics are enabled.
+	 *
+	 * @param evaluator
+	 * @param metrics - null to disable metrics for this evaluator
+	 * @return the wrapped evaluator or <code>evaluator</code> itself if metrics are disabled
+	 * @see EvaluatorMetrics#ENABLED
+	 */
+	public static IBookingsCurrencyAmountsEvaluator wrap(IBookingsCurrencyAmountsEvaluator evaluator, EvaluatorMetrics metrics) {
+		if (!EvaluatorMetrics.ENABLED || metrics == null) {
+			return evaluator;
+		}
+		return new InstrumentedBookingsCurrencyAmountsEvaluator(evaluator, metrics);
+	}
+
+
+	/**
+	 * @param evaluator - the evaluator that does the calculation
+	 * @param metrics
+	 */
+	public InstrumentedBookingsCurrencyAmountsEvaluator(IBookingsCurrencyAmountsEvaluator evaluator, EvaluatorMetrics metrics) {
+		if (evaluator == null) {
+			throw new IllegalArgumentException("Parameter 'evaluator' must not be null.");
+		}
+		if (metrics == null) {
+			throw new IllegalArgumentException("Parameter 'metrics' must not be null.");
+		}
+		this.evaluator = evaluator;
+		this.metrics = metrics;
+	}
+
+
+	public IBookingsCurrencyAmountsEvaluator getEvaluator() {
+		return evaluator;
+	}
+
+
+	public EvaluatorMetrics getMetrics() {
+		return metrics;
+	}
+
+
+	@Override
+	public void calculate(List<Booking> bookingList, Long invoiceRecipientID) throws InconsistentCurrenciesException {
+		long start = System.nanoTime();
+		try {
+			evaluator.calculate(bookingList, invoiceRecipientID);
+		}
+		catch (InconsistentCurrenciesException e) {
+			metrics.recordInconsistentCurrencies();
+			throw e;
+		}
+		catch (RuntimeException | Error e) {
+			metrics.recordFailure();
+			throw e;
+		}
+		finally {
+			metrics.recordCall(System.nanoTime() - start);
+		}
+
+		if (metrics.isBookingCountsEnabled()) {
+			recordBookings(bookingList.size());
+		}
+	}
+
+
+	@Override
+	public CurrencyAmount getTotalAmount() {
+		return evaluator.getTotalAmount();
+	}
+
+
+	@Override
+	public CurrencyAmount getTotalPaidAmount() {
+		return evaluator.getTotalPaidAmount();
+	}
+
+
+	@Override
+	public CurrencyAmount getTotalOpenAmount() {
+		return evaluator.getTotalOpenAmount();
+	}
+
+
+	/**
+	 * Record the bookings of a successful call with the counts of the result of the wrapped evaluator.
+	 */
+	private void recordBookings(int scanned) {
+		CurrencyAmountsResult result = null;
+		if (evaluator instanceof AbstractBookingsCurrencyAmountsEvaluator) {
+			result = ((AbstractBookingsCurrencyAmountsEvaluator) evaluator).getResult();
+		}
+
+		if (result == null) {
+			metrics.recordBookings(scanned, 0, 0, 0, 0);
+		}
+		else {
+			metrics.recordBookings(
+				scanned,
+				result.getBookingCount(),
+				result.getZeroBookingCount(),
+				result.getNetBookingCount(),
+				result.getGrossBookingCount()
+			);
+		}
+	}
+
+}
@@ -0,0 +1,80 @@
+package com.lambdalogic.test.booking;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import com.lambdalogic.test.booking.exception.InconsistentCurrenciesException;
+import com.lambdalogic.test.booking.model.Booking;
+import com.lambdalogic.test.booking.model.CurrencyAmountsResult;
+import com.lambdalogic.test.booking.model.CurrencyRegistry;
+import com.lambdalogic.test.booking.model.MultiCurrencyAmountsResult;
+
+/**
+ * Evaluates the bookings of an invoice recipient per currency in a single pass.
+ * <p>
+ * There is one {@link BookingsCurrencyAmountsAccumulator} per currency in an array that is indexed by the currency
+ * ID of {@link CurrencyRegistry}, so finding the accumulator of a booking costs an array access. Bookings that are 0
+ * are skipped before, so they are not included in {@link CurrencyAmountsResult#getBookingCount()}.
+ * <p>
+ * As an {@link IBookingsCurrencyAmountsEvaluator} this class keeps the strict behaviour and throws an
+ * {@link InconsistentCurrenciesException} if the bookings have different currencies.
+ */
+public class MultiCurrencyBookingsCurrencyAmountsEvaluator extends AbstractBookingsCurrencyAmountsEvaluator
+	implements IBookingsMultiCurrencyAmountsEvaluator, IStatelessBookingsCurrencyAmountsEvaluator {
+
+	@Override
+	public void calculate(List<Booking> bookingList, Long invoiceRecipientID) throws InconsistentCurrenciesException {
+		clearResult();
+		setResult(evaluate(bookingList, invoiceRecipientID));
+	}
+
+
+	@Override
+	public CurrencyAmountsResult evaluate(List<Booking> bookingList, Long invoiceRecipientID) {
+		return calculatePerCurrency(bookingList, invoiceRecipientID).toSingleCurrencyResult();
+	}
+
+
+	@Override
+	public MultiCurrencyAmountsResult calculatePerCurrency(List<Booking> bookingList, Long invoiceRecipientID) {
+		BookingsCurrencyAmountsAccumulator[] accumulators =
+			new BookingsCurrencyAmountsAccumulator[CurrencyRegistry.getIDCount()];
+
+		// currency IDs in the order of their first occurrence
+		int[] currencyIDs = new int[4];
+		int currencyCount = 0;
+
+		for (Booking booking : bookingList) {
+			if (!Objects.equals(booking.getInvoiceRecipientPK(), invoiceRecipientID)
+				|| !BookingsCurrencyAmountsAccumulator.isRelevant(booking)
+			) {
+				continue;
+			}
+
+			int currencyID = booking.getCurrencyID();
+			if (currencyID >= accumulators.length) {
+				// the currency has been registered after the array was created
+				accumulators = Arrays.copyOf(accumulators, CurrencyRegistry.getIDCount());
+			}
+
+			BookingsCurrencyAmountsAccumulator accumulator = accumulators[currencyID];
+			if (accumulator == null) {
+				accumulator = new BookingsCurrencyAmountsAccumulator();
+				accumulators[currencyID] = accumulator;
+				if (currencyCount == currencyIDs.length) {
+					currencyIDs = Arrays.copyOf(currencyIDs, currencyCount * 2);
+				}
+				currencyIDs[currencyCount++] = currencyID;
+			}
+			accumulator.add(booking);
+		}
+
+		CurrencyAmountsResult[] results = new CurrencyAmountsResult[currencyCount];
+		for (int i = 0; i < currencyCount; i++) {
+			results[i] = accumulators[currencyIDs[i]].toResult(invoiceRecipientID);
+		}
+		return new MultiCurrencyAmountsResult(invoiceRecipientID, results);
+	}
+
+}
@@ -0,0 +1,118 @@
+package com.lambdalogic.test.booking;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.lambdalogic.test.booking.index.BookingIndex;
+import com.lambdalogic.test.booking.model.Booking;
+import com.lambdalogic.test.booking.model.BookingColumns;
+import com.lambdalogic.test.booking.model.CurrencyAmount;
+import com.lambdalogic.test.booking.model.RevenueResult;
+import com.lambdalogic.test.booking.model.TaxRateAmountAccumulator;
+
+/**
+ * Adds up the revenue (gross, net and tax) of offerings ( {@link Booking#getOfferingPK()} ).
+ * <p>
+ * The prices are collected in a {@link TaxRateAmountAccumulator} like in {@link BookingsCurrencyAmountsAccumulator},
+ * so the rounding rules are the same as for the total amount of an invoice recipient. Bookings whose prices are all
+ * 0 are ignored, the others must have the same currency.
+ * <p>
+ * The bookings of one offering are found by a {@link BookingIndex}. {@link #calculateAll(List)} groups a booking
+ * list in a single pass instead.
+ * <p>
+ * This class has no state and is therefore thread-safe.
+ */
+public class OfferingRevenueEvaluator {
+
+	/**
+	 * Add up the revenue of one offering.
+	 *
+	 * @param index
+	 * @param offeringPK - may be null for bookings without offering
+	 * @return
+	 */
+	public RevenueResult evaluate(BookingIndex index, Long offeringPK) {
+		Accumulator accumulator = new Accumulator();
+		index.forEachOfOffering(offeringPK, accumulator::add);
+		return accumulator.toResult(offeringPK);
+	}
+
+
+	/**
+	 * Add up the revenue of all offerings of an index.
+	 *
+	 * @param index
+	 * @return the results by offering PK
+	 */
+	public Map<Long, RevenueResult> evaluateAll(BookingIndex index) {
+		long[] offeringPKs = index.getOfferingPKs();
+		Map<Long, RevenueResult> results = new HashMap<>(offeringPKs.length * 4 / 3 + 1);
+		for (long pk : offeringPKs) {
+			Long offeringPK = (pk == BookingColumns.NULL_PK ? null : Long.valueOf(pk));
+			results.put(offeringPK, evaluate(index, offeringPK));
+		}
+		return results;
+	}
+
+
+	/**
+	 * Add up the revenue of all offerings of a booking list in a single pass.
+	 *
+	 * @param bookingList
+	 * @return the results by offering PK
+	 */
+	public Map<Long, RevenueResult> calculateAll(List<Booking> bookingList) {
+		Map<Long, Accumulator> accumulators = new HashMap<>();
+		for (Booking booking : bookingList) {
+			accumulators.computeIfAbsent(booking.getOfferingPK(), pk -> new Accumulator()).add(booking);
+		}
+
+		Map<Long, RevenueResult> results = new HashMap<>(accumulators.size() * 4 / 3 + 1);
+		for (Map.Entry<Long, Accumulator> entry : accumulators.entrySet()) {
+			results.put(entry.getKey(), entry.getValue().toResult(entry.getKey()));
+		}
+		return results;
+	}
+
+
+	/**
+	 * Collects the prices of the bookings of one offering.
+	 * Unlike {@link BookingsCurrencyAmountsAccumulator} it ignores paid amounts, so a booking is relevant if one of
+	 * its prices is not 0.
+	 */
+	private static class Accumulator {
+
+		private final CurrencyTracker currency = new CurrencyTracker();
+		private final TaxRateAmountAccumulator amounts = new TaxRateAmountAccumulator();
+
+
+		void add(Booking booking) {
+			if (booking.isZero() || !currency.add(booking.getCurrencyID(), booking.getCurrency())) {
+				return;
+			}
+
+			amounts.add(booking.getMainPriceOrZero());
+			amounts.add(booking.getAdd1PriceOrZero());
+			amounts.add(booking.getAdd2PriceOrZero());
+			amounts.add(booking.getCancelFeePriceOrZero());
+		}
+
+
+		RevenueResult toResult(Long offeringPK) {
+			if (currency.isInconsistent()) {
+				return new RevenueResult(offeringPK, currency.toException());
+			}
+
+			String code = currency.getCurrency();
+			return new RevenueResult(
+				offeringPK,
+				new CurrencyAmount(amounts.toGross(), code),
+				new CurrencyAmount(amounts.toNet(), code),
+				new CurrencyAmount(amounts.toTax(), code)
+			);
+		}
+
+	}
+
+}
@@ -0,0 +1,143 @@
+package com.lambdalogic.test.booking;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import com.lambdalogic.test.booking.exception.InconsistentCurrenciesException;
+import com.lambdalogic.test.booking.model.Booking;
+import com.lambdalogic.test.booking.model.CurrencyAmountsResult;
+
+/**
+ * Implementation of {@link IBookingsCurrencyAmountsEvaluator} that splits large booking lists and adds up the parts
+ * in parallel using fork/join.
+ * <p>
+ * Every part is collected in a {@link BookingsCurrencyAmountsAccumulator}. Accumulators keep net amounts per tax rate
+ * and are only rounded when the final result is created, so merging the parts leads to exactly the same result as
+ * the sequential calculation, regardless of where the list has been split.
+ * <p>
+ * Lists with less than {@link #getThreshold()} bookings are calculated sequentially in the calling thread.
+ * <p>
+ * {@link #evaluate(List, Long)} is thread-safe.
+ */
+public class ParallelBookingsCurrencyAmountsEvaluator extends AbstractBookingsCurrencyAmountsEvaluator
+	implements IStatelessBookingsCurrencyAmountsEvaluator {
+
+	/**
+	 * Default value for the minimum number of bookings per parallel task.
+	 */
+	public static final int DEFAULT_THRESHOLD = 10000;
+
+	private final ForkJoinPool pool;
+	private final int threshold;
+
+
+	/**
+	 * Create an evaluator that uses the common {@link ForkJoinPool} and the {@link #DEFAULT_THRESHOLD}.
+	 */
+	public ParallelBookingsCurrencyAmountsEvaluator() {
+		this(ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+	}
+
+
+	/**
+	 * @param pool - the pool that executes the parallel tasks
+	 * @param threshold - the number of bookings below which a list (or a part of it) is not split anymore
+	 */
+	public ParallelBookingsCurrencyAmountsEvaluator(ForkJoinPool pool, int threshold) {
+		if (pool == null) {
+			throw new IllegalArgumentException("Parameter 'pool' must not be null.");
+		}
+		if (threshold < 1) {
+			throw new IllegalArgumentException("Parameter 'threshold' must be positive.");
+		}
+
+		this.pool = pool;
+		this.threshold = threshold;
+	}
+
+
+	public int getThreshold() {
+		return threshold;
+	}
+
+
+	@Override
+	public void calculate(List<Booking> bookingList, Long invoiceRecipientID) throws InconsistentCurrenciesException {
+		clearResult();
+		setResult(evaluate(bookingList, invoiceRecipientID));
+	}
+
+
+	@Override
+	public CurrencyAmountsResult evaluate(List<Booking> bookingList, Long invoiceRecipientID) {
+		if (!(bookingList instanceof RandomAccess)) {
+			bookingList = new ArrayList<>(bookingList);
+		}
+
+		EvaluationTask task = new EvaluationTask(bookingList, invoiceRecipientID, 0, bookingList.size(), threshold);
+		BookingsCurrencyAmountsAccumulator accumulator;
+		if (bookingList.size() < threshold) {
+			accumulator = task.compute();
+		}
+		else {
+			accumulator = pool.invoke(task);
+		}
+
+		return accumulator.toResult(invoiceRecipientID);
+	}
+
+
+	/**
+	 * Adds up the bookings between <code>from</code> (inclusive) and <code>to</code> (exclusive).
+	 */
+	private static class EvaluationTask extends RecursiveTask<BookingsCurrencyAmountsAccumulator> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final List<Booking> bookingList;
+		private final Long invoiceRecipientID;
+		private final int from;
+		private final int to;
+		private final int threshold;
+
+
+		EvaluationTask(List<Booking> bookingList, Long invoiceRecipientID, int from, int to, int threshold) {
+			this.bookingList = bookingList;
+			this.invoiceRecipientID = invoiceRecipientID;
+			this.from = from;
+			this.to = to;
+			this.threshold = threshold;
+		}
+
+
+		@Override
+		protected BookingsCurrencyAmountsAccumulator compute() {
+			if (to - from <= threshold) {
+				BookingsCurrencyAmountsAccumulator accumulator = new BookingsCurrencyAmountsAccumulator();
+				for (int i = from; i < to; i++) {
+					Booking booking = bookingList.get(i);
+					if (Objects.equals(booking.getInvoiceRecipientPK(), invoiceRecipientID)) {
+						accumulator.add(booking);
+					}
+				}
+				return accumulator;
+			}
+
+			int middle = (from + to) >>> 1;
+			EvaluationTask left = new EvaluationTask(bookingList, invoiceRecipientID, from, middle, threshold);
+			EvaluationTask right = new EvaluationTask(bookingList, invoiceRecipientID, middle, to, threshold);
+			right.fork();
+
+			// the left part has to be merged first to keep the order of the bookings for the currency check
+			BookingsCurrencyAmountsAccumulator accumulator = left.compute();
+			accumulator.merge(right.join());
+			return accumulator;
+		}
+
+	}
+
+}
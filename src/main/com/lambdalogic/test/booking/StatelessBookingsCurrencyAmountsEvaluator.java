@@ -0,0 +1,32 @@
+package com.lambdalogic.test.booking;
+
+import java.util.List;
+import java.util.Objects;
+
+import com.lambdalogic.test.booking.model.Booking;
+import com.lambdalogic.test.booking.model.CurrencyAmountsResult;
+
+/**
+ * Implementation of {@link IStatelessBookingsCurrencyAmountsEvaluator} that adds up the bookings sequentially in a
+ * single pass using a {@link BookingsCurrencyAmountsAccumulator}.
+ * <p>
+ * This class has no state and is therefore thread-safe.
+ */
+public class StatelessBookingsCurrencyAmountsEvaluator implements IStatelessBookingsCurrencyAmountsEvaluator {
+
+	@Override
+	public CurrencyAmountsResult evaluate(List<Booking> bookingList, Long invoiceRecipientID) {
+		if (bookingList == null) {
+			throw new IllegalArgumentException("Parameter 'bookingList' must not be null.");
+		}
+
+		BookingsCurrencyAmountsAccumulator accumulator = new BookingsCurrencyAmountsAccumulator();
+		for (Booking booking : bookingList) {
+			if (Objects.equals(booking.getInvoiceRecipientPK(), invoiceRecipientID)) {
+				accumulator.add(booking);
+			}
+		}
+		return accumulator.toResult(invoiceRecipientID);
+	}
+
+}
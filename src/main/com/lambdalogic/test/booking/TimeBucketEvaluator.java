@@ -0,0 +1,222 @@
+package com.lambdalogic.test.booking;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import com.lambdalogic.test.booking.index.BookingDateIndex;
+import com.lambdalogic.test.booking.index.LongIntHashMap;
+import com.lambdalogic.test.booking.model.Booking;
+import com.lambdalogic.test.booking.model.BookingColumns;
+import com.lambdalogic.test.booking.model.BookingDateField;
+import com.lambdalogic.test.booking.model.CurrencyAmountsResult;
+import com.lambdalogic.test.booking.model.TimeBucketing;
+import com.lambdalogic.test.booking.util.EpochDays;
+
+
+/**
+ * Adds up the total amount, the paid amount and the open amount of {@link Booking}s per time bucket, e.g. daily or
+ * weekly revenue curves by booking date or aging buckets of open amounts.
+ * <p>
+ * Every bucket is added up by its own {@link BookingsCurrencyAmountsAccumulator}, so the amounts of a bucket are
+ * exactly the amounts that {@link IBookingsCurrencyAmountsEvaluator} calculates for its bookings. All buckets are
+ * filled in a single pass over the bookings. The date of a booking is converted into an epoch day of the time zone
+ * of the evaluator once and then assigned to its bucket arithmetically (see {@link TimeBucketing}). Bookings without the date are ignored, as are
+ * buckets without relevant bookings.
+ * <p>
+ * The results are sorted by bucket key. Their invoice recipient PK is null unless the buckets are calculated per
+ * invoice recipient.
+ * <p>
+ * This class has no state and is therefore thread-safe.
+ */
+public class TimeBucketEvaluator {
+
+	private final BookingDateField dateField;
+	private final TimeBucketing bucketing;
+	private final ZoneId zone;
+
+
+	/**
+	 * Create an evaluator that assigns the dates to days in the default time zone.
+	 *
+	 * @param dateField - the date that assigns bookings to buckets
+	 * @param bucketing
+	 */
+	public TimeBucketEvaluator(BookingDateField dateField, TimeBucketing bucketing) {
+		this(dateField, bucketing, ZoneId.systemDefault());
+	}
+
+
+	/**
+	 * @param dateField - the date that assigns bookings to buckets
+	 * @param bucketing
+	 * @param zone - the time zone that assigns the dates to days
+	 */
+	public TimeBucketEvaluator(BookingDateField dateField, TimeBucketing bucketing, ZoneId zone) {
+		if (dateField == null) {
+			throw new IllegalArgumentException("Parameter 'dateField' must not be null.");
+		}
+		if (bucketing == null) {
+			throw new IllegalArgumentException("Parameter 'bucketing' must not be null.");
+		}
+		if (zone == null) {
+			throw new IllegalArgumentException("Parameter 'zone' must not be null.");
+		}
+		this.dateField = dateField;
+		this.bucketing = bucketing;
+		this.zone = zone;
+	}
+
+
+	public BookingDateField getDateField() {
+		return dateField;
+	}
+
+
+	public TimeBucketing getBucketing() {
+		return bucketing;
+	}
+
+
+	public ZoneId getZone() {
+		return zone;
+	}
+
+
+	/**
+	 * Add up the bookings of all invoice recipients per bucket.
+	 *
+	 * @param bookingList
+	 * @return the results by bucket key
+	 */
+	public SortedMap<Integer, CurrencyAmountsResult> calculate(List<Booking> bookingList) {
+		if (bookingList == null) {
+			throw new IllegalArgumentException("Parameter 'bookingList' must not be null.");
+		}
+
+		Buckets buckets = new Buckets();
+		for (Booking booking : bookingList) {
+			add(buckets, booking, dateField.getEpochDay(booking, zone));
+		}
+		return buckets.toResults(null);
+	}
+
+
+	/**
+	 * Add up the bookings of every invoice recipient per bucket.
+	 *
+	 * @param bookingList
+	 * @return the results by bucket key by invoice recipient PK
+	 */
+	public Map<Long, SortedMap<Integer, CurrencyAmountsResult>> calculateByInvoiceRecipient(List<Booking> bookingList) {
+		if (bookingList == null) {
+			throw new IllegalArgumentException("Parameter 'bookingList' must not be null.");
+		}
+
+		LongIntHashMap indexes = new LongIntHashMap();
+		List<Buckets> bucketsByIndex = new ArrayList<>();
+		List<Long> invoiceRecipientPKs = new ArrayList<>();
+		for (Booking booking : bookingList) {
+			int epochDay = dateField.getEpochDay(booking, zone);
+			if (epochDay == EpochDays.NO_DAY || !BookingsCurrencyAmountsAccumulator.isRelevant(booking)) {
+				continue;
+			}
+
+			Long invoiceRecipientPK = booking.getInvoiceRecipientPK();
+			long key = invoiceRecipientPK != null ? invoiceRecipientPK.longValue() : BookingColumns.NULL_PK;
+			int index = indexes.get(key);
+			if (index == LongIntHashMap.NO_VALUE) {
+				index = bucketsByIndex.size();
+				indexes.put(key, index);
+				bucketsByIndex.add(new Buckets());
+				invoiceRecipientPKs.add(invoiceRecipientPK);
+			}
+			add(bucketsByIndex.get(index), booking, epochDay);
+		}
+
+		Map<Long, SortedMap<Integer, CurrencyAmountsResult>> results = new HashMap<>(bucketsByIndex.size() * 4 / 3 + 1);
+		for (int i = 0; i < bucketsByIndex.size(); i++) {
+			results.put(invoiceRecipientPKs.get(i), bucketsByIndex.get(i).toResults(invoiceRecipientPKs.get(i)));
+		}
+		return results;
+	}
+
+
+	/**
+	 * Add up the bookings of a date range per bucket.
+	 * Only the bookings of the range are visited.
+	 *
+	 * @param index - must be sorted by the date of this evaluator in its time zone
+	 * @param fromDay - first epoch day (inclusive)
+	 * @param toDay - last epoch day (inclusive)
+	 * @return the results by bucket key
+	 */
+	public SortedMap<Integer, CurrencyAmountsResult> evaluate(BookingDateIndex index, int fromDay, int toDay) {
+		if (index == null) {
+			throw new IllegalArgumentException("Parameter 'index' must not be null.");
+		}
+		if (index.getDateField() != dateField) {
+			throw new IllegalArgumentException(
+				"Parameter 'index' must be sorted by " + dateField + " but is sorted by " + index.getDateField() + "."
+			);
+		}
+		if (!index.getZone().equals(zone)) {
+			throw new IllegalArgumentException(
+				"Parameter 'index' must use the time zone " + zone + " but uses " + index.getZone() + "."
+			);
+		}
+
+		Buckets buckets = new Buckets();
+		index.forEach(fromDay, toDay, booking -> add(buckets, booking, dateField.getEpochDay(booking, zone)));
+		return buckets.toResults(null);
+	}
+
+
+	private void add(Buckets buckets, Booking booking, int epochDay) {
+		if (epochDay != EpochDays.NO_DAY && BookingsCurrencyAmountsAccumulator.isRelevant(booking)) {
+			buckets.get(bucketing.getBucket(epochDay)).add(booking);
+		}
+	}
+
+
+	/**
+	 * The accumulators of the buckets of one group of bookings, found by bucket key without boxing.
+	 */
+	private static class Buckets {
+
+		private final LongIntHashMap indexes = new LongIntHashMap();
+		private final List<BookingsCurrencyAmountsAccumulator> accumulators = new ArrayList<>();
+		private int[] keys = new int[16];
+
+
+		BookingsCurrencyAmountsAccumulator get(int bucket) {
+			int index = indexes.get(bucket);
+			if (index == LongIntHashMap.NO_VALUE) {
+				index = accumulators.size();
+				indexes.put(bucket, index);
+				accumulators.add(new BookingsCurrencyAmountsAccumulator());
+				if (index == keys.length) {
+					keys = Arrays.copyOf(keys, index * 2);
+				}
+				keys[index] = bucket;
+			}
+			return accumulators.get(index);
+		}
+
+
+		SortedMap<Integer, CurrencyAmountsResult> toResults(Long invoiceRecipientPK) {
+			SortedMap<Integer, CurrencyAmountsResult> results = new TreeMap<>();
+			for (int i = 0; i < accumulators.size(); i++) {
+				results.put(keys[i], accumulators.get(i).toResult(invoiceRecipientPK));
+			}
+			return results;
+		}
+
+	}
+
+}
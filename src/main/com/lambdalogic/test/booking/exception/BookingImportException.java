@@ -0,0 +1,16 @@
+package com.lambdalogic.test.booking.exception;
+
+/**
+ * Thrown if a file with bookings cannot be imported because of its content.
+ * Unchecked, because imports process parts of a file in parallel tasks.
+ */
+public class BookingImportException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+
+	public BookingImportException(String message) {
+		super(message);
+	}
+
+}
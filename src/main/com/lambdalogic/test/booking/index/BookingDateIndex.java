@@ -0,0 +1,202 @@
+package com.lambdalogic.test.booking.index;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.lambdalogic.test.booking.model.Booking;
+import com.lambdalogic.test.booking.model.BookingDateField;
+import com.lambdalogic.test.booking.util.EpochDays;
+
+
+/**
+ * Immutable index of {@link Booking}s sorted by a date ( {@link BookingDateField} ).
+ * <p>
+ * The dates are stored as epoch days (see {@link EpochDays}) of a time zone in an ascending <code>int</code> array
+ * next to an array of the bookings, so the bookings of an arbitrary date range are found by binary search in
+ * O(log n) and can be visited without scanning the other bookings. Bookings of the same day keep their original order. Bookings
+ * without the date are not indexed.
+ * <p>
+ * The index is a snapshot: it has to be built again if bookings are added or removed or if their dates change.
+ * <p>
+ * This class is thread-safe as long as the bookings are not changed.
+ */
+public class BookingDateIndex {
+
+	private final BookingDateField dateField;
+	private final ZoneId zone;
+
+	/**
+	 * Epoch days of {@link #bookings} in ascending order.
+	 */
+	private final int[] days;
+
+	private final Booking[] bookings;
+
+
+	/**
+	 * Build the index with epoch days of the default time zone.
+	 *
+	 * @param bookings
+	 * @param dateField - the date the bookings are sorted by
+	 * @throws IllegalArgumentException if a booking is null or has a date that is no valid epoch day
+	 */
+	public BookingDateIndex(Collection<Booking> bookings, BookingDateField dateField) {
+		this(bookings, dateField, ZoneId.systemDefault());
+	}
+
+
+	/**
+	 * Build the index.
+	 *
+	 * @param bookings
+	 * @param dateField - the date the bookings are sorted by
+	 * @param zone - the time zone of the epoch days
+	 * @throws IllegalArgumentException if a booking is null or has a date that is no valid epoch day
+	 */
+	public BookingDateIndex(Collection<Booking> bookings, BookingDateField dateField, ZoneId zone) {
+		if (bookings == null) {
+			throw new IllegalArgumentException("Parameter 'bookings' must not be null.");
+		}
+		if (dateField == null) {
+			throw new IllegalArgumentException("Parameter 'dateField' must not be null.");
+		}
+		if (zone == null) {
+			throw new IllegalArgumentException("Parameter 'zone' must not be null.");
+		}
+		this.dateField = dateField;
+		this.zone = zone;
+
+		Booking[] source = bookings.toArray(new Booking[bookings.size()]);
+
+		// Sort epoch day and original position packed into one long, so sorting neither boxes nor needs a comparator
+		// and keeps the original order of bookings of the same day.
+		long[] keys = new long[source.length];
+		int count = 0;
+		for (int i = 0; i < source.length; i++) {
+			if (source[i] == null) {
+				throw new IllegalArgumentException("Parameter 'bookings' must not contain null.");
+			}
+			int day = dateField.getEpochDay(source[i], zone);
+			if (day != EpochDays.NO_DAY) {
+				keys[count++] = ((long) day << 32) | i;
+			}
+		}
+		Arrays.sort(keys, 0, count);
+
+		this.days = new int[count];
+		this.bookings = new Booking[count];
+		for (int i = 0; i < count; i++) {
+			days[i] = (int) (keys[i] >> 32);
+			this.bookings[i] = source[(int) keys[i]];
+		}
+	}
+
+
+	public BookingDateField getDateField() {
+		return dateField;
+	}
+
+
+	public ZoneId getZone() {
+		return zone;
+	}
+
+
+	/**
+	 * Return the number of indexed bookings.
+	 * @return
+	 */
+	public int size() {
+		return bookings.length;
+	}
+
+
+	/**
+	 * Return the epoch day of the earliest booking.
+	 * @return {@link EpochDays#NO_DAY} if the index is empty
+	 */
+	public int getFirstDay() {
+		return days.length > 0 ? days[0] : EpochDays.NO_DAY;
+	}
+
+
+	/**
+	 * Return the epoch day of the latest booking.
+	 * @return {@link EpochDays#NO_DAY} if the index is empty
+	 */
+	public int getLastDay() {
+		return days.length > 0 ? days[days.length - 1] : EpochDays.NO_DAY;
+	}
+
+
+	/**
+	 * Return the number of bookings of a date range.
+	 *
+	 * @param fromDay - first epoch day (inclusive)
+	 * @param toDay - last epoch day (inclusive)
+	 * @return
+	 */
+	public int count(int fromDay, int toDay) {
+		if (fromDay > toDay) {
+			return 0;
+		}
+		return lowerBound(toDay + 1L) - lowerBound(fromDay);
+	}
+
+
+	/**
+	 * Pass the bookings of a date range to a consumer in ascending order of their dates.
+	 *
+	 * @param fromDay - first epoch day (inclusive)
+	 * @param toDay - last epoch day (inclusive)
+	 * @param consumer
+	 */
+	public void forEach(int fromDay, int toDay, Consumer<? super Booking> consumer) {
+		if (fromDay > toDay) {
+			return;
+		}
+		int end = lowerBound(toDay + 1L);
+		for (int i = lowerBound(fromDay); i < end; i++) {
+			consumer.accept(bookings[i]);
+		}
+	}
+
+
+	/**
+	 * Return the bookings of a date range in ascending order of their dates.
+	 *
+	 * @param fromDay - first epoch day (inclusive)
+	 * @param toDay - last epoch day (inclusive)
+	 * @return a new list
+	 */
+	public List<Booking> getBookings(int fromDay, int toDay) {
+		List<Booking> result = new ArrayList<>(count(fromDay, toDay));
+		forEach(fromDay, toDay, result::add);
+		return result;
+	}
+
+
+	/**
+	 * Return the first position whose day is not less than a day.
+	 * The day is a <code>long</code>, so callers can pass the day after {@link Integer#MAX_VALUE}.
+	 */
+	private int lowerBound(long day) {
+		int low = 0;
+		int high = days.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (days[middle] < day) {
+				low = middle + 1;
+			}
+			else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+}
@@ -0,0 +1,507 @@
+package com.lambdalogic.test.booking.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.lambdalogic.test.booking.model.Booking;
+import com.lambdalogic.test.booking.model.BookingColumns;
+
+
+/**
+ * Index of {@link Booking}s by invoice recipient ( {@link Booking#getInvoiceRecipientPK()} ), by offering
+ * ( {@link Booking#getOfferingPK()} ) and by benefit recipient ( {@link Booking#getBenefitRecipientPKs()} ).
+ * <p>
+ * The bookings are stored in an array in the order in which they have been inserted. For every invoice recipient,
+ * offering and benefit recipient a posting list of {@link LongPostingLists} contains the positions of its bookings,
+ * so finding the bookings of one of them costs O(number of its bookings) and neither boxes PKs nor creates lists.
+ * A booking with several benefit recipients is contained in the posting list of each of them. Bookings are
+ * identified by their ID like in {@link com.lambdalogic.test.booking.IncrementalBookingsCurrencyAmountsAggregator}.
+ * <p>
+ * Removing a booking leaves an empty position, which is dropped when more than half of the positions are empty.
+ * Updating a booking keeps its position, so the bookings of a posting list are always visited in the order in
+ * which they have been inserted.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class BookingIndex {
+
+	private static final int DEFAULT_CAPACITY = 16;
+
+	private static final long[] NO_KEYS = new long[0];
+
+	/**
+	 * Minimum number of empty positions before the positions are compacted.
+	 */
+	private static final int MIN_COMPACT_COUNT = 1024;
+
+
+	/**
+	 * Bookings by position, null for removed bookings.
+	 */
+	private Booking[] bookings;
+
+	/**
+	 * The invoice recipient PK under which the booking at a position is indexed.
+	 */
+	private long[] invoiceRecipientPKs;
+
+	/**
+	 * The offering PK under which the booking at a position is indexed.
+	 */
+	private long[] offeringPKs;
+
+	/**
+	 * The distinct benefit recipient PKs under which the booking at a position is indexed, in ascending order.
+	 */
+	private long[][] benefitRecipientPKs;
+
+	/**
+	 * The ID under which the booking at a position is indexed.
+	 */
+	private long[] bookingIDs;
+
+	/**
+	 * Number of used positions, including removed bookings.
+	 */
+	private int positionCount;
+
+	private int size;
+
+	private final LongIntHashMap positionsByID;
+	private final LongPostingLists positionsByInvoiceRecipient = new LongPostingLists();
+	private final LongPostingLists positionsByOffering = new LongPostingLists();
+	private final LongPostingLists positionsByBenefitRecipient = new LongPostingLists();
+
+
+	public BookingIndex() {
+		this(DEFAULT_CAPACITY);
+	}
+
+
+	public BookingIndex(int capacity) {
+		capacity = Math.max(capacity, 1);
+		bookings = new Booking[capacity];
+		invoiceRecipientPKs = new long[capacity];
+		offeringPKs = new long[capacity];
+		benefitRecipientPKs = new long[capacity][];
+		bookingIDs = new long[capacity];
+		positionsByID = new LongIntHashMap(capacity);
+	}
+
+
+	/**
+	 * Create an index of bookings.
+	 *
+	 * @param bookings
+	 * @throws IllegalArgumentException if a booking has no ID or two bookings have the same ID
+	 */
+	public BookingIndex(Collection<Booking> bookings) {
+		this(bookings.size());
+		for (Booking booking : bookings) {
+			insert(booking);
+		}
+	}
+
+
+	/**
+	 * Add a new booking.
+	 *
+	 * @param booking
+	 * @throws IllegalArgumentException if the booking has no ID or a booking with the same ID has already been added
+	 */
+	public void insert(Booking booking) {
+		long bookingID = getID(booking);
+		if (positionsByID.containsKey(bookingID)) {
+			throw new IllegalArgumentException("A booking with the ID " + bookingID + " has already been inserted.");
+		}
+
+		ensureCapacity(positionCount + 1);
+		int position = positionCount++;
+		bookings[position] = booking;
+		bookingIDs[position] = bookingID;
+		positionsByID.put(bookingID, position);
+		addKeys(position, booking);
+		size++;
+	}
+
+
+	/**
+	 * Remove a booking.
+	 *
+	 * @param booking
+	 * @return false if the booking has not been inserted before
+	 */
+	public boolean remove(Booking booking) {
+		return remove(getID(booking));
+	}
+
+
+	/**
+	 * Remove a booking by its ID.
+	 *
+	 * @param bookingID
+	 * @return false if the booking has not been inserted before
+	 */
+	public boolean remove(Long bookingID) {
+		return bookingID != null && remove(bookingID.longValue());
+	}
+
+
+	private boolean remove(long bookingID) {
+		int position = positionsByID.remove(bookingID);
+		if (position == LongIntHashMap.NO_VALUE) {
+			return false;
+		}
+
+		removeKeys(position);
+		bookings[position] = null;
+		benefitRecipientPKs[position] = null;
+		size--;
+
+		int emptyCount = positionCount - size;
+		if (emptyCount >= MIN_COMPACT_COUNT && emptyCount > size) {
+			compact();
+		}
+		return true;
+	}
+
+
+	/**
+	 * Index the current PKs of a booking that has been changed in place, e.g. by
+	 * {@link Booking#setInvoiceRecipientPK(Long)}, or replace a booking by another one with the same ID.
+	 * The booking keeps its position. Bookings that have not been inserted before are inserted.
+	 *
+	 * @param booking
+	 */
+	public void update(Booking booking) {
+		long bookingID = getID(booking);
+		int position = positionsByID.get(bookingID);
+		if (position == LongIntHashMap.NO_VALUE) {
+			insert(booking);
+			return;
+		}
+
+		bookings[position] = booking;
+
+		long invoiceRecipientPK = toKey(booking.getInvoiceRecipientPK());
+		if (invoiceRecipientPK != invoiceRecipientPKs[position]) {
+			positionsByInvoiceRecipient.remove(invoiceRecipientPKs[position], position);
+			positionsByInvoiceRecipient.add(invoiceRecipientPK, position);
+			invoiceRecipientPKs[position] = invoiceRecipientPK;
+		}
+
+		long offeringPK = toKey(booking.getOfferingPK());
+		if (offeringPK != offeringPKs[position]) {
+			positionsByOffering.remove(offeringPKs[position], position);
+			positionsByOffering.add(offeringPK, position);
+			offeringPKs[position] = offeringPK;
+		}
+
+		long[] newBenefitRecipientPKs = toKeys(booking);
+		if (!Arrays.equals(newBenefitRecipientPKs, benefitRecipientPKs[position])) {
+			for (long pk : benefitRecipientPKs[position]) {
+				positionsByBenefitRecipient.remove(pk, position);
+			}
+			for (long pk : newBenefitRecipientPKs) {
+				positionsByBenefitRecipient.add(pk, position);
+			}
+			benefitRecipientPKs[position] = newBenefitRecipientPKs;
+		}
+	}
+
+
+	/**
+	 * Return the number of indexed bookings.
+	 * @return
+	 */
+	public int size() {
+		return size;
+	}
+
+
+	/**
+	 * Return the booking with the given ID.
+	 *
+	 * @param bookingID
+	 * @return the booking or null if there is none
+	 */
+	public Booking get(Long bookingID) {
+		if (bookingID == null) {
+			return null;
+		}
+		int position = positionsByID.get(bookingID.longValue());
+		return position == LongIntHashMap.NO_VALUE ? null : bookings[position];
+	}
+
+
+	/**
+	 * Return the number of bookings of an invoice recipient.
+	 *
+	 * @param invoiceRecipientPK - may be null
+	 * @return
+	 */
+	public int getBookingCount(Long invoiceRecipientPK) {
+		return positionsByInvoiceRecipient.count(toKey(invoiceRecipientPK));
+	}
+
+
+	/**
+	 * Pass the bookings of an invoice recipient to a consumer in the order in which they have been inserted.
+	 * The consumer must not change this index.
+	 *
+	 * @param invoiceRecipientPK - may be null
+	 * @param consumer
+	 */
+	public void forEach(Long invoiceRecipientPK, Consumer<? super Booking> consumer) {
+		positionsByInvoiceRecipient.forEach(toKey(invoiceRecipientPK), position -> consumer.accept(bookings[position]));
+	}
+
+
+	/**
+	 * Return the bookings of an invoice recipient in the order in which they have been inserted.
+	 *
+	 * @param invoiceRecipientPK - may be null
+	 * @return a new list
+	 */
+	public List<Booking> getBookings(Long invoiceRecipientPK) {
+		List<Booking> result = new ArrayList<>(getBookingCount(invoiceRecipientPK));
+		forEach(invoiceRecipientPK, result::add);
+		return result;
+	}
+
+
+	/**
+	 * Return the PKs of all invoice recipients that have bookings, in no particular order.
+	 * {@link BookingColumns#NULL_PK} stands for bookings without invoice recipient.
+	 *
+	 * @return
+	 */
+	public long[] getInvoiceRecipientPKs() {
+		return positionsByInvoiceRecipient.keys();
+	}
+
+
+	// **************************************************************************
+	// * Offerings
+	// *
+
+	/**
+	 * Return the number of bookings of an offering.
+	 *
+	 * @param offeringPK - may be null
+	 * @return
+	 */
+	public int getBookingCountOfOffering(Long offeringPK) {
+		return positionsByOffering.count(toKey(offeringPK));
+	}
+
+
+	/**
+	 * Pass the bookings of an offering to a consumer in the order in which they have been inserted.
+	 * The consumer must not change this index.
+	 *
+	 * @param offeringPK - may be null
+	 * @param consumer
+	 */
+	public void forEachOfOffering(Long offeringPK, Consumer<? super Booking> consumer) {
+		positionsByOffering.forEach(toKey(offeringPK), position -> consumer.accept(bookings[position]));
+	}
+
+
+	/**
+	 * Return the bookings of an offering in the order in which they have been inserted.
+	 *
+	 * @param offeringPK - may be null
+	 * @return a new list
+	 */
+	public List<Booking> getBookingsOfOffering(Long offeringPK) {
+		List<Booking> result = new ArrayList<>(getBookingCountOfOffering(offeringPK));
+		forEachOfOffering(offeringPK, result::add);
+		return result;
+	}
+
+
+	/**
+	 * Return the PKs of all offerings that have bookings, in no particular order.
+	 * {@link BookingColumns#NULL_PK} stands for bookings without offering.
+	 *
+	 * @return
+	 */
+	public long[] getOfferingPKs() {
+		return positionsByOffering.keys();
+	}
+
+	// *
+	// * Offerings
+	// **************************************************************************
+
+	// **************************************************************************
+	// * Benefit recipients
+	// *
+
+	/**
+	 * Return the number of bookings of which a person is a benefit recipient.
+	 *
+	 * @param benefitRecipientPK
+	 * @return
+	 */
+	public int getBookingCountOfBenefitRecipient(Long benefitRecipientPK) {
+		return positionsByBenefitRecipient.count(toKey(benefitRecipientPK));
+	}
+
+
+	/**
+	 * Pass the bookings of which a person is a benefit recipient to a consumer in the order in which they have been
+	 * inserted. The consumer must not change this index.
+	 *
+	 * @param benefitRecipientPK
+	 * @param consumer
+	 */
+	public void forEachOfBenefitRecipient(Long benefitRecipientPK, Consumer<? super Booking> consumer) {
+		positionsByBenefitRecipient.forEach(toKey(benefitRecipientPK), position -> consumer.accept(bookings[position]));
+	}
+
+
+	/**
+	 * Return the bookings of which a person is a benefit recipient in the order in which they have been inserted.
+	 *
+	 * @param benefitRecipientPK
+	 * @return a new list
+	 */
+	public List<Booking> getBookingsOfBenefitRecipient(Long benefitRecipientPK) {
+		List<Booking> result = new ArrayList<>(getBookingCountOfBenefitRecipient(benefitRecipientPK));
+		forEachOfBenefitRecipient(benefitRecipientPK, result::add);
+		return result;
+	}
+
+
+	/**
+	 * Return the PKs of all benefit recipients, in no particular order.
+	 * @return
+	 */
+	public long[] getBenefitRecipientPKs() {
+		return positionsByBenefitRecipient.keys();
+	}
+
+	// *
+	// * Benefit recipients
+	// **************************************************************************
+
+
+	private void addKeys(int position, Booking booking) {
+		invoiceRecipientPKs[position] = toKey(booking.getInvoiceRecipientPK());
+		offeringPKs[position] = toKey(booking.getOfferingPK());
+		benefitRecipientPKs[position] = toKeys(booking);
+
+		positionsByInvoiceRecipient.add(invoiceRecipientPKs[position], position);
+		positionsByOffering.add(offeringPKs[position], position);
+		for (long pk : benefitRecipientPKs[position]) {
+			positionsByBenefitRecipient.add(pk, position);
+		}
+	}
+
+
+	private void removeKeys(int position) {
+		positionsByInvoiceRecipient.remove(invoiceRecipientPKs[position], position);
+		positionsByOffering.remove(offeringPKs[position], position);
+		for (long pk : benefitRecipientPKs[position]) {
+			positionsByBenefitRecipient.remove(pk, position);
+		}
+	}
+
+
+	/**
+	 * Drop the empty positions of removed bookings and rebuild the posting lists.
+	 */
+	private void compact() {
+		positionsByInvoiceRecipient.clear();
+		positionsByOffering.clear();
+		positionsByBenefitRecipient.clear();
+		int target = 0;
+		for (int position = 0; position < positionCount; position++) {
+			Booking booking = bookings[position];
+			if (booking != null) {
+				bookings[target] = booking;
+				bookingIDs[target] = bookingIDs[position];
+				invoiceRecipientPKs[target] = invoiceRecipientPKs[position];
+				offeringPKs[target] = offeringPKs[position];
+				benefitRecipientPKs[target] = benefitRecipientPKs[position];
+				positionsByID.put(bookingIDs[target], target);
+				positionsByInvoiceRecipient.add(invoiceRecipientPKs[target], target);
+				positionsByOffering.add(offeringPKs[target], target);
+				for (long pk : benefitRecipientPKs[target]) {
+					positionsByBenefitRecipient.add(pk, target);
+				}
+				target++;
+			}
+		}
+		Arrays.fill(bookings, target, positionCount, null);
+		Arrays.fill(benefitRecipientPKs, target, positionCount, null);
+		positionCount = target;
+	}
+
+
+	private void ensureCapacity(int capacity) {
+		if (capacity <= bookings.length) {
+			return;
+		}
+
+		int newCapacity = Math.max(capacity, bookings.length + (bookings.length >> 1));
+		bookings = Arrays.copyOf(bookings, newCapacity);
+		invoiceRecipientPKs = Arrays.copyOf(invoiceRecipientPKs, newCapacity);
+		offeringPKs = Arrays.copyOf(offeringPKs, newCapacity);
+		benefitRecipientPKs = Arrays.copyOf(benefitRecipientPKs, newCapacity);
+		bookingIDs = Arrays.copyOf(bookingIDs, newCapacity);
+	}
+
+
+	private static long getID(Booking booking) {
+		if (booking == null) {
+			throw new IllegalArgumentException("Parameter 'booking' must not be null.");
+		}
+		if (booking.getID() == null) {
+			throw new IllegalArgumentException("The ID of parameter 'booking' must not be null.");
+		}
+		return booking.getID().longValue();
+	}
+
+
+	/**
+	 * Return the distinct benefit recipient PKs of a booking in ascending order.
+	 */
+	private static long[] toKeys(Booking booking) {
+		List<Long> pks = booking.getBenefitRecipientPKs();
+		if (pks.isEmpty()) {
+			return NO_KEYS;
+		}
+
+		long[] keys = new long[pks.size()];
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = toKey(pks.get(i));
+		}
+		if (keys.length == 1) {
+			return keys;
+		}
+
+		Arrays.sort(keys);
+		int distinct = 1;
+		for (int i = 1; i < keys.length; i++) {
+			if (keys[i] != keys[distinct - 1]) {
+				keys[distinct++] = keys[i];
+			}
+		}
+		return distinct == keys.length ? keys : Arrays.copyOf(keys, distinct);
+	}
+
+
+	/**
+	 * Map a nullable PK to a key of {@link LongPostingLists}.
+	 */
+	static long toKey(Long pk) {
+		return pk == null ? BookingColumns.NULL_PK : pk.longValue();
+	}
+
+}
@@ -0,0 +1,212 @@
+package com.lambdalogic.test.booking.index;
+
+import java.util.Arrays;
+
+
+/**
+ * Map from <code>long</code> keys to <code>int</code> values without boxing.
+ * <p>
+ * The entries are stored in parallel arrays with open addressing and linear probing. Removing an entry moves the
+ * following entries of its probe sequence back, so there are no tombstones and lookups stay fast after many
+ * removals. Every <code>long</code> is a valid key, including {@link Long#MIN_VALUE}.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class LongIntHashMap {
+
+	/**
+	 * Value that {@link #get(long)} returns for missing keys.
+	 */
+	public static final int NO_VALUE = -1;
+
+	private static final int DEFAULT_CAPACITY = 16;
+
+	private long[] keys;
+	private int[] values;
+	private boolean[] used;
+	private int mask;
+	private int size;
+
+
+	public LongIntHashMap() {
+		this(DEFAULT_CAPACITY);
+	}
+
+
+	/**
+	 * @param expectedSize - the number of entries that can be put without resizing
+	 */
+	public LongIntHashMap(int expectedSize) {
+		allocate(tableSizeFor(expectedSize));
+	}
+
+
+	public int size() {
+		return size;
+	}
+
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+
+	/**
+	 * @param key
+	 * @return the value or {@link #NO_VALUE} if the key is not in the map
+	 */
+	public int get(long key) {
+		int slot = findSlot(key);
+		return slot >= 0 ? values[slot] : NO_VALUE;
+	}
+
+
+	public boolean containsKey(long key) {
+		return findSlot(key) >= 0;
+	}
+
+
+	/**
+	 * @param key
+	 * @param value
+	 * @return the previous value or {@link #NO_VALUE} if the key was not in the map
+	 */
+	public int put(long key, int value) {
+		int slot = hash(key) & mask;
+		while (used[slot]) {
+			if (keys[slot] == key) {
+				int previous = values[slot];
+				values[slot] = value;
+				return previous;
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		used[slot] = true;
+		keys[slot] = key;
+		values[slot] = value;
+		if (++size > maxSize()) {
+			resize(keys.length << 1);
+		}
+		return NO_VALUE;
+	}
+
+
+	/**
+	 * @param key
+	 * @return the removed value or {@link #NO_VALUE} if the key was not in the map
+	 */
+	public int remove(long key) {
+		int slot = findSlot(key);
+		if (slot < 0) {
+			return NO_VALUE;
+		}
+
+		int removed = values[slot];
+		size--;
+
+		// move back the following entries whose preferred slot is not between the gap and their current slot
+		int gap = slot;
+		int next = (gap + 1) & mask;
+		while (used[next]) {
+			int preferred = hash(keys[next]) & mask;
+			if (((next - preferred) & mask) >= ((next - gap) & mask)) {
+				keys[gap] = keys[next];
+				values[gap] = values[next];
+				gap = next;
+			}
+			next = (next + 1) & mask;
+		}
+		used[gap] = false;
+		return removed;
+	}
+
+
+	public void clear() {
+		Arrays.fill(used, false);
+		size = 0;
+	}
+
+
+	/**
+	 * Return all keys in no particular order.
+	 * @return
+	 */
+	public long[] keys() {
+		long[] result = new long[size];
+		int count = 0;
+		for (int slot = 0; slot < keys.length; slot++) {
+			if (used[slot]) {
+				result[count++] = keys[slot];
+			}
+		}
+		return result;
+	}
+
+
+	private int findSlot(long key) {
+		int slot = hash(key) & mask;
+		while (used[slot]) {
+			if (keys[slot] == key) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+
+	private int maxSize() {
+		// load factor 0.75
+		return keys.length - (keys.length >> 2);
+	}
+
+
+	private void resize(int capacity) {
+		long[] oldKeys = keys;
+		int[] oldValues = values;
+		boolean[] oldUsed = used;
+		allocate(capacity);
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldUsed[i]) {
+				int slot = hash(oldKeys[i]) & mask;
+				while (used[slot]) {
+					slot = (slot + 1) & mask;
+				}
+				used[slot] = true;
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+			}
+		}
+	}
+
+
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		values = new int[capacity];
+		used = new boolean[capacity];
+		mask = capacity - 1;
+	}
+
+
+	/**
+	 * Return the smallest power of 2 whose 75% are at least expectedSize.
+	 */
+	private static int tableSizeFor(int expectedSize) {
+		int capacity = DEFAULT_CAPACITY;
+		while (capacity - (capacity >> 2) < expectedSize) {
+			capacity <<= 1;
+		}
+		return capacity;
+	}
+
+
+	/**
+	 * Spread the bits of a key, because PKs are often consecutive numbers.
+	 */
+	private static int hash(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+
+}
@@ -0,0 +1,201 @@
+package com.lambdalogic.test.booking.index;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+
+/**
+ * Multimap from <code>long</code> keys (e.g. PKs) to ascending lists of <code>int</code> positions (e.g. indexes of
+ * bookings), without boxing.
+ * <p>
+ * Every key refers to one posting list, which is a growing <code>int</code> array that is kept sorted. Positions are
+ * usually appended in ascending order, which costs O(1). Inserting or removing a position in the middle of a list
+ * costs O(length of the list). Lists that become empty are recycled.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class LongPostingLists {
+
+	private static final int[] EMPTY = new int[0];
+	private static final int INITIAL_LIST_CAPACITY = 4;
+
+	/**
+	 * Index into {@link #lists} by key.
+	 */
+	private final LongIntHashMap listIndexes = new LongIntHashMap();
+
+	private int[][] lists = new int[16][];
+	private int[] listSizes = new int[16];
+	private int listCount;
+
+	/**
+	 * Indexes of recycled lists.
+	 */
+	private int[] freeLists = new int[16];
+	private int freeListCount;
+
+
+	/**
+	 * Add a position to the list of a key.
+	 *
+	 * @param key
+	 * @param position
+	 * @return false if the list already contained the position
+	 */
+	public boolean add(long key, int position) {
+		int listIndex = listIndexes.get(key);
+		if (listIndex == LongIntHashMap.NO_VALUE) {
+			listIndex = newList();
+			listIndexes.put(key, listIndex);
+		}
+
+		int[] list = lists[listIndex];
+		int size = listSizes[listIndex];
+		int insertAt;
+		if (size == 0 || list[size - 1] < position) {
+			insertAt = size;
+		}
+		else {
+			insertAt = Arrays.binarySearch(list, 0, size, position);
+			if (insertAt >= 0) {
+				return false;
+			}
+			insertAt = -insertAt - 1;
+		}
+
+		if (size == list.length) {
+			list = Arrays.copyOf(list, size + (size >> 1) + 1);
+			lists[listIndex] = list;
+		}
+		System.arraycopy(list, insertAt, list, insertAt + 1, size - insertAt);
+		list[insertAt] = position;
+		listSizes[listIndex] = size + 1;
+		return true;
+	}
+
+
+	/**
+	 * Remove a position from the list of a key.
+	 *
+	 * @param key
+	 * @param position
+	 * @return false if the list did not contain the position
+	 */
+	public boolean remove(long key, int position) {
+		int listIndex = listIndexes.get(key);
+		if (listIndex == LongIntHashMap.NO_VALUE) {
+			return false;
+		}
+
+		int[] list = lists[listIndex];
+		int size = listSizes[listIndex];
+		int removeAt = Arrays.binarySearch(list, 0, size, position);
+		if (removeAt < 0) {
+			return false;
+		}
+
+		System.arraycopy(list, removeAt + 1, list, removeAt, size - removeAt - 1);
+		listSizes[listIndex] = --size;
+		if (size == 0) {
+			listIndexes.remove(key);
+			recycleList(listIndex);
+		}
+		return true;
+	}
+
+
+	/**
+	 * Return the number of positions of a key.
+	 * @param key
+	 * @return
+	 */
+	public int count(long key) {
+		int listIndex = listIndexes.get(key);
+		return listIndex == LongIntHashMap.NO_VALUE ? 0 : listSizes[listIndex];
+	}
+
+
+	/**
+	 * Pass the positions of a key to a consumer in ascending order.
+	 * The consumer must not change this object.
+	 *
+	 * @param key
+	 * @param consumer
+	 */
+	public void forEach(long key, IntConsumer consumer) {
+		int listIndex = listIndexes.get(key);
+		if (listIndex == LongIntHashMap.NO_VALUE) {
+			return;
+		}
+
+		int[] list = lists[listIndex];
+		for (int i = 0, size = listSizes[listIndex]; i < size; i++) {
+			consumer.accept(list[i]);
+		}
+	}
+
+
+	/**
+	 * Return a copy of the positions of a key in ascending order.
+	 * @param key
+	 * @return
+	 */
+	public int[] getPositions(long key) {
+		int listIndex = listIndexes.get(key);
+		return listIndex == LongIntHashMap.NO_VALUE ? EMPTY : Arrays.copyOf(lists[listIndex], listSizes[listIndex]);
+	}
+
+
+	/**
+	 * Return all keys that have at least one position, in no particular order.
+	 * @return
+	 */
+	public long[] keys() {
+		return listIndexes.keys();
+	}
+
+
+	/**
+	 * Return the number of keys that have at least one position.
+	 * @return
+	 */
+	public int keyCount() {
+		return listIndexes.size();
+	}
+
+
+	public void clear() {
+		listIndexes.clear();
+		Arrays.fill(lists, 0, listCount, null);
+		listCount = 0;
+		freeListCount = 0;
+	}
+
+
+	private int newList() {
+		if (freeListCount > 0) {
+			return freeLists[--freeListCount];
+		}
+
+		if (listCount == lists.length) {
+			lists = Arrays.copyOf(lists, listCount << 1);
+			listSizes = Arrays.copyOf(listSizes, listCount << 1);
+		}
+		lists[listCount] = new int[INITIAL_LIST_CAPACITY];
+		listSizes[listCount] = 0;
+		return listCount++;
+	}
+
+
+	private void recycleList(int listIndex) {
+		if (lists[listIndex].length > INITIAL_LIST_CAPACITY * 16) {
+			// do not keep large arrays of keys that are gone
+			lists[listIndex] = new int[INITIAL_LIST_CAPACITY];
+		}
+		if (freeListCount == freeLists.length) {
+			freeLists = Arrays.copyOf(freeLists, freeListCount << 1);
+		}
+		freeLists[freeListCount++] = listIndex;
+	}
+
+}
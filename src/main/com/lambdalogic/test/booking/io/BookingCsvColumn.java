@@ -0,0 +1,69 @@
+package com.lambdalogic.test.booking.io;
+
+import com.lambdalogic.test.booking.model.BookingBatch;
+
+
+/**
+ * The columns of the CSV format that is read by {@link BookingCsvImporter} and written by {@link BookingCsvWriter}.
+ * <p>
+ * The first line of a file contains the headers of the columns, which may appear in any order and may be missing.
+ * Every further line describes one booking. Empty fields are null, a price without amount does not exist.
+ * <ul>
+ * <li>numbers are written with a point or a comma as decimal separator,</li>
+ * <li>{@link #GROSS} is <code>true</code> or <code>false</code> (default: true),</li>
+ * <li>{@link #BENEFIT_RECIPIENT_PKS} is a list of PKs separated by <code>|</code>,</li>
+ * <li>dates are written as <code>yyyy-MM-dd</code> and mean local midnight in the time zone of the importer or
+ * writer, which is {@link java.time.ZoneId#systemDefault()} by default like in
+ * {@link com.lambdalogic.test.booking.util.EpochDays}.</li>
+ * </ul>
+ * Fields are not quoted and must therefore not contain the delimiter or line breaks.
+ */
+public enum BookingCsvColumn {
+
+	ID("id"),
+	INVOICE_RECIPIENT_PK("invoiceRecipientPK"),
+	OFFERING_PK("offeringPK"),
+	BENEFIT_RECIPIENT_PKS("benefitRecipientPKs"),
+	CURRENCY("currency"),
+	GROSS("gross"),
+	MAIN_AMOUNT("mainAmount"),
+	MAIN_TAX_RATE("mainTaxRate"),
+	ADD1_AMOUNT("add1Amount"),
+	ADD1_TAX_RATE("add1TaxRate"),
+	ADD2_AMOUNT("add2Amount"),
+	ADD2_TAX_RATE("add2TaxRate"),
+	CANCEL_FEE_AMOUNT("cancelFeeAmount"),
+	CANCEL_FEE_TAX_RATE("cancelFeeTaxRate"),
+	PAID_AMOUNT("paidAmount"),
+	BOOKING_DATE("bookingDate"),
+	CANCELATION_DATE("cancelationDate");
+
+
+	/**
+	 * Amount columns of the prices, indexed by {@link BookingBatch#MAIN_PRICE} etc.
+	 */
+	static final BookingCsvColumn[] AMOUNT_COLUMNS = { MAIN_AMOUNT, ADD1_AMOUNT, ADD2_AMOUNT, CANCEL_FEE_AMOUNT };
+
+	/**
+	 * Tax rate columns of the prices, indexed by {@link BookingBatch#MAIN_PRICE} etc.
+	 */
+	static final BookingCsvColumn[] TAX_RATE_COLUMNS = { MAIN_TAX_RATE, ADD1_TAX_RATE, ADD2_TAX_RATE, CANCEL_FEE_TAX_RATE };
+
+
+	private final String header;
+
+
+	private BookingCsvColumn(String header) {
+		this.header = header;
+	}
+
+
+	/**
+	 * Return the name of the column in the first line of a file.
+	 * @return
+	 */
+	public String getHeader() {
+		return header;
+	}
+
+}
@@ -0,0 +1,885 @@
+package com.lambdalogic.test.booking.io;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import com.lambdalogic.test.booking.BookingsCurrencyAmountsAccumulator;
+import com.lambdalogic.test.booking.IBookingsCurrencyAmountsEvaluator;
+import com.lambdalogic.test.booking.IncrementalBookingsCurrencyAmountsAggregator;
+import com.lambdalogic.test.booking.exception.BookingImportException;
+import com.lambdalogic.test.booking.model.Booking;
+import com.lambdalogic.test.booking.model.BookingBatch;
+import com.lambdalogic.test.booking.model.Cents;
+import com.lambdalogic.test.booking.model.CurrencyAmountsResult;
+import com.lambdalogic.test.booking.model.CurrencyRegistry;
+import com.lambdalogic.test.booking.model.Price;
+import com.lambdalogic.test.booking.util.EpochDays;
+import com.lambdalogic.test.booking.util.TypeHelper;
+
+
+/**
+ * Reads bookings from a CSV file (see {@link BookingCsvColumn}) without loading the file into the heap.
+ * <p>
+ * The file is split into chunks of about {@link #getChunkSize()} bytes that end at line boundaries. Every chunk is
+ * memory-mapped on its own and parsed in place: fields are read through a view of the mapped bytes, so parsing
+ * numbers, currencies and dates does not create any Strings. Only the {@link Booking} objects (or the values in a
+ * {@link BookingBatch}) are created.
+ * <p>
+ * The bookings can be
+ * <ul>
+ * <li>passed to a consumer one by one in the order of the file ({@link #forEachBooking(Consumer)}), e.g. to feed an
+ * {@link IncrementalBookingsCurrencyAmountsAggregator},</li>
+ * <li>collected per chunk in a {@link BookingBatch} ({@link #forEachBatch(Consumer)}),</li>
+ * <li>reduced in parallel, one chunk per task ({@link #reduce(Supplier, BiConsumer, BiConsumer)}), which is used
+ * by {@link #calculateAll()} and {@link #calculate(Long)},</li>
+ * <li>read into a list for an {@link IBookingsCurrencyAmountsEvaluator} ({@link #readBookings()}).</li>
+ * </ul>
+ * Invalid values cause a {@link BookingImportException} that contains the byte offset of the line.
+ * <p>
+ * An importer has no state besides its configuration and is therefore thread-safe.
+ */
+public class BookingCsvImporter {
+
+	public static final char DEFAULT_DELIMITER = ';';
+
+	/**
+	 * Default value for the number of bytes that are mapped and parsed at once.
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 64 * 1024 * 1024;
+
+	/**
+	 * Maximum length of the header line.
+	 */
+	private static final int MAX_HEADER_LENGTH = 64 * 1024;
+
+	/**
+	 * Number of bytes that are read at once while looking for the end of a line.
+	 */
+	private static final int SCAN_BUFFER_SIZE = 4096;
+
+
+	private final Path file;
+	private final byte delimiter;
+	private final int chunkSize;
+	private final ForkJoinPool pool;
+	private final ZoneId zone;
+
+
+	/**
+	 * Create an importer with the {@link #DEFAULT_DELIMITER}, the {@link #DEFAULT_CHUNK_SIZE}, the common
+	 * {@link ForkJoinPool} and the default time zone.
+	 *
+	 * @param file
+	 */
+	public BookingCsvImporter(Path file) {
+		this(file, DEFAULT_DELIMITER, DEFAULT_CHUNK_SIZE, ForkJoinPool.commonPool());
+	}
+
+
+	/**
+	 * @param file
+	 * @param delimiter - the character between two fields, must be an ISO-8859-1 character that does not appear in
+	 *  values
+	 * @param chunkSize - the number of bytes that are mapped and parsed at once; chunks are extended to the end of
+	 *  the last line
+	 * @param pool - the pool that parses the chunks in parallel
+	 */
+	public BookingCsvImporter(Path file, char delimiter, int chunkSize, ForkJoinPool pool) {
+		this(file, delimiter, chunkSize, pool, ZoneId.systemDefault());
+	}
+
+
+	/**
+	 * @param file
+	 * @param delimiter - the character between two fields, must be an ISO-8859-1 character that does not appear in
+	 *  values
+	 * @param chunkSize - the number of bytes that are mapped and parsed at once; chunks are extended to the end of
+	 *  the last line
+	 * @param pool - the pool that parses the chunks in parallel
+	 * @param zone - the time zone whose local midnight the dates of the file mean
+	 */
+	public BookingCsvImporter(Path file, char delimiter, int chunkSize, ForkJoinPool pool, ZoneId zone) {
+		if (file == null) {
+			throw new IllegalArgumentException("Parameter 'file' must not be null.");
+		}
+		if (delimiter > 0xFF || delimiter == '\n' || delimiter == '\r' || delimiter == '.' || delimiter == ',' ||
+			delimiter == '|' || delimiter == '-'
+		) {
+			throw new IllegalArgumentException("Parameter 'delimiter' must not be used in values.");
+		}
+		if (chunkSize < 1) {
+			throw new IllegalArgumentException("Parameter 'chunkSize' must be positive.");
+		}
+		if (pool == null) {
+			throw new IllegalArgumentException("Parameter 'pool' must not be null.");
+		}
+		if (zone == null) {
+			throw new IllegalArgumentException("Parameter 'zone' must not be null.");
+		}
+
+		this.file = file;
+		this.delimiter = (byte) delimiter;
+		this.chunkSize = chunkSize;
+		this.pool = pool;
+		this.zone = zone;
+	}
+
+
+	public Path getFile() {
+		return file;
+	}
+
+
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+
+	public ZoneId getZone() {
+		return zone;
+	}
+
+
+	/**
+	 * Pass all bookings to a consumer in the order of the file.
+	 *
+	 * @param consumer
+	 * @throws IOException
+	 * @throws BookingImportException if the file contains invalid values
+	 */
+	public void forEachBooking(Consumer<? super Booking> consumer) throws IOException {
+		if (consumer == null) {
+			throw new IllegalArgumentException("Parameter 'consumer' must not be null.");
+		}
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			Header header = readHeader(channel);
+			for (Chunk chunk : split(channel, header)) {
+				ChunkParser parser = new ChunkParser(channel, chunk, header);
+				while (parser.nextLine()) {
+					consumer.accept(parser.toBooking());
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Pass the bookings of every chunk as {@link BookingBatch} to a consumer in the order of the file.
+	 * The batches only contain the values that {@link BookingBatch} stores, no {@link Booking} objects are created.
+	 *
+	 * @param consumer
+	 * @throws IOException
+	 * @throws BookingImportException if the file contains invalid values or values that cannot be stored in a batch
+	 */
+	public void forEachBatch(Consumer<? super BookingBatch> consumer) throws IOException {
+		if (consumer == null) {
+			throw new IllegalArgumentException("Parameter 'consumer' must not be null.");
+		}
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			Header header = readHeader(channel);
+			for (Chunk chunk : split(channel, header)) {
+				ChunkParser parser = new ChunkParser(channel, chunk, header);
+				BookingBatch batch = new BookingBatch();
+				while (parser.nextLine()) {
+					parser.addTo(batch);
+				}
+				consumer.accept(batch);
+			}
+		}
+	}
+
+
+	/**
+	 * Reduce all bookings in parallel.
+	 * <p>
+	 * Every chunk is collected into its own container, which is created by <code>supplier</code>. The containers are
+	 * combined in the order of the file: <code>combiner</code> gets the container of the earlier chunks as first
+	 * argument and has to add the second one to it.
+	 *
+	 * @param supplier - creates an empty container
+	 * @param accumulator - adds a booking to a container
+	 * @param combiner - adds the second container to the first one
+	 * @return the container with all bookings
+	 * @throws IOException
+	 * @throws BookingImportException if the file contains invalid values
+	 */
+	public <R> R reduce(
+		Supplier<R> supplier,
+		BiConsumer<R, ? super Booking> accumulator,
+		BiConsumer<R, R> combiner
+	) throws IOException {
+		if (supplier == null) {
+			throw new IllegalArgumentException("Parameter 'supplier' must not be null.");
+		}
+		if (accumulator == null) {
+			throw new IllegalArgumentException("Parameter 'accumulator' must not be null.");
+		}
+		if (combiner == null) {
+			throw new IllegalArgumentException("Parameter 'combiner' must not be null.");
+		}
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			Header header = readHeader(channel);
+			List<Chunk> chunks = split(channel, header);
+			if (chunks.isEmpty()) {
+				return supplier.get();
+			}
+
+			ReductionTask<R> task = new ReductionTask<>(channel, header, chunks, 0, chunks.size(), supplier, accumulator, combiner);
+			try {
+				return chunks.size() == 1 ? task.compute() : pool.invoke(task);
+			}
+			catch (UncheckedIOException e) {
+				throw e.getCause();
+			}
+		}
+	}
+
+
+	/**
+	 * Read all bookings into a list, e.g. to pass them to an {@link IBookingsCurrencyAmountsEvaluator}.
+	 * Unlike the other methods this one holds all bookings in the heap.
+	 *
+	 * @return
+	 * @throws IOException
+	 * @throws BookingImportException if the file contains invalid values
+	 */
+	public List<Booking> readBookings() throws IOException {
+		return reduce(ArrayList<Booking>::new, List::add, List::addAll);
+	}
+
+
+	/**
+	 * Add up the amounts of all invoice recipients in parallel without holding the bookings in the heap.
+	 * The results are the same as those of {@link com.lambdalogic.test.booking.BookingsCurrencyAmountsBatchEvaluator}
+	 * for the list of all bookings.
+	 *
+	 * @return the results by invoice recipient PK
+	 * @throws IOException
+	 * @throws BookingImportException if the file contains invalid values
+	 */
+	public Map<Long, CurrencyAmountsResult> calculateAll() throws IOException {
+		Map<Long, BookingsCurrencyAmountsAccumulator> accumulators = reduce(
+			HashMap<Long, BookingsCurrencyAmountsAccumulator>::new,
+			(map, booking) -> map.computeIfAbsent(
+				booking.getInvoiceRecipientPK(),
+				pk -> new BookingsCurrencyAmountsAccumulator()
+			).add(booking),
+			(map, other) -> {
+				for (Map.Entry<Long, BookingsCurrencyAmountsAccumulator> entry : other.entrySet()) {
+					BookingsCurrencyAmountsAccumulator previous = map.putIfAbsent(entry.getKey(), entry.getValue());
+					if (previous != null) {
+						previous.merge(entry.getValue());
+					}
+				}
+			}
+		);
+
+		Map<Long, CurrencyAmountsResult> results = new HashMap<>(accumulators.size() * 4 / 3 + 1);
+		for (Map.Entry<Long, BookingsCurrencyAmountsAccumulator> entry : accumulators.entrySet()) {
+			results.put(entry.getKey(), entry.getValue().toResult(entry.getKey()));
+		}
+		return results;
+	}
+
+
+	/**
+	 * Add up the amounts of one invoice recipient in parallel without holding the bookings in the heap.
+	 *
+	 * @param invoiceRecipientPK
+	 * @return the same result as {@link IBookingsCurrencyAmountsEvaluator#calculate(List, Long)} for the list of all
+	 *  bookings
+	 * @throws IOException
+	 * @throws BookingImportException if the file contains invalid values
+	 */
+	public CurrencyAmountsResult calculate(Long invoiceRecipientPK) throws IOException {
+		BookingsCurrencyAmountsAccumulator accumulator = reduce(
+			BookingsCurrencyAmountsAccumulator::new,
+			(acc, booking) -> {
+				if (Objects.equals(booking.getInvoiceRecipientPK(), invoiceRecipientPK)) {
+					acc.add(booking);
+				}
+			},
+			BookingsCurrencyAmountsAccumulator::merge
+		);
+		return accumulator.toResult(invoiceRecipientPK);
+	}
+
+
+	/**
+	 * Read the first line and map the column headers to field indexes.
+	 */
+	private Header readHeader(FileChannel channel) throws IOException {
+		long size = channel.size();
+		if (size == 0) {
+			return new Header(new int[BookingCsvColumn.values().length], 0, 0);
+		}
+
+		long lineEnd = findLineEnd(channel, 0, Math.min(size, MAX_HEADER_LENGTH));
+		if (lineEnd < 0) {
+			if (size > MAX_HEADER_LENGTH) {
+				throw new BookingImportException("The header line of " + file + " is too long.");
+			}
+			lineEnd = size;
+		}
+
+		ByteBuffer headerBytes = ByteBuffer.allocate((int) lineEnd);
+		while (headerBytes.hasRemaining()) {
+			if (channel.read(headerBytes, headerBytes.position()) < 0) {
+				break;
+			}
+		}
+		String headerLine = new String(headerBytes.array(), 0, headerBytes.position(), StandardCharsets.ISO_8859_1);
+		if (headerLine.endsWith("\r")) {
+			headerLine = headerLine.substring(0, headerLine.length() - 1);
+		}
+
+		BookingCsvColumn[] columns = BookingCsvColumn.values();
+		int[] fieldIndexes = new int[columns.length];
+		Arrays.fill(fieldIndexes, -1);
+		int fieldCount = 0;
+		int fieldStart = 0;
+		while (fieldStart <= headerLine.length()) {
+			int fieldEnd = headerLine.indexOf((char) (delimiter & 0xFF), fieldStart);
+			if (fieldEnd < 0) {
+				fieldEnd = headerLine.length();
+			}
+			String name = headerLine.substring(fieldStart, fieldEnd).trim();
+			for (BookingCsvColumn column : columns) {
+				if (column.getHeader().equals(name)) {
+					if (fieldIndexes[column.ordinal()] >= 0) {
+						throw new BookingImportException("The column '" + name + "' appears twice in " + file + ".");
+					}
+					fieldIndexes[column.ordinal()] = fieldCount;
+				}
+			}
+			fieldCount++;
+			fieldStart = fieldEnd + 1;
+		}
+
+		return new Header(fieldIndexes, fieldCount, Math.min(lineEnd + 1, size));
+	}
+
+
+	/**
+	 * Split the data after the header into chunks that end at line boundaries.
+	 */
+	private List<Chunk> split(FileChannel channel, Header header) throws IOException {
+		long size = channel.size();
+		List<Chunk> chunks = new ArrayList<>();
+		long start = header.dataStart;
+		while (start < size) {
+			long end = start + chunkSize;
+			if (end >= size) {
+				end = size;
+			}
+			else {
+				long lineEnd = findLineEnd(channel, end - 1, size);
+				end = (lineEnd < 0 ? size : lineEnd + 1);
+			}
+
+			if (end - start > Integer.MAX_VALUE) {
+				throw new BookingImportException(
+					"The line at byte offset " + start + " of " + file + " is too long to be mapped."
+				);
+			}
+			chunks.add(new Chunk(start, (int) (end - start)));
+			start = end;
+		}
+		return chunks;
+	}
+
+
+	/**
+	 * Return the position of the next line feed between <code>from</code> (inclusive) and <code>to</code>
+	 * (exclusive) or -1 if there is none.
+	 */
+	private static long findLineEnd(FileChannel channel, long from, long to) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+		long position = from;
+		while (position < to) {
+			buffer.clear();
+			if (to - position < buffer.capacity()) {
+				buffer.limit((int) (to - position));
+			}
+			int count = channel.read(buffer, position);
+			if (count <= 0) {
+				return -1;
+			}
+			for (int i = 0; i < count; i++) {
+				if (buffer.get(i) == '\n') {
+					return position + i;
+				}
+			}
+			position += count;
+		}
+		return -1;
+	}
+
+
+	/**
+	 * The field index of every {@link BookingCsvColumn} (-1 if the file does not contain the column).
+	 */
+	private static final class Header {
+
+		final int[] fieldIndexes;
+		final int fieldCount;
+
+		/**
+		 * Offset of the first line after the header.
+		 */
+		final long dataStart;
+
+
+		Header(int[] fieldIndexes, int fieldCount, long dataStart) {
+			this.fieldIndexes = fieldIndexes;
+			this.fieldCount = fieldCount;
+			this.dataStart = dataStart;
+		}
+
+	}
+
+
+	/**
+	 * A part of the file that consists of complete lines.
+	 */
+	private static final class Chunk {
+
+		final long start;
+		final int length;
+
+
+		Chunk(long start, int length) {
+			this.start = start;
+			this.length = length;
+		}
+
+	}
+
+
+	/**
+	 * Reduces the chunks between <code>from</code> (inclusive) and <code>to</code> (exclusive).
+	 */
+	private final class ReductionTask<R> extends RecursiveTask<R> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final FileChannel channel;
+		private final Header header;
+		private final List<Chunk> chunks;
+		private final int from;
+		private final int to;
+		private final Supplier<R> supplier;
+		private final BiConsumer<R, ? super Booking> accumulator;
+		private final BiConsumer<R, R> combiner;
+
+
+		ReductionTask(
+			FileChannel channel,
+			Header header,
+			List<Chunk> chunks,
+			int from,
+			int to,
+			Supplier<R> supplier,
+			BiConsumer<R, ? super Booking> accumulator,
+			BiConsumer<R, R> combiner
+		) {
+			this.channel = channel;
+			this.header = header;
+			this.chunks = chunks;
+			this.from = from;
+			this.to = to;
+			this.supplier = supplier;
+			this.accumulator = accumulator;
+			this.combiner = combiner;
+		}
+
+
+		@Override
+		protected R compute() {
+			if (to - from == 1) {
+				R container = supplier.get();
+				try {
+					ChunkParser parser = new ChunkParser(channel, chunks.get(from), header);
+					while (parser.nextLine()) {
+						accumulator.accept(container, parser.toBooking());
+					}
+				}
+				catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+				return container;
+			}
+
+			int middle = (from + to) >>> 1;
+			ReductionTask<R> left = new ReductionTask<>(channel, header, chunks, from, middle, supplier, accumulator, combiner);
+			ReductionTask<R> right = new ReductionTask<>(channel, header, chunks, middle, to, supplier, accumulator, combiner);
+			right.fork();
+
+			R container;
+			try {
+				container = left.compute();
+			}
+			catch (RuntimeException | Error e) {
+				// the channel must stay open until the right part is finished
+				right.quietlyJoin();
+				throw e;
+			}
+
+			// the left part has to be combined first to keep the order of the bookings
+			combiner.accept(container, right.join());
+			return container;
+		}
+
+	}
+
+
+	/**
+	 * Parses the lines of one memory-mapped chunk.
+	 * The fields of the current line are stored as ranges of the buffer and read through a {@link ByteSlice}.
+	 */
+	private final class ChunkParser {
+
+		private final MappedByteBuffer buffer;
+		private final long offset;
+		private final int[] fieldIndexes;
+		private final int fieldCount;
+
+		private final int[] fieldStarts;
+		private final int[] fieldEnds;
+		private final ByteSlice slice = new ByteSlice();
+
+		private final long[] priceCents = new long[BookingBatch.PRICE_COUNT];
+		private final int[] priceTaxRateBasisPoints = new int[BookingBatch.PRICE_COUNT];
+
+		private int position;
+		private int lineStart;
+
+
+		ChunkParser(FileChannel channel, Chunk chunk, Header header) throws IOException {
+			this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, chunk.start, chunk.length);
+			this.offset = chunk.start;
+			this.fieldIndexes = header.fieldIndexes;
+			this.fieldCount = header.fieldCount;
+			this.fieldStarts = new int[fieldCount];
+			this.fieldEnds = new int[fieldCount];
+		}
+
+
+		/**
+		 * Move to the next line that is not empty and split it into fields.
+		 * Missing fields at the end of a line are empty, additional fields are ignored.
+		 *
+		 * @return false if there are no more lines
+		 */
+		boolean nextLine() {
+			int limit = buffer.limit();
+			while (position < limit) {
+				lineStart = position;
+				int lineEnd = lineStart;
+				while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+					lineEnd++;
+				}
+				position = lineEnd + 1;
+				if (lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r') {
+					lineEnd--;
+				}
+				if (lineEnd == lineStart) {
+					continue;
+				}
+
+				int fieldIndex = 0;
+				int fieldStart = lineStart;
+				for (int i = lineStart; i < lineEnd && fieldIndex < fieldCount; i++) {
+					if (buffer.get(i) == delimiter) {
+						fieldStarts[fieldIndex] = fieldStart;
+						fieldEnds[fieldIndex] = i;
+						fieldIndex++;
+						fieldStart = i + 1;
+					}
+				}
+				if (fieldIndex < fieldCount) {
+					fieldStarts[fieldIndex] = fieldStart;
+					fieldEnds[fieldIndex] = lineEnd;
+					fieldIndex++;
+				}
+				for (; fieldIndex < fieldCount; fieldIndex++) {
+					fieldStarts[fieldIndex] = lineEnd;
+					fieldEnds[fieldIndex] = lineEnd;
+				}
+				return true;
+			}
+			return false;
+		}
+
+
+		Booking toBooking() {
+			String currency = getCurrency();
+			boolean gross = getGross();
+
+			Booking booking = new Booking();
+			booking.setID(getLong(BookingCsvColumn.ID));
+			booking.setInvoiceRecipientPK(getLong(BookingCsvColumn.INVOICE_RECIPIENT_PK));
+			booking.setOfferingPK(getLong(BookingCsvColumn.OFFERING_PK));
+			booking.setBenefitRecipientPKs(getLongs(BookingCsvColumn.BENEFIT_RECIPIENT_PKS));
+			booking.setMainPrice(getPrice(BookingBatch.MAIN_PRICE, currency, gross));
+			booking.setAdd1Price(getPrice(BookingBatch.ADD1_PRICE, currency, gross));
+			booking.setAdd2Price(getPrice(BookingBatch.ADD2_PRICE, currency, gross));
+			booking.setCancelFeePrice(getPrice(BookingBatch.CANCEL_FEE_PRICE, currency, gross));
+			booking.setPaidAmount(getDecimal(BookingCsvColumn.PAID_AMOUNT));
+			booking.setBookingDate(getDate(BookingCsvColumn.BOOKING_DATE));
+			booking.setCancelationDate(getDate(BookingCsvColumn.CANCELATION_DATE));
+			return booking;
+		}
+
+
+		void addTo(BookingBatch batch) {
+			for (int p = 0; p < BookingBatch.PRICE_COUNT; p++) {
+				priceCents[p] = getCents(BookingCsvColumn.AMOUNT_COLUMNS[p]);
+				priceTaxRateBasisPoints[p] = getBasisPoints(BookingCsvColumn.TAX_RATE_COLUMNS[p]);
+			}
+
+			Long invoiceRecipientPK = getLong(BookingCsvColumn.INVOICE_RECIPIENT_PK);
+			batch.add(
+				invoiceRecipientPK != null ? invoiceRecipientPK.longValue() : BookingBatch.NULL_PK,
+				getCurrencyID(),
+				getGross(),
+				priceCents,
+				priceTaxRateBasisPoints,
+				getCents(BookingCsvColumn.PAID_AMOUNT)
+			);
+		}
+
+
+		/**
+		 * Return a price of the current line.
+		 * The main price always exists, because it carries the currency and the gross flag of the booking.
+		 * The other prices only exist if their amount is not empty.
+		 */
+		private Price getPrice(int priceIndex, String currency, boolean gross) {
+			BigDecimal amount = getDecimal(BookingCsvColumn.AMOUNT_COLUMNS[priceIndex]);
+			if (amount == null && priceIndex != BookingBatch.MAIN_PRICE) {
+				return null;
+			}
+			BigDecimal taxRate = getDecimal(BookingCsvColumn.TAX_RATE_COLUMNS[priceIndex]);
+			return new Price(amount, currency, taxRate, gross);
+		}
+
+
+		/**
+		 * Point {@link #slice} to the trimmed value of a column in the current line.
+		 */
+		private ByteSlice field(BookingCsvColumn column) {
+			int fieldIndex = fieldIndexes[column.ordinal()];
+			if (fieldIndex < 0) {
+				return slice.set(buffer, 0, 0);
+			}
+
+			int start = fieldStarts[fieldIndex];
+			int end = fieldEnds[fieldIndex];
+			while (start < end && isWhitespace(buffer.get(start))) {
+				start++;
+			}
+			while (end > start && isWhitespace(buffer.get(end - 1))) {
+				end--;
+			}
+			return slice.set(buffer, start, end);
+		}
+
+
+		private Long getLong(BookingCsvColumn column) {
+			ByteSlice value = field(column);
+			if (value.isEmpty()) {
+				return null;
+			}
+			long result = TypeHelper.parseUnscaled(value, 0, value.length(), 0);
+			if (result == Cents.NaN) {
+				throw invalidValue(column);
+			}
+			return Long.valueOf(result);
+		}
+
+
+		private List<Long> getLongs(BookingCsvColumn column) {
+			ByteSlice value = field(column);
+			if (value.isEmpty()) {
+				return null;
+			}
+
+			List<Long> result = new ArrayList<>(1);
+			int start = 0;
+			int length = value.length();
+			while (start <= length) {
+				int end = start;
+				while (end < length && value.charAt(end) != '|') {
+					end++;
+				}
+				long pk = TypeHelper.parseUnscaled(value, start, end, 0);
+				if (pk == Cents.NaN) {
+					throw invalidValue(column);
+				}
+				result.add(Long.valueOf(pk));
+				start = end + 1;
+			}
+			return result;
+		}
+
+
+		private BigDecimal getDecimal(BookingCsvColumn column) {
+			ByteSlice value = field(column);
+			if (value.isEmpty()) {
+				return null;
+			}
+			BigDecimal result = TypeHelper.parseBigDecimal(value);
+			if (result == null) {
+				throw invalidValue(column);
+			}
+			return result;
+		}
+
+
+		/**
+		 * Return an amount in cents, rounded like {@link Price#setAmount(BigDecimal)} rounds it.
+		 */
+		private long getCents(BookingCsvColumn column) {
+			ByteSlice value = field(column);
+			if (value.isEmpty()) {
+				return 0;
+			}
+
+			long cents = TypeHelper.parseUnscaled(value, 0, value.length(), 2);
+			if (cents == Cents.NaN) {
+				// more than 2 decimal places or too large
+				BigDecimal amount = TypeHelper.parseBigDecimal(value);
+				if (amount == null) {
+					throw invalidValue(column);
+				}
+				cents = Cents.toCents(amount.setScale(2, RoundingMode.HALF_UP));
+				if (cents == Cents.NaN) {
+					throw invalidValue(column);
+				}
+			}
+			return cents;
+		}
+
+
+		private int getBasisPoints(BookingCsvColumn column) {
+			ByteSlice value = field(column);
+			if (value.isEmpty()) {
+				return 0;
+			}
+			long basisPoints = TypeHelper.parseUnscaled(value, 0, value.length(), 2);
+			if (basisPoints < 0 || basisPoints > Cents.MAX_BASIS_POINTS) {
+				throw invalidValue(column);
+			}
+			return (int) basisPoints;
+		}
+
+
+		private boolean getGross() {
+			ByteSlice value = field(BookingCsvColumn.GROSS);
+			if (value.isEmpty() || value.contentEquals("true") || value.contentEquals("1")) {
+				return true;
+			}
+			if (value.contentEquals("false") || value.contentEquals("0")) {
+				return false;
+			}
+			throw invalidValue(BookingCsvColumn.GROSS);
+		}
+
+
+		private int getCurrencyID() {
+			ByteSlice value = field(BookingCsvColumn.CURRENCY);
+			if (value.isEmpty()) {
+				return CurrencyRegistry.NO_CURRENCY;
+			}
+			// only known codes get an ID, so invalid files cannot make the number of IDs grow
+			if (!CurrencyRegistry.isValid(value)) {
+				throw invalidValue(BookingCsvColumn.CURRENCY);
+			}
+			return CurrencyRegistry.getID(value);
+		}
+
+
+		private String getCurrency() {
+			return CurrencyRegistry.getCode(getCurrencyID());
+		}
+
+
+		/**
+		 * Parse a date in the format yyyy-MM-dd as local midnight in {@link BookingCsvImporter#zone}.
+		 */
+		private Date getDate(BookingCsvColumn column) {
+			ByteSlice value = field(column);
+			if (value.isEmpty()) {
+				return null;
+			}
+			if (value.length() != 10 || value.charAt(4) != '-' || value.charAt(7) != '-') {
+				throw invalidValue(column);
+			}
+
+			int year = parseDigits(value, 0, 4, column);
+			int month = parseDigits(value, 5, 7, column);
+			int day = parseDigits(value, 8, 10, column);
+			try {
+				return EpochDays.toDate((int) LocalDate.of(year, month, day).toEpochDay(), zone);
+			}
+			catch (DateTimeException e) {
+				throw invalidValue(column);
+			}
+		}
+
+
+		private int parseDigits(ByteSlice value, int start, int end, BookingCsvColumn column) {
+			int result = 0;
+			for (int i = start; i < end; i++) {
+				char c = value.charAt(i);
+				if (c < '0' || c > '9') {
+					throw invalidValue(column);
+				}
+				result = result * 10 + (c - '0');
+			}
+			return result;
+		}
+
+
+		private BookingImportException invalidValue(BookingCsvColumn column) {
+			return new BookingImportException(
+				"Invalid value '" + slice + "' in column '" + column.getHeader() + "' of the line at byte offset " +
+				(offset + lineStart) + " of " + file + "."
+			);
+		}
+
+	}
+
+
+	private static boolean isWhitespace(byte b) {
+		return b == ' ' || b == '\t';
+	}
+
+}
@@ -0,0 +1,188 @@
+package com.lambdalogic.test.booking.io;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+import com.lambdalogic.test.booking.model.Booking;
+import com.lambdalogic.test.booking.model.Price;
+import com.lambdalogic.test.booking.util.EpochDays;
+
+
+/**
+ * Writes {@link Booking}s in the CSV format that is described by {@link BookingCsvColumn}.
+ * All columns are written. Dates are written as their local date in the time zone of the writer, so they lose their
+ * time of day. A {@link BookingCsvImporter} with the same time zone reads them as local midnight of the same date.
+ */
+public class BookingCsvWriter {
+
+	private final char delimiter;
+	private final ZoneId zone;
+
+
+	/**
+	 * Create a writer with the {@link BookingCsvImporter#DEFAULT_DELIMITER} and the default time zone.
+	 */
+	public BookingCsvWriter() {
+		this(BookingCsvImporter.DEFAULT_DELIMITER);
+	}
+
+
+	/**
+	 * Create a writer with the default time zone.
+	 *
+	 * @param delimiter - the character between two fields
+	 */
+	public BookingCsvWriter(char delimiter) {
+		this(delimiter, ZoneId.systemDefault());
+	}
+
+
+	/**
+	 * @param delimiter - the character between two fields
+	 * @param zone - the time zone of the local dates that are written
+	 */
+	public BookingCsvWriter(char delimiter, ZoneId zone) {
+		if (delimiter > 0xFF || delimiter == '\n' || delimiter == '\r' || delimiter == '.' || delimiter == ',' ||
+			delimiter == '|' || delimiter == '-'
+		) {
+			throw new IllegalArgumentException("Parameter 'delimiter' must not be used in values.");
+		}
+		if (zone == null) {
+			throw new IllegalArgumentException("Parameter 'zone' must not be null.");
+		}
+		this.delimiter = delimiter;
+		this.zone = zone;
+	}
+
+
+	public ZoneId getZone() {
+		return zone;
+	}
+
+
+	public void write(Iterable<Booking> bookings, Path file) throws IOException {
+		try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.ISO_8859_1)) {
+			write(bookings, writer);
+		}
+	}
+
+
+	public void write(Iterable<Booking> bookings, Writer writer) throws IOException {
+		BufferedWriter bufferedWriter = (writer instanceof BufferedWriter ? (BufferedWriter) writer : new BufferedWriter(writer));
+
+		BookingCsvColumn[] columns = BookingCsvColumn.values();
+		for (int c = 0; c < columns.length; c++) {
+			if (c > 0) {
+				bufferedWriter.write(delimiter);
+			}
+			bufferedWriter.write(columns[c].getHeader());
+		}
+		bufferedWriter.write('\n');
+
+		for (Booking booking : bookings) {
+			for (int c = 0; c < columns.length; c++) {
+				if (c > 0) {
+					bufferedWriter.write(delimiter);
+				}
+				String value = getValue(booking, columns[c]);
+				if (value != null) {
+					bufferedWriter.write(value);
+				}
+			}
+			bufferedWriter.write('\n');
+		}
+		bufferedWriter.flush();
+	}
+
+
+	private String getValue(Booking booking, BookingCsvColumn column) {
+		switch (column) {
+			case ID:
+				return toString(booking.getID());
+			case INVOICE_RECIPIENT_PK:
+				return toString(booking.getInvoiceRecipientPK());
+			case OFFERING_PK:
+				return toString(booking.getOfferingPK());
+			case BENEFIT_RECIPIENT_PKS:
+				return toString(booking.getBenefitRecipientPKs());
+			case CURRENCY:
+				return booking.getCurrency();
+			case GROSS:
+				return String.valueOf(booking.isGross());
+			case MAIN_AMOUNT:
+				return booking.getMainPriceOrZero().getAmount().toPlainString();
+			case MAIN_TAX_RATE:
+				return booking.getMainPriceOrZero().getTaxRate().toPlainString();
+			case ADD1_AMOUNT:
+				return getAmount(booking.getAdd1PriceOrZero());
+			case ADD1_TAX_RATE:
+				return getTaxRate(booking.getAdd1PriceOrZero());
+			case ADD2_AMOUNT:
+				return getAmount(booking.getAdd2PriceOrZero());
+			case ADD2_TAX_RATE:
+				return getTaxRate(booking.getAdd2PriceOrZero());
+			case CANCEL_FEE_AMOUNT:
+				return getAmount(booking.getCancelFeePriceOrZero());
+			case CANCEL_FEE_TAX_RATE:
+				return getTaxRate(booking.getCancelFeePriceOrZero());
+			case PAID_AMOUNT:
+				return toString(booking.getPaidAmountOrZero());
+			case BOOKING_DATE:
+				return toString(booking.getBookingDate());
+			case CANCELATION_DATE:
+				return toString(booking.getCancelationDate());
+			default:
+				throw new IllegalArgumentException("Unknown column: " + column);
+		}
+	}
+
+
+	/**
+	 * Return the amount of an additional price or null if the price does not matter.
+	 */
+	private static String getAmount(Price price) {
+		return price.isZero() ? null : price.getAmount().toPlainString();
+	}
+
+
+	private static String getTaxRate(Price price) {
+		return price.isZero() ? null : price.getTaxRate().toPlainString();
+	}
+
+
+	private static String toString(Long value) {
+		return value != null ? value.toString() : null;
+	}
+
+
+	private static String toString(BigDecimal value) {
+		return value != null ? value.toPlainString() : null;
+	}
+
+
+	private static String toString(List<Long> values) {
+		StringBuilder sb = new StringBuilder();
+		for (Long value : values) {
+			if (sb.length() > 0) {
+				sb.append('|');
+			}
+			sb.append(value);
+		}
+		return sb.toString();
+	}
+
+
+	private String toString(Date date) {
+		return date != null ? LocalDate.ofEpochDay(EpochDays.toEpochDay(date, zone)).toString() : null;
+	}
+
+}
@@ -0,0 +1,402 @@
+package com.lambdalogic.test.booking.io;
+
+import static com.lambdalogic.test.booking.io.BookingSnapshotFormat.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.RandomAccess;
+
+import com.lambdalogic.test.booking.IBookingsCurrencyAmountsEvaluator;
+import com.lambdalogic.test.booking.exception.BookingImportException;
+import com.lambdalogic.test.booking.model.Booking;
+import com.lambdalogic.test.booking.model.BookingColumns;
+import com.lambdalogic.test.booking.model.Cents;
+import com.lambdalogic.test.booking.model.CurrencyRegistry;
+import com.lambdalogic.test.booking.model.Price;
+
+
+/**
+ * Read-only view of a binary snapshot file that has been written by {@link BookingSnapshotWriter}
+ * (see {@link BookingSnapshotFormat}).
+ * <p>
+ * The file is memory-mapped, so opening a snapshot only reads the header and the small dictionary, regardless of
+ * the number of bookings. All other values are read from the mapped file when they are accessed. As a
+ * {@link BookingColumns} a snapshot can be evaluated directly by
+ * {@link com.lambdalogic.test.booking.BookingBatchCurrencyAmountsEvaluator} without creating {@link Booking}
+ * objects. {@link #getBooking(int)} and {@link #getBookings()} create {@link Booking} objects on demand, e.g. for an
+ * {@link IBookingsCurrencyAmountsEvaluator}.
+ * <p>
+ * The records are mapped in segments of at most 2^{@link #DEFAULT_SEGMENT_SHIFT} records, because a single
+ * {@link ByteBuffer} cannot be larger than 2 GB.
+ * <p>
+ * This class is thread-safe.
+ */
+public class BookingSnapshot implements BookingColumns {
+
+	/**
+	 * Default value for the binary logarithm of the number of records per segment (16M records or 1.75 GB).
+	 */
+	static final int DEFAULT_SEGMENT_SHIFT = 24;
+
+
+	private final int size;
+	private final int segmentShift;
+	private final int segmentMask;
+	private final ByteBuffer[] segments;
+	private final ByteBuffer benefitRecipientPKs;
+
+	/**
+	 * IDs of {@link CurrencyRegistry} by index in the currency dictionary of the file.
+	 */
+	private final int[] currencyIDs;
+
+	private final BigDecimal[] taxRates;
+	private final int[] taxRateBasisPoints;
+
+
+	private BookingSnapshot(
+		int size,
+		int segmentShift,
+		ByteBuffer[] segments,
+		ByteBuffer benefitRecipientPKs,
+		int[] currencyIDs,
+		BigDecimal[] taxRates,
+		int[] taxRateBasisPoints
+	) {
+		this.size = size;
+		this.segmentShift = segmentShift;
+		this.segmentMask = (1 << segmentShift) - 1;
+		this.segments = segments;
+		this.benefitRecipientPKs = benefitRecipientPKs;
+		this.currencyIDs = currencyIDs;
+		this.taxRates = taxRates;
+		this.taxRateBasisPoints = taxRateBasisPoints;
+	}
+
+
+	/**
+	 * Map a snapshot file.
+	 * The file must not be changed as long as the snapshot is used.
+	 *
+	 * @param file
+	 * @return
+	 * @throws IOException
+	 * @throws BookingImportException if the file is not a valid snapshot
+	 */
+	public static BookingSnapshot open(Path file) throws IOException {
+		return open(file, DEFAULT_SEGMENT_SHIFT);
+	}
+
+
+	static BookingSnapshot open(Path file, int segmentShift) throws IOException {
+		if (file == null) {
+			throw new IllegalArgumentException("Parameter 'file' must not be null.");
+		}
+
+		// the mappings stay valid after the channel has been closed
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long fileSize = channel.size();
+			if (fileSize < HEADER_SIZE) {
+				throw invalidFile(file, "too short");
+			}
+
+			ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+			if (header.getInt(HEADER_MAGIC) != MAGIC) {
+				throw invalidFile(file, "not a booking snapshot");
+			}
+			if (header.getInt(HEADER_VERSION) != VERSION || header.getInt(HEADER_RECORD_SIZE) != RECORD_SIZE) {
+				throw invalidFile(file, "unsupported version " + header.getInt(HEADER_VERSION));
+			}
+
+			int size = header.getInt(HEADER_BOOKING_COUNT);
+			long benefitOffset = header.getLong(HEADER_BENEFIT_OFFSET);
+			long benefitCount = header.getLong(HEADER_BENEFIT_COUNT);
+			long dictionaryOffset = header.getLong(HEADER_DICTIONARY_OFFSET);
+			int dictionaryLength = header.getInt(HEADER_DICTIONARY_LENGTH);
+			if (size < 0 ||
+				benefitOffset != HEADER_SIZE + (long) size * RECORD_SIZE ||
+				benefitCount < 0 || benefitCount * 8 > Integer.MAX_VALUE ||
+				dictionaryOffset != benefitOffset + benefitCount * 8 ||
+				dictionaryLength < 0 ||
+				dictionaryOffset + dictionaryLength != fileSize
+			) {
+				throw invalidFile(file, "inconsistent header");
+			}
+
+			int recordsPerSegment = 1 << segmentShift;
+			int segmentCount = (int) (((long) size + recordsPerSegment - 1) >> segmentShift);
+			ByteBuffer[] segments = new ByteBuffer[segmentCount];
+			for (int s = 0; s < segmentCount; s++) {
+				long firstRecord = (long) s << segmentShift;
+				long recordCount = Math.min(recordsPerSegment, size - firstRecord);
+				segments[s] = channel.map(
+					FileChannel.MapMode.READ_ONLY,
+					HEADER_SIZE + firstRecord * RECORD_SIZE,
+					recordCount * RECORD_SIZE
+				);
+			}
+
+			ByteBuffer benefitRecipientPKs = channel.map(FileChannel.MapMode.READ_ONLY, benefitOffset, benefitCount * 8);
+
+			ByteBuffer dictionary = ByteBuffer.allocate(dictionaryLength);
+			while (dictionary.hasRemaining()) {
+				if (channel.read(dictionary, dictionaryOffset + dictionary.position()) < 0) {
+					throw invalidFile(file, "truncated dictionary");
+				}
+			}
+
+			try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(dictionary.array()))) {
+				int[] currencyIDs = new int[in.readInt() + 1];
+				currencyIDs[0] = CurrencyRegistry.NO_CURRENCY;
+				for (int i = 1; i < currencyIDs.length; i++) {
+					currencyIDs[i] = CurrencyRegistry.getID(in.readUTF());
+				}
+
+				BigDecimal[] taxRates = new BigDecimal[in.readInt()];
+				int[] taxRateBasisPoints = new int[taxRates.length];
+				for (int i = 0; i < taxRates.length; i++) {
+					taxRates[i] = new BigDecimal(in.readUTF());
+					taxRateBasisPoints[i] = Cents.toBasisPoints(taxRates[i]);
+				}
+
+				return new BookingSnapshot(
+					size,
+					segmentShift,
+					segments,
+					benefitRecipientPKs,
+					currencyIDs,
+					taxRates,
+					taxRateBasisPoints
+				);
+			}
+			catch (IOException | RuntimeException e) {
+				throw invalidFile(file, "invalid dictionary");
+			}
+		}
+	}
+
+
+	private static BookingImportException invalidFile(Path file, String reason) {
+		return new BookingImportException("The file " + file + " cannot be read as booking snapshot: " + reason + ".");
+	}
+
+
+	// **************************************************************************
+	// * Columns
+	// *
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+
+	/**
+	 * Return the ID of a booking.
+	 * @param index
+	 * @return the ID or null
+	 */
+	public Long getID(int index) {
+		return toLong(getLong(index, ID));
+	}
+
+
+	@Override
+	public long getInvoiceRecipientPK(int index) {
+		// NULL_VALUE and NULL_PK are the same
+		return getLong(index, INVOICE_RECIPIENT_PK);
+	}
+
+
+	/**
+	 * Return the PK of the offering of a booking.
+	 * @param index
+	 * @return the PK or null
+	 */
+	public Long getOfferingPK(int index) {
+		return toLong(getLong(index, OFFERING_PK));
+	}
+
+
+	@Override
+	public int getCurrencyID(int index) {
+		return currencyIDs[getInt(index, CURRENCY)];
+	}
+
+
+	@Override
+	public boolean isGross(int index) {
+		return segments[index >>> segmentShift].get((index & segmentMask) * RECORD_SIZE + GROSS) != 0;
+	}
+
+
+	@Override
+	public long getAmountCents(int priceIndex, int index) {
+		return getLong(index, AMOUNTS + priceIndex * 8);
+	}
+
+
+	@Override
+	public int getTaxRateID(int priceIndex, int index) {
+		return segments[index >>> segmentShift].getShort((index & segmentMask) * RECORD_SIZE + TAX_RATES + priceIndex * 2) & 0xFFFF;
+	}
+
+
+	@Override
+	public long getPaidCents(int index) {
+		return getLong(index, PAID);
+	}
+
+
+	@Override
+	public boolean isZero(int index) {
+		ByteBuffer segment = segments[index >>> segmentShift];
+		int offset = (index & segmentMask) * RECORD_SIZE + AMOUNTS;
+		return
+			segment.getLong(offset) == 0 &&
+			segment.getLong(offset + 8) == 0 &&
+			segment.getLong(offset + 16) == 0 &&
+			segment.getLong(offset + 24) == 0;
+	}
+
+
+	public Date getBookingDate(int index) {
+		return toDate(getLong(index, BOOKING_DATE));
+	}
+
+
+	public Date getCancelationDate(int index) {
+		return toDate(getLong(index, CANCELATION_DATE));
+	}
+
+
+	public List<Long> getBenefitRecipientPKs(int index) {
+		long start = getLong(index, BENEFIT_START);
+		int count = getInt(index, BENEFIT_COUNT);
+		List<Long> pks = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			pks.add(toLong(benefitRecipientPKs.getLong((int) ((start + i) * 8))));
+		}
+		return pks;
+	}
+
+
+	@Override
+	public int getTaxRateCount() {
+		return taxRates.length;
+	}
+
+
+	@Override
+	public BigDecimal getTaxRate(int taxRateID) {
+		return taxRates[taxRateID];
+	}
+
+
+	@Override
+	public int getTaxRateBasisPoints(int taxRateID) {
+		return taxRateBasisPoints[taxRateID];
+	}
+
+	// *
+	// * Columns
+	// **************************************************************************
+
+
+	/**
+	 * Create a {@link Booking} with the values of a record.
+	 * Additional prices with amount 0 are null.
+	 *
+	 * @param index
+	 * @return
+	 */
+	public Booking getBooking(int index) {
+		String currency = CurrencyRegistry.getCode(getCurrencyID(index));
+		boolean gross = isGross(index);
+
+		Booking booking = new Booking();
+		booking.setID(getID(index));
+		booking.setInvoiceRecipientPK(toLong(getInvoiceRecipientPK(index)));
+		booking.setOfferingPK(getOfferingPK(index));
+		booking.setBenefitRecipientPKs(getBenefitRecipientPKs(index));
+		booking.setMainPrice(getPrice(MAIN_PRICE, index, currency, gross));
+		booking.setAdd1Price(getPrice(ADD1_PRICE, index, currency, gross));
+		booking.setAdd2Price(getPrice(ADD2_PRICE, index, currency, gross));
+		booking.setCancelFeePrice(getPrice(CANCEL_FEE_PRICE, index, currency, gross));
+		booking.setPaidAmount(Cents.toBigDecimal(getPaidCents(index)));
+		booking.setBookingDate(getBookingDate(index));
+		booking.setCancelationDate(getCancelationDate(index));
+		return booking;
+	}
+
+
+	/**
+	 * Return a list view of all bookings.
+	 * Every call of {@link List#get(int)} creates a new {@link Booking} (see {@link #getBooking(int)}), so changes of
+	 * the bookings are not stored.
+	 *
+	 * @return
+	 */
+	public List<Booking> getBookings() {
+		return new BookingList();
+	}
+
+
+	private Price getPrice(int priceIndex, int index, String currency, boolean gross) {
+		long cents = getAmountCents(priceIndex, index);
+		if (cents == 0 && priceIndex != MAIN_PRICE) {
+			return null;
+		}
+		return new Price(Cents.toBigDecimal(cents), currency, taxRates[getTaxRateID(priceIndex, index)], gross);
+	}
+
+
+	private long getLong(int index, int field) {
+		return segments[index >>> segmentShift].getLong((index & segmentMask) * RECORD_SIZE + field);
+	}
+
+
+	private int getInt(int index, int field) {
+		return segments[index >>> segmentShift].getInt((index & segmentMask) * RECORD_SIZE + field);
+	}
+
+
+	private static Long toLong(long value) {
+		return value != NULL_VALUE ? Long.valueOf(value) : null;
+	}
+
+
+	private static Date toDate(long value) {
+		return value != NULL_VALUE ? new Date(value) : null;
+	}
+
+
+	private final class BookingList extends AbstractList<Booking> implements RandomAccess {
+
+		@Override
+		public Booking get(int index) {
+			if (index < 0 || index >= size) {
+				throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+			}
+			return getBooking(index);
+		}
+
+
+		@Override
+		public int size() {
+			return size;
+		}
+
+	}
+
+}
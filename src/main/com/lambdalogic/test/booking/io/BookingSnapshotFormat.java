@@ -0,0 +1,67 @@
+package com.lambdalogic.test.booking.io;
+
+/**
+ * Layout of the binary snapshot files that are written by {@link BookingSnapshotWriter} and read by
+ * {@link BookingSnapshot}.
+ * <p>
+ * A file consists of 4 sections. All numbers are big-endian.
+ * <ol>
+ * <li>a header of {@link #HEADER_SIZE} bytes,</li>
+ * <li>one record of {@link #RECORD_SIZE} bytes per booking,</li>
+ * <li>the PKs of all benefit recipients as <code>long</code>s, referenced by the records,</li>
+ * <li>a dictionary with the currency codes and tax rates that are referenced by the records, written by
+ * {@link java.io.DataOutput}.</li>
+ * </ol>
+ * Records have a fixed width, so the values of a booking are read directly from the mapped file at
+ * <code>HEADER_SIZE + index * RECORD_SIZE + field offset</code>. Amounts are stored in cents, dates in milliseconds
+ * and null values as {@link #NULL_VALUE}.
+ */
+final class BookingSnapshotFormat {
+
+	static final int MAGIC = 0x424B534E; // "BKSN"
+	static final int VERSION = 1;
+
+	/**
+	 * Offsets of the header fields.
+	 */
+	static final int HEADER_MAGIC = 0;
+	static final int HEADER_VERSION = 4;
+	static final int HEADER_RECORD_SIZE = 8;
+	static final int HEADER_BOOKING_COUNT = 12;
+	static final int HEADER_BENEFIT_OFFSET = 16;
+	static final int HEADER_BENEFIT_COUNT = 24;
+	static final int HEADER_DICTIONARY_OFFSET = 32;
+	static final int HEADER_DICTIONARY_LENGTH = 40;
+	static final int HEADER_SIZE = 64;
+
+	/**
+	 * Offsets of the record fields.
+	 */
+	static final int ID = 0;
+	static final int INVOICE_RECIPIENT_PK = 8;
+	static final int OFFERING_PK = 16;
+	/** 4 amounts in cents, indexed by {@link com.lambdalogic.test.booking.model.BookingColumns#MAIN_PRICE} etc. */
+	static final int AMOUNTS = 24;
+	static final int PAID = 56;
+	static final int BOOKING_DATE = 64;
+	static final int CANCELATION_DATE = 72;
+	/** index of the first benefit recipient PK in the benefit section */
+	static final int BENEFIT_START = 80;
+	/** number of benefit recipient PKs */
+	static final int BENEFIT_COUNT = 88;
+	/** index in the currency dictionary, 0 for no currency */
+	static final int CURRENCY = 92;
+	/** 4 indexes in the tax rate dictionary as <code>short</code>s */
+	static final int TAX_RATES = 96;
+	static final int GROSS = 104;
+	static final int RECORD_SIZE = 112;
+
+	static final long NULL_VALUE = Long.MIN_VALUE;
+
+	static final int MAX_TAX_RATE_COUNT = Short.MAX_VALUE + 1;
+
+
+	private BookingSnapshotFormat() {
+	}
+
+}
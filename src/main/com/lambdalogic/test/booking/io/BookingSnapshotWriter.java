@@ -0,0 +1,294 @@
+package com.lambdalogic.test.booking.io;
+
+import static com.lambdalogic.test.booking.io.BookingSnapshotFormat.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.lambdalogic.test.booking.model.Booking;
+import com.lambdalogic.test.booking.model.BookingColumns;
+import com.lambdalogic.test.booking.model.Cents;
+import com.lambdalogic.test.booking.model.CurrencyRegistry;
+import com.lambdalogic.test.booking.model.Price;
+
+
+/**
+ * Writes {@link Booking}s into a binary snapshot file that can be loaded by {@link BookingSnapshot#open(Path)}
+ * (see {@link BookingSnapshotFormat}).
+ * <p>
+ * The bookings are written in one pass through a small buffer. Only the benefit recipient PKs and the dictionaries
+ * are kept in memory until the end.
+ * <p>
+ * Snapshots have the same restrictions as {@link com.lambdalogic.test.booking.model.BookingBatch}: amounts must fit
+ * into cents, tax rates into basis points and the prices of a booking must be either all gross or all net.
+ * {@link BookingSnapshot#getBooking(int)} does not restore additional prices with amount 0.
+ */
+public class BookingSnapshotWriter {
+
+	/**
+	 * Number of records that are written at once.
+	 */
+	private static final int BUFFER_RECORDS = 1024;
+
+
+	/**
+	 * Write a snapshot of bookings.
+	 *
+	 * @param bookings
+	 * @param file - an existing file is overwritten
+	 * @return the number of bookings
+	 * @throws IOException
+	 * @throws IllegalArgumentException if a booking contains values that cannot be stored in a snapshot
+	 */
+	public int write(Iterable<Booking> bookings, Path file) throws IOException {
+		if (bookings == null) {
+			throw new IllegalArgumentException("Parameter 'bookings' must not be null.");
+		}
+		if (file == null) {
+			throw new IllegalArgumentException("Parameter 'file' must not be null.");
+		}
+
+		try (FileChannel channel = FileChannel.open(
+			file,
+			StandardOpenOption.CREATE,
+			StandardOpenOption.TRUNCATE_EXISTING,
+			StandardOpenOption.WRITE
+		)) {
+			return new Writer(channel).write(bookings);
+		}
+	}
+
+
+	/**
+	 * The state of writing one file.
+	 */
+	private static final class Writer {
+
+		private final FileChannel channel;
+		private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_RECORDS * RECORD_SIZE);
+		private long position = HEADER_SIZE;
+
+		private long[] benefitRecipientPKs = new long[1024];
+		private long benefitCount;
+
+		/**
+		 * Index in the currency dictionary by ID of {@link CurrencyRegistry} (0 if not in the dictionary yet).
+		 */
+		private int[] currencyIndexes = new int[CurrencyRegistry.getIDCount()];
+		private final List<String> currencies = new ArrayList<>();
+
+		private final Map<BigDecimal, Integer> taxRateIndexes = new HashMap<>();
+		private final List<BigDecimal> taxRates = new ArrayList<>();
+
+
+		Writer(FileChannel channel) {
+			this.channel = channel;
+		}
+
+
+		int write(Iterable<Booking> bookings) throws IOException {
+			int bookingCount = 0;
+			for (Booking booking : bookings) {
+				if (bookingCount == Integer.MAX_VALUE) {
+					throw new IllegalArgumentException("Parameter 'bookings' must not contain more than " + Integer.MAX_VALUE + " bookings.");
+				}
+				if (!buffer.hasRemaining()) {
+					flush();
+				}
+				putRecord(booking);
+				bookingCount++;
+			}
+			flush();
+
+			long benefitOffset = position;
+			writeBenefitRecipientPKs();
+
+			long dictionaryOffset = position;
+			byte[] dictionary = createDictionary();
+			writeFully(ByteBuffer.wrap(dictionary));
+
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			header.putInt(HEADER_MAGIC, MAGIC);
+			header.putInt(HEADER_VERSION, VERSION);
+			header.putInt(HEADER_RECORD_SIZE, RECORD_SIZE);
+			header.putInt(HEADER_BOOKING_COUNT, bookingCount);
+			header.putLong(HEADER_BENEFIT_OFFSET, benefitOffset);
+			header.putLong(HEADER_BENEFIT_COUNT, benefitCount);
+			header.putLong(HEADER_DICTIONARY_OFFSET, dictionaryOffset);
+			header.putInt(HEADER_DICTIONARY_LENGTH, dictionary.length);
+			position = 0;
+			writeFully(header);
+
+			return bookingCount;
+		}
+
+
+		private void putRecord(Booking booking) {
+			// the padding at the end of the record is never written and therefore stays 0
+			int start = buffer.position();
+			buffer.position(start + RECORD_SIZE);
+
+			boolean gross = booking.isGross();
+			buffer.putLong(start + ID, toValue(booking.getID()));
+			buffer.putLong(start + INVOICE_RECIPIENT_PK, toValue(booking.getInvoiceRecipientPK()));
+			buffer.putLong(start + OFFERING_PK, toValue(booking.getOfferingPK()));
+			putPrice(start, BookingColumns.MAIN_PRICE, booking.getMainPriceOrZero(), gross, booking);
+			putPrice(start, BookingColumns.ADD1_PRICE, booking.getAdd1PriceOrZero(), gross, booking);
+			putPrice(start, BookingColumns.ADD2_PRICE, booking.getAdd2PriceOrZero(), gross, booking);
+			putPrice(start, BookingColumns.CANCEL_FEE_PRICE, booking.getCancelFeePriceOrZero(), gross, booking);
+
+			long paid = Cents.toCents(booking.getPaidAmountOrZero());
+			if (paid == Cents.NaN) {
+				throw new IllegalArgumentException(
+					"The paid amount " + booking.getPaidAmountOrZero() + " of booking " + booking.getID() +
+					" cannot be stored in a snapshot."
+				);
+			}
+			buffer.putLong(start + PAID, paid);
+			buffer.putLong(start + BOOKING_DATE, toValue(booking.getBookingDate()));
+			buffer.putLong(start + CANCELATION_DATE, toValue(booking.getCancelationDate()));
+
+			List<Long> pks = booking.getBenefitRecipientPKs();
+			buffer.putLong(start + BENEFIT_START, benefitCount);
+			buffer.putInt(start + BENEFIT_COUNT, pks.size());
+			for (Long pk : pks) {
+				addBenefitRecipientPK(toValue(pk));
+			}
+
+			buffer.putInt(start + CURRENCY, getCurrencyIndex(booking.getCurrencyID()));
+			buffer.put(start + GROSS, (byte) (gross ? 1 : 0));
+		}
+
+
+		private void putPrice(int start, int priceIndex, Price price, boolean gross, Booking booking) {
+			long cents = price.getAmountCents();
+			if (cents == Cents.NaN || price.getTaxRateBasisPoints() == Cents.NO_BASIS_POINTS) {
+				throw new IllegalArgumentException(
+					"The price " + price.getAmount() + " with tax rate " + price.getTaxRate() + " of booking " +
+					booking.getID() + " cannot be stored in a snapshot."
+				);
+			}
+			if (cents != 0 && price.isGross() != gross) {
+				throw new IllegalArgumentException(
+					"The prices of booking " + booking.getID() + " are not either all gross or all net."
+				);
+			}
+
+			buffer.putLong(start + AMOUNTS + priceIndex * 8, cents);
+			buffer.putShort(start + TAX_RATES + priceIndex * 2, (short) getTaxRateIndex(price.getTaxRate()));
+		}
+
+
+		private int getCurrencyIndex(int currencyID) {
+			if (currencyID == CurrencyRegistry.NO_CURRENCY) {
+				return 0;
+			}
+			if (currencyID >= currencyIndexes.length) {
+				currencyIndexes = Arrays.copyOf(currencyIndexes, CurrencyRegistry.getIDCount());
+			}
+
+			int index = currencyIndexes[currencyID];
+			if (index == 0) {
+				currencies.add(CurrencyRegistry.getCode(currencyID));
+				index = currencies.size();
+				currencyIndexes[currencyID] = index;
+			}
+			return index;
+		}
+
+
+		private int getTaxRateIndex(BigDecimal taxRate) {
+			Integer index = taxRateIndexes.get(taxRate);
+			if (index == null) {
+				if (taxRates.size() == MAX_TAX_RATE_COUNT) {
+					throw new IllegalArgumentException("A snapshot cannot store more than " + MAX_TAX_RATE_COUNT + " tax rates.");
+				}
+				index = taxRates.size();
+				taxRates.add(taxRate);
+				taxRateIndexes.put(taxRate, index);
+			}
+			return index.intValue();
+		}
+
+
+		private void addBenefitRecipientPK(long pk) {
+			if (benefitCount == benefitRecipientPKs.length) {
+				if (benefitCount >= (Integer.MAX_VALUE - HEADER_SIZE) / 8) {
+					throw new IllegalArgumentException("A snapshot cannot store that many benefit recipients.");
+				}
+				benefitRecipientPKs = Arrays.copyOf(
+					benefitRecipientPKs,
+					(int) Math.min(benefitCount * 2, (Integer.MAX_VALUE - HEADER_SIZE) / 8)
+				);
+			}
+			benefitRecipientPKs[(int) benefitCount++] = pk;
+		}
+
+
+		private void writeBenefitRecipientPKs() throws IOException {
+			for (int from = 0; from < benefitCount; from += BUFFER_RECORDS) {
+				int to = (int) Math.min(benefitCount, from + BUFFER_RECORDS);
+				ByteBuffer pks = ByteBuffer.allocate((to - from) * 8);
+				for (int i = from; i < to; i++) {
+					pks.putLong(benefitRecipientPKs[i]);
+				}
+				pks.flip();
+				writeFully(pks);
+			}
+		}
+
+
+		private byte[] createDictionary() throws IOException {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			try (DataOutputStream out = new DataOutputStream(bytes)) {
+				out.writeInt(currencies.size());
+				for (String currency : currencies) {
+					out.writeUTF(currency);
+				}
+				out.writeInt(taxRates.size());
+				for (BigDecimal taxRate : taxRates) {
+					out.writeUTF(taxRate.toString());
+				}
+			}
+			return bytes.toByteArray();
+		}
+
+
+		private void flush() throws IOException {
+			buffer.flip();
+			writeFully(buffer);
+			buffer.clear();
+		}
+
+
+		private void writeFully(ByteBuffer source) throws IOException {
+			while (source.hasRemaining()) {
+				position += channel.write(source, position);
+			}
+		}
+
+	}
+
+
+	private static long toValue(Long value) {
+		return value != null ? value.longValue() : NULL_VALUE;
+	}
+
+
+	private static long toValue(Date date) {
+		return date != null ? date.getTime() : NULL_VALUE;
+	}
+
+}
@@ -0,0 +1,91 @@
+package com.lambdalogic.test.booking.io;
+
+import java.nio.ByteBuffer;
+
+
+/**
+ * A {@link CharSequence} view of a range of bytes of a {@link ByteBuffer}.
+ * <p>
+ * Every byte is one character (ISO-8859-1), which is correct for all the numbers, codes and dates of the import
+ * format. Nothing is copied: a slice is repositioned with {@link #set(ByteBuffer, int, int)} for every field, so
+ * parsing a field with {@link com.lambdalogic.test.booking.util.TypeHelper} or looking up a currency creates no
+ * objects.
+ * <p>
+ * This class is not thread-safe.
+ */
+final class ByteSlice implements CharSequence {
+
+	private ByteBuffer buffer;
+	private int start;
+	private int end;
+
+
+	ByteSlice set(ByteBuffer buffer, int start, int end) {
+		this.buffer = buffer;
+		this.start = start;
+		this.end = end;
+		return this;
+	}
+
+
+	int getStart() {
+		return start;
+	}
+
+
+	int getEnd() {
+		return end;
+	}
+
+
+	public boolean isEmpty() {
+		return start == end;
+	}
+
+
+	@Override
+	public int length() {
+		return end - start;
+	}
+
+
+	@Override
+	public char charAt(int index) {
+		return (char) (buffer.get(start + index) & 0xFF);
+	}
+
+
+	@Override
+	public CharSequence subSequence(int subStart, int subEnd) {
+		return new ByteSlice().set(buffer, start + subStart, start + subEnd);
+	}
+
+
+	/**
+	 * Return true if the slice contains exactly the given ASCII characters.
+	 * @param value
+	 * @return
+	 */
+	boolean contentEquals(String value) {
+		if (value.length() != length()) {
+			return false;
+		}
+		for (int i = 0; i < value.length(); i++) {
+			if (charAt(i) != value.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+
+	@Override
+	public String toString() {
+		char[] chars = new char[length()];
+		for (int i = 0; i < chars.length; i++) {
+			chars[i] = charAt(i);
+		}
+		return new String(chars);
+	}
+
+}
@@ -0,0 +1,257 @@
+package com.lambdalogic.test.booking.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+
+/**
+ * Counters and latencies of the calls of an evaluator, see
+ * {@link com.lambdalogic.test.booking.InstrumentedBookingsCurrencyAmountsEvaluator}.
+ * <p>
+ * All counters are {@link LongAdder}s, so threads that record at the same time do not contend. The values can be
+ * read through the getters or through JMX after {@link #register(String)}.
+ * <p>
+ * Metrics are switched off entirely by the system property {@value #DISABLED_PROPERTY}<code>=true</code>: then
+ * {@link #ENABLED} is false and evaluators are not wrapped at all. The bookings are counted during the evaluation
+ * itself, so recording them is cheap and switched on by default. It can be switched off at runtime with
+ * {@link #setBookingCountsEnabled(boolean)}, e.g. through JMX.
+ * <p>
+ * This class is thread-safe.
+ */
+public class EvaluatorMetrics implements EvaluatorMetricsMBean {
+
+	public static final String DISABLED_PROPERTY = "com.lambdalogic.test.booking.metrics.disabled";
+
+	/**
+	 * False if metrics have been disabled by the system property {@value #DISABLED_PROPERTY}.
+	 */
+	public static final boolean ENABLED = !Boolean.getBoolean(DISABLED_PROPERTY);
+
+	private static final String DOMAIN = "com.lambdalogic.test.booking";
+
+	private static final long NANOS_PER_MICRO = 1000;
+
+	private final LongAdder calls = new LongAdder();
+	private final LongAdder failedCalls = new LongAdder();
+	private final LongAdder inconsistentCurrencies = new LongAdder();
+	private final LongAdder bookingsScanned = new LongAdder();
+	private final LongAdder bookingsMatched = new LongAdder();
+	private final LongAdder bookingsZero = new LongAdder();
+	private final LongAdder bookingsNet = new LongAdder();
+	private final LongAdder bookingsGross = new LongAdder();
+	private final LatencyHistogram latencies = new LatencyHistogram();
+
+	private volatile boolean bookingCountsEnabled = true;
+
+
+	// **************************************************************************
+	// * Recording
+	// *
+
+	/**
+	 * Record a finished call.
+	 *
+	 * @param nanos - the latency of the call
+	 */
+	public void recordCall(long nanos) {
+		calls.increment();
+		latencies.record(nanos);
+	}
+
+
+	/**
+	 * Record a call that found bookings with different currencies.
+	 */
+	public void recordInconsistentCurrencies() {
+		inconsistentCurrencies.increment();
+	}
+
+
+	/**
+	 * Record a call that failed for any other reason.
+	 */
+	public void recordFailure() {
+		failedCalls.increment();
+	}
+
+
+	/**
+	 * Record the bookings of a call.
+	 *
+	 * @param scanned - the number of bookings in the list
+	 * @param matched - the number of bookings of the invoice recipient
+	 * @param zero - the number of matched bookings that have been skipped because their amounts and paid amount are 0
+	 * @param net - the number of other matched bookings with net prices
+	 * @param gross - the number of other matched bookings with gross prices
+	 */
+	public void recordBookings(long scanned, long matched, long zero, long net, long gross) {
+		bookingsScanned.add(scanned);
+		bookingsMatched.add(matched);
+		bookingsZero.add(zero);
+		bookingsNet.add(net);
+		bookingsGross.add(gross);
+	}
+
+	// *
+	// * Recording
+	// **************************************************************************
+
+	// **************************************************************************
+	// * EvaluatorMetricsMBean
+	// *
+
+	@Override
+	public long getCalls() {
+		return calls.sum();
+	}
+
+
+	@Override
+	public long getFailedCalls() {
+		return failedCalls.sum();
+	}
+
+
+	@Override
+	public long getInconsistentCurrencies() {
+		return inconsistentCurrencies.sum();
+	}
+
+
+	@Override
+	public long getBookingsScanned() {
+		return bookingsScanned.sum();
+	}
+
+
+	@Override
+	public long getBookingsMatched() {
+		return bookingsMatched.sum();
+	}
+
+
+	@Override
+	public long getBookingsZero() {
+		return bookingsZero.sum();
+	}
+
+
+	@Override
+	public long getBookingsNet() {
+		return bookingsNet.sum();
+	}
+
+
+	@Override
+	public long getBookingsGross() {
+		return bookingsGross.sum();
+	}
+
+
+	@Override
+	public long getMeanLatencyMicros() {
+		return latencies.getMeanNanos() / NANOS_PER_MICRO;
+	}
+
+
+	@Override
+	public long getMedianLatencyMicros() {
+		return toMicros(latencies.getPercentileNanos(50));
+	}
+
+
+	@Override
+	public long get99thPercentileLatencyMicros() {
+		return toMicros(latencies.getPercentileNanos(99));
+	}
+
+
+	@Override
+	public boolean isBookingCountsEnabled() {
+		return bookingCountsEnabled;
+	}
+
+
+	@Override
+	public void setBookingCountsEnabled(boolean enabled) {
+		this.bookingCountsEnabled = enabled;
+	}
+
+
+	/**
+	 * Reset all counters and latencies.
+	 * Calls that are recorded at the same time may be lost or counted.
+	 */
+	@Override
+	public void reset() {
+		calls.reset();
+		failedCalls.reset();
+		inconsistentCurrencies.reset();
+		bookingsScanned.reset();
+		bookingsMatched.reset();
+		bookingsZero.reset();
+		bookingsNet.reset();
+		bookingsGross.reset();
+		latencies.reset();
+	}
+
+	// *
+	// * EvaluatorMetricsMBean
+	// **************************************************************************
+
+	public LatencyHistogram getLatencies() {
+		return latencies;
+	}
+
+
+	/**
+	 * Register these metrics at the platform MBean server.
+	 *
+	 * @param name - distinguishes the metrics of different evaluators
+	 * @return the name under which the metrics have been registered
+	 * @throws JMException if the name is invalid or already registered
+	 */
+	public ObjectName register(String name) throws JMException {
+		if (name == null) {
+			throw new IllegalArgumentException("Parameter 'name' must not be null.");
+		}
+
+		ObjectName objectName = getObjectName(name);
+		ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+		return objectName;
+	}
+
+
+	/**
+	 * Remove metrics from the platform MBean server.
+	 *
+	 * @param name - the name that has been passed to {@link #register(String)}
+	 * @throws JMException if no metrics are registered under the name
+	 */
+	public static void unregister(String name) throws JMException {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		server.unregisterMBean(getObjectName(name));
+	}
+
+
+	/**
+	 * Return the JMX name of the metrics with the given name.
+	 *
+	 * @param name
+	 * @return
+	 * @throws JMException if the name is invalid
+	 */
+	public static ObjectName getObjectName(String name) throws JMException {
+		return new ObjectName(DOMAIN + ":type=EvaluatorMetrics,name=" + ObjectName.quote(name));
+	}
+
+
+	private static long toMicros(long nanos) {
+		return nanos == Long.MAX_VALUE ? Long.MAX_VALUE : nanos / NANOS_PER_MICRO;
+	}
+
+}
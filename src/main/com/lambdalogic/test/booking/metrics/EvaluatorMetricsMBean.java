@@ -0,0 +1,38 @@
+package com.lambdalogic.test.booking.metrics;
+
+
+/**
+ * Management interface of {@link EvaluatorMetrics}.
+ * Latencies are in microseconds, because JMX consoles display them more readably than nanoseconds.
+ */
+public interface EvaluatorMetricsMBean {
+
+	long getCalls();
+
+	long getFailedCalls();
+
+	long getInconsistentCurrencies();
+
+	long getBookingsScanned();
+
+	long getBookingsMatched();
+
+	long getBookingsZero();
+
+	long getBookingsNet();
+
+	long getBookingsGross();
+
+	long getMeanLatencyMicros();
+
+	long getMedianLatencyMicros();
+
+	long get99thPercentileLatencyMicros();
+
+	boolean isBookingCountsEnabled();
+
+	void setBookingCountsEnabled(boolean enabled);
+
+	void reset();
+
+}
@@ -0,0 +1,160 @@
+package com.lambdalogic.test.booking.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * Histogram of latencies with fixed buckets whose upper bounds are powers of 2 of microseconds.
+ * <p>
+ * Bucket 0 counts latencies up to 1 microseconds, bucket <i>i</i> latencies up to 2<sup><i>i</i></sup> microseconds and the last bucket
+ * all longer latencies. Finding the bucket of a latency costs a few bit operations and every bucket is a
+ * {@link LongAdder}, so recording does neither allocate nor contend between threads.
+ * <p>
+ * Percentiles are approximated by the upper bound of the bucket that contains them, so they are at most twice the
+ * exact value.
+ * <p>
+ * This class is thread-safe.
+ */
+public class LatencyHistogram {
+
+	/**
+	 * Number of buckets. The last bucket starts above 2<sup>30</sup> microseconds (about 18 minutes).
+	 */
+	public static final int BUCKET_COUNT = 32;
+
+	private static final long NANOS_PER_MICRO = 1000;
+
+	private final LongAdder[] buckets = new LongAdder[BUCKET_COUNT];
+	private final LongAdder sumNanos = new LongAdder();
+
+
+	public LatencyHistogram() {
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			buckets[i] = new LongAdder();
+		}
+	}
+
+
+	/**
+	 * Record a latency.
+	 *
+	 * @param nanos - negative values are counted as 0
+	 */
+	public void record(long nanos) {
+		if (nanos < 0) {
+			nanos = 0;
+		}
+		buckets[getBucket(nanos)].increment();
+		sumNanos.add(nanos);
+	}
+
+
+	/**
+	 * Return the number of recorded latencies.
+	 * @return
+	 */
+	public long getCount() {
+		long count = 0;
+		for (LongAdder bucket : buckets) {
+			count += bucket.sum();
+		}
+		return count;
+	}
+
+
+	/**
+	 * Return the mean latency in nanoseconds or 0 if there are none.
+	 * @return
+	 */
+	public long getMeanNanos() {
+		long count = getCount();
+		return count > 0 ? sumNanos.sum() / count : 0;
+	}
+
+
+	/**
+	 * Return the approximate latency in nanoseconds that the given share of the recorded latencies does not exceed.
+	 *
+	 * @param percentile - between 0 and 100, e.g. 99 for the 99th percentile
+	 * @return the upper bound of the bucket that contains the percentile, {@link Long#MAX_VALUE} for the last
+	 * bucket and 0 if there are no latencies
+	 */
+	public long getPercentileNanos(double percentile) {
+		if (!(percentile >= 0 && percentile <= 100)) {
+			throw new IllegalArgumentException("Parameter 'percentile' must be between 0 and 100.");
+		}
+
+		long[] counts = getBucketCounts();
+		long count = 0;
+		for (long bucketCount : counts) {
+			count += bucketCount;
+		}
+		if (count == 0) {
+			return 0;
+		}
+
+		long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+		long seen = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			seen += counts[i];
+			if (seen >= rank) {
+				return getUpperBoundNanos(i);
+			}
+		}
+		return getUpperBoundNanos(BUCKET_COUNT - 1);
+	}
+
+
+	/**
+	 * Return the number of latencies per bucket.
+	 * @return a new array
+	 */
+	public long[] getBucketCounts() {
+		long[] counts = new long[BUCKET_COUNT];
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			counts[i] = buckets[i].sum();
+		}
+		return counts;
+	}
+
+
+	/**
+	 * Return the inclusive upper bound of a bucket in nanoseconds.
+	 *
+	 * @param bucket
+	 * @return {@link Long#MAX_VALUE} for the last bucket
+	 */
+	public static long getUpperBoundNanos(int bucket) {
+		if (bucket < 0 || bucket >= BUCKET_COUNT) {
+			throw new IllegalArgumentException("Parameter 'bucket' must be between 0 and " + (BUCKET_COUNT - 1) + ".");
+		}
+		if (bucket == BUCKET_COUNT - 1) {
+			return Long.MAX_VALUE;
+		}
+		return (1L << bucket) * NANOS_PER_MICRO;
+	}
+
+
+	/**
+	 * Reset all buckets.
+	 * Latencies that are recorded at the same time may be lost or counted.
+	 */
+	public void reset() {
+		for (LongAdder bucket : buckets) {
+			bucket.reset();
+		}
+		sumNanos.reset();
+	}
+
+
+	static int getBucket(long nanos) {
+		// round up to whole microseconds, so a bucket contains all latencies up to its upper bound
+		long micros = nanos / NANOS_PER_MICRO + (nanos % NANOS_PER_MICRO != 0 ? 1 : 0);
+		if (micros <= 1) {
+			return 0;
+		}
+		int bucket = 64 - Long.numberOfLeadingZeros(micros - 1);
+		return Math.min(bucket, BUCKET_COUNT - 1);
+	}
+
+}
@@ -0,0 +1,104 @@
+package com.lambdalogic.test.booking.model;
+
+import java.math.BigDecimal;
+
+import com.lambdalogic.test.booking.exception.InconsistentCurrenciesException;
+
+
+/**
+ * Base class of the immutable results of adding up the amounts of the {@link Booking}s that belong to a PK, e.g. an
+ * invoice recipient or an offering.
+ * <p>
+ * A result is either successful and has the currency of all relevant bookings, or it failed because the relevant
+ * bookings have different currencies and {@link #getException()} returns an {@link InconsistentCurrenciesException}.
+ * <p>
+ * Subclasses store their amounts as {@link BigDecimal}s and the currency as ID (see {@link CurrencyRegistry}), because
+ * {@link CurrencyAmount} is mutable. Their getters return a new {@link CurrencyAmount} on every call, so callers
+ * cannot change the result.
+ */
+public abstract class AbstractAmountsResult {
+
+	private final Long pk;
+	private final int currencyID;
+	private final InconsistentCurrenciesException exception;
+
+
+	/**
+	 * Create a successful result.
+	 *
+	 * @param pk - the PK the result belongs to
+	 * @param currencyID - the ID of the currency of the amounts in {@link CurrencyRegistry}
+	 */
+	protected AbstractAmountsResult(Long pk, int currencyID) {
+		this.pk = pk;
+		this.currencyID = currencyID;
+		this.exception = null;
+	}
+
+
+	/**
+	 * Create a failed result.
+	 *
+	 * @param pk - the PK the result belongs to
+	 * @param exception - the reason why no amounts could be calculated
+	 */
+	protected AbstractAmountsResult(Long pk, InconsistentCurrenciesException exception) {
+		if (exception == null) {
+			throw new IllegalArgumentException("Parameter 'exception' must not be null.");
+		}
+
+		this.pk = pk;
+		this.currencyID = CurrencyRegistry.NO_CURRENCY;
+		this.exception = exception;
+	}
+
+
+	protected Long getPK() {
+		return pk;
+	}
+
+
+	/**
+	 * Return the currency of all relevant bookings.
+	 * The result is null if there were no relevant bookings or if their currencies were inconsistent.
+	 * @return
+	 */
+	public String getCurrency() {
+		return CurrencyRegistry.getCode(currencyID);
+	}
+
+
+	/**
+	 * Return the ID of the currency in {@link CurrencyRegistry}.
+	 * @return the ID or {@link CurrencyRegistry#NO_CURRENCY} if {@link #getCurrency()} returns null
+	 */
+	public int getCurrencyID() {
+		return currencyID;
+	}
+
+
+	/**
+	 * Return the error that prevented the calculation or null if the calculation was successful.
+	 * @return
+	 */
+	public InconsistentCurrenciesException getException() {
+		return exception;
+	}
+
+
+	public boolean isSuccessful() {
+		return exception == null;
+	}
+
+
+	/**
+	 * Return a new {@link CurrencyAmount} with the currency of this result.
+	 *
+	 * @param amount
+	 * @return the amount or null if <code>amount</code> is null
+	 */
+	protected CurrencyAmount toCurrencyAmount(BigDecimal amount) {
+		return amount != null ? new CurrencyAmount(amount, getCurrency()) : null;
+	}
+
+}
@@ -79,6 +79,17 @@ public class Booking {
      * PK of the offering that has been booked.
      */
     protected Long offeringPK;
+
+    /**
+     * Number of modifications of this booking and its prices, see {@link #getVersion()}.
+     */
+    private long version;
+
+    /**
+     * The {@link BookingList} this booking has been added to, which is notified of every modification.
+     * Null if there is none.
+     */
+    BookingList owner;
         
     
     public Booking() {
@@ -99,10 +110,10 @@ public class Booking {
         Long offeringPK
     ){
         this.id = id;
-        this.mainPrice = mainPrice;
-        this.add1Price = add1Price;
-        this.add2Price = add2Price;
-        this.cancelFeePrice = cancelFeePrice;
+        this.mainPrice = attach(null, mainPrice);
+        this.add1Price = attach(null, add1Price);
+        this.add2Price = attach(null, add2Price);
+        this.cancelFeePrice = attach(null, cancelFeePrice);
         this.paidAmount = paidAmount;
         this.bookingDate = bookingDate;
         this.cancelationDate = cancelationDate;
@@ -117,10 +128,10 @@ public class Booking {
      * @return
      */
     public BigDecimal getTotalAmountGross() {
-		BigDecimal result = getMainPrice().getAmountGross();
-		result = result.add(getAdd1Price().getAmountGross());
-		result = result.add(getAdd2Price().getAmountGross());
-		result = result.add(getCancelFeePrice().getAmountGross());
+		BigDecimal result = getMainPriceOrZero().getAmountGross();
+		result = result.add(getAdd1PriceOrZero().getAmountGross());
+		result = result.add(getAdd2PriceOrZero().getAmountGross());
+		result = result.add(getCancelFeePriceOrZero().getAmountGross());
 		return result;
     }
     
@@ -129,10 +140,10 @@ public class Booking {
      * @return
      */
     public BigDecimal getTotalAmountNet() {
-		BigDecimal result = getMainPrice().getAmountNet();
-		result = result.add(getAdd1Price().getAmountNet());
-		result = result.add(getAdd2Price().getAmountNet());
-		result = result.add(getCancelFeePrice().getAmountNet());
+		BigDecimal result = getMainPriceOrZero().getAmountNet();
+		result = result.add(getAdd1PriceOrZero().getAmountNet());
+		result = result.add(getAdd2PriceOrZero().getAmountNet());
+		result = result.add(getCancelFeePriceOrZero().getAmountNet());
 		return result;
     }
     
@@ -141,10 +152,10 @@ public class Booking {
      * @return
      */
     public BigDecimal getTotalAmountTax() {
-		BigDecimal result = getMainPrice().getAmountTax();
-		result = result.add(getAdd1Price().getAmountTax());
-		result = result.add(getAdd2Price().getAmountTax());
-		result = result.add(getCancelFeePrice().getAmountTax());
+		BigDecimal result = getMainPriceOrZero().getAmountTax();
+		result = result.add(getAdd1PriceOrZero().getAmountTax());
+		result = result.add(getAdd2PriceOrZero().getAmountTax());
+		result = result.add(getCancelFeePriceOrZero().getAmountTax());
 		return result;
     }
     
@@ -153,10 +164,10 @@ public class Booking {
      * @return
      */
     public BigDecimal getTotalAmount() {
-		BigDecimal result = getMainPrice().getAmount();
-		result = result.add(getAdd1Price().getAmount());
-		result = result.add(getAdd2Price().getAmount());
-		result = result.add(getCancelFeePrice().getAmount());
+		BigDecimal result = getMainPriceOrZero().getAmount();
+		result = result.add(getAdd1PriceOrZero().getAmount());
+		result = result.add(getAdd2PriceOrZero().getAmount());
+		result = result.add(getCancelFeePriceOrZero().getAmount());
 		return result;
     }
     
@@ -204,10 +215,10 @@ public class Booking {
      */
     public boolean isZero() {
 		return 
-			getMainPrice().isZero() &&
-			getAdd1Price().isZero() &&
-			getAdd2Price().isZero() &&
-			getCancelFeePrice().isZero();
+			getMainPriceOrZero().isZero() &&
+			getAdd1PriceOrZero().isZero() &&
+			getAdd2PriceOrZero().isZero() &&
+			getCancelFeePriceOrZero().isZero();
     }
 
     
@@ -221,59 +232,64 @@ public class Booking {
     
 
     public void setID(Long value) {
+        modified();
         id = value;
     }    
 
     
     public Price getMainPrice() {
 		if (mainPrice == null) {
-			mainPrice = new Price();
+			mainPrice = attach(null, new Price());
 		}
 		return mainPrice;
     }
     
     
     public void setMainPrice(Price price) {
-    	this.mainPrice = price;
+    	modified();
+    	this.mainPrice = attach(mainPrice, price);
     }
 
     
     public Price getAdd1Price() {
 		if (add1Price == null) {
-			add1Price = new Price();
+			add1Price = attach(null, new Price());
 		}
 		return add1Price;
     }
     
     
     public void setAdd1Price(Price price) {
-    	this.add1Price = price;
+    	modified();
+    	this.add1Price = attach(add1Price, price);
     }
 
     
     public Price getAdd2Price() {
 		if (add2Price == null) {
-			add2Price = new Price();
+			add2Price = attach(null, new Price());
 		}
 		return add2Price;
     }
     
     
     public void setAdd2Price(Price price) {
-    	this.add2Price = price;
+    	modified();
+    	this.add2Price = attach(add2Price, price);
     }
 
     
     public Price getCancelFeePrice() {
 		if (cancelFeePrice == null) {
-			cancelFeePrice = new Price();
+			cancelFeePrice = attach(null, new Price());
 		}
 		return cancelFeePrice;
     }
     
     
     public void setCancelFeePrice(Price price) {
-    	this.cancelFeePrice = price;
+    	modified();
+    	this.cancelFeePrice = attach(cancelFeePrice, price);
     }
     
     
@@ -286,6 +302,7 @@ public class Booking {
     
     
     public void setPaidAmount(BigDecimal paidAmount) {
+    	modified();
     	this.paidAmount = paidAmount;
     }
     
@@ -296,6 +313,7 @@ public class Booking {
     
     
     public void setBookingDate(Date bookingDate) {
+        modified();
         this.bookingDate = bookingDate;
     }
 
@@ -306,6 +324,7 @@ public class Booking {
     
     
     public void setCancelationDate(Date cancelationDate) {
+    	modified();
     	this.cancelationDate = cancelationDate;
     }
     
@@ -324,12 +343,14 @@ public class Booking {
     
     
     public void setBenefitRecipientPK(Long benefitRecipientPK) {
+    	modified();
     	benefitRecipientPKs = new ArrayList<>(1);
     	benefitRecipientPKs.add(benefitRecipientPK);
     }    
     
     
     public void setBenefitRecipientPKs(List<Long> benefitRecipientPKs) {
+    	modified();
     	this.benefitRecipientPKs = benefitRecipientPKs;
     }    
     
@@ -345,6 +366,7 @@ public class Booking {
     
     
     public void setInvoiceRecipientPK(Long newInvoiceRecipientPK) {
+    	modified();
     	this.invoiceRecipientPK = newInvoiceRecipientPK;
     }
     
@@ -355,6 +377,7 @@ public class Booking {
     
     
     public void setOfferingPK(Long offeringPK) {
+    	modified();
     	this.offeringPK = offeringPK;
     }
 
@@ -373,7 +396,17 @@ public class Booking {
      * @return
      */
     public String getCurrency() {
-    	return getMainPrice().getCurrency();
+    	return getMainPriceOrZero().getCurrency();
+    }
+    
+    
+    /**
+     * Return the ID of the currency of this booking in {@link CurrencyRegistry}.
+     * Two bookings have the same currency if and only if they have the same currency ID.
+     * @return
+     */
+    public int getCurrencyID() {
+    	return getMainPriceOrZero().getCurrencyID();
     }
     
     
@@ -400,7 +433,7 @@ public class Booking {
      * @return
      */
     public boolean isGross() {
-    	return getMainPrice().isGross();
+    	return getMainPriceOrZero().isGross();
     }
     
     
@@ -421,6 +454,52 @@ public class Booking {
     }
 
     
+    /**
+     * Return the modification version of this booking and its prices.
+     * <p>
+     * The version is increased whenever a setter of this booking or of one of its prices is called, so two equal
+     * versions of the same booking object mean that its amounts, dates and PKs have not changed in between. Changes
+     * of the list returned by {@link #getBenefitRecipientPKs()} are not recognized.
+     * <p>
+     * A price notifies only the booking it has been set on last, so a price must not be shared by several bookings.
+     * The version counts the modifications of this booking only, so versions of different bookings are not related.
+     * @return
+     */
+    public long getVersion() {
+    	return version;
+    }
+
+
+    /**
+     * Increase the version and notify the {@link BookingList} this booking belongs to.
+     * Called by the setters of this booking and of its prices.
+     */
+    void modified() {
+    	version++;
+    	if (owner != null) {
+    		owner.modified();
+    	}
+    }
+
+
+    /**
+     * Make this booking the owner of a new price instead of an old one.
+     *
+     * @param oldPrice - the price that is replaced, may be null
+     * @param newPrice - may be null
+     * @return newPrice
+     */
+    private Price attach(Price oldPrice, Price newPrice) {
+    	if (oldPrice != null && oldPrice.owner == this) {
+    		oldPrice.owner = null;
+    	}
+    	if (newPrice != null) {
+    		newPrice.owner = this;
+    	}
+    	return newPrice;
+    }
+
+    
     /**
      * The amount that has to be paid yet.
      * The open amount is the difference between the total amount gross and the paid amount.
@@ -437,6 +516,56 @@ public class Booking {
     	return openAmount;
     }
 
+    
+    /**
+     * Return the main price or, if it is null, an immutable zero price.
+     * Unlike {@link #getMainPrice()} this method never changes the booking.
+     * @return
+     */
+    public Price getMainPriceOrZero() {
+    	return mainPrice != null ? mainPrice : ZeroPrice.INSTANCE;
+    }
+    
+    
+    /**
+     * Return the additional price 1 or, if it is null, an immutable zero price.
+     * Unlike {@link #getAdd1Price()} this method never changes the booking.
+     * @return
+     */
+    public Price getAdd1PriceOrZero() {
+    	return add1Price != null ? add1Price : ZeroPrice.INSTANCE;
+    }
+    
+    
+    /**
+     * Return the additional price 2 or, if it is null, an immutable zero price.
+     * Unlike {@link #getAdd2Price()} this method never changes the booking.
+     * @return
+     */
+    public Price getAdd2PriceOrZero() {
+    	return add2Price != null ? add2Price : ZeroPrice.INSTANCE;
+    }
+    
+    
+    /**
+     * Return the cancellation fee or, if it is null, an immutable zero price.
+     * Unlike {@link #getCancelFeePrice()} this method never changes the booking.
+     * @return
+     */
+    public Price getCancelFeePriceOrZero() {
+    	return cancelFeePrice != null ? cancelFeePrice : ZeroPrice.INSTANCE;
+    }
+    
+    
+    /**
+     * Return the paid amount or, if it is null, 0.
+     * Unlike {@link #getPaidAmount()} this method never changes the booking.
+     * @return
+     */
+    public BigDecimal getPaidAmountOrZero() {
+    	return paidAmount != null ? paidAmount : BigDecimal.ZERO;
+    }
+
     // *
 	// * Convenience Methods and Delegate Methods
 	// **************************************************************************
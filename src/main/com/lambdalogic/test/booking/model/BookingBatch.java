@@ -0,0 +1,293 @@
+package com.lambdalogic.test.booking.model;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+
+/**
+ * Column-oriented (struct of arrays) representation of a list of {@link Booking}s.
+ * <p>
+ * Only the values that are needed to add up the amounts of bookings are stored, each in a primitive array:
+ * the PK of the invoice recipient, the currency, the gross flag, the amounts and tax rates of the four prices and the
+ * paid amount. Amounts are stored in cents (see {@link Cents}), currencies as IDs of {@link CurrencyRegistry} and
+ * tax rates as indexes into a small dictionary.
+ * <p>
+ * Bookings can only be appended. Amounts that cannot be represented in cents and tax rates that cannot be
+ * represented in basis points are rejected with an {@link IllegalArgumentException}.
+ * <p>
+ * The constants of {@link BookingColumns} (e.g. {@link #NULL_PK} and {@link #MAIN_PRICE}) are inherited.
+ * <p>
+ * This class is not thread-safe, but a batch that is not modified anymore can be read by any number of threads.
+ */
+public class BookingBatch implements BookingColumns {
+
+	private static final int DEFAULT_CAPACITY = 16;
+
+
+	private int size;
+
+	private long[] invoiceRecipientPKs;
+	private int[] currencyIDs;
+	private boolean[] gross;
+	private long[] paidCents;
+
+	/**
+	 * Amounts in cents, indexed by price index and booking index.
+	 */
+	private final long[][] amountCents = new long[PRICE_COUNT][];
+
+	/**
+	 * Tax rate IDs, indexed by price index and booking index.
+	 */
+	private final int[][] taxRateIDs = new int[PRICE_COUNT][];
+
+	private BigDecimal[] taxRates = new BigDecimal[0];
+	private int[] taxRateBasisPoints = new int[0];
+
+
+	public BookingBatch() {
+		this(DEFAULT_CAPACITY);
+	}
+
+
+	public BookingBatch(int capacity) {
+		capacity = Math.max(capacity, 1);
+		invoiceRecipientPKs = new long[capacity];
+		currencyIDs = new int[capacity];
+		gross = new boolean[capacity];
+		paidCents = new long[capacity];
+		for (int p = 0; p < PRICE_COUNT; p++) {
+			amountCents[p] = new long[capacity];
+			taxRateIDs[p] = new int[capacity];
+		}
+	}
+
+
+	/**
+	 * Create a batch that contains all given bookings in the same order.
+	 *
+	 * @param bookingList
+	 * @throws IllegalArgumentException if a booking contains amounts that cannot be stored in a batch
+	 */
+	public BookingBatch(List<Booking> bookingList) {
+		this(bookingList.size());
+		for (Booking booking : bookingList) {
+			add(booking);
+		}
+	}
+
+
+	/**
+	 * Append a booking.
+	 *
+	 * @param booking
+	 * @return the index of the booking in this batch
+	 * @throws IllegalArgumentException if the booking contains amounts that cannot be stored in a batch
+	 */
+	public int add(Booking booking) {
+		Long invoiceRecipientPK = booking.getInvoiceRecipientPK();
+		boolean bookingGross = booking.isGross();
+		long paid = Cents.toCents(booking.getPaidAmountOrZero());
+		if (paid == Cents.NaN) {
+			throw new IllegalArgumentException(
+				"The paid amount " + booking.getPaidAmountOrZero() + " of booking " + booking.getID() +
+				" cannot be stored in a BookingBatch."
+			);
+		}
+
+		ensureCapacity(size + 1);
+		int index = size;
+		invoiceRecipientPKs[index] = (invoiceRecipientPK == null ? NULL_PK : invoiceRecipientPK.longValue());
+		currencyIDs[index] = booking.getCurrencyID();
+		gross[index] = bookingGross;
+		paidCents[index] = paid;
+
+		setPrice(index, MAIN_PRICE, booking.getMainPriceOrZero(), booking);
+		setPrice(index, ADD1_PRICE, booking.getAdd1PriceOrZero(), booking);
+		setPrice(index, ADD2_PRICE, booking.getAdd2PriceOrZero(), booking);
+		setPrice(index, CANCEL_FEE_PRICE, booking.getCancelFeePriceOrZero(), booking);
+
+		size++;
+		return index;
+	}
+
+
+	/**
+	 * Append a booking that is given by its primitive values, e.g. by an importer that does not create
+	 * {@link Booking} objects.
+	 *
+	 * @param invoiceRecipientPK - the PK of the invoice recipient or {@link #NULL_PK}
+	 * @param currencyID - the ID of the currency in {@link CurrencyRegistry}
+	 * @param bookingGross - true if the prices are gross
+	 * @param priceCents - the amounts of the {@link #PRICE_COUNT} prices in cents, indexed by {@link #MAIN_PRICE} etc.
+	 * @param priceTaxRateBasisPoints - the tax rates of the prices in basis points
+	 * @param paid - the paid amount in cents
+	 * @return the index of the booking in this batch
+	 * @throws IllegalArgumentException if a value is {@link Cents#NaN} or a tax rate is not a valid basis point value
+	 */
+	public int add(
+		long invoiceRecipientPK,
+		int currencyID,
+		boolean bookingGross,
+		long[] priceCents,
+		int[] priceTaxRateBasisPoints,
+		long paid
+	) {
+		if (paid == Cents.NaN) {
+			throw new IllegalArgumentException("Parameter 'paid' must not be Cents.NaN.");
+		}
+		for (int p = 0; p < PRICE_COUNT; p++) {
+			if (priceCents[p] == Cents.NaN) {
+				throw new IllegalArgumentException("Parameter 'priceCents' must not contain Cents.NaN.");
+			}
+			if (priceTaxRateBasisPoints[p] < 0 || priceTaxRateBasisPoints[p] > Cents.MAX_BASIS_POINTS) {
+				throw new IllegalArgumentException(
+					"Parameter 'priceTaxRateBasisPoints' must only contain values between 0 and " + Cents.MAX_BASIS_POINTS + "."
+				);
+			}
+		}
+
+		ensureCapacity(size + 1);
+		int index = size;
+		invoiceRecipientPKs[index] = invoiceRecipientPK;
+		currencyIDs[index] = currencyID;
+		gross[index] = bookingGross;
+		paidCents[index] = paid;
+		for (int p = 0; p < PRICE_COUNT; p++) {
+			amountCents[p][index] = priceCents[p];
+			taxRateIDs[p][index] = getTaxRateID(null, priceTaxRateBasisPoints[p]);
+		}
+
+		size++;
+		return index;
+	}
+
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+
+	@Override
+	public long getInvoiceRecipientPK(int index) {
+		return invoiceRecipientPKs[index];
+	}
+
+
+	@Override
+	public int getCurrencyID(int index) {
+		return currencyIDs[index];
+	}
+
+
+	@Override
+	public boolean isGross(int index) {
+		return gross[index];
+	}
+
+
+	@Override
+	public long getAmountCents(int priceIndex, int index) {
+		return amountCents[priceIndex][index];
+	}
+
+
+	@Override
+	public int getTaxRateID(int priceIndex, int index) {
+		return taxRateIDs[priceIndex][index];
+	}
+
+
+	@Override
+	public long getPaidCents(int index) {
+		return paidCents[index];
+	}
+
+
+	@Override
+	public boolean isZero(int index) {
+		return
+			amountCents[MAIN_PRICE][index] == 0 &&
+			amountCents[ADD1_PRICE][index] == 0 &&
+			amountCents[ADD2_PRICE][index] == 0 &&
+			amountCents[CANCEL_FEE_PRICE][index] == 0;
+	}
+
+
+	@Override
+	public int getTaxRateCount() {
+		return taxRates.length;
+	}
+
+
+	@Override
+	public BigDecimal getTaxRate(int taxRateID) {
+		return taxRates[taxRateID];
+	}
+
+
+	@Override
+	public int getTaxRateBasisPoints(int taxRateID) {
+		return taxRateBasisPoints[taxRateID];
+	}
+
+
+	private void setPrice(int index, int priceIndex, Price price, Booking booking) {
+		long cents = price.getAmountCents();
+		int basisPoints = price.getTaxRateBasisPoints();
+		if (cents == Cents.NaN || basisPoints == Cents.NO_BASIS_POINTS) {
+			throw new IllegalArgumentException(
+				"The price " + price.getAmount() + " with tax rate " + price.getTaxRate() + " of booking " +
+				booking.getID() + " cannot be stored in a BookingBatch."
+			);
+		}
+		if (cents != 0 && price.isGross() != gross[index]) {
+			throw new IllegalArgumentException(
+				"The prices of booking " + booking.getID() + " are not either all gross or all net."
+			);
+		}
+
+		amountCents[priceIndex][index] = cents;
+		taxRateIDs[priceIndex][index] = getTaxRateID(price.getTaxRate(), basisPoints);
+	}
+
+
+	/**
+	 * @param taxRate - the tax rate as it has been set in the price or null to derive it from basisPoints
+	 * @param basisPoints
+	 */
+	private int getTaxRateID(BigDecimal taxRate, int basisPoints) {
+		for (int id = 0; id < taxRateBasisPoints.length; id++) {
+			if (taxRateBasisPoints[id] == basisPoints) {
+				return id;
+			}
+		}
+
+		int id = taxRates.length;
+		taxRates = Arrays.copyOf(taxRates, id + 1);
+		taxRateBasisPoints = Arrays.copyOf(taxRateBasisPoints, id + 1);
+		taxRates[id] = (taxRate != null ? taxRate : BigDecimal.valueOf(basisPoints, 2));
+		taxRateBasisPoints[id] = basisPoints;
+		return id;
+	}
+
+
+	private void ensureCapacity(int capacity) {
+		if (capacity <= invoiceRecipientPKs.length) {
+			return;
+		}
+
+		int newCapacity = Math.max(capacity, invoiceRecipientPKs.length + (invoiceRecipientPKs.length >> 1));
+		invoiceRecipientPKs = Arrays.copyOf(invoiceRecipientPKs, newCapacity);
+		currencyIDs = Arrays.copyOf(currencyIDs, newCapacity);
+		gross = Arrays.copyOf(gross, newCapacity);
+		paidCents = Arrays.copyOf(paidCents, newCapacity);
+		for (int p = 0; p < PRICE_COUNT; p++) {
+			amountCents[p] = Arrays.copyOf(amountCents[p], newCapacity);
+			taxRateIDs[p] = Arrays.copyOf(taxRateIDs[p], newCapacity);
+		}
+	}
+
+}
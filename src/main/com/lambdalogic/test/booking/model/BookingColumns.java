@@ -0,0 +1,85 @@
+package com.lambdalogic.test.booking.model;
+
+import java.math.BigDecimal;
+
+
+/**
+ * Read access to the values of a sequence of bookings that are needed to add up their amounts, stored in primitive
+ * columns instead of {@link Booking} objects.
+ * <p>
+ * Amounts are in cents (see {@link Cents}), currencies are IDs of {@link CurrencyRegistry} and tax rates are IDs
+ * of a dictionary of the implementation. Implementations are the in-memory {@link BookingBatch} and the
+ * memory-mapped {@link com.lambdalogic.test.booking.io.BookingSnapshot}.
+ */
+public interface BookingColumns {
+
+	/**
+	 * Value of {@link #getInvoiceRecipientPK(int)} for bookings without invoice recipient.
+	 */
+	long NULL_PK = Long.MIN_VALUE;
+
+	/**
+	 * Indexes of the four prices of a booking.
+	 */
+	int MAIN_PRICE = 0;
+	int ADD1_PRICE = 1;
+	int ADD2_PRICE = 2;
+	int CANCEL_FEE_PRICE = 3;
+	int PRICE_COUNT = 4;
+
+
+	int size();
+
+
+	long getInvoiceRecipientPK(int index);
+
+
+	int getCurrencyID(int index);
+
+
+	boolean isGross(int index);
+
+
+	long getAmountCents(int priceIndex, int index);
+
+
+	int getTaxRateID(int priceIndex, int index);
+
+
+	long getPaidCents(int index);
+
+
+	/**
+	 * Return true, if the amount of every price of a booking is 0 (see {@link Booking#isZero()}).
+	 *
+	 * @param index
+	 * @return
+	 */
+	boolean isZero(int index);
+
+
+	/**
+	 * Return the currency code of an ID that has been returned by {@link #getCurrencyID(int)}.
+	 * @param currencyID
+	 * @return
+	 * @see CurrencyRegistry#getCode(int)
+	 */
+	default String getCurrency(int currencyID) {
+		return CurrencyRegistry.getCode(currencyID);
+	}
+
+
+	/**
+	 * Return the number of different tax rates.
+	 * Tax rate IDs are between 0 (inclusive) and this value (exclusive).
+	 * @return
+	 */
+	int getTaxRateCount();
+
+
+	BigDecimal getTaxRate(int taxRateID);
+
+
+	int getTaxRateBasisPoints(int taxRateID);
+
+}
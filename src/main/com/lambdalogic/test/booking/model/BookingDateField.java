@@ -0,0 +1,54 @@
+package com.lambdalogic.test.booking.model;
+
+import java.time.ZoneId;
+import java.util.Date;
+
+import com.lambdalogic.test.booking.util.EpochDays;
+
+
+/**
+ * The dates of a {@link Booking} that bookings can be grouped or searched by.
+ */
+public enum BookingDateField {
+
+	BOOKING_DATE {
+		@Override
+		public Date getDate(Booking booking) {
+			return booking.getBookingDate();
+		}
+	},
+
+	CANCELATION_DATE {
+		@Override
+		public Date getDate(Booking booking) {
+			return booking.getCancelationDate();
+		}
+	};
+
+
+	public abstract Date getDate(Booking booking);
+
+
+	/**
+	 * Return the date of a booking as epoch day (see {@link EpochDays}) in the default time zone.
+	 *
+	 * @param booking
+	 * @return {@link EpochDays#NO_DAY} if the booking has no such date
+	 */
+	public int getEpochDay(Booking booking) {
+		return EpochDays.toEpochDay(getDate(booking), ZoneId.systemDefault());
+	}
+
+
+	/**
+	 * Return the date of a booking as epoch day (see {@link EpochDays}).
+	 *
+	 * @param booking
+	 * @param zone - the time zone of the local date
+	 * @return {@link EpochDays#NO_DAY} if the booking has no such date
+	 */
+	public int getEpochDay(Booking booking, ZoneId zone) {
+		return EpochDays.toEpochDay(getDate(booking), zone);
+	}
+
+}
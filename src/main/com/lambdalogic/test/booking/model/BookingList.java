@@ -0,0 +1,146 @@
+package com.lambdalogic.test.booking.model;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+
+/**
+ * List of {@link Booking}s that knows whether it or one of its bookings has changed.
+ * <p>
+ * {@link #getVersion()} is increased whenever a booking is added, removed or replaced and whenever a setter of one of
+ * the bookings or of their prices is called, because the bookings and their prices notify the list. So a change can
+ * be recognized by comparing a single long instead of the versions of all bookings, see
+ * {@link com.lambdalogic.test.booking.CachingBookingsCurrencyAmountsEvaluator}.
+ * <p>
+ * A booking notifies only the list it has been added to last, so a booking must not be contained in several
+ * {@link BookingList}s at the same time. Null elements are not allowed.
+ * <p>
+ * This class is not thread-safe. The version can be read by other threads, as long as only one thread changes the
+ * list and its bookings.
+ */
+public class BookingList extends AbstractList<Booking> implements RandomAccess {
+
+	private final ArrayList<Booking> bookings;
+
+	/**
+	 * Number of modifications of this list and its bookings, see {@link #getVersion()}.
+	 */
+	private volatile long version;
+
+
+	public BookingList() {
+		bookings = new ArrayList<>();
+	}
+
+
+	/**
+	 * Create a list that contains the given bookings.
+	 *
+	 * @param bookings
+	 */
+	public BookingList(Collection<Booking> bookings) {
+		if (bookings == null) {
+			throw new IllegalArgumentException("Parameter 'bookings' must not be null.");
+		}
+
+		this.bookings = new ArrayList<>(bookings.size());
+		addAll(bookings);
+	}
+
+
+	/**
+	 * Return the modification version of this list and its bookings.
+	 * Two equal versions mean that neither the list nor one of its bookings has changed in between. Versions of
+	 * different lists are not related.
+	 * @return
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+
+	/**
+	 * Increase the version.
+	 * Called by the bookings of this list when they or their prices change.
+	 */
+	void modified() {
+		version++;
+	}
+
+
+	@Override
+	public Booking get(int index) {
+		return bookings.get(index);
+	}
+
+
+	@Override
+	public int size() {
+		return bookings.size();
+	}
+
+
+	@Override
+	public void add(int index, Booking booking) {
+		checkBooking(booking);
+		bookings.add(index, booking);
+		booking.owner = this;
+		modCount++;
+		modified();
+	}
+
+
+	@Override
+	public Booking set(int index, Booking booking) {
+		checkBooking(booking);
+		Booking oldBooking = bookings.set(index, booking);
+		booking.owner = this;
+		detach(oldBooking);
+		modified();
+		return oldBooking;
+	}
+
+
+	@Override
+	public Booking remove(int index) {
+		Booking oldBooking = bookings.remove(index);
+		detach(oldBooking);
+		modCount++;
+		modified();
+		return oldBooking;
+	}
+
+
+	@Override
+	protected void removeRange(int fromIndex, int toIndex) {
+		List<Booking> range = bookings.subList(fromIndex, toIndex);
+		Booking[] oldBookings = range.toArray(new Booking[range.size()]);
+		range.clear();
+		for (Booking oldBooking : oldBookings) {
+			detach(oldBooking);
+		}
+		modCount++;
+		modified();
+	}
+
+
+	private static void checkBooking(Booking booking) {
+		if (booking == null) {
+			throw new IllegalArgumentException("Parameter 'booking' must not be null.");
+		}
+	}
+
+
+	/**
+	 * Stop notifications of a booking that has been removed, unless it is still contained in this list.
+	 */
+	private void detach(Booking booking) {
+		if (booking.owner == this && !bookings.contains(booking)) {
+			booking.owner = null;
+		}
+	}
+
+}
@@ -0,0 +1,175 @@
+package com.lambdalogic.test.booking.model;
+
+import java.math.BigDecimal;
+
+
+/**
+ * Reusable holder of the totals of one {@link Booking}: gross, net, tax, paid and open amount.
+ * <p>
+ * {@link #compute(Booking)} visits every price once and derives all three amounts of a price from a single
+ * calculation: the net amount of a gross price (or the gross amount of a net price) is calculated in cents, the tax
+ * is the difference. The results are exactly the same as those of {@link Booking#getTotalAmountGross()},
+ * {@link Booking#getTotalAmountNet()}, {@link Booking#getTotalAmountTax()}, {@link Booking#getPaidAmountOrZero()} and
+ * {@link Booking#getOpenAmount()}.
+ * <p>
+ * The sums are kept in {@link MoneySum}s, so computing the totals of bookings whose amounts fit into cents creates no
+ * objects. A loop over many bookings should therefore use one holder and read the values in cents.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class BookingTotals {
+
+	private final MoneySum gross = new MoneySum();
+	private final MoneySum net = new MoneySum();
+	private final MoneySum tax = new MoneySum();
+	private final MoneySum paid = new MoneySum();
+
+
+	/**
+	 * Compute the totals of a booking in a new holder.
+	 *
+	 * @param booking
+	 * @return
+	 */
+	public static BookingTotals of(Booking booking) {
+		return new BookingTotals().compute(booking);
+	}
+
+
+	/**
+	 * Replace the values of this holder by the totals of a booking.
+	 *
+	 * @param booking
+	 * @return this holder
+	 */
+	public BookingTotals compute(Booking booking) {
+		if (booking == null) {
+			throw new IllegalArgumentException("Parameter 'booking' must not be null.");
+		}
+
+		gross.clear();
+		net.clear();
+		tax.clear();
+		paid.clear();
+
+		add(booking.getMainPriceOrZero());
+		add(booking.getAdd1PriceOrZero());
+		add(booking.getAdd2PriceOrZero());
+		add(booking.getCancelFeePriceOrZero());
+		paid.add(booking.getPaidAmountOrZero());
+		return this;
+	}
+
+
+	private void add(Price price) {
+		long amountCents = price.getAmountCents();
+		int taxRateBasisPoints = price.getTaxRateBasisPoints();
+		if (amountCents != Cents.NaN && taxRateBasisPoints != Cents.NO_BASIS_POINTS) {
+			long grossCents;
+			long netCents;
+			if (price.isGross()) {
+				grossCents = amountCents;
+				netCents = Cents.netOfGross(amountCents, taxRateBasisPoints);
+			}
+			else {
+				// gross = net + tax, because the net amount has no more than 2 decimal places
+				netCents = amountCents;
+				grossCents = Cents.grossOfNet(amountCents, taxRateBasisPoints);
+			}
+
+			if (netCents != Cents.NaN && grossCents != Cents.NaN) {
+				gross.add(grossCents);
+				net.add(netCents);
+				tax.add(grossCents - netCents);
+				return;
+			}
+		}
+
+		// the values are cached by the price
+		gross.add(price.getAmountGross());
+		net.add(price.getAmountNet());
+		tax.add(price.getAmountTax());
+	}
+
+
+	/**
+	 * Return the total amount gross in cents.
+	 * @return {@link Cents#NaN} if the value cannot be represented in cents
+	 */
+	public long getGrossCents() {
+		return gross.getCents();
+	}
+
+
+	/**
+	 * Return the total amount net in cents.
+	 * @return {@link Cents#NaN} if the value cannot be represented in cents
+	 */
+	public long getNetCents() {
+		return net.getCents();
+	}
+
+
+	/**
+	 * Return the total tax amount in cents.
+	 * @return {@link Cents#NaN} if the value cannot be represented in cents
+	 */
+	public long getTaxCents() {
+		return tax.getCents();
+	}
+
+
+	/**
+	 * Return the paid amount in cents.
+	 * @return {@link Cents#NaN} if the value cannot be represented in cents
+	 */
+	public long getPaidCents() {
+		return paid.getCents();
+	}
+
+
+	/**
+	 * Return the open amount (total amount gross - paid amount) in cents.
+	 * @return {@link Cents#NaN} if the value cannot be represented in cents
+	 */
+	public long getOpenCents() {
+		long grossCents = gross.getCents();
+		long paidCents = paid.getCents();
+		if (grossCents == Cents.NaN || paidCents == Cents.NaN) {
+			return Cents.NaN;
+		}
+		return Cents.add(grossCents, -paidCents);
+	}
+
+
+	public BigDecimal getGross() {
+		return gross.toBigDecimal();
+	}
+
+
+	public BigDecimal getNet() {
+		return net.toBigDecimal();
+	}
+
+
+	public BigDecimal getTax() {
+		return tax.toBigDecimal();
+	}
+
+
+	public BigDecimal getPaid() {
+		return paid.toBigDecimal();
+	}
+
+
+	public BigDecimal getOpen() {
+		return gross.toBigDecimal().subtract(paid.toBigDecimal());
+	}
+
+
+	@Override
+	public String toString() {
+		return "gross " + getGross() + ", net " + getNet() + ", tax " + getTax() + ", paid " + getPaid() + ", open " + getOpen();
+	}
+
+}
@@ -0,0 +1,220 @@
+package com.lambdalogic.test.booking.model;
+
+import java.math.BigDecimal;
+
+
+/**
+ * Fixed-point arithmetic on amounts of money that are stored as a <code>long</code> number of cents
+ * (the unscaled value of a {@link BigDecimal} with scale 2).
+ * <p>
+ * The methods calculate exactly the same values as the corresponding {@link BigDecimal} operations of {@link Price}
+ * (including {@link java.math.RoundingMode#HALF_UP}), but without creating any objects.
+ * If a value cannot be represented or an operation might overflow, {@link #NaN} is returned and the caller has to
+ * fall back to {@link BigDecimal}.
+ * <p>
+ * Tax rates are represented as basis points: a tax rate of 19 (%) is 1900, a tax rate of 7.5 (%) is 750.
+ */
+public final class Cents {
+
+	/**
+	 * Marker for values that cannot be represented as cents.
+	 * <code>Long.MIN_VALUE</code> itself is therefore never a valid amount.
+	 */
+	public static final long NaN = Long.MIN_VALUE;
+
+	/**
+	 * Marker for tax rates that cannot be represented as basis points.
+	 */
+	public static final int NO_BASIS_POINTS = -1;
+
+	/**
+	 * 100% in basis points.
+	 */
+	public static final int BASIS_POINTS_100 = 10000;
+
+	/**
+	 * The largest supported tax rate in basis points (99.99%).
+	 */
+	public static final int MAX_BASIS_POINTS = 9999;
+
+	/**
+	 * The largest absolute amount in cents that can be multiplied by a tax factor without overflow.
+	 */
+	public static final long MAX_TAXABLE = Long.MAX_VALUE / (BASIS_POINTS_100 + MAX_BASIS_POINTS);
+
+
+	private Cents() {
+	}
+
+
+	/**
+	 * Convert an amount into cents.
+	 *
+	 * @param amount
+	 * @return the amount in cents or {@link #NaN} if amount is null, has more than 2 decimal places or is too large
+	 */
+	public static long toCents(BigDecimal amount) {
+		if (amount == null) {
+			return NaN;
+		}
+
+		int scale = amount.scale();
+		if (scale > 2) {
+			if (amount.signum() == 0) {
+				return 0;
+			}
+			amount = amount.stripTrailingZeros();
+			scale = amount.scale();
+			if (scale > 2) {
+				return NaN;
+			}
+		}
+
+		// at most 18 digits always fit into a long
+		if (amount.precision() - scale > 16) {
+			return NaN;
+		}
+
+		return amount.setScale(2).unscaledValue().longValue();
+	}
+
+
+	/**
+	 * Convert cents into a {@link BigDecimal} with scale 2.
+	 *
+	 * @param cents - must not be {@link #NaN}
+	 * @return
+	 */
+	public static BigDecimal toBigDecimal(long cents) {
+		return BigDecimal.valueOf(cents, 2);
+	}
+
+
+	/**
+	 * Convert a tax rate (19 means 19%) into basis points.
+	 *
+	 * @param taxRate
+	 * @return the tax rate in basis points or {@link #NO_BASIS_POINTS} if the tax rate is not between 0 and 99.99 or
+	 *  has more than 2 decimal places
+	 */
+	public static int toBasisPoints(BigDecimal taxRate) {
+		if (taxRate == null || taxRate.signum() < 0) {
+			return NO_BASIS_POINTS;
+		}
+
+		long basisPoints = toCents(taxRate);
+		if (basisPoints == NaN || basisPoints > MAX_BASIS_POINTS) {
+			return NO_BASIS_POINTS;
+		}
+		return (int) basisPoints;
+	}
+
+
+	/**
+	 * Add two amounts.
+	 *
+	 * @param cents0
+	 * @param cents1
+	 * @return the sum or {@link #NaN} if one of the values is {@link #NaN} or the sum overflows
+	 */
+	public static long add(long cents0, long cents1) {
+		if (cents0 == NaN || cents1 == NaN) {
+			return NaN;
+		}
+
+		long sum = cents0 + cents1;
+		if (((cents0 ^ sum) & (cents1 ^ sum)) < 0 || sum == NaN) {
+			return NaN;
+		}
+		return sum;
+	}
+
+
+	/**
+	 * Return the gross amount of a net amount, rounded like {@link Price#getAmountGross()}.
+	 *
+	 * @param netCents
+	 * @param taxRateBasisPoints
+	 * @return
+	 */
+	public static long grossOfNet(long netCents, int taxRateBasisPoints) {
+		if (!isTaxable(netCents, taxRateBasisPoints)) {
+			return NaN;
+		}
+		return divideHalfUp(netCents * (BASIS_POINTS_100 + taxRateBasisPoints), BASIS_POINTS_100);
+	}
+
+
+	/**
+	 * Return the net amount of a gross amount, rounded like {@link Price#getAmountNet()}.
+	 *
+	 * @param grossCents
+	 * @param taxRateBasisPoints
+	 * @return
+	 */
+	public static long netOfGross(long grossCents, int taxRateBasisPoints) {
+		if (!isTaxable(grossCents, taxRateBasisPoints)) {
+			return NaN;
+		}
+		return divideHalfUp(grossCents * BASIS_POINTS_100, BASIS_POINTS_100 + taxRateBasisPoints);
+	}
+
+
+	/**
+	 * Return the tax amount of a net amount, rounded like {@link Price#getAmountTax()}.
+	 *
+	 * @param netCents
+	 * @param taxRateBasisPoints
+	 * @return
+	 */
+	public static long taxOfNet(long netCents, int taxRateBasisPoints) {
+		if (!isTaxable(netCents, taxRateBasisPoints)) {
+			return NaN;
+		}
+		return divideHalfUp(netCents * taxRateBasisPoints, BASIS_POINTS_100);
+	}
+
+
+	/**
+	 * Return the tax amount of a gross amount, rounded like {@link Price#getAmountTax()}.
+	 *
+	 * @param grossCents
+	 * @param taxRateBasisPoints
+	 * @return
+	 */
+	public static long taxOfGross(long grossCents, int taxRateBasisPoints) {
+		long netCents = netOfGross(grossCents, taxRateBasisPoints);
+		if (netCents == NaN) {
+			return NaN;
+		}
+		return grossCents - netCents;
+	}
+
+
+	/**
+	 * Divide and round the result like {@link java.math.RoundingMode#HALF_UP}.
+	 *
+	 * @param dividend
+	 * @param divisor - must be positive
+	 * @return
+	 */
+	public static long divideHalfUp(long dividend, long divisor) {
+		long quotient = dividend / divisor;
+		long remainder = dividend % divisor;
+		if (Math.abs(remainder) >= divisor - Math.abs(remainder)) {
+			quotient += (dividend < 0 ? -1 : 1);
+		}
+		return quotient;
+	}
+
+
+	private static boolean isTaxable(long cents, int taxRateBasisPoints) {
+		return
+			cents != NaN &&
+			taxRateBasisPoints >= 0 &&
+			taxRateBasisPoints <= MAX_BASIS_POINTS &&
+			cents <= MAX_TAXABLE &&
+			cents >= -MAX_TAXABLE;
+	}
+
+}
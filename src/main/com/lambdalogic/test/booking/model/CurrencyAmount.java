@@ -9,7 +9,10 @@ import java.text.NumberFormat;
  * Aggregation of a currency and an amount of money.
  * The latter is stored as a BigDecimal with at most two decimal points.
  * In other words: The maximum value of scale is 2.
+ * Only currencies with more minor unit digits (see {@link CurrencyRegistry#getMinorUnits(int)}), e.g. BHD, allow
+ * as many decimal places as they have minor unit digits.
  * If other values are set an Exception will be thrown.
+ * To sum up many amounts without creating a new object per summand use {@link CurrencyAmountAccumulator}.
  */
 public class CurrencyAmount {
 	
@@ -25,10 +28,20 @@ public class CurrencyAmount {
 	private BigDecimal amount;
 	private String isoCode;
 
+	/**
+	 * The ID of the currency in {@link CurrencyRegistry}.
+	 */
+	private int currencyID;
+
+	/**
+	 * The amount in cents or {@link Cents#NaN} if it cannot be represented in cents.
+	 */
+	private long amountCents;
+
     
     /**
      * @param amount The amount of Money. 
-     *  The scale must not exceed 2.
+     *  The scale must not exceed 2 or the minor unit digits of the currency.
      *  Otherwise an ArithmeticException will be thrown.
      *  Null is handled as 0.
      *  
@@ -36,8 +49,8 @@ public class CurrencyAmount {
      *  Null will be accepted.
      */
     public CurrencyAmount(BigDecimal amount, String currency) {
+    	setCurrency(currency);
     	setAmount(amount);
-        this.isoCode = currency;
     }
 
 
@@ -50,6 +63,24 @@ public class CurrencyAmount {
 		return isoCode;
 	}
 
+
+	/**
+	 * Return the ID of the currency in {@link CurrencyRegistry}.
+	 * @return
+	 */
+	public int getCurrencyID() {
+		return currencyID;
+	}
+
+
+	/**
+	 * Return the amount in cents or {@link Cents#NaN} if it cannot be represented in cents.
+	 * @return
+	 */
+	public long getAmountCents() {
+		return amountCents;
+	}
+
     
     /**
      * Sets the currency.
@@ -58,7 +89,8 @@ public class CurrencyAmount {
      * @param currency
      */
     public CurrencyAmount setCurrency(String currency) {
-        this.isoCode = currency;
+        this.currencyID = CurrencyRegistry.getID(currency);
+        this.isoCode = CurrencyRegistry.getCode(currencyID);
         return this;
     }
 
@@ -66,18 +98,19 @@ public class CurrencyAmount {
     /**
      * Sets the amount of money.
      *  
-     * @param amount The amount of Money. 
-     *  The scale must not exceed 2.
+"     * @param amount The amount of Money. 
+     *  The scale must not exceed 2 or the minor unit digits of the currency.
      *  Otherwise an ArithmeticException will be thrown.
      *  Null is handled as 0.
      */
     public CurrencyAmount setAmount(BigDecimal amount) {
         if (amount != null) {
-            this.amount = amount.setScale(2);
+            this.amount = amount.setScale(Math.max(2, CurrencyRegistry.getMinorUnits(currencyID)));
         } 
         else {
             this.amount = BigDecimal.ZERO;
         }
+        amountCents = Cents.toCents(this.amount);
         return this;
     }
 
@@ -115,6 +148,10 @@ public class CurrencyAmount {
 
     
     public CurrencyAmount negate() {
+    	if (amountCents != Cents.NaN) {
+    		return new CurrencyAmount(Cents.toBigDecimal(-amountCents), isoCode);
+    	}
+    	
     	BigDecimal negativeAmount = BigDecimal.ZERO;
     	if (amount != null) {
     		negativeAmount = amount.negate();
@@ -128,6 +165,11 @@ public class CurrencyAmount {
     		throw new IllegalArgumentException("Parameter 'summand' must not be null.");
     	}
 
+    	long newAmountCents = Cents.add(amountCents, Cents.toCents(summand));
+    	if (newAmountCents != Cents.NaN) {
+    		return new CurrencyAmount(Cents.toBigDecimal(newAmountCents), isoCode);
+    	}
+    	
     	BigDecimal newAmount = amount.add(summand);
     	return new CurrencyAmount(newAmount, isoCode);
     }
@@ -145,13 +187,18 @@ public class CurrencyAmount {
     		throw new IllegalArgumentException("Parameter 'summand' must not be null.");
     	}
     	
-    	if (!isoCode.equals(summand.isoCode)) {
+    	if (currencyID != summand.currencyID) {
     		throw new IllegalArgumentException(
     			"Parameter 'summand' must have the same currency (this.currency: " 
     			+ isoCode + ", summand.currency: " + summand.isoCode + ")."
     		);
     	}
     	
+    	long newAmountCents = Cents.add(amountCents, summand.amountCents);
+    	if (newAmountCents != Cents.NaN) {
+    		return new CurrencyAmount(Cents.toBigDecimal(newAmountCents), isoCode);
+    	}
+    	
     	BigDecimal newAmount = amount.add(summand.getAmount());
     	return new CurrencyAmount(newAmount, isoCode);
     }
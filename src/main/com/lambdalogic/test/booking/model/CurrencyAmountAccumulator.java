@@ -0,0 +1,188 @@
+package com.lambdalogic.test.booking.model;
+
+import java.math.BigDecimal;
+
+
+/**
+ * Mutable counterpart of {@link CurrencyAmount} to sum up many amounts of the same currency.
+ * <p>
+ * Unlike {@link CurrencyAmount#add(CurrencyAmount)}, which creates a new object for every summand, the amounts are
+ * added in place (see {@link MoneySum}) and a {@link CurrencyAmount} is created only by {@link #toCurrencyAmount()}.
+ * Summands with another currency are rejected just like by {@link CurrencyAmount#add(CurrencyAmount)}.
+ * An accumulator can be reused after {@link #clear()}.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class CurrencyAmountAccumulator {
+
+	private String currency;
+	private int currencyID;
+
+	/**
+	 * True if the currency has been passed to the constructor.
+	 */
+	private final boolean fixedCurrency;
+
+	/**
+	 * False until the first summand defines the currency, unless the currency is fixed.
+	 */
+	private boolean currencyDefined;
+
+	private final MoneySum sum = new MoneySum();
+
+
+	/**
+	 * Create an accumulator that takes its currency from the first {@link CurrencyAmount} that is added.
+	 */
+	public CurrencyAmountAccumulator() {
+		this.fixedCurrency = false;
+	}
+
+
+	/**
+	 * Create an accumulator for a certain currency.
+	 *
+	 * @param currency - null will be accepted
+	 */
+	public CurrencyAmountAccumulator(String currency) {
+		this.currencyID = CurrencyRegistry.getID(currency);
+		this.currency = CurrencyRegistry.getCode(currencyID);
+		this.fixedCurrency = true;
+		this.currencyDefined = true;
+	}
+
+
+	/**
+	 * Sum up amounts that all have the same currency.
+	 *
+	 * @param currencyAmounts
+	 * @return the sum or 0 without currency if there are no amounts
+	 */
+	public static CurrencyAmount sum(Iterable<CurrencyAmount> currencyAmounts) {
+		return new CurrencyAmountAccumulator().addAll(currencyAmounts).toCurrencyAmount();
+	}
+
+
+	/**
+	 * Sum up amounts of a certain currency.
+	 *
+	 * @param currencyAmounts
+	 * @param currency
+	 * @return the sum or 0 of the currency if there are no amounts
+	 */
+	public static CurrencyAmount sum(Iterable<CurrencyAmount> currencyAmounts, String currency) {
+		return new CurrencyAmountAccumulator(currency).addAll(currencyAmounts).toCurrencyAmount();
+	}
+
+
+	public CurrencyAmountAccumulator add(CurrencyAmount summand) {
+		if (summand == null) {
+			throw new IllegalArgumentException("Parameter 'summand' must not be null.");
+		}
+		checkCurrency(summand, "summand");
+
+		long summandCents = summand.getAmountCents();
+		if (summandCents != Cents.NaN) {
+			sum.add(summandCents);
+		}
+		else {
+			sum.add(summand.getAmount());
+		}
+		return this;
+	}
+
+
+	/**
+	 * Add an amount of the currency of this accumulator.
+	 *
+	 * @param summand - as for {@link CurrencyAmount} the scale of the sum must not exceed 2, otherwise
+	 *  {@link #getAmount()} throws an ArithmeticException
+	 * @return
+	 */
+	public CurrencyAmountAccumulator add(BigDecimal summand) {
+		if (summand == null) {
+			throw new IllegalArgumentException("Parameter 'summand' must not be null.");
+		}
+		sum.add(summand);
+		return this;
+	}
+
+
+	public CurrencyAmountAccumulator addAll(Iterable<CurrencyAmount> summands) {
+		if (summands == null) {
+			throw new IllegalArgumentException("Parameter 'summands' must not be null.");
+		}
+		for (CurrencyAmount summand : summands) {
+			add(summand);
+		}
+		return this;
+	}
+
+
+	public CurrencyAmountAccumulator subtract(CurrencyAmount subtrahend) {
+		if (subtrahend == null) {
+			throw new IllegalArgumentException("Parameter 'subtrahend' must not be null.");
+		}
+		checkCurrency(subtrahend, "subtrahend");
+
+		long subtrahendCents = subtrahend.getAmountCents();
+		if (subtrahendCents != Cents.NaN) {
+			sum.subtract(subtrahendCents);
+		}
+		else {
+			sum.subtract(subtrahend.getAmount());
+		}
+		return this;
+	}
+
+
+	/**
+	 * Reset the sum to 0.
+	 * The currency is kept if it has been passed to the constructor, otherwise the next summand defines it again.
+	 */
+	public void clear() {
+		sum.clear();
+		if (!fixedCurrency) {
+			currency = null;
+			currencyID = CurrencyRegistry.NO_CURRENCY;
+			currencyDefined = false;
+		}
+	}
+
+
+	public String getCurrency() {
+		return currency;
+	}
+
+
+	public BigDecimal getAmount() {
+		return sum.toBigDecimal().setScale(2);
+	}
+
+
+	/**
+	 * Return the current sum as a new {@link CurrencyAmount}.
+	 * The accumulator can still be used afterwards.
+	 *
+	 * @return
+	 */
+	public CurrencyAmount toCurrencyAmount() {
+		return new CurrencyAmount(getAmount(), currency);
+	}
+
+
+	private void checkCurrency(CurrencyAmount currencyAmount, String parameterName) {
+		if (!currencyDefined) {
+			currency = currencyAmount.getCurrency();
+			currencyID = currencyAmount.getCurrencyID();
+			currencyDefined = true;
+		}
+		else if (currencyID != currencyAmount.getCurrencyID()) {
+			throw new IllegalArgumentException(
+				"Parameter '" + parameterName + "' must have the same currency (this.currency: "
+				+ currency + ", " + parameterName + ".currency: " + currencyAmount.getCurrency() + ")."
+			);
+		}
+	}
+
+}
@@ -0,0 +1,172 @@
+package com.lambdalogic.test.booking.model;
+
+import java.math.BigDecimal;
+
+import com.lambdalogic.test.booking.exception.InconsistentCurrenciesException;
+
+
+/**
+ * Immutable result of adding up the total amount, the paid amount and the open amount of the {@link Booking}s
+ * of one invoice recipient.
+ * <p>
+ * If the relevant bookings have different currencies, all amounts are null and {@link #getException()} returns the
+ * {@link InconsistentCurrenciesException} that would have been thrown by
+ * {@link com.lambdalogic.test.booking.IBookingsCurrencyAmountsEvaluator#calculate(java.util.List, Long)}.
+ * <p>
+ * Successful results of a pass over the bookings also tell how many bookings have been added up, see
+ * {@link #getBookingCount()}. Results that have been created otherwise, e.g. from an index of totals, return 0.
+ */
+public class CurrencyAmountsResult extends AbstractAmountsResult {
+
+	private final BigDecimal totalAmount;
+	private final BigDecimal totalPaidAmount;
+	private final BigDecimal totalOpenAmount;
+	private final int bookingCount;
+	private final int zeroBookingCount;
+	private final int grossBookingCount;
+
+
+	/**
+	 * Create a successful result.
+	 * Only the values of the amounts are kept, so they can be changed afterwards without affecting the result.
+	 *
+	 * @param invoiceRecipientPK - the PK of the invoice recipient the result belongs to
+	 * @param totalAmount - the total amount gross
+	 * @param totalPaidAmount - the total paid amount
+	 * @param totalOpenAmount - the total open amount
+	 */
+	public CurrencyAmountsResult(
+		Long invoiceRecipientPK,
+		CurrencyAmount totalAmount,
+		CurrencyAmount totalPaidAmount,
+		CurrencyAmount totalOpenAmount
+	) {
+		this(invoiceRecipientPK, totalAmount, totalPaidAmount, totalOpenAmount, 0, 0, 0);
+	}
+
+
+	/**
+	 * Create a successful result with the numbers of bookings that have been added up.
+	 *
+	 * @param invoiceRecipientPK - the PK of the invoice recipient the result belongs to
+	 * @param totalAmount - the total amount gross
+	 * @param totalPaidAmount - the total paid amount
+	 * @param totalOpenAmount - the total open amount
+	 * @param bookingCount - the number of bookings of the invoice recipient
+	 * @param zeroBookingCount - the number of these bookings that have been ignored because they are 0
+	 * @param grossBookingCount - the number of the other bookings that have gross prices
+	 */
+	public CurrencyAmountsResult(
+		Long invoiceRecipientPK,
+		CurrencyAmount totalAmount,
+		CurrencyAmount totalPaidAmount,
+		CurrencyAmount totalOpenAmount,
+		int bookingCount,
+		int zeroBookingCount,
+		int grossBookingCount
+	) {
+		super(invoiceRecipientPK, totalAmount.getCurrencyID());
+		this.totalAmount = totalAmount.getAmount();
+		this.totalPaidAmount = totalPaidAmount.getAmount();
+		this.totalOpenAmount = totalOpenAmount.getAmount();
+		this.bookingCount = bookingCount;
+		this.zeroBookingCount = zeroBookingCount;
+		this.grossBookingCount = grossBookingCount;
+	}
+
+
+	/**
+	 * Create a failed result.
+	 *
+	 * @param invoiceRecipientPK - the PK of the invoice recipient the result belongs to
+	 * @param exception - the reason why no amounts could be calculated
+	 */
+	public CurrencyAmountsResult(Long invoiceRecipientPK, InconsistentCurrenciesException exception) {
+		super(invoiceRecipientPK, exception);
+		this.totalAmount = null;
+		this.totalPaidAmount = null;
+		this.totalOpenAmount = null;
+		this.bookingCount = 0;
+		this.zeroBookingCount = 0;
+		this.grossBookingCount = 0;
+	}
+
+
+	public Long getInvoiceRecipientPK() {
+		return getPK();
+	}
+
+
+	/**
+	 * Return the total amount gross as a new {@link CurrencyAmount} or null in case of an error.
+	 * @return
+	 */
+	public CurrencyAmount getTotalAmount() {
+		return toCurrencyAmount(totalAmount);
+	}
+
+
+	/**
+	 * Return the total paid amount as a new {@link CurrencyAmount} or null in case of an error.
+	 * @return
+	 */
+	public CurrencyAmount getTotalPaidAmount() {
+		return toCurrencyAmount(totalPaidAmount);
+	}
+
+
+	/**
+	 * Return the total open amount as a new {@link CurrencyAmount} or null in case of an error.
+	 * @return
+	 */
+	public CurrencyAmount getTotalOpenAmount() {
+		return toCurrencyAmount(totalOpenAmount);
+	}
+
+
+	/**
+	 * Return the number of bookings of the invoice recipient that have been added up, including those that have
+	 * been ignored because they are 0.
+	 * @return
+	 */
+	public int getBookingCount() {
+		return bookingCount;
+	}
+
+
+	/**
+	 * Return the number of bookings that have been ignored because their amounts and paid amount are 0.
+	 * @return
+	 */
+	public int getZeroBookingCount() {
+		return zeroBookingCount;
+	}
+
+
+	/**
+	 * Return the number of bookings that are not 0 and have net prices.
+	 * @return
+	 */
+	public int getNetBookingCount() {
+		return bookingCount - zeroBookingCount - grossBookingCount;
+	}
+
+
+	/**
+	 * Return the number of bookings that are not 0 and have gross prices.
+	 * @return
+	 */
+	public int getGrossBookingCount() {
+		return grossBookingCount;
+	}
+
+
+	public String toString() {
+		if (!isSuccessful()) {
+			return getPK() + ": " + getException().getMessage();
+		}
+		return getPK() + ": total " + getTotalAmount() + ", paid " + getTotalPaidAmount()
+			+ ", open " + getTotalOpenAmount();
+	}
+
+}
@@ -0,0 +1,482 @@
+package com.lambdalogic.test.booking.model;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * Converts amounts between currencies with a table of exchange rates.
+ * <p>
+ * A rate from currency A to currency B means: 1 A = rate B. Besides the rates that have been set, inverse rates
+ * (B to A) and cross rates via one intermediate currency (A to C via B) are available. Derived rates are kept as exact
+ * fractions, so an amount is rounded only once, and they are cached until the next rate is set.
+ * <p>
+ * Every conversion of a {@link CurrencyAmount} rounds the result with {@link RoundingMode#HALF_UP} to the minor unit
+ * digits of the target currency (see {@link CurrencyRegistry#getMinorUnits(int)}), e.g. to whole yen for JPY and to
+ * 3 decimal places for BHD. For currencies with 2 minor unit digits this is exactly what
+ * {@link CurrencyAmount#convert(BigDecimal, String)} does for the rates that have been set. Columns of amounts are
+ * always rounded to 2 decimal places. Amounts in cents are converted with <code>long</code> arithmetic if possible.
+ * <p>
+ * Rates should be set before the converter is used. Setting rates is synchronized, conversions can be done by any
+ * number of threads at the same time.
+ */
+public class CurrencyConverter {
+
+	/**
+	 * Rates that have been set, mapped by {@link #key(int, int)}.
+	 */
+	private final Map<Long, Rate> rates = new ConcurrentHashMap<>();
+
+	/**
+	 * All rates that have been requested since the last rate has been set, including derived ones.
+	 * {@link #setRate(String, String, BigDecimal)} replaces the map instead of clearing it, so a rate that is derived
+	 * from the old rates while a rate is set ends up in the old map and is never used again.
+	 */
+	private volatile Map<Long, Rate> derivedRates = new ConcurrentHashMap<>();
+
+	/**
+	 * IDs of all currencies that occur in {@link #rates}, in the order they have been added.
+	 */
+	private volatile int[] currencyIDs = new int[0];
+
+
+	/**
+	 * Set the rate from one currency into another.
+	 *
+	 * @param fromCurrency
+	 * @param toCurrency
+	 * @param rate - 1 fromCurrency = rate toCurrency; must be positive
+	 */
+	public synchronized void setRate(String fromCurrency, String toCurrency, BigDecimal rate) {
+		if (rate == null || rate.signum() <= 0) {
+			throw new IllegalArgumentException("Parameter 'rate' must be positive.");
+		}
+
+		int fromID = CurrencyRegistry.getID(fromCurrency);
+		int toID = CurrencyRegistry.getID(toCurrency);
+		if (fromID == toID) {
+			throw new IllegalArgumentException("Parameters 'fromCurrency' and 'toCurrency' must be different.");
+		}
+
+		rates.put(key(fromID, toID), new Rate(rate, BigDecimal.ONE));
+		addCurrencyID(fromID);
+		addCurrencyID(toID);
+		// replace the cache after the rates, so every rate in the new cache is derived from the new rates
+		derivedRates = new ConcurrentHashMap<>();
+	}
+
+
+	/**
+	 * Return true if an amount can be converted from one currency into another.
+	 *
+	 * @param fromCurrency
+	 * @param toCurrency
+	 * @return
+	 */
+	public boolean canConvert(String fromCurrency, String toCurrency) {
+		return findRate(fromCurrency, toCurrency) != null;
+	}
+
+
+	/**
+	 * Return the (set, inverse or cross) rate from one currency into another.
+	 *
+	 * @param fromCurrency
+	 * @param toCurrency
+	 * @return
+	 * @throws IllegalArgumentException if there is no such rate
+	 */
+	public Rate getRate(String fromCurrency, String toCurrency) {
+		Rate rate = findRate(fromCurrency, toCurrency);
+		if (rate == null) {
+			throw noRate(fromCurrency, toCurrency);
+		}
+		return rate;
+	}
+
+
+	/**
+	 * Convert an amount into another currency.
+	 *
+	 * @param currencyAmount
+	 * @param currency - the target currency
+	 * @return
+	 * @throws IllegalArgumentException if there is no rate from the currency of the amount into the target currency
+	 */
+	public CurrencyAmount convert(CurrencyAmount currencyAmount, String currency) {
+		int toID = getTargetID(currencyAmount.getCurrency(), currency);
+		Rate rate = getRate(currencyAmount.getCurrencyID(), toID);
+		return new CurrencyAmount(
+			rate.convert(currencyAmount, CurrencyRegistry.getMinorUnits(toID)),
+			CurrencyRegistry.getCode(toID)
+		);
+	}
+
+
+	/**
+	 * Convert amounts of any currencies into one currency.
+	 * The rate of every currency is looked up only once.
+	 *
+	 * @param currencyAmounts
+	 * @param currency - the target currency
+	 * @return the converted amounts in the same order
+	 */
+	public List<CurrencyAmount> convertAll(Collection<CurrencyAmount> currencyAmounts, String currency) {
+		int toID = getTargetID(null, currency);
+		String toCurrency = CurrencyRegistry.getCode(toID);
+		int scale = CurrencyRegistry.getMinorUnits(toID);
+		Rate[] ratesByCurrencyID = new Rate[CurrencyRegistry.getIDCount()];
+
+		List<CurrencyAmount> result = new ArrayList<>(currencyAmounts.size());
+		for (CurrencyAmount currencyAmount : currencyAmounts) {
+			Rate rate = getRate(ratesByCurrencyID, currencyAmount.getCurrencyID(), toID);
+			result.add(new CurrencyAmount(rate.convert(currencyAmount, scale), toCurrency));
+		}
+		return result;
+	}
+
+
+	/**
+	 * Convert amounts of any currencies into one currency and add up the converted amounts.
+	 * Every amount is rounded after its conversion, so the result is the sum of {@link #convertAll(Collection, String)}.
+	 *
+	 * @param currencyAmounts
+	 * @param currency - the target currency
+	 * @return
+	 */
+	public CurrencyAmount convertAndSum(Iterable<CurrencyAmount> currencyAmounts, String currency) {
+		int toID = getTargetID(null, currency);
+		int scale = CurrencyRegistry.getMinorUnits(toID);
+		Rate[] ratesByCurrencyID = new Rate[CurrencyRegistry.getIDCount()];
+
+		MoneySum sum = new MoneySum();
+		for (CurrencyAmount currencyAmount : currencyAmounts) {
+			Rate rate = getRate(ratesByCurrencyID, currencyAmount.getCurrencyID(), toID);
+			long cents = (scale == 2 ? rate.convertCents(currencyAmount.getAmountCents()) : Cents.NaN);
+			if (cents != Cents.NaN) {
+				sum.add(cents);
+			}
+			else {
+				sum.add(rate.convert(currencyAmount.getAmount(), scale));
+			}
+		}
+		return new CurrencyAmount(sum.toBigDecimal(), CurrencyRegistry.getCode(toID));
+	}
+
+
+	/**
+	 * Convert a column of amounts from one currency into another.
+	 *
+	 * @param amounts
+	 * @param fromCurrency
+	 * @param toCurrency
+	 * @return the converted amounts; null values stay null
+	 */
+	public BigDecimal[] convert(BigDecimal[] amounts, String fromCurrency, String toCurrency) {
+		Rate rate = getRate(fromCurrency, toCurrency);
+		BigDecimal[] result = new BigDecimal[amounts.length];
+		for (int i = 0; i < amounts.length; i++) {
+			if (amounts[i] != null) {
+				result[i] = rate.convert(amounts[i]);
+			}
+		}
+		return result;
+	}
+
+
+	/**
+	 * Convert a column of amounts in cents from one currency into another.
+	 *
+	 * @param amountCents
+	 * @param fromCurrency
+	 * @param toCurrency
+	 * @return the converted amounts in cents; {@link Cents#NaN} for amounts that are {@link Cents#NaN} or whose
+	 *  conversion would overflow
+	 */
+	public long[] convertCents(long[] amountCents, String fromCurrency, String toCurrency) {
+		Rate rate = getRate(fromCurrency, toCurrency);
+		long[] result = new long[amountCents.length];
+		for (int i = 0; i < amountCents.length; i++) {
+			result[i] = rate.convertCents(amountCents[i]);
+		}
+		return result;
+	}
+
+
+	private void addCurrencyID(int id) {
+		for (int knownID : currencyIDs) {
+			if (knownID == id) {
+				return;
+			}
+		}
+		int[] newCurrencyIDs = Arrays.copyOf(currencyIDs, currencyIDs.length + 1);
+		newCurrencyIDs[currencyIDs.length] = id;
+		currencyIDs = newCurrencyIDs;
+	}
+
+
+	/**
+	 * Return the ID of a target currency.
+	 * Currencies that are unknown to the {@link CurrencyRegistry} cannot be the target of any rate.
+	 */
+	private static int getTargetID(String fromCurrency, String toCurrency) {
+		int toID = CurrencyRegistry.find(toCurrency);
+		if (toID == CurrencyRegistry.UNKNOWN_CURRENCY) {
+			throw noRate(fromCurrency, toCurrency);
+		}
+		return toID;
+	}
+
+
+	private static IllegalArgumentException noRate(String fromCurrency, String toCurrency) {
+		if (fromCurrency == null) {
+			return new IllegalArgumentException("No conversion rate to " + toCurrency + ".");
+		}
+		return new IllegalArgumentException("No conversion rate from " + fromCurrency + " to " + toCurrency + ".");
+	}
+
+
+	private Rate getRate(Rate[] ratesByCurrencyID, int fromID, int toID) {
+		if (fromID >= ratesByCurrencyID.length) {
+			return getRate(fromID, toID);
+		}
+
+		Rate rate = ratesByCurrencyID[fromID];
+		if (rate == null) {
+			rate = getRate(fromID, toID);
+			ratesByCurrencyID[fromID] = rate;
+		}
+		return rate;
+	}
+
+
+	private Rate getRate(int fromID, int toID) {
+		Rate rate = findRate(fromID, toID);
+		if (rate == null) {
+			throw noRate(CurrencyRegistry.getCode(fromID), CurrencyRegistry.getCode(toID));
+		}
+		return rate;
+	}
+
+
+	/**
+	 * Look up a rate without registering unknown currencies.
+	 */
+	private Rate findRate(String fromCurrency, String toCurrency) {
+		int fromID = CurrencyRegistry.find(fromCurrency);
+		int toID = CurrencyRegistry.find(toCurrency);
+		if (fromID == CurrencyRegistry.UNKNOWN_CURRENCY || toID == CurrencyRegistry.UNKNOWN_CURRENCY) {
+			return null;
+		}
+		return findRate(fromID, toID);
+	}
+
+
+	private Rate findRate(int fromID, int toID) {
+		if (fromID == toID) {
+			return Rate.IDENTITY;
+		}
+
+		// read the cache before the rates, see setRate
+		Map<Long, Rate> cache = derivedRates;
+		Long key = key(fromID, toID);
+		Rate rate = cache.get(key);
+		if (rate == null) {
+			rate = deriveRate(fromID, toID);
+			if (rate != null) {
+				cache.put(key, rate);
+			}
+		}
+		return rate;
+	}
+
+
+	private Rate deriveRate(int fromID, int toID) {
+		Rate rate = getDirectOrInverseRate(fromID, toID);
+		if (rate != null) {
+			return rate;
+		}
+
+		// cross rate via an intermediate currency
+		for (int viaID : currencyIDs) {
+			Rate firstRate = getDirectOrInverseRate(fromID, viaID);
+			if (firstRate != null) {
+				Rate secondRate = getDirectOrInverseRate(viaID, toID);
+				if (secondRate != null) {
+					return firstRate.multiply(secondRate);
+				}
+			}
+		}
+		return null;
+	}
+
+
+	private Rate getDirectOrInverseRate(int fromID, int toID) {
+		Rate rate = rates.get(key(fromID, toID));
+		if (rate == null) {
+			Rate inverseRate = rates.get(key(toID, fromID));
+			if (inverseRate != null) {
+				rate = inverseRate.invert();
+			}
+		}
+		return rate;
+	}
+
+
+	private static long key(int fromID, int toID) {
+		return ((long) fromID << 32) | (toID & 0xFFFFFFFFL);
+	}
+
+
+	/**
+	 * An exchange rate as an exact fraction.
+	 * Instances are immutable.
+	 */
+	public static final class Rate {
+
+		static final Rate IDENTITY = new Rate(BigDecimal.ONE, BigDecimal.ONE);
+
+		private final BigDecimal numerator;
+		private final BigDecimal denominator;
+
+		/**
+		 * The rate as a fraction of two longs or 0 if it cannot be represented that way.
+		 */
+		private final long longNumerator;
+		private final long longDenominator;
+
+		/**
+		 * The largest absolute amount in cents that can be converted without overflow.
+		 */
+		private final long maxCents;
+
+
+		private Rate(BigDecimal numerator, BigDecimal denominator) {
+			this.numerator = numerator;
+			this.denominator = denominator;
+
+			// numerator / denominator = a * 10^-s1 / (b * 10^-s2) = a * 10^s2 / (b * 10^s1)
+			BigInteger n = numerator.unscaledValue();
+			BigInteger d = denominator.unscaledValue();
+			int exponent = denominator.scale() - numerator.scale();
+			if (exponent > 0) {
+				n = n.multiply(BigInteger.TEN.pow(exponent));
+			}
+			else if (exponent < 0) {
+				d = d.multiply(BigInteger.TEN.pow(-exponent));
+			}
+			BigInteger gcd = n.gcd(d);
+			n = n.divide(gcd);
+			d = d.divide(gcd);
+
+			if (n.bitLength() < Long.SIZE - 1 && d.bitLength() < Long.SIZE - 1) {
+				longNumerator = n.longValue();
+				longDenominator = d.longValue();
+				maxCents = Long.MAX_VALUE / longNumerator;
+			}
+			else {
+				longNumerator = 0;
+				longDenominator = 0;
+				maxCents = -1;
+			}
+		}
+
+
+		Rate invert() {
+			return new Rate(denominator, numerator);
+		}
+
+
+		Rate multiply(Rate other) {
+			return new Rate(numerator.multiply(other.numerator), denominator.multiply(other.denominator));
+		}
+
+
+		/**
+		 * Return the rate, rounded to 16 significant digits if it is not a finite decimal.
+		 * @return
+		 */
+		public BigDecimal getRate() {
+			if (denominator.compareTo(BigDecimal.ONE) == 0) {
+				return numerator;
+			}
+			return numerator.divide(denominator, MathContext.DECIMAL64);
+		}
+
+
+		/**
+		 * Convert an amount and round it to 2 decimal places with {@link RoundingMode#HALF_UP}.
+		 *
+		 * @param amount
+		 * @return
+		 */
+		public BigDecimal convert(BigDecimal amount) {
+			return convert(amount, 2);
+		}
+
+
+		/**
+		 * Convert an amount and round it to the given number of decimal places with {@link RoundingMode#HALF_UP}.
+		 *
+		 * @param amount
+		 * @param scale - the number of decimal places, usually the minor unit digits of the target currency
+		 * @return
+		 */
+		public BigDecimal convert(BigDecimal amount, int scale) {
+			if (scale == 2) {
+				long cents = convertCents(Cents.toCents(amount));
+				if (cents != Cents.NaN) {
+					return Cents.toBigDecimal(cents);
+				}
+			}
+
+			BigDecimal converted = amount.multiply(numerator);
+			if (denominator.compareTo(BigDecimal.ONE) == 0) {
+				return converted.setScale(scale, RoundingMode.HALF_UP);
+			}
+			return converted.divide(denominator, scale, RoundingMode.HALF_UP);
+		}
+
+
+		BigDecimal convert(CurrencyAmount currencyAmount, int scale) {
+			if (scale == 2) {
+				long cents = convertCents(currencyAmount.getAmountCents());
+				if (cents != Cents.NaN) {
+					return Cents.toBigDecimal(cents);
+				}
+			}
+			return convert(currencyAmount.getAmount(), scale);
+		}
+
+
+		/**
+		 * Convert an amount in cents.
+		 *
+		 * @param amountCents
+		 * @return the converted amount in cents or {@link Cents#NaN} if amountCents is {@link Cents#NaN} or the
+		 *  conversion cannot be done with <code>long</code> arithmetic
+		 */
+		public long convertCents(long amountCents) {
+			if (amountCents == Cents.NaN || maxCents < 0 || Math.abs(amountCents) > maxCents) {
+				return Cents.NaN;
+			}
+			return Cents.divideHalfUp(amountCents * longNumerator, longDenominator);
+		}
+
+
+		@Override
+		public String toString() {
+			return numerator + " / " + denominator;
+		}
+
+	}
+
+}
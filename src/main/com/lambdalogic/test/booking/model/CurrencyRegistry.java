@@ -0,0 +1,292 @@
+package com.lambdalogic.test.booking.model;
+
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+
+/**
+ * Canonical representation of currency codes as small integer IDs.
+ * <p>
+ * Every currency code gets an ID when it is used for the first time, so {@link Price} and {@link CurrencyAmount}
+ * accept any currency code. IDs start at 1 and are never reused, so they can be compared with <code>==</code> and
+ * used as array indexes. {@link #NO_CURRENCY} (0) stands for null. {@link #find(CharSequence)} looks up a code
+ * without registering it.
+ * <p>
+ * Codes that are read from external input should be checked with {@link #isValid(CharSequence)} first, so invalid
+ * input cannot make the number of IDs grow without limit. Valid codes are the ISO 4217 codes and codes that have
+ * been registered explicitly by {@link #register(String)}, e.g. a code of a bonus point system.
+ * {@link #getCode(int)} returns one canonical String instance per currency, so codes that have been passed through
+ * {@link #intern(CharSequence)} can be compared by reference, even if they have been parsed from some input.
+ * <p>
+ * Looking up a code that consists of 3 upper case letters (like all ISO 4217 codes) does not create any objects:
+ * the IDs of these codes are stored in an array that is indexed by the letters. Other codes are stored in a map.
+ * <p>
+ * For each currency the number of minor unit digits according to ISO 4217 is known, e.g. 2 for EUR, 0 for JPY and
+ * 3 for BHD. {@link CurrencyConverter} rounds converted amounts to the minor unit digits of the target currency and
+ * {@link CurrencyAmount} accepts amounts with more than 2 decimal places if its currency has more minor unit digits.
+ * <p>
+ * This class is thread-safe.
+ */
+public final class CurrencyRegistry {
+
+	/**
+	 * ID of the currency null.
+	 */
+	public static final int NO_CURRENCY = 0;
+
+	/**
+	 * Result of {@link #find(CharSequence)} for codes that have not been registered.
+	 */
+	public static final int UNKNOWN_CURRENCY = -1;
+
+	/**
+	 * Number of minor unit digits of currencies that are not known by ISO 4217 or do not have minor units.
+	 */
+	public static final int DEFAULT_MINOR_UNITS = 2;
+
+	private static final int LETTER_COUNT = 26;
+
+	/**
+	 * IDs of the codes with 3 upper case letters, 0 if a code has not been registered yet.
+	 */
+	private static final AtomicIntegerArray ISO_CODE_IDS = new AtomicIntegerArray(LETTER_COUNT * LETTER_COUNT * LETTER_COUNT);
+
+	/**
+	 * IDs of all other codes.
+	 */
+	private static final ConcurrentMap<String, Integer> OTHER_CODE_IDS = new ConcurrentHashMap<>();
+
+	/**
+	 * True for the indexes of the ISO 4217 codes and of the valid codes with 3 upper case letters that have been
+	 * registered explicitly.
+	 */
+	private static final AtomicIntegerArray VALID_ISO_INDEXES = new AtomicIntegerArray(LETTER_COUNT * LETTER_COUNT * LETTER_COUNT);
+	static {
+		for (Currency currency : Currency.getAvailableCurrencies()) {
+			int isoIndex = toIsoIndex(currency.getCurrencyCode());
+			if (isoIndex >= 0) {
+				VALID_ISO_INDEXES.set(isoIndex, 1);
+			}
+		}
+	}
+
+	/**
+	 * All other valid codes that have been registered explicitly.
+	 */
+	private static final Set<String> VALID_OTHER_CODES = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Codes and minor unit digits by ID.
+	 * The arrays are replaced when a currency is registered, so they can be read without locking.
+	 */
+	private static volatile String[] codes = new String[] { null };
+	private static volatile int[] minorUnits = new int[] { DEFAULT_MINOR_UNITS };
+
+
+	private CurrencyRegistry() {
+	}
+
+
+	/**
+	 * Return the ID of a currency code and register the code if it has not been used yet.
+	 *
+	 * @param code
+	 * @return the ID or {@link #NO_CURRENCY} if code is null
+	 */
+	public static int getID(CharSequence code) {
+		int id = find(code);
+		return id != UNKNOWN_CURRENCY ? id : add(code.toString(), toIsoIndex(code));
+	}
+
+
+	/**
+	 * Return the ID of a currency code without registering it.
+	 *
+	 * @param code
+	 * @return the ID, {@link #NO_CURRENCY} if code is null or {@link #UNKNOWN_CURRENCY} if the code has not been
+	 * registered yet
+	 */
+	public static int find(CharSequence code) {
+		if (code == null) {
+			return NO_CURRENCY;
+		}
+
+		int isoIndex = toIsoIndex(code);
+		if (isoIndex >= 0) {
+			int id = ISO_CODE_IDS.get(isoIndex);
+			return id != NO_CURRENCY ? id : UNKNOWN_CURRENCY;
+		}
+
+		Integer id = OTHER_CODE_IDS.get(code.toString());
+		return id != null ? id.intValue() : UNKNOWN_CURRENCY;
+	}
+
+
+	/**
+	 * Return true if a currency code is an ISO 4217 code or has been registered by {@link #register(String)}.
+	 * Checking a code that consists of 3 upper case letters does not create any objects.
+	 *
+	 * @param code
+	 * @return
+	 */
+	public static boolean isValid(CharSequence code) {
+		if (code == null) {
+			return false;
+		}
+
+		int isoIndex = toIsoIndex(code);
+		if (isoIndex >= 0) {
+			return VALID_ISO_INDEXES.get(isoIndex) != 0;
+		}
+		return VALID_OTHER_CODES.contains(code.toString());
+	}
+
+
+	/**
+	 * Register a currency code that is not defined by ISO 4217, e.g. a code of a bonus point system, so that it is
+	 * valid (see {@link #isValid(CharSequence)}).
+	 * Registering a code that is already known just returns its ID.
+	 *
+	 * @param code
+	 * @return the ID
+	 */
+	public static int register(String code) {
+		if (code == null || code.isEmpty()) {
+			throw new IllegalArgumentException("Parameter 'code' must not be empty.");
+		}
+
+		int isoIndex = toIsoIndex(code);
+		if (isoIndex >= 0) {
+			VALID_ISO_INDEXES.set(isoIndex, 1);
+		}
+		else {
+			VALID_OTHER_CODES.add(code);
+		}
+		return getID(code);
+	}
+
+
+	/**
+	 * Return the canonical instance of a currency code.
+	 *
+	 * @param code
+	 * @return
+	 */
+	public static String intern(CharSequence code) {
+		return getCode(getID(code));
+	}
+
+
+	/**
+	 * Return the currency code of an ID.
+	 *
+	 * @param id
+	 * @return the code or null for {@link #NO_CURRENCY}
+	 * @throws IllegalArgumentException if the ID is unknown
+	 */
+	public static String getCode(int id) {
+		String[] currentCodes = codes;
+		if (id < 0 || id >= currentCodes.length) {
+			throw new IllegalArgumentException("Unknown currency ID: " + id);
+		}
+		return currentCodes[id];
+	}
+
+
+	/**
+	 * Return the number of minor unit digits of a currency, e.g. 2 for EUR, 0 for JPY and 3 for BHD.
+	 *
+	 * @param id
+	 * @return the number of minor unit digits or {@link #DEFAULT_MINOR_UNITS} if ISO 4217 does not define it
+	 * @throws IllegalArgumentException if the ID is unknown
+	 */
+	public static int getMinorUnits(int id) {
+		int[] currentMinorUnits = minorUnits;
+		if (id < 0 || id >= currentMinorUnits.length) {
+			throw new IllegalArgumentException("Unknown currency ID: " + id);
+		}
+		return currentMinorUnits[id];
+	}
+
+
+	/**
+	 * Return the number of IDs that have been given away so far (including {@link #NO_CURRENCY}).
+	 * All IDs are less than this value, so it can be used as the length of arrays that are indexed by currency ID.
+	 *
+	 * @return
+	 */
+	public static int getIDCount() {
+		return codes.length;
+	}
+
+
+	private static synchronized int add(String code, int isoIndex) {
+		// another thread might have registered the code in the meantime
+		if (isoIndex >= 0) {
+			int knownID = ISO_CODE_IDS.get(isoIndex);
+			if (knownID != NO_CURRENCY) {
+				return knownID;
+			}
+		}
+		else {
+			Integer knownID = OTHER_CODE_IDS.get(code);
+			if (knownID != null) {
+				return knownID.intValue();
+			}
+		}
+
+		int id = codes.length;
+		int[] newMinorUnits = Arrays.copyOf(minorUnits, id + 1);
+		newMinorUnits[id] = lookUpMinorUnits(code);
+		String[] newCodes = Arrays.copyOf(codes, id + 1);
+		newCodes[id] = code;
+
+		// publish the arrays before the ID, so that everybody who knows the ID finds its code and minor units
+		minorUnits = newMinorUnits;
+		codes = newCodes;
+		if (isoIndex >= 0) {
+			ISO_CODE_IDS.set(isoIndex, id);
+		}
+		else {
+			OTHER_CODE_IDS.put(code, id);
+		}
+		return id;
+	}
+
+
+	private static int lookUpMinorUnits(String code) {
+		try {
+			int digits = Currency.getInstance(code).getDefaultFractionDigits();
+			return digits >= 0 ? digits : DEFAULT_MINOR_UNITS;
+		}
+		catch (IllegalArgumentException e) {
+			// not an ISO 4217 code
+			return DEFAULT_MINOR_UNITS;
+		}
+	}
+
+
+	/**
+	 * Return the index of a code with 3 upper case letters in {@link #ISO_CODE_IDS} or -1 for other codes.
+	 */
+	private static int toIsoIndex(CharSequence code) {
+		if (code.length() != 3) {
+			return -1;
+		}
+
+		int index = 0;
+		for (int i = 0; i < 3; i++) {
+			char c = code.charAt(i);
+			if (c < 'A' || c > 'Z') {
+				return -1;
+			}
+			index = index * LETTER_COUNT + (c - 'A');
+		}
+		return index;
+	}
+
+}
@@ -0,0 +1,150 @@
+package com.lambdalogic.test.booking.model;
+
+import java.math.BigDecimal;
+
+
+/**
+ * Exact, mutable sum of amounts of money.
+ * <p>
+ * As long as all summands have at most 2 decimal places and the sum fits into a <code>long</code>, the sum is kept
+ * in cents (see {@link Cents}) and adding does not create any objects.
+ * Other summands and overflows are transparently collected in a {@link BigDecimal}, so the result is always exact.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class MoneySum {
+
+	private long cents;
+
+	/**
+	 * The part of the sum that could not be represented in cents, null if there is none.
+	 */
+	private BigDecimal overflow;
+
+
+	public MoneySum() {
+	}
+
+
+	public MoneySum(MoneySum other) {
+		this.cents = other.cents;
+		this.overflow = other.overflow;
+	}
+
+
+	public void add(long summandCents) {
+		if (summandCents == Cents.NaN) {
+			throw new IllegalArgumentException("Parameter 'summandCents' must not be Cents.NaN.");
+		}
+
+		long sum = Cents.add(cents, summandCents);
+		if (sum != Cents.NaN) {
+			cents = sum;
+		}
+		else {
+			addOverflow(Cents.toBigDecimal(summandCents));
+		}
+	}
+
+
+	public void add(BigDecimal summand) {
+		long summandCents = Cents.toCents(summand);
+		if (summandCents != Cents.NaN) {
+			add(summandCents);
+		}
+		else if (summand != null) {
+			addOverflow(summand);
+		}
+	}
+
+
+	public void add(MoneySum summand) {
+		add(summand.cents);
+		if (summand.overflow != null) {
+			addOverflow(summand.overflow);
+		}
+	}
+
+
+	public void subtract(long subtrahendCents) {
+		if (subtrahendCents == Cents.NaN) {
+			throw new IllegalArgumentException("Parameter 'subtrahendCents' must not be Cents.NaN.");
+		}
+		add(-subtrahendCents);
+	}
+
+
+	public void subtract(BigDecimal subtrahend) {
+		if (subtrahend != null) {
+			add(subtrahend.negate());
+		}
+	}
+
+
+	public void subtract(MoneySum subtrahend) {
+		subtract(subtrahend.cents);
+		if (subtrahend.overflow != null) {
+			addOverflow(subtrahend.overflow.negate());
+		}
+	}
+
+
+	public void clear() {
+		cents = 0;
+		overflow = null;
+	}
+
+
+	/**
+	 * Return true if the sum is kept in cents completely.
+	 * @return
+	 */
+	public boolean isCents() {
+		return overflow == null;
+	}
+
+
+	/**
+	 * Return the sum in cents or {@link Cents#NaN} if it cannot be represented in cents.
+	 * @return
+	 */
+	public long getCents() {
+		if (overflow == null) {
+			return cents;
+		}
+		return Cents.add(cents, Cents.toCents(overflow));
+	}
+
+
+	/**
+	 * Return the exact sum.
+	 * The scale is 2 unless a summand had more decimal places.
+	 * @return
+	 */
+	public BigDecimal toBigDecimal() {
+		BigDecimal result = Cents.toBigDecimal(cents);
+		if (overflow != null) {
+			result = result.add(overflow);
+		}
+		return result;
+	}
+
+
+	public int signum() {
+		if (overflow == null) {
+			return Long.signum(cents);
+		}
+		return toBigDecimal().signum();
+	}
+
+
+	public String toString() {
+		return toBigDecimal().toPlainString();
+	}
+
+
+	private void addOverflow(BigDecimal summand) {
+		overflow = (overflow == null ? summand : overflow.add(summand));
+	}
+
+}
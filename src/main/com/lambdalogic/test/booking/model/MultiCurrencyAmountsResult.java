@@ -0,0 +1,176 @@
+package com.lambdalogic.test.booking.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.lambdalogic.test.booking.exception.InconsistentCurrenciesException;
+
+
+/**
+ * Immutable result of adding up the total amount, the paid amount and the open amount of the {@link Booking}s
+ * of one invoice recipient separately for every currency.
+ * <p>
+ * For each currency of the relevant bookings there is one successful {@link CurrencyAmountsResult}. The results are
+ * ordered by the first occurrence of their currency in the booking list.
+ * {@link #toSingleCurrencyResult()} converts this result into the result of the strict single-currency evaluation.
+ */
+public class MultiCurrencyAmountsResult {
+
+	private final Long invoiceRecipientPK;
+
+	/**
+	 * One result per currency in the order of the first occurrence of the currency.
+	 */
+	private final CurrencyAmountsResult[] results;
+
+
+	/**
+	 * @param invoiceRecipientPK - the PK of the invoice recipient the result belongs to
+	 * @param results - one successful result per currency; the array is not copied and must not be changed anymore
+	 */
+	public MultiCurrencyAmountsResult(Long invoiceRecipientPK, CurrencyAmountsResult[] results) {
+		if (results == null) {
+			throw new IllegalArgumentException("Parameter 'results' must not be null.");
+		}
+		for (CurrencyAmountsResult result : results) {
+			if (!result.isSuccessful()) {
+				throw new IllegalArgumentException("Parameter 'results' must only contain successful results.");
+			}
+		}
+
+		this.invoiceRecipientPK = invoiceRecipientPK;
+		this.results = results;
+	}
+
+
+	public Long getInvoiceRecipientPK() {
+		return invoiceRecipientPK;
+	}
+
+
+	/**
+	 * Return the number of different currencies of the relevant bookings.
+	 * @return
+	 */
+	public int getCurrencyCount() {
+		return results.length;
+	}
+
+
+	/**
+	 * Return the currencies of the relevant bookings in the order of their first occurrence.
+	 * @return
+	 */
+	public List<String> getCurrencies() {
+		List<String> currencies = new ArrayList<>(results.length);
+		for (CurrencyAmountsResult result : results) {
+			currencies.add(result.getCurrency());
+		}
+		return currencies;
+	}
+
+
+	/**
+	 * Return the results of all currencies in the order of the first occurrence of their currency.
+	 * @return
+	 */
+	public List<CurrencyAmountsResult> getResults() {
+		return Collections.unmodifiableList(Arrays.asList(results));
+	}
+
+
+	/**
+	 * Return the result of one currency.
+	 *
+	 * @param currency
+	 * @return the result or null if no relevant booking has this currency
+	 */
+	public CurrencyAmountsResult getResult(String currency) {
+		int currencyID = CurrencyRegistry.find(currency);
+		if (currencyID == CurrencyRegistry.UNKNOWN_CURRENCY) {
+			return null;
+		}
+		for (CurrencyAmountsResult result : results) {
+			if (result.getTotalAmount().getCurrencyID() == currencyID) {
+				return result;
+			}
+		}
+		return null;
+	}
+
+
+	/**
+	 * Return the total amount gross of one currency or null if no relevant booking has this currency.
+	 * @param currency
+	 * @return
+	 */
+	public CurrencyAmount getTotalAmount(String currency) {
+		CurrencyAmountsResult result = getResult(currency);
+		return result != null ? result.getTotalAmount() : null;
+	}
+
+
+	/**
+	 * Return the total paid amount of one currency or null if no relevant booking has this currency.
+	 * @param currency
+	 * @return
+	 */
+	public CurrencyAmount getTotalPaidAmount(String currency) {
+		CurrencyAmountsResult result = getResult(currency);
+		return result != null ? result.getTotalPaidAmount() : null;
+	}
+
+
+	/**
+	 * Return the total open amount of one currency or null if no relevant booking has this currency.
+	 * @param currency
+	 * @return
+	 */
+	public CurrencyAmount getTotalOpenAmount(String currency) {
+		CurrencyAmountsResult result = getResult(currency);
+		return result != null ? result.getTotalOpenAmount() : null;
+	}
+
+
+	/**
+	 * Return true if the relevant bookings do not have more than one currency.
+	 * @return
+	 */
+	public boolean isSingleCurrency() {
+		return results.length <= 1;
+	}
+
+
+	/**
+	 * Return the result of the strict single-currency evaluation: amounts of 0 without currency if there is no
+	 * currency, the result of the only currency or an {@link InconsistentCurrenciesException} with the first two
+	 * currencies.
+	 * @return
+	 */
+	public CurrencyAmountsResult toSingleCurrencyResult() {
+		switch (results.length) {
+			case 0:
+				return new CurrencyAmountsResult(
+					invoiceRecipientPK,
+					new CurrencyAmount(Price.ZERO, null),
+					new CurrencyAmount(Price.ZERO, null),
+					new CurrencyAmount(Price.ZERO, null)
+				);
+			case 1:
+				return results[0];
+			default:
+				return new CurrencyAmountsResult(
+					invoiceRecipientPK,
+					new InconsistentCurrenciesException(results[0].getCurrency(), results[1].getCurrency())
+				);
+		}
+	}
+
+
+	public String toString() {
+		return invoiceRecipientPK + ": " + Arrays.toString(results);
+	}
+
+}
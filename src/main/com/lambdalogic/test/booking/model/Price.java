@@ -22,8 +22,14 @@ public class Price {
 
     /**
      * The currency of the amount.
+     * Always the canonical instance of {@link CurrencyRegistry}.
      */
     protected String currency;
+
+    /**
+     * The ID of the currency in {@link CurrencyRegistry}.
+     */
+    protected int currencyID;
     
     /**
      * The tax rate.
@@ -49,6 +55,43 @@ public class Price {
      */
     protected boolean gross = true;
     
+    /**
+     * The amount in cents or {@link Cents#NaN} if it cannot be represented in cents.
+     */
+    protected long amountCents;
+    
+    /**
+     * The tax rate in basis points or {@link Cents#NO_BASIS_POINTS} if it cannot be represented in basis points.
+     * If taxRate is 19, taxRateBasisPoints is 1900.
+     */
+    protected int taxRateBasisPoints;
+    
+    /**
+     * Cached result of {@link #getAmountGross()} or null if it has not been calculated yet.
+     * Reset by every method that changes amount, tax rate or gross.
+     */
+    private BigDecimal amountGross;
+
+    /**
+     * Cached result of {@link #getAmountNet()} or null if it has not been calculated yet.
+     */
+    private BigDecimal amountNet;
+
+    /**
+     * Cached result of {@link #getAmountTax()} or null if it has not been calculated yet.
+     */
+    private BigDecimal amountTax;
+
+    /**
+     * Number of modifications, see {@link #getVersion()}.
+     */
+    private long version;
+
+    /**
+     * The booking this price has been set on, which is notified of every modification. Null if there is none.
+     */
+    Booking owner;
+    
     
     public Price() {
     	setAmount(ZERO);
@@ -64,7 +107,7 @@ public class Price {
     ) {
         setAmount(amount);
         
-        this.currency = currency;
+        assignCurrency(currency);
 
         setTaxRate(taxRate);
         
@@ -151,6 +194,42 @@ public class Price {
      */
     public void negate() {
     		amount = amount.negate();
+    		amountCents = Cents.toCents(amount);
+    		resetDerivedAmounts();
+    }
+    
+    
+    /**
+     * Forget the cached gross, net and tax amounts and change the version.
+     * Has to be called whenever amount, tax rate or gross change.
+     */
+    private void resetDerivedAmounts() {
+    	amountGross = null;
+    	amountNet = null;
+    	amountTax = null;
+    	modified();
+    }
+
+
+    /**
+     * Change the version and notify the booking this price belongs to.
+     */
+    private void modified() {
+    	version++;
+    	if (owner != null) {
+    		owner.modified();
+    	}
+    }
+
+
+    /**
+     * Return the modification version of this price.
+     * The version is increased whenever amount, currency, tax rate or gross change. It counts the modifications of
+     * this price only, so versions of different prices are not related.
+     * @return
+     */
+    public long getVersion() {
+    	return version;
     }
     
 
@@ -170,6 +249,8 @@ public class Price {
 		else {
 			this.amount = amount.setScale(2, RoundingMode.HALF_UP);
 		}
+		amountCents = Cents.toCents(this.amount);
+		resetDerivedAmounts();
 	}
     
     
@@ -185,7 +266,24 @@ public class Price {
 
     
 	public void setCurrency(String currency) {
-		this.currency = currency;
+		assignCurrency(currency);
+	}
+    
+    
+	/**
+	 * Return the ID of the currency in {@link CurrencyRegistry}.
+	 * Two prices have the same currency if and only if they have the same currency ID.
+	 * @return
+	 */
+	public int getCurrencyID() {
+		return currencyID;
+	}
+	
+	
+	private void assignCurrency(String currency) {
+		currencyID = CurrencyRegistry.getID(currency);
+		this.currency = CurrencyRegistry.getCode(currencyID);
+		modified();
 	}
     
     
@@ -203,17 +301,13 @@ public class Price {
 
     
 	public void setTaxRate(BigDecimal taxRate) {
-		if (taxRate == null) {
-			this.taxRate = ZERO;
-			taxRateDiv100 = ZERO;
-			taxRateDiv100Add1 = BigDecimal.ONE;
-		}
-		else {
-			this.taxRate = taxRate;
-			// a division through 100 never results in a periodical fraction and must not be rounded
-			taxRateDiv100 = taxRate.divide(BD_100);
-			taxRateDiv100Add1 = taxRateDiv100.add(BigDecimal.ONE);
-		}
+		// the factors are shared by all prices with the same tax rate
+		TaxRateFactors factors = TaxRateFactors.of(taxRate);
+		this.taxRate = (taxRate == null ? ZERO : taxRate);
+		taxRateDiv100 = factors.getTaxRateDiv100();
+		taxRateDiv100Add1 = factors.getTaxRateDiv100Add1();
+		taxRateBasisPoints = factors.getBasisPoints();
+		resetDerivedAmounts();
 	}
 
     
@@ -229,6 +323,7 @@ public class Price {
     
 	public void setGross(boolean brutto) {
 		this.gross = brutto;
+		resetDerivedAmounts();
 	}
 
     
@@ -239,8 +334,10 @@ public class Price {
 	public void copyFrom(Price price) {
 		setAmount(price.amount);
 		currency = price.currency;
+		currencyID = price.currencyID;
 		setTaxRate(price.taxRate);
 		gross = price.gross;
+		resetDerivedAmounts();
 	}
 
     // *
@@ -253,13 +350,26 @@ public class Price {
     
 	/**
 	 * Return the amount gross (which is a rounded value if gross == false).
+	 * The value is calculated once and cached until amount, tax rate or gross change.
 	 * @return
 	 */
 	public BigDecimal getAmountGross() {
+		if (amountGross == null) {
+			amountGross = calculateAmountGross();
+		}
+		return amountGross;
+	}
+
+
+	private BigDecimal calculateAmountGross() {
 		BigDecimal amountGross = null;
 		if (amount != null) {
 			amountGross = amount;
 			if (!gross && taxRateDiv100Add1 != null) {
+				long amountGrossCents = Cents.grossOfNet(amountCents, taxRateBasisPoints);
+				if (amountGrossCents != Cents.NaN) {
+					return Cents.toBigDecimal(amountGrossCents);
+				}
 				amountGross = amountGross.multiply(taxRateDiv100Add1);
 				amountGross = amountGross.setScale(2, RoundingMode.HALF_UP);
 			}
@@ -270,13 +380,26 @@ public class Price {
     
 	/**
 	 * Return the amount net (which is a rounded value if gross == true).
+	 * The value is calculated once and cached until amount, tax rate or gross change.
 	 * @return
 	 */
 	public BigDecimal getAmountNet() {
+		if (amountNet == null) {
+			amountNet = calculateAmountNet();
+		}
+		return amountNet;
+	}
+
+
+	private BigDecimal calculateAmountNet() {
 		BigDecimal amountNet = null;
 		if (amount != null) {
 			amountNet = amount;
 			if (gross && taxRateDiv100Add1 != null) {
+				long amountNetCents = Cents.netOfGross(amountCents, taxRateBasisPoints);
+				if (amountNetCents != Cents.NaN) {
+					return Cents.toBigDecimal(amountNetCents);
+				}
 				amountNet = amountNet.divide(taxRateDiv100Add1, 2, RoundingMode.HALF_UP);
 			}
 		}
@@ -286,9 +409,18 @@ public class Price {
 
 	/**
 	 * Return the tax amount based of the amount, the tax rate and the circumstance if amount is net or gross.
+	 * The value is calculated once and cached until amount, tax rate or gross change.
 	 * @return
 	 */
 	public BigDecimal getAmountTax() {
+		if (amountTax == null) {
+			amountTax = calculateAmountTax();
+		}
+		return amountTax;
+	}
+
+
+	private BigDecimal calculateAmountTax() {
 		BigDecimal amountTax = null;
 		if (amount != null) {
 			if (taxRate.signum() == 0) {
@@ -298,6 +430,10 @@ public class Price {
 				amountTax = amount.subtract(getAmountNet());
 			}
 			else {
+				long amountTaxCents = Cents.taxOfNet(amountCents, taxRateBasisPoints);
+				if (amountTaxCents != Cents.NaN) {
+					return Cents.toBigDecimal(amountTaxCents);
+				}
 				amountTax = amount.multiply(taxRateDiv100);
 				amountTax = amountTax.setScale(2, RoundingMode.HALF_UP);
 			}
@@ -306,6 +442,67 @@ public class Price {
 	}
 	
 	
+	/**
+	 * Return the amount in cents or {@link Cents#NaN} if it cannot be represented in cents.
+	 * @return
+	 */
+	public long getAmountCents() {
+		return amountCents;
+	}
+
+
+	/**
+	 * Return the tax rate in basis points (1900 for 19%) or {@link Cents#NO_BASIS_POINTS} if it cannot be
+	 * represented in basis points.
+	 * @return
+	 */
+	public int getTaxRateBasisPoints() {
+		return taxRateBasisPoints;
+	}
+
+
+	/**
+	 * Return the same value as {@link #getAmountGross()} in cents or {@link Cents#NaN} if the value cannot be
+	 * calculated in cents. In the latter case {@link #getAmountGross()} has to be used.
+	 * @return
+	 */
+	public long getAmountGrossCents() {
+		if (gross) {
+			return amountCents;
+		}
+		return Cents.grossOfNet(amountCents, taxRateBasisPoints);
+	}
+
+
+	/**
+	 * Return the same value as {@link #getAmountNet()} in cents or {@link Cents#NaN} if the value cannot be
+	 * calculated in cents. In the latter case {@link #getAmountNet()} has to be used.
+	 * @return
+	 */
+	public long getAmountNetCents() {
+		if (!gross) {
+			return amountCents;
+		}
+		return Cents.netOfGross(amountCents, taxRateBasisPoints);
+	}
+
+
+	/**
+	 * Return the same value as {@link #getAmountTax()} in cents or {@link Cents#NaN} if the value cannot be
+	 * calculated in cents. In the latter case {@link #getAmountTax()} has to be used.
+	 * @return
+	 */
+	public long getAmountTaxCents() {
+		if (amountCents == Cents.NaN || taxRateBasisPoints == 0) {
+			return amountCents == Cents.NaN ? Cents.NaN : 0;
+		}
+		if (gross) {
+			return Cents.taxOfGross(amountCents, taxRateBasisPoints);
+		}
+		return Cents.taxOfNet(amountCents, taxRateBasisPoints);
+	}
+	
+	
 	public CurrencyAmount getCurrencyAmountGross() {
 		return new CurrencyAmount(getAmountGross(), currency);
 	}
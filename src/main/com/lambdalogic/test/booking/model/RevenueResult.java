@@ -0,0 +1,102 @@
+package com.lambdalogic.test.booking.model;
+
+import java.math.BigDecimal;
+
+import com.lambdalogic.test.booking.exception.InconsistentCurrenciesException;
+
+
+/**
+ * Immutable result of adding up the prices of the {@link Booking}s of one offering: the revenue gross, net and the
+ * tax.
+ * <p>
+ * The three amounts follow the rules of {@link TaxRateAmountAccumulator}: every sum of equal tax rates is converted
+ * exactly once. The net amount of a sum of net prices is exact and its tax is rounded, the tax of a sum of gross
+ * prices is the difference between the exact gross amount and the rounded net amount. So gross = net + tax holds to
+ * the cent for every non-negative tax rate and therefore for the totals, even if gross and net prices are mixed.
+ * <p>
+ * If the relevant bookings have different currencies, all amounts are null and {@link #getException()} returns an
+ * {@link InconsistentCurrenciesException}.
+ */
+public class RevenueResult extends AbstractAmountsResult {
+
+	private final BigDecimal amountGross;
+	private final BigDecimal amountNet;
+	private final BigDecimal amountTax;
+
+
+	/**
+	 * Create a successful result.
+	 * Only the values of the amounts are kept, so they can be changed afterwards without affecting the result.
+	 *
+	 * @param offeringPK - the PK of the offering the result belongs to
+	 * @param amountGross
+	 * @param amountNet
+	 * @param amountTax
+	 */
+	public RevenueResult(
+		Long offeringPK,
+		CurrencyAmount amountGross,
+		CurrencyAmount amountNet,
+		CurrencyAmount amountTax
+	) {
+		super(offeringPK, amountGross.getCurrencyID());
+		this.amountGross = amountGross.getAmount();
+		this.amountNet = amountNet.getAmount();
+		this.amountTax = amountTax.getAmount();
+	}
+
+
+	/**
+	 * Create a failed result.
+	 *
+	 * @param offeringPK - the PK of the offering the result belongs to
+	 * @param exception - the reason why no amounts could be calculated
+	 */
+	public RevenueResult(Long offeringPK, InconsistentCurrenciesException exception) {
+		super(offeringPK, exception);
+		this.amountGross = null;
+		this.amountNet = null;
+		this.amountTax = null;
+	}
+
+
+	public Long getOfferingPK() {
+		return getPK();
+	}
+
+
+	/**
+	 * Return the revenue gross as a new {@link CurrencyAmount} or null in case of an error.
+	 * @return
+	 */
+	public CurrencyAmount getAmountGross() {
+		return toCurrencyAmount(amountGross);
+	}
+
+
+	/**
+	 * Return the revenue net as a new {@link CurrencyAmount} or null in case of an error.
+	 * @return
+	 */
+	public CurrencyAmount getAmountNet() {
+		return toCurrencyAmount(amountNet);
+	}
+
+
+	/**
+	 * Return the tax of the revenue as a new {@link CurrencyAmount} or null in case of an error.
+	 * @return
+	 */
+	public CurrencyAmount getAmountTax() {
+		return toCurrencyAmount(amountTax);
+	}
+
+
+	public String toString() {
+		if (!isSuccessful()) {
+			return getPK() + ": " + getException().getMessage();
+		}
+		return getPK() + ": gross " + getAmountGross() + ", net " + getAmountNet() + ", tax " + getAmountTax();
+	}
+
+}
@@ -0,0 +1,512 @@
+package com.lambdalogic.test.booking.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+
+/**
+ * Exact sums of {@link Price} amounts, kept apart by tax rate and by gross/net.
+ * <p>
+ * Adding up net amounts must not add up rounding errors: the sum of 10 times 0.10 net with 19% tax is
+ * (10 * 0.10) * 1.19 = 1.19 gross and not 10 * 0.12 = 1.20. Therefore the net amounts of every tax rate are summed up
+ * exactly and converted to gross only once by {@link #toGross()}. The same applies to gross amounts and
+ * {@link #toNet()}. Every bucket is rounded exactly once, with the same rules as {@link Price#getAmountGross()},
+ * {@link Price#getAmountNet()} and {@link Price#getAmountTax()}.
+ * <p>
+ * The sums are kept in cents (see {@link Cents}) in a small open-addressing map whose keys are the tax rate in basis
+ * points and the gross flag. As there are only a handful of tax rates in practice, adding an amount does usually
+ * not create any objects. Amounts that do not fit into cents and tax rates with more than 2 decimal places are
+ * transparently handled with {@link BigDecimal}.
+ * <p>
+ * Accumulators can be merged and subtracted, so they are the core of the sequential, parallel and incremental
+ * evaluators. This class is not thread-safe.
+ */
+public class TaxRateAmountAccumulator {
+
+	private static final int EMPTY = -1;
+	private static final int DEFAULT_CAPACITY = 4;
+
+	/**
+	 * Keys of the buckets: tax rate in basis points * 2 + (gross ? 1 : 0), or {@link #EMPTY}.
+	 */
+	private int[] keys;
+
+	/**
+	 * Sums in cents of the buckets.
+	 */
+	private long[] sums;
+
+	/**
+	 * Parts of the sums that do not fit into cents, null as long as there are none.
+	 */
+	private BigDecimal[] overflows;
+
+	private int bucketCount;
+
+	/**
+	 * Sums of tax rates that cannot be represented in basis points, null as long as there are none.
+	 * The values are arrays of two elements: the net sum and the gross sum.
+	 */
+	private Map<BigDecimal, MoneySum[]> otherTaxRates;
+
+
+	public TaxRateAmountAccumulator() {
+		keys = new int[DEFAULT_CAPACITY];
+		Arrays.fill(keys, EMPTY);
+		sums = new long[DEFAULT_CAPACITY];
+	}
+
+
+	public TaxRateAmountAccumulator(TaxRateAmountAccumulator other) {
+		keys = other.keys.clone();
+		sums = other.sums.clone();
+		overflows = (other.overflows == null ? null : other.overflows.clone());
+		bucketCount = other.bucketCount;
+		if (other.otherTaxRates != null) {
+			otherTaxRates = new TreeMap<>();
+			for (Map.Entry<BigDecimal, MoneySum[]> entry : other.otherTaxRates.entrySet()) {
+				otherTaxRates.put(
+					entry.getKey(),
+					new MoneySum[] { new MoneySum(entry.getValue()[0]), new MoneySum(entry.getValue()[1]) }
+				);
+			}
+		}
+	}
+
+
+	// *************************************************************************
+	// * Adding and subtracting
+	// *
+
+	/**
+	 * Add the amount of a price to the bucket of its tax rate.
+	 *
+	 * @param price
+	 */
+	public void add(Price price) {
+		if (price.isZero()) {
+			return;
+		}
+
+		long amountCents = price.getAmountCents();
+		int basisPoints = price.getTaxRateBasisPoints();
+		if (amountCents != Cents.NaN && basisPoints != Cents.NO_BASIS_POINTS) {
+			add(basisPoints, price.isGross(), amountCents);
+		}
+		else {
+			add(price.getTaxRate(), basisPoints, price.isGross(), price.getAmount());
+		}
+	}
+
+
+	/**
+	 * Subtract the amount of a price from the bucket of its tax rate.
+	 *
+	 * @param price
+	 */
+	public void subtract(Price price) {
+		if (price.isZero()) {
+			return;
+		}
+
+		long amountCents = price.getAmountCents();
+		int basisPoints = price.getTaxRateBasisPoints();
+		if (amountCents != Cents.NaN && basisPoints != Cents.NO_BASIS_POINTS) {
+			add(basisPoints, price.isGross(), -amountCents);
+		}
+		else {
+			add(price.getTaxRate(), basisPoints, price.isGross(), price.getAmount().negate());
+		}
+	}
+
+
+	/**
+	 * Add a net amount.
+	 *
+	 * @param taxRateBasisPoints - the tax rate in basis points, between 0 and {@link Cents#MAX_BASIS_POINTS}
+	 * @param netCents
+	 */
+	public void addNet(int taxRateBasisPoints, long netCents) {
+		add(checkBasisPoints(taxRateBasisPoints), false, netCents);
+	}
+
+
+	/**
+	 * Add a gross amount.
+	 *
+	 * @param taxRateBasisPoints - the tax rate in basis points, between 0 and {@link Cents#MAX_BASIS_POINTS}
+	 * @param grossCents
+	 */
+	public void addGross(int taxRateBasisPoints, long grossCents) {
+		add(checkBasisPoints(taxRateBasisPoints), true, grossCents);
+	}
+
+
+	/**
+	 * Add all sums of another accumulator.
+	 *
+	 * @param other
+	 */
+	public void merge(TaxRateAmountAccumulator other) {
+		merge(other, false);
+	}
+
+
+	/**
+	 * Subtract all sums of another accumulator.
+	 *
+	 * @param other
+	 */
+	public void subtract(TaxRateAmountAccumulator other) {
+		merge(other, true);
+	}
+
+
+	public void clear() {
+		Arrays.fill(keys, EMPTY);
+		Arrays.fill(sums, 0);
+		overflows = null;
+		bucketCount = 0;
+		otherTaxRates = null;
+	}
+
+	// *
+	// * Adding and subtracting
+	// *************************************************************************
+
+	// *************************************************************************
+	// * Results
+	// *
+
+	/**
+	 * Return true if all sums are 0.
+	 * @return
+	 */
+	public boolean isZero() {
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] != EMPTY && (sums[i] != 0 || (overflows != null && overflows[i] != null && overflows[i].signum() != 0))) {
+				return false;
+			}
+		}
+		if (otherTaxRates != null) {
+			for (MoneySum[] otherSums : otherTaxRates.values()) {
+				if (otherSums[0].signum() != 0 || otherSums[1].signum() != 0) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+
+	/**
+	 * Return the total gross amount.
+	 * Gross sums are exact, net sums are converted to gross once per tax rate.
+	 * @return a value with scale 2
+	 */
+	public BigDecimal toGross() {
+		MoneySum total = new MoneySum();
+		for (int i = 0; i < keys.length; i++) {
+			int key = keys[i];
+			if (key == EMPTY) {
+				continue;
+			}
+
+			int basisPoints = key >>> 1;
+			if (isGrossKey(key)) {
+				addBucket(total, i);
+			}
+			else {
+				long grossCents = (getOverflow(i) == null ? Cents.grossOfNet(sums[i], basisPoints) : Cents.NaN);
+				if (grossCents != Cents.NaN) {
+					total.add(grossCents);
+				}
+				else {
+					total.add(grossOfNet(getBucket(i), toTaxRateDiv100Add1(basisPoints)));
+				}
+			}
+		}
+
+		if (otherTaxRates != null) {
+			for (Map.Entry<BigDecimal, MoneySum[]> entry : otherTaxRates.entrySet()) {
+				total.add(grossOfNet(entry.getValue()[0].toBigDecimal(), toTaxRateDiv100Add1(entry.getKey())));
+				total.add(entry.getValue()[1]);
+			}
+		}
+		return total.toBigDecimal().setScale(2, RoundingMode.HALF_UP);
+	}
+
+
+	/**
+	 * Return the total net amount.
+	 * Net sums are exact, gross sums are converted to net once per tax rate.
+	 * @return a value with scale 2
+	 */
+	public BigDecimal toNet() {
+		MoneySum total = new MoneySum();
+		for (int i = 0; i < keys.length; i++) {
+			int key = keys[i];
+			if (key == EMPTY) {
+				continue;
+			}
+
+			int basisPoints = key >>> 1;
+			if (!isGrossKey(key)) {
+				addBucket(total, i);
+			}
+			else {
+				long netCents = (getOverflow(i) == null ? Cents.netOfGross(sums[i], basisPoints) : Cents.NaN);
+				if (netCents != Cents.NaN) {
+					total.add(netCents);
+				}
+				else {
+					total.add(netOfGross(getBucket(i), toTaxRateDiv100Add1(basisPoints)));
+				}
+			}
+		}
+
+		if (otherTaxRates != null) {
+			for (Map.Entry<BigDecimal, MoneySum[]> entry : otherTaxRates.entrySet()) {
+				total.add(entry.getValue()[0]);
+				total.add(netOfGross(entry.getValue()[1].toBigDecimal(), toTaxRateDiv100Add1(entry.getKey())));
+			}
+		}
+		return total.toBigDecimal().setScale(2, RoundingMode.HALF_UP);
+	}
+
+
+	/**
+	 * Return the total tax amount.
+	 * The tax of every bucket is calculated once: net sums are multiplied with the tax rate, for gross sums the tax
+	 * is the difference between the gross sum and its net amount.
+	 * @return a value with scale 2
+	 */
+	public BigDecimal toTax() {
+		MoneySum total = new MoneySum();
+		for (int i = 0; i < keys.length; i++) {
+			int key = keys[i];
+			if (key == EMPTY || key >>> 1 == 0) {
+				continue;
+			}
+
+			int basisPoints = key >>> 1;
+			long taxCents = Cents.NaN;
+			if (getOverflow(i) == null) {
+				taxCents = isGrossKey(key)
+					? Cents.taxOfGross(sums[i], basisPoints)
+					: Cents.taxOfNet(sums[i], basisPoints);
+			}
+
+			if (taxCents != Cents.NaN) {
+				total.add(taxCents);
+			}
+			else if (isGrossKey(key)) {
+				BigDecimal gross = getBucket(i);
+				total.add(gross.subtract(netOfGross(gross, toTaxRateDiv100Add1(basisPoints))));
+			}
+			else {
+				total.add(taxOfNet(getBucket(i), BigDecimal.valueOf(basisPoints, 4)));
+			}
+		}
+
+		if (otherTaxRates != null) {
+			for (Map.Entry<BigDecimal, MoneySum[]> entry : otherTaxRates.entrySet()) {
+				if (entry.getKey().signum() == 0) {
+					continue;
+				}
+				TaxRateFactors factors = TaxRateFactors.of(entry.getKey());
+				total.add(taxOfNet(entry.getValue()[0].toBigDecimal(), factors.getTaxRateDiv100()));
+				BigDecimal gross = entry.getValue()[1].toBigDecimal();
+				total.add(gross.subtract(netOfGross(gross, factors.getTaxRateDiv100Add1())));
+			}
+		}
+		return total.toBigDecimal().setScale(2, RoundingMode.HALF_UP);
+	}
+
+	// *
+	// * Results
+	// *************************************************************************
+
+
+	private static int checkBasisPoints(int taxRateBasisPoints) {
+		if (taxRateBasisPoints < 0 || taxRateBasisPoints > Cents.MAX_BASIS_POINTS) {
+			throw new IllegalArgumentException(
+				"Parameter 'taxRateBasisPoints' must be between 0 and " + Cents.MAX_BASIS_POINTS + "."
+			);
+		}
+		return taxRateBasisPoints;
+	}
+
+
+	private static boolean isGrossKey(int key) {
+		return (key & 1) != 0;
+	}
+
+
+	private static BigDecimal toTaxRateDiv100Add1(int basisPoints) {
+		return BigDecimal.valueOf(Cents.BASIS_POINTS_100 + basisPoints, 4);
+	}
+
+
+	private static BigDecimal toTaxRateDiv100Add1(BigDecimal taxRate) {
+		return TaxRateFactors.of(taxRate).getTaxRateDiv100Add1();
+	}
+
+
+	private static BigDecimal grossOfNet(BigDecimal net, BigDecimal taxRateDiv100Add1) {
+		return net.multiply(taxRateDiv100Add1).setScale(2, RoundingMode.HALF_UP);
+	}
+
+
+	private static BigDecimal netOfGross(BigDecimal gross, BigDecimal taxRateDiv100Add1) {
+		return gross.divide(taxRateDiv100Add1, 2, RoundingMode.HALF_UP);
+	}
+
+
+	private static BigDecimal taxOfNet(BigDecimal net, BigDecimal taxRateDiv100) {
+		return net.multiply(taxRateDiv100).setScale(2, RoundingMode.HALF_UP);
+	}
+
+
+	private BigDecimal getOverflow(int index) {
+		return overflows == null ? null : overflows[index];
+	}
+
+
+	private BigDecimal getBucket(int index) {
+		BigDecimal bucket = Cents.toBigDecimal(sums[index]);
+		BigDecimal overflow = getOverflow(index);
+		return overflow == null ? bucket : bucket.add(overflow);
+	}
+
+
+	private void addBucket(MoneySum total, int index) {
+		total.add(sums[index]);
+		BigDecimal overflow = getOverflow(index);
+		if (overflow != null) {
+			total.add(overflow);
+		}
+	}
+
+
+	private void add(int basisPoints, boolean gross, long cents) {
+		if (cents == Cents.NaN) {
+			throw new IllegalArgumentException("Amounts must not be Cents.NaN.");
+		}
+
+		int index = findOrInsert((basisPoints << 1) | (gross ? 1 : 0));
+		long sum = Cents.add(sums[index], cents);
+		if (sum != Cents.NaN) {
+			sums[index] = sum;
+		}
+		else {
+			addOverflow(index, Cents.toBigDecimal(cents));
+		}
+	}
+
+
+	private void add(BigDecimal taxRate, int basisPoints, boolean gross, BigDecimal amount) {
+		if (basisPoints != Cents.NO_BASIS_POINTS) {
+			addOverflow(findOrInsert((basisPoints << 1) | (gross ? 1 : 0)), amount);
+			return;
+		}
+
+		if (otherTaxRates == null) {
+			otherTaxRates = new TreeMap<>();
+		}
+		MoneySum[] otherSums = otherTaxRates.get(taxRate);
+		if (otherSums == null) {
+			otherSums = new MoneySum[] { new MoneySum(), new MoneySum() };
+			otherTaxRates.put(taxRate, otherSums);
+		}
+		otherSums[gross ? 1 : 0].add(amount);
+	}
+
+
+	private void addOverflow(int index, BigDecimal amount) {
+		if (overflows == null) {
+			overflows = new BigDecimal[keys.length];
+		}
+		overflows[index] = (overflows[index] == null ? amount : overflows[index].add(amount));
+	}
+
+
+	private void merge(TaxRateAmountAccumulator other, boolean negate) {
+		for (int i = 0; i < other.keys.length; i++) {
+			int key = other.keys[i];
+			if (key == EMPTY) {
+				continue;
+			}
+
+			long cents = other.sums[i];
+			add(key >>> 1, isGrossKey(key), negate ? -cents : cents);
+			BigDecimal overflow = other.getOverflow(i);
+			if (overflow != null) {
+				addOverflow(findOrInsert(key), negate ? overflow.negate() : overflow);
+			}
+		}
+
+		if (other.otherTaxRates != null) {
+			for (Map.Entry<BigDecimal, MoneySum[]> entry : other.otherTaxRates.entrySet()) {
+				for (int g = 0; g < 2; g++) {
+					BigDecimal amount = entry.getValue()[g].toBigDecimal();
+					add(entry.getKey(), Cents.NO_BASIS_POINTS, g == 1, negate ? amount.negate() : amount);
+				}
+			}
+		}
+	}
+
+
+	private int findOrInsert(int key) {
+		int mask = keys.length - 1;
+		int index = mix(key) & mask;
+		while (keys[index] != EMPTY) {
+			if (keys[index] == key) {
+				return index;
+			}
+			index = (index + 1) & mask;
+		}
+
+		if ((bucketCount + 1) * 2 > keys.length) {
+			grow();
+			return findOrInsert(key);
+		}
+
+		keys[index] = key;
+		bucketCount++;
+		return index;
+	}
+
+
+	private void grow() {
+		int[] oldKeys = keys;
+		long[] oldSums = sums;
+		BigDecimal[] oldOverflows = overflows;
+
+		keys = new int[oldKeys.length * 2];
+		Arrays.fill(keys, EMPTY);
+		sums = new long[keys.length];
+		overflows = (oldOverflows == null ? null : new BigDecimal[keys.length]);
+		bucketCount = 0;
+
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != EMPTY) {
+				int index = findOrInsert(oldKeys[i]);
+				sums[index] = oldSums[i];
+				if (oldOverflows != null) {
+					overflows[index] = oldOverflows[i];
+				}
+			}
+		}
+	}
+
+
+	private static int mix(int key) {
+		int h = key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+}
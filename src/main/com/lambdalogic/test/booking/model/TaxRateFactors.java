@@ -0,0 +1,143 @@
+package com.lambdalogic.test.booking.model;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+
+/**
+ * The factors of a tax rate that are needed to calculate gross, net and tax amounts.
+ * <p>
+ * Instances are immutable and shared: {@link #of(BigDecimal)} returns the same instance for every tax rate with the
+ * same value and scale, so the division through 100 is done only once per tax rate and not once per {@link Price}.
+ * The integral tax rates from 0 to 99 (which covers all common rates like 0, 7 and 19) are created in advance and
+ * found without any map lookup.
+ * <p>
+ * This class is thread-safe.
+ */
+public final class TaxRateFactors {
+
+	/**
+	 * Factors of {@link Price#ZERO}, which is used for prices without tax rate.
+	 */
+	public static final TaxRateFactors ZERO = new TaxRateFactors(Price.ZERO);
+
+	/**
+	 * Number of integral tax rates that are created in advance.
+	 */
+	private static final int INTEGRAL_TAX_RATE_COUNT = 100;
+
+	/**
+	 * Maximum number of other tax rates that are kept.
+	 * Further tax rates are not cached to protect the heap against arbitrary input.
+	 */
+	private static final int MAX_CACHE_SIZE = 1024;
+
+	private static final TaxRateFactors[] INTEGRAL_TAX_RATES = new TaxRateFactors[INTEGRAL_TAX_RATE_COUNT];
+
+	private static final ConcurrentMap<BigDecimal, TaxRateFactors> CACHE = new ConcurrentHashMap<>();
+
+	static {
+		for (int i = 0; i < INTEGRAL_TAX_RATE_COUNT; i++) {
+			INTEGRAL_TAX_RATES[i] = new TaxRateFactors(BigDecimal.valueOf(i));
+		}
+	}
+
+
+	/**
+	 * The tax rate, e.g. 19.
+	 */
+	private final BigDecimal taxRate;
+
+	/**
+	 * Tax rate divided by 100, e.g. 0.19.
+	 */
+	private final BigDecimal taxRateDiv100;
+
+	/**
+	 * Tax rate divided by 100 plus 1, e.g. 1.19.
+	 */
+	private final BigDecimal taxRateDiv100Add1;
+
+	/**
+	 * The tax rate in basis points (e.g. 1900) or {@link Cents#NO_BASIS_POINTS}.
+	 */
+	private final int basisPoints;
+
+
+	private TaxRateFactors(BigDecimal taxRate) {
+		this.taxRate = taxRate;
+		// a division through 100 never results in a periodical fraction and must not be rounded
+		this.taxRateDiv100 = taxRate.divide(Price.BD_100);
+		this.taxRateDiv100Add1 = taxRateDiv100.add(BigDecimal.ONE);
+		this.basisPoints = Cents.toBasisPoints(taxRate);
+	}
+
+
+	/**
+	 * Return the shared factors of a tax rate.
+	 *
+	 * @param taxRate - the tax rate, e.g. 19 for 19%; null is treated as 0
+	 * @return
+	 */
+	public static TaxRateFactors of(BigDecimal taxRate) {
+		if (taxRate == null) {
+			return ZERO;
+		}
+
+		if (taxRate.scale() == 0) {
+			// intValue() does not create any objects for small values
+			int intValue = taxRate.intValue();
+			if (intValue >= 0 && intValue < INTEGRAL_TAX_RATE_COUNT && taxRate.compareTo(INTEGRAL_TAX_RATES[intValue].taxRate) == 0) {
+				return INTEGRAL_TAX_RATES[intValue];
+			}
+		}
+		else if (taxRate.equals(Price.ZERO)) {
+			return ZERO;
+		}
+
+		TaxRateFactors factors = CACHE.get(taxRate);
+		if (factors == null) {
+			factors = new TaxRateFactors(taxRate);
+			if (CACHE.size() < MAX_CACHE_SIZE) {
+				TaxRateFactors previous = CACHE.putIfAbsent(taxRate, factors);
+				if (previous != null) {
+					factors = previous;
+				}
+			}
+		}
+		return factors;
+	}
+
+
+	public BigDecimal getTaxRate() {
+		return taxRate;
+	}
+
+
+	public BigDecimal getTaxRateDiv100() {
+		return taxRateDiv100;
+	}
+
+
+	public BigDecimal getTaxRateDiv100Add1() {
+		return taxRateDiv100Add1;
+	}
+
+
+	/**
+	 * Return the tax rate in basis points (1900 for 19%) or {@link Cents#NO_BASIS_POINTS} if it cannot be
+	 * represented in basis points.
+	 * @return
+	 */
+	public int getBasisPoints() {
+		return basisPoints;
+	}
+
+
+	@Override
+	public String toString() {
+		return "TaxRateFactors [taxRate=" + taxRate + ", taxRateDiv100Add1=" + taxRateDiv100Add1 + "]";
+	}
+
+}
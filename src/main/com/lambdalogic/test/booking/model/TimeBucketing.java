@@ -0,0 +1,192 @@
+package com.lambdalogic.test.booking.model;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Date;
+
+import com.lambdalogic.test.booking.util.EpochDays;
+
+
+/**
+ * Immutable rule that assigns epoch days (see {@link EpochDays}) to time buckets.
+ * <p>
+ * A bucket is identified by an <code>int</code> key: the first day of the period for {@link #DAILY} and
+ * {@link #WEEKLY}, the index of the age range for {@link #aging(int, int...)}. Keys are calculated arithmetically,
+ * so assigning a day to its bucket creates no objects.
+ * <p>
+ * Epoch days are local dates, so dates have to be converted in the time zone they refer to, and the reference day of
+ * {@link #aging(int, int...)} has to be calculated in the same time zone.
+ */
+public abstract class TimeBucketing {
+
+	/**
+	 * Bucket key of {@link EpochDays#NO_DAY}.
+	 */
+	public static final int NO_BUCKET = Integer.MIN_VALUE;
+
+	/**
+	 * Upper bounds of the default aging buckets: 0-30, 31-60, 61-90 and 91+ days.
+	 */
+	private static final int[] DEFAULT_AGING_BOUNDS = {30, 60, 90};
+
+
+	/**
+	 * One bucket per day, the key is the epoch day itself.
+	 */
+	public static final TimeBucketing DAILY = new TimeBucketing() {
+		@Override
+		protected int getBucketOfDay(int epochDay) {
+			return epochDay;
+		}
+
+		@Override
+		protected String getLabelOfBucket(int bucket) {
+			return LocalDate.ofEpochDay(bucket).toString();
+		}
+	};
+
+
+	/**
+	 * One bucket per week (Monday to Sunday), the key is the epoch day of the Monday.
+	 */
+	public static final TimeBucketing WEEKLY = new TimeBucketing() {
+		@Override
+		protected int getBucketOfDay(int epochDay) {
+			return EpochDays.toStartOfWeek(epochDay);
+		}
+
+		@Override
+		protected String getLabelOfBucket(int bucket) {
+			return LocalDate.ofEpochDay(bucket).toString();
+		}
+	};
+
+
+	/**
+	 * Create the aging buckets 0-30, 31-60, 61-90 and 91+ days (see {@link #aging(int, int...)}).
+	 *
+	 * @param referenceDay - the epoch day the ages are calculated for, usually today
+	 * @return
+	 */
+	public static TimeBucketing aging(int referenceDay) {
+		return aging(referenceDay, DEFAULT_AGING_BOUNDS);
+	}
+
+
+	/**
+	 * Create buckets for the age of a date in days relative to a reference day.
+	 * <p>
+	 * The key of a bucket is the index of the first upper bound that is not less than the age, or the number of
+	 * bounds if the age is greater than all bounds. Dates after the reference day have a negative age and belong to
+	 * the first bucket.
+	 *
+	 * @param referenceDay - the epoch day the ages are calculated for, usually today
+	 * @param upperBounds - the inclusive upper bounds of the buckets in days in ascending order
+	 * @return
+	 */
+	public static TimeBucketing aging(int referenceDay, int... upperBounds) {
+		if (referenceDay == EpochDays.NO_DAY) {
+			throw new IllegalArgumentException("Parameter 'referenceDay' must not be EpochDays.NO_DAY.");
+		}
+		if (upperBounds == null || upperBounds.length == 0) {
+			throw new IllegalArgumentException("Parameter 'upperBounds' must not be empty.");
+		}
+		for (int i = 0; i < upperBounds.length; i++) {
+			if (upperBounds[i] < 0 || i > 0 && upperBounds[i] <= upperBounds[i - 1]) {
+				throw new IllegalArgumentException("Parameter 'upperBounds' must be non-negative and ascending.");
+			}
+		}
+
+		return new Aging(referenceDay, upperBounds.clone());
+	}
+
+
+	/**
+	 * Return the key of the bucket of an epoch day.
+	 *
+	 * @param epochDay
+	 * @return {@link #NO_BUCKET} if epochDay is {@link EpochDays#NO_DAY}
+	 */
+	public int getBucket(int epochDay) {
+		if (epochDay == EpochDays.NO_DAY) {
+			return NO_BUCKET;
+		}
+		return getBucketOfDay(epochDay);
+	}
+
+
+	/**
+	 * Return the key of the bucket of a date.
+	 *
+	 * @param date
+	 * @param zone - the time zone of the local date
+	 * @return {@link #NO_BUCKET} if date is null
+	 */
+	public int getBucket(Date date, ZoneId zone) {
+		return getBucket(EpochDays.toEpochDay(date, zone));
+	}
+
+
+	/**
+	 * Return a readable name of a bucket, e.g. for reports.
+	 *
+	 * @param bucket - a key returned by {@link #getBucket(int)}
+	 * @return
+	 */
+	public String getLabel(int bucket) {
+		if (bucket == NO_BUCKET) {
+			return "none";
+		}
+		return getLabelOfBucket(bucket);
+	}
+
+
+	protected abstract int getBucketOfDay(int epochDay);
+
+
+	protected abstract String getLabelOfBucket(int bucket);
+
+
+	private static final class Aging extends TimeBucketing {
+
+		private final int referenceDay;
+		private final int[] upperBounds;
+
+
+		Aging(int referenceDay, int[] upperBounds) {
+			this.referenceDay = referenceDay;
+			this.upperBounds = upperBounds;
+		}
+
+
+		@Override
+		protected int getBucketOfDay(int epochDay) {
+			long age = (long) referenceDay - epochDay;
+			if (age <= upperBounds[0]) {
+				return 0;
+			}
+			if (age > upperBounds[upperBounds.length - 1]) {
+				return upperBounds.length;
+			}
+			// age lies within int range here
+			int index = Arrays.binarySearch(upperBounds, (int) age);
+			return index >= 0 ? index : -index - 1;
+		}
+
+
+		@Override
+		protected String getLabelOfBucket(int bucket) {
+			if (bucket < 0 || bucket > upperBounds.length) {
+				throw new IllegalArgumentException("Parameter 'bucket' must be between 0 and " + upperBounds.length + ".");
+			}
+			if (bucket == upperBounds.length) {
+				return (upperBounds[bucket - 1] + 1) + "+";
+			}
+			int from = bucket == 0 ? 0 : upperBounds[bucket - 1] + 1;
+			return from + "-" + upperBounds[bucket];
+		}
+
+	}
+
+}
@@ -0,0 +1,97 @@
+package com.lambdalogic.test.booking.model;
+
+import java.math.BigDecimal;
+
+
+/**
+ * An immutable gross price with amount 0, tax rate 0 and no currency.
+ * <p>
+ * {@link Booking} uses the shared {@link #INSTANCE} for absent prices when it calculates its totals, so that reading
+ * a booking neither creates objects nor changes the booking.
+ * All methods that would change the price throw an {@link UnsupportedOperationException}.
+ */
+final class ZeroPrice extends Price {
+
+	static final ZeroPrice INSTANCE = new ZeroPrice();
+
+
+	/**
+	 * False while the constructor of {@link Price} initializes the values.
+	 */
+	private final boolean initialized;
+
+
+	private ZeroPrice() {
+		super();
+		initialized = true;
+
+		// fill the cached derived amounts now, so that reading them later does not write anything
+		getAmountGross();
+		getAmountNet();
+		getAmountTax();
+	}
+
+
+	private void checkMutable() {
+		if (initialized) {
+			throw new UnsupportedOperationException("The zero price must not be changed.");
+		}
+	}
+
+
+	@Override
+	public void init() {
+		checkMutable();
+		super.init();
+	}
+
+
+	@Override
+	public void negate() {
+		checkMutable();
+		super.negate();
+	}
+
+
+	@Override
+	public void setAmount(BigDecimal amount) {
+		checkMutable();
+		super.setAmount(amount);
+	}
+
+
+	@Override
+	public void setAmount(BigDecimal amount, boolean brutto) {
+		checkMutable();
+		super.setAmount(amount, brutto);
+	}
+
+
+	@Override
+	public void setCurrency(String currency) {
+		checkMutable();
+		super.setCurrency(currency);
+	}
+
+
+	@Override
+	public void setTaxRate(BigDecimal taxRate) {
+		checkMutable();
+		super.setTaxRate(taxRate);
+	}
+
+
+	@Override
+	public void setGross(boolean brutto) {
+		checkMutable();
+		super.setGross(brutto);
+	}
+
+
+	@Override
+	public void copyFrom(Price price) {
+		checkMutable();
+		super.copyFrom(price);
+	}
+
+}
@@ -0,0 +1,135 @@
+package com.lambdalogic.test.booking.util;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
+import java.util.Date;
+
+
+/**
+ * Helper class for epoch days: the number of days from 1970-01-01 to the local date of a point in time in a time
+ * zone as an <code>int</code>.
+ * <p>
+ * Epoch days are used instead of {@link Date} when dates are compared or grouped in bulk, because comparing
+ * primitive values needs neither objects nor calendar calculations. The dates of bookings are local midnight, so
+ * they have to be converted in the same time zone they have been created in. The methods without a time zone use
+ * {@link ZoneId#systemDefault()}.
+ */
+public class EpochDays {
+
+	/**
+	 * Epoch day of a null date.
+	 */
+	public static final int NO_DAY = Integer.MIN_VALUE;
+
+	public static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+	/**
+	 * The first epoch day of a date that can be converted.
+	 */
+	public static final int MIN_DAY = NO_DAY + 1;
+
+	/**
+	 * Epoch day of 1970-01-05, a Monday.
+	 */
+	private static final int FIRST_MONDAY = 4;
+
+	private static final long MILLIS_PER_SECOND = 1000;
+
+
+	private EpochDays() {
+	}
+
+
+	/**
+	 * Convert a date into an epoch day in the default time zone.
+	 *
+	 * @param date
+	 * @return {@link #NO_DAY} if date is null
+	 */
+	public static int toEpochDay(Date date) {
+		return toEpochDay(date, ZoneId.systemDefault());
+	}
+
+
+	/**
+	 * Convert a date into an epoch day.
+	 *
+	 * @param date
+	 * @param zone - the time zone of the local date
+	 * @return {@link #NO_DAY} if date is null
+	 */
+	public static int toEpochDay(Date date, ZoneId zone) {
+		if (date == null) {
+			return NO_DAY;
+		}
+		return toEpochDay(date.getTime(), zone);
+	}
+
+
+	/**
+	 * Convert milliseconds since 1970-01-01 UTC into an epoch day.
+	 *
+	 * @param millis
+	 * @param zone - the time zone of the local date
+	 * @return
+	 * @throws IllegalArgumentException if the date is millions of years away from 1970
+	 */
+	public static int toEpochDay(long millis, ZoneId zone) {
+		if (zone == null) {
+			throw new IllegalArgumentException("Parameter 'zone' must not be null.");
+		}
+
+		ZoneRules rules = zone.getRules();
+		int offsetSeconds = rules.isFixedOffset()
+			? rules.getOffset(Instant.EPOCH).getTotalSeconds()
+			: rules.getOffset(Instant.ofEpochMilli(millis)).getTotalSeconds();
+		long epochDay = Math.floorDiv(millis + offsetSeconds * MILLIS_PER_SECOND, MILLIS_PER_DAY);
+		if (epochDay < MIN_DAY || epochDay > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("The date " + millis + " cannot be converted into an epoch day.");
+		}
+		return (int) epochDay;
+	}
+
+
+	/**
+	 * Convert an epoch day into the date of its start in the default time zone.
+	 *
+	 * @param epochDay
+	 * @return null if epochDay is {@link #NO_DAY}
+	 */
+	public static Date toDate(int epochDay) {
+		return toDate(epochDay, ZoneId.systemDefault());
+	}
+
+
+	/**
+	 * Convert an epoch day into the date of its start.
+	 *
+	 * @param epochDay
+	 * @param zone - the time zone of the local date
+	 * @return null if epochDay is {@link #NO_DAY}
+	 */
+	public static Date toDate(int epochDay, ZoneId zone) {
+		if (zone == null) {
+			throw new IllegalArgumentException("Parameter 'zone' must not be null.");
+		}
+		if (epochDay == NO_DAY) {
+			return null;
+		}
+		return Date.from(LocalDate.ofEpochDay(epochDay).atStartOfDay(zone).toInstant());
+	}
+
+
+	/**
+	 * Return the epoch day of the Monday of the week (ISO 8601) of an epoch day.
+	 *
+	 * @param epochDay
+	 * @return
+	 */
+	public static int toStartOfWeek(int epochDay) {
+		return epochDay - Math.floorMod(epochDay - FIRST_MONDAY, 7);
+	}
+
+}
@@ -2,8 +2,10 @@ package com.lambdalogic.test.booking.util;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.CharBuffer;
 import java.text.ParseException;
 
+import com.lambdalogic.test.booking.model.Cents;
 import com.lambdalogic.test.booking.model.CurrencyAmount;
 
 
@@ -38,18 +40,17 @@ public class TypeHelper {
             }
             else if (value instanceof Double) {
             	Double d = (Double) value;
-            	String s = d.toString();
             	
-            	// try to convert directly
-            	try {
+            	if (!d.isInfinite() && !d.isNaN()) {
             		/* Don't use
             		 * bdValue = new BigDecimal(d);
             		 * because it may cause to wrong values.
             		 * Example: 3.14 --> 3.140000000000000124344978758017532527446746826171875
+            		 * BigDecimal.valueOf(d) uses the String representation of d.
             		 */
-            		bdValue = new BigDecimal(s);
+            		bdValue = BigDecimal.valueOf(d);
             	}
-            	catch (NumberFormatException e) {
+            	else {
             		// in the case of d is infinite or NaN it is rounded with a precision of 8 
             		BigDecimal precisionFactor = BigDecimal.valueOf(100000000L);
             		long l = Math.round(d * precisionFactor.doubleValue());
@@ -59,13 +60,11 @@ public class TypeHelper {
             }
             else if (value instanceof Float) {
             	Float f = (Float) value;
-            	String s = f.toString();
             	
-            	// try to convert directly
-            	try {
-            		bdValue = new BigDecimal(s);
+            	if (!f.isInfinite() && !f.isNaN()) {
+            		bdValue = new BigDecimal(f.toString());
             	}
-            	catch (NumberFormatException e) {
+            	else {
             		// in the case of d is infinite or NaN it is rounded with a precision of 8
             		Double d = ((Float) value).doubleValue();
             		BigDecimal precisionFactor = BigDecimal.valueOf(100000000L);
@@ -90,20 +89,7 @@ public class TypeHelper {
             else {
                 String strValue = value.toString();
                 if (strValue != null && strValue.length() > 0) {
-                    try {
-                        bdValue = new BigDecimal(strValue);
-                    }
-                    catch (Exception e) {
-                    }
-                    
-                    if (bdValue == null) {
-                    	strValue = removeWhiteSpaceForDoubleAndFloat(strValue);
-                        try {
-                            bdValue = new BigDecimal(strValue);
-                        }
-                        catch (Exception e) {
-                        }
-                    }
+                    bdValue = parseBigDecimal(strValue);
                     
                     if (bdValue == null) {
                         throw new ParseException("Value '" + value + "' could not be interpreted as BigDecimal.", 0);
@@ -115,26 +101,309 @@ public class TypeHelper {
     }
     
     
-    /**
-     * Remove whitespace (space, line break, tabs and replace comma (",") by point (".").
-     * @param value
-     * @return the given value without whitespace
-     */
-    private static String removeWhiteSpaceForDoubleAndFloat(String value) {
-        if (value == null) {
-            return null;
-        }
-        StringBuffer sb = new StringBuffer(value.length());
-        char[] charArray = value.toCharArray();
-        for (int i = 0; i < charArray.length; i++) {
-            if (charArray[i] == ',') {
-                sb.append('.');
-            }
-            else if ( ! Character.isWhitespace(charArray[i])) {
-                sb.append(charArray[i]);
-            }
-        }
-        return sb.toString();
-    }
+	/**
+	 * Parse a decimal number.
+	 * Accepts the same values as {@link #toBigDecimal(Object)} does for Strings: everything that
+	 * {@link BigDecimal#BigDecimal(String)} accepts, and additionally values that contain whitespace (space, line break,
+	 * tabs) anywhere and a comma (",") instead of the point (".").
+	 * <p>
+	 * No exception is thrown and no intermediate String is created. As long as the unscaled value fits into a
+	 * <code>long</code>, the only object that is created is the result.
+	 *
+	 * @param value
+	 * @return the value or null if value is null or cannot be interpreted as number
+	 */
+	public static BigDecimal parseBigDecimal(CharSequence value) {
+		if (value == null) {
+			return null;
+		}
+		return parseBigDecimal(value, 0, value.length());
+	}
+
+
+	/**
+	 * Parse a part of a {@link CharSequence} as decimal number (see {@link #parseBigDecimal(CharSequence)}).
+	 *
+	 * @param value
+	 * @param start - index of the first character (inclusive)
+	 * @param end - index of the last character (exclusive)
+	 * @return the value or null if the characters cannot be interpreted as number
+	 */
+	public static BigDecimal parseBigDecimal(CharSequence value, int start, int end) {
+		ParsedDecimal parsedDecimal = new ParsedDecimal();
+		return parsedDecimal.parse(value, start, end) ? parsedDecimal.toBigDecimal(value, start, end) : null;
+	}
+
+
+	/**
+	 * Parse a part of a char array as decimal number (see {@link #parseBigDecimal(CharSequence)}).
+	 *
+	 * @param chars
+	 * @param start - index of the first character (inclusive)
+	 * @param end - index of the last character (exclusive)
+	 * @return the value or null if the characters cannot be interpreted as number
+	 */
+	public static BigDecimal parseBigDecimal(char[] chars, int start, int end) {
+		return parseBigDecimal(CharBuffer.wrap(chars), start, end);
+	}
+
+
+	/**
+	 * Parse a part of a {@link CharSequence} as decimal number (see {@link #parseBigDecimal(CharSequence)}) and
+	 * return its unscaled value for a certain scale, e.g. 1234 for "12.34" and scale 2 (which are cents).
+	 *
+	 * @param value
+	 * @param start - index of the first character (inclusive)
+	 * @param end - index of the last character (exclusive)
+	 * @param scale - the number of decimal places of the result
+	 * @return the unscaled value or {@link Cents#NaN} if the characters cannot be interpreted as number, the number has
+	 *  more (non-zero) decimal places than scale or the result does not fit into a <code>long</code>
+	 */
+	public static long parseUnscaled(CharSequence value, int start, int end, int scale) {
+		ParsedDecimal parsedDecimal = new ParsedDecimal();
+		return parsedDecimal.parse(value, start, end) ? parsedDecimal.toUnscaled(scale) : Cents.NaN;
+	}
+
+
+	/**
+	 * Parse a part of a char array as decimal number and return its unscaled value for a certain scale
+	 * (see {@link #parseUnscaled(CharSequence, int, int, int)}).
+	 *
+	 * @param chars
+	 * @param start - index of the first character (inclusive)
+	 * @param end - index of the last character (exclusive)
+	 * @param scale - the number of decimal places of the result
+	 * @return the unscaled value or {@link Cents#NaN}
+	 */
+	public static long parseUnscaled(char[] chars, int start, int end, int scale) {
+		return parseUnscaled(CharBuffer.wrap(chars), start, end, scale);
+	}
+
+
+	/**
+	 * Parse a column of values into unscaled values (see {@link #parseUnscaled(CharSequence, int, int, int)}).
+	 *
+	 * @param values
+	 * @param scale - the number of decimal places of the results
+	 * @return the unscaled values; {@link Cents#NaN} for null values and values that cannot be parsed
+	 */
+	public static long[] parseUnscaled(CharSequence[] values, int scale) {
+		ParsedDecimal parsedDecimal = new ParsedDecimal();
+		long[] result = new long[values.length];
+		for (int i = 0; i < values.length; i++) {
+			CharSequence value = values[i];
+			result[i] = (value != null && parsedDecimal.parse(value, 0, value.length()))
+				? parsedDecimal.toUnscaled(scale)
+				: Cents.NaN;
+		}
+		return result;
+	}
+
+
+	/**
+	 * Parse a column of values that are stored as ranges of one {@link CharSequence}, e.g. the fields of a CSV file,
+	 * into unscaled values (see {@link #parseUnscaled(CharSequence, int, int, int)}).
+	 *
+	 * @param text
+	 * @param starts - index of the first character of every value (inclusive)
+	 * @param ends - index of the last character of every value (exclusive)
+	 * @param count - number of values
+	 * @param scale - the number of decimal places of the results
+	 * @param target - the array that receives the unscaled values; {@link Cents#NaN} for values that cannot be parsed
+	 */
+	public static void parseUnscaled(CharSequence text, int[] starts, int[] ends, int count, int scale, long[] target) {
+		ParsedDecimal parsedDecimal = new ParsedDecimal();
+		for (int i = 0; i < count; i++) {
+			target[i] = parsedDecimal.parse(text, starts[i], ends[i]) ? parsedDecimal.toUnscaled(scale) : Cents.NaN;
+		}
+	}
+
+
+	/**
+	 * Parse a column of values (see {@link #parseBigDecimal(CharSequence)}).
+	 *
+	 * @param values
+	 * @return the values; null for null values and values that cannot be parsed
+	 */
+	public static BigDecimal[] parseBigDecimals(CharSequence[] values) {
+		ParsedDecimal parsedDecimal = new ParsedDecimal();
+		BigDecimal[] result = new BigDecimal[values.length];
+		for (int i = 0; i < values.length; i++) {
+			CharSequence value = values[i];
+			if (value != null && parsedDecimal.parse(value, 0, value.length())) {
+				result[i] = parsedDecimal.toBigDecimal(value, 0, value.length());
+			}
+		}
+		return result;
+	}
+
+
+	/**
+	 * Result of parsing a decimal number: sign, unscaled value and scale.
+	 * Instances are reused when a column is parsed.
+	 */
+	private static final class ParsedDecimal {
+
+		private static final long MAX_EXPONENT = Integer.MAX_VALUE;
+
+		boolean negative;
+		long mantissa;
+		int scale;
+
+		/**
+		 * True if the digits do not fit into {@link #mantissa}.
+		 */
+		boolean overflow;
+
+
+		/**
+		 * Parse the characters.
+		 * Whitespace is ignored everywhere and a comma is handled like a point.
+		 *
+		 * @return false if the characters cannot be interpreted as number
+		 */
+		boolean parse(CharSequence value, int start, int end) {
+			negative = false;
+			mantissa = 0;
+			overflow = false;
+
+			int i = skipWhitespace(value, start, end);
+			if (i < end && (value.charAt(i) == '+' || value.charAt(i) == '-')) {
+				negative = (value.charAt(i) == '-');
+				i = skipWhitespace(value, i + 1, end);
+			}
+
+			int digitCount = 0;
+			int fractionDigitCount = 0;
+			boolean decimalSeparator = false;
+			for (; i < end; i++) {
+				char c = value.charAt(i);
+				int digit = Character.digit(c, 10);
+				if (digit >= 0) {
+					if (mantissa > (Long.MAX_VALUE - digit) / 10) {
+						overflow = true;
+					}
+					else {
+						mantissa = mantissa * 10 + digit;
+					}
+					digitCount++;
+					if (decimalSeparator) {
+						fractionDigitCount++;
+					}
+				}
+				else if ((c == '.' || c == ',') && !decimalSeparator) {
+					decimalSeparator = true;
+				}
+				else if (!Character.isWhitespace(c)) {
+					break;
+				}
+			}
+			if (digitCount == 0) {
+				return false;
+			}
+
+			long exponent = 0;
+			if (i < end) {
+				char c = value.charAt(i);
+				if (c != 'e' && c != 'E') {
+					return false;
+				}
+
+				i = skipWhitespace(value, i + 1, end);
+				boolean negativeExponent = false;
+				if (i < end && (value.charAt(i) == '+' || value.charAt(i) == '-')) {
+					negativeExponent = (value.charAt(i) == '-');
+					i++;
+				}
+
+				int exponentDigitCount = 0;
+				for (; i < end; i++) {
+					c = value.charAt(i);
+					int digit = Character.digit(c, 10);
+					if (digit >= 0) {
+						exponent = exponent * 10 + digit;
+						if (exponent > MAX_EXPONENT) {
+							return false;
+						}
+						exponentDigitCount++;
+					}
+					else if (!Character.isWhitespace(c)) {
+						return false;
+					}
+				}
+				if (exponentDigitCount == 0) {
+					return false;
+				}
+				if (negativeExponent) {
+					exponent = -exponent;
+				}
+			}
+
+			long longScale = fractionDigitCount - exponent;
+			if (longScale > Integer.MAX_VALUE || longScale < Integer.MIN_VALUE) {
+				return false;
+			}
+			scale = (int) longScale;
+			return true;
+		}
+
+
+		BigDecimal toBigDecimal(CharSequence value, int start, int end) {
+			if (!overflow) {
+				return BigDecimal.valueOf(negative ? -mantissa : mantissa, scale);
+			}
+
+			// the value has been validated, so BigDecimal accepts it after whitespace and comma are replaced
+			char[] chars = new char[end - start];
+			int length = 0;
+			for (int i = start; i < end; i++) {
+				char c = value.charAt(i);
+				if (c == ',') {
+					chars[length++] = '.';
+				}
+				else if (!Character.isWhitespace(c)) {
+					chars[length++] = c;
+				}
+			}
+			return new BigDecimal(chars, 0, length);
+		}
+
+
+		long toUnscaled(int targetScale) {
+			if (overflow) {
+				return Cents.NaN;
+			}
+
+			long unscaled = mantissa;
+			long shift = (long) targetScale - scale;
+			if (shift > 0) {
+				for (long s = 0; s < shift && unscaled != 0; s++) {
+					if (unscaled > Long.MAX_VALUE / 10) {
+						return Cents.NaN;
+					}
+					unscaled *= 10;
+				}
+			}
+			else {
+				for (long s = 0; s < -shift && unscaled != 0; s++) {
+					if (unscaled % 10 != 0) {
+						// more decimal places than the target scale
+						return Cents.NaN;
+					}
+					unscaled /= 10;
+				}
+			}
+			return negative ? -unscaled : unscaled;
+		}
+
+
+		private static int skipWhitespace(CharSequence value, int i, int end) {
+			while (i < end && Character.isWhitespace(value.charAt(i))) {
+				i++;
+			}
+			return i;
+		}
+
+	}
 
 }
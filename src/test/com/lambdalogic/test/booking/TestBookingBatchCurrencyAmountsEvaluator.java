@@ -0,0 +1,80 @@
+package com.lambdalogic.test.booking;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.lambdalogic.test.booking.exception.InconsistentCurrenciesException;
+import com.lambdalogic.test.booking.model.Booking;
+import com.lambdalogic.test.booking.model.BookingBatch;
+import com.lambdalogic.test.booking.model.CurrencyAmountsResult;
+import com.lambdalogic.test.booking.utils.BuildBookingRecipient;
+
+public class TestBookingBatchCurrencyAmountsEvaluator extends BuildBookingRecipient {
+
+	private static final int NUMBER_INVOICE_RECIPIENT = 5;
+
+	private BookingBatchCurrencyAmountsEvaluator evaluator;
+	private List<Booking> fixtures;
+	private Map<Long, CurrencyAmountsResult> expected;
+
+	@Before
+	public void setup() {
+		evaluator = new BookingBatchCurrencyAmountsEvaluator();
+		fixtures = buildMixedBookingList(2000, NUMBER_INVOICE_RECIPIENT, 42);
+		expected = new BookingsCurrencyAmountsBatchEvaluator().calculateAll(fixtures);
+	}
+
+	@Test
+	public void testSameResultsAsBatchEvaluator() throws InconsistentCurrenciesException {
+		BookingBatch batch = new BookingBatch(fixtures);
+		Assert.assertEquals(fixtures.size(), batch.size());
+
+		for (long invoiceRecipientPK = 0; invoiceRecipientPK < NUMBER_INVOICE_RECIPIENT - 1; invoiceRecipientPK++) {
+			evaluator.calculate(batch, invoiceRecipientPK);
+			CurrencyAmountsResult result = expected.get(invoiceRecipientPK);
+			Assert.assertTrue(result.isSuccessful());
+			Assert.assertEquals(result.getTotalAmount(), evaluator.getTotalAmount());
+			Assert.assertEquals(result.getTotalPaidAmount(), evaluator.getTotalPaidAmount());
+			Assert.assertEquals(result.getTotalOpenAmount(), evaluator.getTotalOpenAmount());
+		}
+	}
+
+	@Test
+	public void testBookingsThatBatchesCannotStore() throws InconsistentCurrenciesException {
+		List<Booking> bookings = new ArrayList<>();
+		bookings.add(buildBooking(1L, 3L, "100.00", "EUR", "7.125", false, "10.005"));
+		bookings.add(buildBooking(2L, 3L, "50.00", "EUR", "19", true, "0.00"));
+		try {
+			new BookingBatch(bookings);
+			Assert.fail("IllegalArgumentException expected");
+		}
+		catch (IllegalArgumentException e) {
+			// a tax rate with 3 decimal places cannot be stored in basis points
+		}
+
+		CurrencyAmountsResult result = new StatelessBookingsCurrencyAmountsEvaluator().evaluate(bookings, 3L);
+		assertSameResult(result, evaluator.evaluate(bookings, 3L));
+		evaluator.calculate(bookings, 3L);
+		Assert.assertEquals(result.getTotalAmount(), evaluator.getTotalAmount());
+	}
+
+	@Test
+	public void testInconsistentCurrencies() {
+		Long invoiceRecipientPK = (long) NUMBER_INVOICE_RECIPIENT - 1;
+		Assert.assertFalse(expected.get(invoiceRecipientPK).isSuccessful());
+		try {
+			evaluator.calculate(fixtures, invoiceRecipientPK);
+			Assert.fail("InconsistentCurrenciesException expected");
+		}
+		catch (InconsistentCurrenciesException e) {
+			Assert.assertNull(evaluator.getTotalAmount());
+			Assert.assertNull(evaluator.getTotalPaidAmount());
+			Assert.assertNull(evaluator.getTotalOpenAmount());
+		}
+	}
+}
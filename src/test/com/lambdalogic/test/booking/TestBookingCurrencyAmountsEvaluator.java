@@ -1,7 +1,10 @@
 package com.lambdalogic.test.booking;
 
+import java.math.BigDecimal;
 import java.text.ParseException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.After;
 import org.junit.Assert;
@@ -13,7 +16,7 @@ import com.lambdalogic.test.booking.IBookingsCurrencyAmountsEvaluator;
 import com.lambdalogic.test.booking.exception.InconsistentCurrenciesException;
 import com.lambdalogic.test.booking.model.Booking;
 import com.lambdalogic.test.booking.model.CurrencyAmount;
-import com.lambdalogic.test.booking.util.TypeHelper;
+import com.lambdalogic.test.booking.model.CurrencyAmountsResult;
 import com.lambdalogic.test.booking.utils.BuildBookingRecipient;
 
 public class TestBookingCurrencyAmountsEvaluator extends BuildBookingRecipient {
@@ -54,11 +57,53 @@ public class TestBookingCurrencyAmountsEvaluator extends BuildBookingRecipient {
 	public void testMixUpGrossAndNetAmount() throws InconsistentCurrenciesException, ParseException {
 		fixtures = buildBookingListRandomly(5, false, false);
 		bookingCurrency.calculate(fixtures, 001l);
-		Assert.assertEquals(new CurrencyAmount(TypeHelper.toBigDecimal(0), "EUR"), bookingCurrency.getTotalAmount());
-		Assert.assertNotNull(bookingCurrency.getTotalPaidAmount());
-		Assert.assertNotNull(bookingCurrency.getTotalOpenAmount());
+		CurrencyAmountsResult expected = new BookingsCurrencyAmountsBatchEvaluator().calculateAll(fixtures).get(1L);
+		Assert.assertEquals(expected.getTotalAmount(), bookingCurrency.getTotalAmount());
+		Assert.assertEquals(expected.getTotalPaidAmount(), bookingCurrency.getTotalPaidAmount());
+		Assert.assertEquals(expected.getTotalOpenAmount(), bookingCurrency.getTotalOpenAmount());
+	}
+
+	@Test
+	public void testNetBookingsAndLargeInvoiceRecipientPKs() throws InconsistentCurrenciesException {
+		fixtures = new ArrayList<>();
+		fixtures.add(buildBooking(1, 5, "100.00", "EUR", "19", false, "20.00"));
+		fixtures.add(buildBooking(2, 1000, "100.00", "EUR", "19", false, "0.00"));
+		fixtures.add(buildBooking(3, 1000, "100.00", "EUR", "19", true, "10.00"));
+
+		bookingCurrency.calculate(fixtures, 5L);
+		Assert.assertEquals(new CurrencyAmount(new BigDecimal("119.00"), "EUR"), bookingCurrency.getTotalAmount());
+		Assert.assertEquals(new CurrencyAmount(new BigDecimal("20.00"), "EUR"), bookingCurrency.getTotalPaidAmount());
+		Assert.assertEquals(new CurrencyAmount(new BigDecimal("99.00"), "EUR"), bookingCurrency.getTotalOpenAmount());
+
+		// PKs above 127 are not cached by Long.valueOf, so they must not be compared by identity
+		bookingCurrency.calculate(fixtures, Long.valueOf(1000));
+		Assert.assertEquals(new CurrencyAmount(new BigDecimal("219.00"), "EUR"), bookingCurrency.getTotalAmount());
+		Assert.assertEquals(new CurrencyAmount(new BigDecimal("10.00"), "EUR"), bookingCurrency.getTotalPaidAmount());
+		Assert.assertEquals(new CurrencyAmount(new BigDecimal("209.00"), "EUR"), bookingCurrency.getTotalOpenAmount());
+
+		fixtures = buildMixedBookingList(2000, 300, 3);
+		Map<Long, CurrencyAmountsResult> expected = new BookingsCurrencyAmountsBatchEvaluator().calculateAll(fixtures);
+		for (long invoiceRecipientPK = 0; invoiceRecipientPK < 299; invoiceRecipientPK++) {
+			bookingCurrency.calculate(fixtures, Long.valueOf(invoiceRecipientPK));
+			Assert.assertEquals(expected.get(invoiceRecipientPK).getTotalAmount(), bookingCurrency.getTotalAmount());
+			Assert.assertEquals(expected.get(invoiceRecipientPK).getTotalOpenAmount(), bookingCurrency.getTotalOpenAmount());
+		}
 	}
     
+	@Test
+	public void testCallsAreIndependent() throws InconsistentCurrenciesException, ParseException {
+		// invoice recipient 1 has one booking in THB, invoice recipient 2 one in EUR
+		fixtures = buildBookingListRandomly(4, true, true);
+		bookingCurrency.calculate(fixtures, 2L);
+		CurrencyAmount first = bookingCurrency.getTotalAmount();
+
+		// neither the currency nor the sum of the first call must be kept
+		bookingCurrency.calculate(fixtures, 1L);
+		Assert.assertEquals("THB", bookingCurrency.getTotalAmount().getCurrency());
+		bookingCurrency.calculate(fixtures, 2L);
+		Assert.assertEquals(first, bookingCurrency.getTotalAmount());
+	}
+	
 	@After
 	public void tearDown() {
 		fixtures = null;
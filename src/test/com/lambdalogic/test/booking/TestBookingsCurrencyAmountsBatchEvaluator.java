@@ -0,0 +1,89 @@
+package com.lambdalogic.test.booking;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.lambdalogic.test.booking.model.Booking;
+import com.lambdalogic.test.booking.model.CurrencyAmount;
+import com.lambdalogic.test.booking.model.CurrencyAmountsResult;
+import com.lambdalogic.test.booking.utils.BuildBookingRecipient;
+
+public class TestBookingsCurrencyAmountsBatchEvaluator extends BuildBookingRecipient {
+
+	private IBookingsCurrencyAmountsBatchEvaluator batchEvaluator;
+	private List<Booking> fixtures;
+
+	@Before
+	public void setup() {
+		batchEvaluator = new BookingsCurrencyAmountsBatchEvaluator();
+		fixtures = new ArrayList<>();
+
+		// recipient 1: net bookings, the sum has to be converted once per tax rate
+		for (int i = 0; i < 5; i++) {
+			fixtures.add(buildBooking(fixtures.size() + 1, 1L, "0.10", "EUR", "19", false, "0"));
+			fixtures.add(buildBooking(fixtures.size() + 1, 1L, "0.10", "EUR", "7", false, "0"));
+		}
+
+		// recipient 2: gross bookings and an irrelevant zero booking in another currency
+		fixtures.add(buildBooking(fixtures.size() + 1, 2L, "100.00", "EUR", "19", true, "30"));
+		fixtures.add(buildBooking(fixtures.size() + 1, 2L, "50.00", "EUR", "19", true, "0"));
+		fixtures.add(buildBooking(fixtures.size() + 1, 2L, "0", "THB", "19", true, "0"));
+
+		// recipient 3: inconsistent currencies
+		fixtures.add(buildBooking(fixtures.size() + 1, 3L, "10.00", "EUR", "19", true, "0"));
+		fixtures.add(buildBooking(fixtures.size() + 1, 3L, "10.00", "THB", "19", true, "0"));
+	}
+
+	@Test
+	public void testNetAmountsAreConvertedOncePerTaxRate() {
+		CurrencyAmountsResult result = batchEvaluator.calculateAll(fixtures).get(1L);
+		Assert.assertTrue(result.isSuccessful());
+		// 0.50 * 1.19 = 0.595 -> 0.60 and 0.50 * 1.07 = 0.535 -> 0.54
+		Assert.assertEquals(amount("1.14"), result.getTotalAmount());
+		Assert.assertEquals(amount("0.00"), result.getTotalPaidAmount());
+		Assert.assertEquals(amount("1.14"), result.getTotalOpenAmount());
+	}
+
+	@Test
+	public void testGrossAmountsAndZeroBookings() {
+		CurrencyAmountsResult result = batchEvaluator.calculateAll(fixtures).get(2L);
+		Assert.assertEquals("EUR", result.getCurrency());
+		Assert.assertEquals(amount("150.00"), result.getTotalAmount());
+		Assert.assertEquals(amount("30.00"), result.getTotalPaidAmount());
+		Assert.assertEquals(amount("120.00"), result.getTotalOpenAmount());
+	}
+
+	@Test
+	public void testInconsistentCurrenciesAreReportedPerRecipient() {
+		Map<Long, CurrencyAmountsResult> results = batchEvaluator.calculateAll(fixtures);
+		CurrencyAmountsResult result = results.get(3L);
+		Assert.assertFalse(result.isSuccessful());
+		Assert.assertNotNull(result.getException());
+		Assert.assertNull(result.getTotalAmount());
+		Assert.assertNull(result.getTotalPaidAmount());
+		Assert.assertNull(result.getTotalOpenAmount());
+
+		Assert.assertTrue(results.get(1L).isSuccessful());
+		Assert.assertTrue(results.get(2L).isSuccessful());
+	}
+
+	@Test
+	public void testCalculateSelectedRecipients() {
+		Map<Long, CurrencyAmountsResult> results = batchEvaluator.calculate(fixtures, Arrays.asList(2L, 4L));
+		Assert.assertEquals(2, results.size());
+		Assert.assertEquals(batchEvaluator.calculateAll(fixtures).get(2L).getTotalAmount(), results.get(2L).getTotalAmount());
+		Assert.assertEquals(BigDecimal.ZERO.compareTo(results.get(4L).getTotalAmount().getAmount()), 0);
+		Assert.assertNull(results.get(4L).getCurrency());
+	}
+
+	private static CurrencyAmount amount(String value) {
+		return new CurrencyAmount(new BigDecimal(value), "EUR");
+	}
+}
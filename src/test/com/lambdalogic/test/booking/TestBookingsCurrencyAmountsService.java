@@ -0,0 +1,142 @@
+package com.lambdalogic.test.booking;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.lambdalogic.test.booking.model.Booking;
+import com.lambdalogic.test.booking.model.CurrencyAmountsResult;
+import com.lambdalogic.test.booking.utils.BuildBookingRecipient;
+
+public class TestBookingsCurrencyAmountsService extends BuildBookingRecipient {
+
+	private static final int NUMBER_INVOICE_RECIPIENT = 6;
+
+	private List<Booking> fixtures;
+	private Map<Long, CurrencyAmountsResult> expected;
+	private ExecutorService executor;
+
+	/**
+	 * Counts the scans of the booking list.
+	 */
+	private final AtomicInteger scanCount = new AtomicInteger();
+
+	private final IBookingsCurrencyAmountsBatchEvaluator countingEvaluator = new BookingsCurrencyAmountsBatchEvaluator() {
+		@Override
+		public Map<Long, CurrencyAmountsResult> calculate(List<Booking> bookingList, Collection<Long> invoiceRecipientIDs) {
+			scanCount.incrementAndGet();
+			return super.calculate(bookingList, invoiceRecipientIDs);
+		}
+	};
+
+	@Before
+	public void setup() {
+		fixtures = buildMixedBookingList(3000, NUMBER_INVOICE_RECIPIENT, 19);
+		expected = new BookingsCurrencyAmountsBatchEvaluator().calculateAll(fixtures);
+		executor = Executors.newFixedThreadPool(2);
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void testRequestsWithinWindowShareOneScan() throws Exception {
+		try (BookingsCurrencyAmountsService service =
+			new BookingsCurrencyAmountsService(countingEvaluator, executor, 1, TimeUnit.HOURS, 100)) {
+
+			List<CompletableFuture<CurrencyAmountsResult>> futures = new ArrayList<>();
+			for (int i = 0; i < 100; i++) {
+				futures.add(service.evaluate(fixtures, Long.valueOf(i % NUMBER_INVOICE_RECIPIENT)));
+			}
+
+			// the 100th request fills the batch, so there is no need to wait for the window
+			for (int i = 0; i < futures.size(); i++) {
+				CurrencyAmountsResult result = futures.get(i).get(10, TimeUnit.SECONDS);
+				CurrencyAmountsResult expectedResult = expected.get((long) (i % NUMBER_INVOICE_RECIPIENT));
+				Assert.assertEquals(expectedResult.getInvoiceRecipientPK(), result.getInvoiceRecipientPK());
+				Assert.assertEquals(expectedResult.getTotalAmount(), result.getTotalAmount());
+				Assert.assertEquals(expectedResult.getTotalOpenAmount(), result.getTotalOpenAmount());
+				Assert.assertEquals(expectedResult.isSuccessful(), result.isSuccessful());
+			}
+			Assert.assertEquals(1, scanCount.get());
+		}
+	}
+
+	@Test
+	public void testWindowElapses() throws Exception {
+		try (BookingsCurrencyAmountsService service =
+			new BookingsCurrencyAmountsService(countingEvaluator, executor, 10, TimeUnit.MILLISECONDS, 1000)) {
+
+			Map<Long, CurrencyAmountsResult> results =
+				service.evaluate(fixtures, Arrays.asList(0L, 1L, 99L)).get(10, TimeUnit.SECONDS);
+			Assert.assertEquals(3, results.size());
+			Assert.assertEquals(expected.get(1L).getTotalAmount(), results.get(1L).getTotalAmount());
+			Assert.assertNotNull(results.get(99L));
+
+			// another booking list is another batch
+			List<Booking> others = buildMixedBookingList(100, NUMBER_INVOICE_RECIPIENT, 20);
+			CompletableFuture<CurrencyAmountsResult> first = service.evaluate(fixtures, 0L);
+			CompletableFuture<CurrencyAmountsResult> second = service.evaluate(others, 0L);
+			Assert.assertEquals(expected.get(0L).getTotalAmount(), first.get(10, TimeUnit.SECONDS).getTotalAmount());
+			Assert.assertEquals(
+				new BookingsCurrencyAmountsBatchEvaluator().calculateAll(others).get(0L).getTotalAmount(),
+				second.get(10, TimeUnit.SECONDS).getTotalAmount()
+			);
+			Assert.assertEquals(3, scanCount.get());
+		}
+	}
+
+	@Test
+	public void testCloseEvaluatesPendingRequests() throws Exception {
+		BookingsCurrencyAmountsService service =
+			new BookingsCurrencyAmountsService(countingEvaluator, executor, 1, TimeUnit.HOURS, 1000);
+		CompletableFuture<CurrencyAmountsResult> future = service.evaluate(fixtures, 2L);
+		service.close();
+		Assert.assertEquals(expected.get(2L).getTotalAmount(), future.get(10, TimeUnit.SECONDS).getTotalAmount());
+
+		try {
+			service.evaluate(fixtures, 2L);
+			Assert.fail("IllegalStateException expected");
+		}
+		catch (IllegalStateException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testFailedScan() throws Exception {
+		IBookingsCurrencyAmountsBatchEvaluator failing = new BookingsCurrencyAmountsBatchEvaluator() {
+			@Override
+			public Map<Long, CurrencyAmountsResult> calculate(List<Booking> bookingList, Collection<Long> invoiceRecipientIDs) {
+				throw new IllegalStateException("scan failed");
+			}
+		};
+		try (BookingsCurrencyAmountsService service =
+			new BookingsCurrencyAmountsService(failing, executor, 0, TimeUnit.MILLISECONDS, 1000)) {
+
+			CompletableFuture<CurrencyAmountsResult> future = service.evaluate(fixtures, 2L);
+			try {
+				future.get(10, TimeUnit.SECONDS);
+				Assert.fail("ExecutionException expected");
+			}
+			catch (ExecutionException e) {
+				Assert.assertEquals("scan failed", e.getCause().getMessage());
+			}
+		}
+	}
+}
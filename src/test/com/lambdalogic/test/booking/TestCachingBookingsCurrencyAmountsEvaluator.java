@@ -0,0 +1,227 @@
+package com.lambdalogic.test.booking;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.lambdalogic.test.booking.exception.InconsistentCurrenciesException;
+import com.lambdalogic.test.booking.model.Booking;
+import com.lambdalogic.test.booking.model.BookingList;
+import com.lambdalogic.test.booking.model.CurrencyAmountsResult;
+import com.lambdalogic.test.booking.utils.BuildBookingRecipient;
+
+public class TestCachingBookingsCurrencyAmountsEvaluator extends BuildBookingRecipient {
+
+	private static final int NUMBER_INVOICE_RECIPIENT = 6;
+
+	private List<Booking> fixtures;
+	private StatelessBookingsCurrencyAmountsEvaluator reference;
+	private CachingBookingsCurrencyAmountsEvaluator cache;
+
+	@Before
+	public void setup() {
+		fixtures = buildMixedBookingList(2000, NUMBER_INVOICE_RECIPIENT, 23);
+		reference = new StatelessBookingsCurrencyAmountsEvaluator();
+		cache = new CachingBookingsCurrencyAmountsEvaluator(reference, 100, 4);
+	}
+
+	private void assertSameResults() {
+		for (long invoiceRecipientPK = 0; invoiceRecipientPK < NUMBER_INVOICE_RECIPIENT; invoiceRecipientPK++) {
+			assertSameResult(reference.evaluate(fixtures, invoiceRecipientPK), cache.evaluate(fixtures, invoiceRecipientPK));
+		}
+	}
+
+	@Test
+	public void testHit() {
+		CurrencyAmountsResult first = cache.evaluate(fixtures, 0L);
+		CurrencyAmountsResult second = cache.evaluate(fixtures, 0L);
+
+		Assert.assertSame(first, second);
+		assertSameResult(reference.evaluate(fixtures, 0L), second);
+		Assert.assertEquals(1, cache.getHitCount());
+		Assert.assertEquals(1, cache.getMissCount());
+		Assert.assertEquals(0.5, cache.getHitRate(), 0);
+		Assert.assertEquals(1, cache.size());
+
+		assertSameResults();
+		assertSameResults();
+		Assert.assertEquals(2 + NUMBER_INVOICE_RECIPIENT, cache.getHitCount());
+	}
+
+	@Test
+	public void testCallersCannotChangeCachedResults() {
+		CurrencyAmountsResult first = cache.evaluate(fixtures, 0L);
+		BigDecimal total = first.getTotalAmount().getAmount();
+		first.getTotalAmount().setAmount(total.add(BigDecimal.TEN));
+		first.getTotalPaidAmount().setCurrency("THB");
+
+		assertSameResult(reference.evaluate(fixtures, 0L), cache.evaluate(fixtures, 0L));
+		Assert.assertEquals(total, first.getTotalAmount().getAmount());
+	}
+
+	@Test
+	public void testBookingChange() {
+		assertSameResults();
+		Booking booking = fixtures.get(0);
+		Long invoiceRecipientPK = booking.getInvoiceRecipientPK();
+		CurrencyAmountsResult before = cache.evaluate(fixtures, invoiceRecipientPK);
+
+		booking.setPaidAmount(booking.getPaidAmount().add(BigDecimal.ONE));
+		CurrencyAmountsResult after = cache.evaluate(fixtures, invoiceRecipientPK);
+		Assert.assertNotSame(before, after);
+		Assert.assertEquals(before.getTotalOpenAmount().getAmount().subtract(BigDecimal.ONE), after.getTotalOpenAmount().getAmount());
+		assertSameResult(reference.evaluate(fixtures, invoiceRecipientPK), after);
+
+		// moving a booking to another invoice recipient
+		booking.setInvoiceRecipientPK((invoiceRecipientPK + 1) % (NUMBER_INVOICE_RECIPIENT - 1));
+		assertSameResults();
+	}
+
+	@Test
+	public void testPriceChange() {
+		assertSameResults();
+		Booking booking = fixtures.get(1);
+		long version = booking.getVersion();
+
+		booking.getMainPrice().setAmount(booking.getMainPrice().getAmount().add(BigDecimal.TEN));
+		Assert.assertNotEquals(version, booking.getVersion());
+		long missCount = cache.getMissCount();
+		assertSameResults();
+		Assert.assertEquals(missCount + NUMBER_INVOICE_RECIPIENT, cache.getMissCount());
+
+		version = booking.getVersion();
+		booking.getMainPrice().setTaxRate(BigDecimal.ZERO);
+		Assert.assertNotEquals(version, booking.getVersion());
+		assertSameResults();
+	}
+
+	@Test
+	public void testListChange() {
+		assertSameResults();
+
+		fixtures.add(buildBooking(5000, 0, "100.00", "EUR", "19", true, "0.00"));
+		assertSameResults();
+
+		fixtures.remove(0);
+		assertSameResults();
+
+		// replacing a booking by an equal one is recognized, too
+		Booking booking = fixtures.get(0);
+		fixtures.set(0, buildBooking(booking.getID(), booking.getInvoiceRecipientPK(), "1.00", "EUR", "0", true, "0.00"));
+		assertSameResults();
+
+		// results of outdated versions are removed
+		Assert.assertEquals(NUMBER_INVOICE_RECIPIENT, cache.size());
+	}
+
+	@Test
+	public void testBookingList() {
+		BookingList bookingList = new BookingList(fixtures);
+		fixtures = bookingList;
+		assertSameResults();
+		assertSameResults();
+		Assert.assertEquals(NUMBER_INVOICE_RECIPIENT, cache.getHitCount());
+
+		// changes of a booking, of a price and of the list are recognized by the version of the list
+		long version = bookingList.getVersion();
+		fixtures.get(0).setPaidAmount(BigDecimal.TEN);
+		Assert.assertNotEquals(version, bookingList.getVersion());
+		assertSameResults();
+
+		fixtures.get(1).getMainPrice().setAmount(new BigDecimal("1234.56"));
+		assertSameResults();
+
+		fixtures.add(buildBooking(5000, 0, "100.00", "EUR", "19", true, "0.00"));
+		assertSameResults();
+
+		Booking removed = fixtures.remove(2);
+		assertSameResults();
+		long missCount = cache.getMissCount();
+		removed.setPaidAmount(BigDecimal.ONE);
+		assertSameResults();
+		Assert.assertEquals(missCount, cache.getMissCount());
+
+		Assert.assertEquals(NUMBER_INVOICE_RECIPIENT, cache.size());
+	}
+
+	@Test
+	public void testEviction() {
+		cache = new CachingBookingsCurrencyAmountsEvaluator(reference, 3, 4);
+		for (long invoiceRecipientPK = 0; invoiceRecipientPK < 5; invoiceRecipientPK++) {
+			cache.evaluate(fixtures, invoiceRecipientPK);
+		}
+		Assert.assertEquals(3, cache.size());
+		Assert.assertEquals(2, cache.getEvictionCount());
+
+		// 2 is the least recently used one after 3 has been accessed
+		cache.evaluate(fixtures, 3L);
+		cache.evaluate(fixtures, 5L);
+		long missCount = cache.getMissCount();
+		cache.evaluate(fixtures, 3L);
+		cache.evaluate(fixtures, 4L);
+		Assert.assertEquals(missCount, cache.getMissCount());
+		cache.evaluate(fixtures, 2L);
+		Assert.assertEquals(missCount + 1, cache.getMissCount());
+	}
+
+	@Test
+	public void testDatasets() {
+		List<Booking> copy = new ArrayList<>(fixtures);
+		CurrencyAmountsResult first = cache.evaluate(fixtures, 0L);
+		CurrencyAmountsResult second = cache.evaluate(copy, 0L);
+		Assert.assertNotSame(first, second);
+		Assert.assertSame(second, cache.evaluate(copy, 0L));
+
+		cache.invalidate(copy);
+		Assert.assertNotSame(second, cache.evaluate(copy, 0L));
+		Assert.assertSame(first, cache.evaluate(fixtures, 0L));
+
+		cache.invalidate();
+		Assert.assertEquals(0, cache.size());
+		Assert.assertNotSame(first, cache.evaluate(fixtures, 0L));
+	}
+
+	@Test
+	public void testDatasetEviction() {
+		cache = new CachingBookingsCurrencyAmountsEvaluator(reference, 100, 1);
+		List<Booking> copy = new ArrayList<>(fixtures);
+		assertSameResults();
+		Assert.assertEquals(NUMBER_INVOICE_RECIPIENT, cache.size());
+
+		// tracking the copy evicts the fixtures together with their results
+		CurrencyAmountsResult result = cache.evaluate(copy, 0L);
+		Assert.assertEquals(1, cache.size());
+		Assert.assertEquals(0, cache.getEvictionCount());
+		Assert.assertSame(result, cache.evaluate(copy, 0L));
+
+		long missCount = cache.getMissCount();
+		cache.evaluate(fixtures, 0L);
+		Assert.assertEquals(missCount + 1, cache.getMissCount());
+		Assert.assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void testAdapter() throws InconsistentCurrenciesException {
+		BookingsCurrencyAmountsEvaluatorAdapter adapter = new BookingsCurrencyAmountsEvaluatorAdapter(cache);
+		adapter.calculate(fixtures, 0L);
+		adapter.calculate(fixtures, 0L);
+		Assert.assertEquals(reference.evaluate(fixtures, 0L).getTotalAmount(), adapter.getTotalAmount());
+		Assert.assertEquals(1, cache.getHitCount());
+
+		// the exception is cached, too
+		for (int i = 0; i < 2; i++) {
+			try {
+				adapter.calculate(fixtures, (long) NUMBER_INVOICE_RECIPIENT - 1);
+				Assert.fail("InconsistentCurrenciesException expected");
+			}
+			catch (InconsistentCurrenciesException e) {
+				Assert.assertNull(adapter.getTotalAmount());
+			}
+		}
+		Assert.assertEquals(2, cache.getHitCount());
+	}
+}
@@ -0,0 +1,134 @@
+package com.lambdalogic.test.booking;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.lambdalogic.test.booking.model.Booking;
+import com.lambdalogic.test.booking.model.CurrencyAmountsResult;
+import com.lambdalogic.test.booking.model.Price;
+import com.lambdalogic.test.booking.utils.BuildBookingRecipient;
+
+public class TestIncrementalBookingsCurrencyAmountsAggregator extends BuildBookingRecipient {
+
+	private static final int NUMBER_INVOICE_RECIPIENT = 4;
+
+	private IncrementalBookingsCurrencyAmountsAggregator aggregator;
+	private List<Booking> fixtures;
+
+	@Before
+	public void setup() {
+		aggregator = new IncrementalBookingsCurrencyAmountsAggregator();
+		fixtures = buildMixedBookingList(1000, NUMBER_INVOICE_RECIPIENT, 11);
+		for (Booking booking : fixtures) {
+			aggregator.insert(booking);
+		}
+	}
+
+	@Test
+	public void testSameResultsAsBatchEvaluatorAfterInsert() {
+		assertSameResults();
+		Assert.assertFalse(aggregator.getResult((long) NUMBER_INVOICE_RECIPIENT - 1).isSuccessful());
+	}
+
+	@Test
+	public void testUpdateBookingsInPlace() {
+		for (int i = 0; i < fixtures.size(); i += 3) {
+			Booking booking = fixtures.get(i);
+			booking.setPaidAmount(booking.getPaidAmount().add(new BigDecimal("12.34")));
+			if (i % 2 == 0) {
+				booking.setCancelFeePrice(new Price(new BigDecimal("9.99"), booking.getCurrency(), new BigDecimal("19"), booking.isGross()));
+			}
+			if (i % 5 == 0) {
+				booking.setInvoiceRecipientPK((booking.getInvoiceRecipientPK() + 1) % (NUMBER_INVOICE_RECIPIENT - 1));
+			}
+			aggregator.update(booking);
+		}
+		assertSameResults();
+	}
+
+	@Test
+	public void testRemoveBookingsResolvesInconsistency() {
+		Long invoiceRecipientPK = (long) NUMBER_INVOICE_RECIPIENT - 1;
+		for (Iterator<Booking> iterator = fixtures.iterator(); iterator.hasNext(); ) {
+			Booking booking = iterator.next();
+			if (invoiceRecipientPK.equals(booking.getInvoiceRecipientPK()) && !"EUR".equals(booking.getCurrency())) {
+				Assert.assertTrue(aggregator.remove(booking));
+				iterator.remove();
+			}
+		}
+		Assert.assertEquals(fixtures.size(), aggregator.size());
+		Assert.assertTrue(aggregator.getResult(invoiceRecipientPK).isSuccessful());
+		assertSameResults();
+	}
+
+	@Test
+	public void testReplaceAndRemoveAll() {
+		Booking oldBooking = fixtures.get(0);
+		Booking newBooking = buildBooking(100000, oldBooking.getInvoiceRecipientPK(), "5.00", "EUR", "7", false, "1.00");
+		aggregator.replace(oldBooking, newBooking);
+		fixtures.set(0, newBooking);
+		assertSameResults();
+
+		for (Booking booking : new ArrayList<>(fixtures)) {
+			aggregator.remove(booking);
+		}
+		Assert.assertEquals(0, aggregator.size());
+		Assert.assertEquals(0, aggregator.getResult(0L).getTotalAmount().getAmount().signum());
+	}
+
+	@Test
+	public void testValuesThatDoNotFitIntoCents() {
+		// amounts with 3 decimal places and tax rates with 3 decimal places are recorded exactly
+		Booking first = buildBooking(100001, 0, "10.005", "EUR", "7.125", false, "0.001");
+		Booking second = buildBooking(100002, 0, "20.00", "EUR", "7.125", true, "1.00");
+		aggregator.insert(first);
+		aggregator.insert(second);
+		fixtures.add(first);
+		fixtures.add(second);
+		assertSameResults();
+
+		aggregator.remove(first);
+		fixtures.remove(first);
+		assertSameResults();
+	}
+
+	@Test
+	public void testRemoveDownToZeroAndAgain() {
+		aggregator = new IncrementalBookingsCurrencyAmountsAggregator();
+		Booking first = buildBooking(1, 7, "100.00", "EUR", "19", false, "0.00");
+		Booking second = buildBooking(2, 7, "100.00", "EUR", "19", false, "0.00");
+		Booking credit = buildBooking(3, 7, "-100.00", "EUR", "19", false, "0.00");
+		aggregator.insert(first);
+		aggregator.insert(second);
+		aggregator.insert(credit);
+
+		// the net sum of 19% drops to 0 while two bookings with that tax rate are left
+		aggregator.remove(first);
+		Assert.assertEquals(new BigDecimal("0.00"), aggregator.getResult(7L).getTotalAmount().getAmount());
+
+		aggregator.remove(second);
+		Assert.assertEquals(new BigDecimal("-119.00"), aggregator.getResult(7L).getTotalAmount().getAmount());
+
+		aggregator.insert(first);
+		Assert.assertEquals(new BigDecimal("0.00"), aggregator.getResult(7L).getTotalAmount().getAmount());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testDuplicateInsert() {
+		aggregator.insert(fixtures.get(0));
+	}
+
+	private void assertSameResults() {
+		Map<Long, CurrencyAmountsResult> expected = new BookingsCurrencyAmountsBatchEvaluator().calculateAll(fixtures);
+		for (Map.Entry<Long, CurrencyAmountsResult> entry : expected.entrySet()) {
+			assertSameResult(entry.getValue(), aggregator.getResult(entry.getKey()));
+		}
+	}
+}
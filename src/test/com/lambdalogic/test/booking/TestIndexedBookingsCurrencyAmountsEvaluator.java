@@ -0,0 +1,94 @@
+package com.lambdalogic.test.booking;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.lambdalogic.test.booking.exception.InconsistentCurrenciesException;
+import com.lambdalogic.test.booking.index.BookingIndex;
+import com.lambdalogic.test.booking.model.Booking;
+import com.lambdalogic.test.booking.model.CurrencyAmountsResult;
+import com.lambdalogic.test.booking.utils.BuildBookingRecipient;
+
+public class TestIndexedBookingsCurrencyAmountsEvaluator extends BuildBookingRecipient {
+
+	private static final int NUMBER_INVOICE_RECIPIENT = 6;
+
+	private List<Booking> fixtures;
+	private BookingIndex index;
+
+	@Before
+	public void setup() {
+		fixtures = buildMixedBookingList(3000, NUMBER_INVOICE_RECIPIENT, 9);
+		index = new BookingIndex(fixtures);
+	}
+
+	private void assertSameResults(List<Booking> bookings) {
+		Map<Long, CurrencyAmountsResult> expected = new BookingsCurrencyAmountsBatchEvaluator().calculateAll(bookings);
+		IndexedBookingsCurrencyAmountsEvaluator evaluator = new IndexedBookingsCurrencyAmountsEvaluator();
+		for (long invoiceRecipientPK = 0; invoiceRecipientPK < NUMBER_INVOICE_RECIPIENT - 1; invoiceRecipientPK++) {
+			assertSameResult(expected.get(invoiceRecipientPK), evaluator.evaluate(index, invoiceRecipientPK));
+		}
+	}
+
+	@Test
+	public void testSameResultsAsBatchEvaluator() throws InconsistentCurrenciesException {
+		assertSameResults(fixtures);
+
+		IBookingsCurrencyAmountsEvaluator evaluator = new IndexedBookingsCurrencyAmountsEvaluator();
+		evaluator.calculate(fixtures, 1L);
+		Assert.assertEquals(
+			new BookingsCurrencyAmountsBatchEvaluator().calculateAll(fixtures).get(1L).getTotalAmount(),
+			evaluator.getTotalAmount()
+		);
+	}
+
+	@Test
+	public void testListWithoutUniqueIDs() {
+		// booking lists do not need IDs, only the index does
+		fixtures.get(0).setID(null);
+		fixtures.get(1).setID(fixtures.get(2).getID());
+
+		IndexedBookingsCurrencyAmountsEvaluator evaluator = new IndexedBookingsCurrencyAmountsEvaluator();
+		Map<Long, CurrencyAmountsResult> expected = new BookingsCurrencyAmountsBatchEvaluator().calculateAll(fixtures);
+		for (long invoiceRecipientPK = 0; invoiceRecipientPK < NUMBER_INVOICE_RECIPIENT - 1; invoiceRecipientPK++) {
+			assertSameResult(expected.get(invoiceRecipientPK), evaluator.evaluate(fixtures, invoiceRecipientPK));
+		}
+	}
+
+	@Test
+	public void testSameResultsAfterChanges() {
+		for (int i = 0; i < 500; i++) {
+			Booking removed = fixtures.remove(i);
+			index.remove(removed);
+
+			// move bookings between the invoice recipients with consistent currencies
+			Booking changed = fixtures.get(i * 2);
+			if (changed.getInvoiceRecipientPK() < NUMBER_INVOICE_RECIPIENT - 1) {
+				changed.setInvoiceRecipientPK((long) (i % (NUMBER_INVOICE_RECIPIENT - 1)));
+				index.update(changed);
+			}
+		}
+		assertSameResults(fixtures);
+	}
+
+	@Test
+	public void testInconsistentCurrencies() {
+		Long invoiceRecipientPK = (long) NUMBER_INVOICE_RECIPIENT - 1;
+		String expectedMessage = new BookingsCurrencyAmountsBatchEvaluator().calculateAll(fixtures)
+			.get(invoiceRecipientPK).getException().getMessage();
+
+		IndexedBookingsCurrencyAmountsEvaluator evaluator = new IndexedBookingsCurrencyAmountsEvaluator();
+		try {
+			evaluator.calculate(index, invoiceRecipientPK);
+			Assert.fail("InconsistentCurrenciesException expected");
+		}
+		catch (InconsistentCurrenciesException e) {
+			Assert.assertEquals(expectedMessage, e.getMessage());
+			Assert.assertNull(evaluator.getTotalAmount());
+		}
+	}
+}
@@ -0,0 +1,142 @@
+package com.lambdalogic.test.booking;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.management.Attribute;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.lambdalogic.test.booking.exception.InconsistentCurrenciesException;
+import com.lambdalogic.test.booking.metrics.EvaluatorMetrics;
+import com.lambdalogic.test.booking.model.Booking;
+import com.lambdalogic.test.booking.utils.BuildBookingRecipient;
+
+public class TestInstrumentedBookingsCurrencyAmountsEvaluator extends BuildBookingRecipient {
+
+	private List<Booking> fixtures;
+	private EvaluatorMetrics metrics;
+	private IBookingsCurrencyAmountsEvaluator evaluator;
+
+	@Before
+	public void setup() {
+		fixtures = buildMixedBookingList(1000, 4, 23);
+		metrics = new EvaluatorMetrics();
+		evaluator = InstrumentedBookingsCurrencyAmountsEvaluator.wrap(new BookingsCurrencyAmountsEvaluatorAdapter(), metrics);
+	}
+
+	@Test
+	public void testCounts() throws InconsistentCurrenciesException {
+		// the bookings are counted during the evaluation, so counting is switched on by default
+		Assert.assertTrue(metrics.isBookingCountsEnabled());
+
+		evaluator.calculate(fixtures, 0L);
+		evaluator.calculate(fixtures, 1L);
+		try {
+			// the last invoice recipient has bookings in EUR and THB
+			evaluator.calculate(fixtures, 3L);
+			Assert.fail("InconsistentCurrenciesException expected");
+		}
+		catch (InconsistentCurrenciesException e) {
+			// expected
+		}
+
+		long matched = 0;
+		long zero = 0;
+		long gross = 0;
+		for (Booking booking : fixtures) {
+			if (booking.getInvoiceRecipientPK() <= 1) {
+				matched++;
+				if (!BookingsCurrencyAmountsAccumulator.isRelevant(booking)) {
+					zero++;
+				}
+				else if (booking.isGross()) {
+					gross++;
+				}
+			}
+		}
+
+		Assert.assertEquals(3, metrics.getCalls());
+		Assert.assertEquals(1, metrics.getInconsistentCurrencies());
+		Assert.assertEquals(0, metrics.getFailedCalls());
+		Assert.assertEquals(2000, metrics.getBookingsScanned());
+		Assert.assertEquals(matched, metrics.getBookingsMatched());
+		Assert.assertEquals(zero, metrics.getBookingsZero());
+		Assert.assertEquals(gross, metrics.getBookingsGross());
+		Assert.assertEquals(matched - zero - gross, metrics.getBookingsNet());
+		Assert.assertEquals(3, metrics.getLatencies().getCount());
+
+		metrics.setBookingCountsEnabled(false);
+		evaluator.calculate(fixtures, 0L);
+		Assert.assertEquals(4, metrics.getCalls());
+		Assert.assertEquals(2000, metrics.getBookingsScanned());
+	}
+
+	@Test
+	public void testCountsOfParallelEvaluation() throws InconsistentCurrenciesException {
+		evaluator.calculate(fixtures, 0L);
+
+		EvaluatorMetrics parallelMetrics = new EvaluatorMetrics();
+		IBookingsCurrencyAmountsEvaluator parallel = InstrumentedBookingsCurrencyAmountsEvaluator.wrap(
+			new ParallelBookingsCurrencyAmountsEvaluator(ForkJoinPool.commonPool(), 50),
+			parallelMetrics
+		);
+		parallel.calculate(fixtures, 0L);
+
+		Assert.assertEquals(metrics.getBookingsScanned(), parallelMetrics.getBookingsScanned());
+		Assert.assertEquals(metrics.getBookingsMatched(), parallelMetrics.getBookingsMatched());
+		Assert.assertEquals(metrics.getBookingsZero(), parallelMetrics.getBookingsZero());
+		Assert.assertEquals(metrics.getBookingsNet(), parallelMetrics.getBookingsNet());
+		Assert.assertEquals(metrics.getBookingsGross(), parallelMetrics.getBookingsGross());
+		Assert.assertTrue(parallelMetrics.getBookingsMatched() > 0);
+	}
+
+	@Test
+	public void testFailure() throws InconsistentCurrenciesException {
+		try {
+			evaluator.calculate(null, 0L);
+			Assert.fail("IllegalArgumentException expected");
+		}
+		catch (IllegalArgumentException e) {
+			// expected
+		}
+		Assert.assertEquals(1, metrics.getCalls());
+		Assert.assertEquals(1, metrics.getFailedCalls());
+	}
+
+	@Test
+	public void testWithoutMetrics() {
+		IBookingsCurrencyAmountsEvaluator plain = new BookingsCurrencyAmountsEvaluatorAdapter();
+		Assert.assertSame(plain, InstrumentedBookingsCurrencyAmountsEvaluator.wrap(plain, null));
+	}
+
+	@Test
+	public void testMBean() throws JMException, InconsistentCurrenciesException {
+		String name = "test-" + System.nanoTime();
+		ObjectName objectName = metrics.register(name);
+		try {
+			evaluator.calculate(fixtures, 0L);
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			Assert.assertEquals(1L, server.getAttribute(objectName, "Calls"));
+			Assert.assertEquals(1000L, server.getAttribute(objectName, "BookingsScanned"));
+
+			server.setAttribute(objectName, new Attribute("BookingCountsEnabled", false));
+			evaluator.calculate(fixtures, 0L);
+			Assert.assertEquals(2L, server.getAttribute(objectName, "Calls"));
+			Assert.assertEquals(1000L, server.getAttribute(objectName, "BookingsScanned"));
+
+			server.invoke(objectName, "reset", null, null);
+			Assert.assertEquals(0, metrics.getCalls());
+		}
+		finally {
+			EvaluatorMetrics.unregister(name);
+		}
+		Assert.assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(objectName));
+	}
+}
@@ -0,0 +1,88 @@
+package com.lambdalogic.test.booking;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.lambdalogic.test.booking.exception.InconsistentCurrenciesException;
+import com.lambdalogic.test.booking.model.Booking;
+import com.lambdalogic.test.booking.model.CurrencyAmount;
+import com.lambdalogic.test.booking.model.CurrencyAmountsResult;
+import com.lambdalogic.test.booking.model.MultiCurrencyAmountsResult;
+import com.lambdalogic.test.booking.utils.BuildBookingRecipient;
+
+public class TestMultiCurrencyBookingsCurrencyAmountsEvaluator extends BuildBookingRecipient {
+
+	private static final int NUMBER_INVOICE_RECIPIENT = 5;
+
+	private MultiCurrencyBookingsCurrencyAmountsEvaluator evaluator;
+	private List<Booking> fixtures;
+
+	@Before
+	public void setup() {
+		evaluator = new MultiCurrencyBookingsCurrencyAmountsEvaluator();
+		fixtures = buildMixedBookingList(2000, NUMBER_INVOICE_RECIPIENT, 23);
+	}
+
+	@Test
+	public void testTotalsPerCurrency() {
+		Long invoiceRecipientID = (long) NUMBER_INVOICE_RECIPIENT - 1;
+		MultiCurrencyAmountsResult result = evaluator.calculatePerCurrency(fixtures, invoiceRecipientID);
+
+		Assert.assertEquals(2, result.getCurrencyCount());
+		Assert.assertFalse(result.isSingleCurrency());
+		for (String currency : result.getCurrencies()) {
+			CurrencyAmountsResult expected = new BookingsCurrencyAmountsBatchEvaluator()
+				.calculate(filterCurrency(currency), Arrays.asList(invoiceRecipientID))
+				.get(invoiceRecipientID);
+			Assert.assertEquals(expected.getTotalAmount(), result.getTotalAmount(currency));
+			Assert.assertEquals(expected.getTotalPaidAmount(), result.getTotalPaidAmount(currency));
+			Assert.assertEquals(expected.getTotalOpenAmount(), result.getTotalOpenAmount(currency));
+		}
+		Assert.assertNull(result.getResult("USD"));
+	}
+
+	@Test
+	public void testStrictModeSameAsBatchEvaluator() {
+		Map<Long, CurrencyAmountsResult> expected = new BookingsCurrencyAmountsBatchEvaluator().calculateAll(fixtures);
+		for (long invoiceRecipientID = 0; invoiceRecipientID < NUMBER_INVOICE_RECIPIENT; invoiceRecipientID++) {
+			CurrencyAmountsResult expectedResult = expected.get(invoiceRecipientID);
+			CurrencyAmountsResult result = evaluator.calculatePerCurrency(fixtures, invoiceRecipientID).toSingleCurrencyResult();
+			Assert.assertEquals(expectedResult.isSuccessful(), result.isSuccessful());
+			Assert.assertEquals(expectedResult.getTotalAmount(), result.getTotalAmount());
+			if (!result.isSuccessful()) {
+				Assert.assertEquals(expectedResult.getException().getMessage(), result.getException().getMessage());
+			}
+		}
+	}
+
+	@Test(expected = InconsistentCurrenciesException.class)
+	public void testStrictCalculateThrows() throws InconsistentCurrenciesException {
+		evaluator.calculate(fixtures, (long) NUMBER_INVOICE_RECIPIENT - 1);
+	}
+
+	@Test
+	public void testNoBookings() throws InconsistentCurrenciesException {
+		MultiCurrencyAmountsResult result = evaluator.calculatePerCurrency(new ArrayList<>(), 1L);
+		Assert.assertEquals(0, result.getCurrencyCount());
+
+		evaluator.calculate(new ArrayList<>(), 1L);
+		Assert.assertEquals(new CurrencyAmount(BigDecimal.ZERO, null), evaluator.getTotalAmount());
+	}
+
+	private List<Booking> filterCurrency(String currency) {
+		List<Booking> bookings = new ArrayList<>();
+		for (Booking booking : fixtures) {
+			if (currency.equals(booking.getCurrency())) {
+				bookings.add(booking);
+			}
+		}
+		return bookings;
+	}
+}
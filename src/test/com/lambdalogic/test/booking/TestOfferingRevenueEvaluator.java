@@ -0,0 +1,100 @@
+package com.lambdalogic.test.booking;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.lambdalogic.test.booking.index.BookingIndex;
+import com.lambdalogic.test.booking.model.Booking;
+import com.lambdalogic.test.booking.model.CurrencyAmount;
+import com.lambdalogic.test.booking.model.RevenueResult;
+import com.lambdalogic.test.booking.utils.BuildBookingRecipient;
+
+public class TestOfferingRevenueEvaluator extends BuildBookingRecipient {
+
+	private OfferingRevenueEvaluator evaluator;
+	private List<Booking> fixtures;
+
+	@Before
+	public void setup() {
+		evaluator = new OfferingRevenueEvaluator();
+		fixtures = new ArrayList<>();
+
+		// offering 1: net bookings, the sum has to be converted once per tax rate
+		for (int i = 0; i < 10; i++) {
+			fixtures.add(offering(buildBooking(fixtures.size() + 1, i % 3, "0.10", "EUR", "19", false, "0"), 1L));
+		}
+
+		// offering 2: gross and net bookings and an irrelevant zero booking in another currency
+		fixtures.add(offering(buildBooking(fixtures.size() + 1, 1L, "119.00", "EUR", "19", true, "0"), 2L));
+		fixtures.add(offering(buildBooking(fixtures.size() + 1, 2L, "100.00", "EUR", "7", false, "50"), 2L));
+		fixtures.add(offering(buildBooking(fixtures.size() + 1, 2L, "0", "THB", "19", true, "0"), 2L));
+
+		// offering 3: inconsistent currencies
+		fixtures.add(offering(buildBooking(fixtures.size() + 1, 1L, "10.00", "EUR", "19", true, "0"), 3L));
+		fixtures.add(offering(buildBooking(fixtures.size() + 1, 1L, "10.00", "THB", "19", true, "0"), 3L));
+	}
+
+	private static Booking offering(Booking booking, Long offeringPK) {
+		booking.setOfferingPK(offeringPK);
+		return booking;
+	}
+
+	@Test
+	public void testNetAmountsAreConvertedOncePerTaxRate() {
+		RevenueResult result = evaluator.evaluate(new BookingIndex(fixtures), 1L);
+		Assert.assertTrue(result.isSuccessful());
+		Assert.assertEquals(amount("1.19"), result.getAmountGross());
+		Assert.assertEquals(amount("1.00"), result.getAmountNet());
+		Assert.assertEquals(amount("0.19"), result.getAmountTax());
+	}
+
+	@Test
+	public void testGrossAndNetBookings() {
+		RevenueResult result = evaluator.evaluate(new BookingIndex(fixtures), 2L);
+		Assert.assertEquals("EUR", result.getCurrency());
+		Assert.assertEquals(amount("226.00"), result.getAmountGross());
+		Assert.assertEquals(amount("200.00"), result.getAmountNet());
+		Assert.assertEquals(amount("26.00"), result.getAmountTax());
+	}
+
+	@Test
+	public void testInconsistentCurrencies() {
+		RevenueResult result = evaluator.evaluate(new BookingIndex(fixtures), 3L);
+		Assert.assertFalse(result.isSuccessful());
+		Assert.assertNull(result.getAmountGross());
+		Assert.assertEquals("Input data contains more than one currency: EUR and THB.", result.getException().getMessage());
+	}
+
+	@Test
+	public void testIndexAndListGiveSameResults() {
+		List<Booking> bookings = buildMixedBookingList(3000, 5, 4L);
+		Map<Long, RevenueResult> expected = evaluator.calculateAll(bookings);
+		Map<Long, RevenueResult> actual = evaluator.evaluateAll(new BookingIndex(bookings));
+		Assert.assertEquals(expected.keySet(), actual.keySet());
+		for (Long offeringPK : expected.keySet()) {
+			Assert.assertEquals(expected.get(offeringPK).getAmountGross(), actual.get(offeringPK).getAmountGross());
+			Assert.assertEquals(expected.get(offeringPK).getAmountNet(), actual.get(offeringPK).getAmountNet());
+			Assert.assertEquals(expected.get(offeringPK).getAmountTax(), actual.get(offeringPK).getAmountTax());
+		}
+	}
+
+	@Test
+	public void testGrossIsNetPlusTax() {
+		List<Booking> bookings = buildMixedBookingList(3000, 5, 5L);
+		bookings.removeIf(booking -> !"EUR".equals(booking.getCurrency()));
+		for (RevenueResult result : evaluator.calculateAll(bookings).values()) {
+			Assert.assertTrue(result.isSuccessful());
+			Assert.assertEquals(result.getAmountGross(), result.getAmountNet().add(result.getAmountTax()));
+		}
+	}
+
+	private static CurrencyAmount amount(String value) {
+		return new CurrencyAmount(new BigDecimal(value), "EUR");
+	}
+}
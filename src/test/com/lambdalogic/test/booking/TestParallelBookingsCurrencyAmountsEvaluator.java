@@ -0,0 +1,65 @@
+package com.lambdalogic.test.booking;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.lambdalogic.test.booking.exception.InconsistentCurrenciesException;
+import com.lambdalogic.test.booking.model.Booking;
+import com.lambdalogic.test.booking.model.CurrencyAmountsResult;
+import com.lambdalogic.test.booking.utils.BuildBookingRecipient;
+
+public class TestParallelBookingsCurrencyAmountsEvaluator extends BuildBookingRecipient {
+
+	private static final int NUMBER_INVOICE_RECIPIENT = 4;
+	private static final int[] THRESHOLDS = { 1, 7, 100, 100000 };
+
+	private List<Booking> fixtures;
+	private Map<Long, CurrencyAmountsResult> expected;
+
+	@Before
+	public void setup() {
+		fixtures = buildMixedBookingList(3000, NUMBER_INVOICE_RECIPIENT, 7);
+		expected = new BookingsCurrencyAmountsBatchEvaluator().calculateAll(fixtures);
+	}
+
+	@Test
+	public void testSameResultsRegardlessOfSplitPoints() throws InconsistentCurrenciesException {
+		for (int threshold : THRESHOLDS) {
+			IBookingsCurrencyAmountsEvaluator evaluator =
+				new ParallelBookingsCurrencyAmountsEvaluator(ForkJoinPool.commonPool(), threshold);
+
+			for (long invoiceRecipientPK = 0; invoiceRecipientPK < NUMBER_INVOICE_RECIPIENT - 1; invoiceRecipientPK++) {
+				evaluator.calculate(fixtures, invoiceRecipientPK);
+				CurrencyAmountsResult result = expected.get(invoiceRecipientPK);
+				Assert.assertEquals(result.getTotalAmount(), evaluator.getTotalAmount());
+				Assert.assertEquals(result.getTotalPaidAmount(), evaluator.getTotalPaidAmount());
+				Assert.assertEquals(result.getTotalOpenAmount(), evaluator.getTotalOpenAmount());
+			}
+		}
+	}
+
+	@Test
+	public void testInconsistentCurrenciesRegardlessOfSplitPoints() {
+		Long invoiceRecipientPK = (long) NUMBER_INVOICE_RECIPIENT - 1;
+		String expectedMessage = expected.get(invoiceRecipientPK).getException().getMessage();
+
+		for (int threshold : THRESHOLDS) {
+			IBookingsCurrencyAmountsEvaluator evaluator =
+				new ParallelBookingsCurrencyAmountsEvaluator(ForkJoinPool.commonPool(), threshold);
+			try {
+				evaluator.calculate(new LinkedList<>(fixtures), invoiceRecipientPK);
+				Assert.fail("InconsistentCurrenciesException expected");
+			}
+			catch (InconsistentCurrenciesException e) {
+				Assert.assertEquals(expectedMessage, e.getMessage());
+				Assert.assertNull(evaluator.getTotalAmount());
+			}
+		}
+	}
+}
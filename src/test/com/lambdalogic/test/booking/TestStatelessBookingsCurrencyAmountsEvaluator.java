@@ -0,0 +1,84 @@
+package com.lambdalogic.test.booking;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.lambdalogic.test.booking.exception.InconsistentCurrenciesException;
+import com.lambdalogic.test.booking.model.Booking;
+import com.lambdalogic.test.booking.model.CurrencyAmountsResult;
+import com.lambdalogic.test.booking.utils.BuildBookingRecipient;
+
+public class TestStatelessBookingsCurrencyAmountsEvaluator extends BuildBookingRecipient {
+
+	private static final int NUMBER_INVOICE_RECIPIENT = 6;
+
+	private List<Booking> fixtures;
+	private Map<Long, CurrencyAmountsResult> expected;
+
+	@Before
+	public void setup() {
+		fixtures = buildMixedBookingList(3000, NUMBER_INVOICE_RECIPIENT, 17);
+		expected = new BookingsCurrencyAmountsBatchEvaluator().calculateAll(fixtures);
+	}
+
+	@Test
+	public void testAllImplementationsGiveSameResults() {
+		IStatelessBookingsCurrencyAmountsEvaluator[] evaluators = {
+			new StatelessBookingsCurrencyAmountsEvaluator(),
+			new ParallelBookingsCurrencyAmountsEvaluator(ForkJoinPool.commonPool(), 100),
+			new IndexedBookingsCurrencyAmountsEvaluator(),
+			new BookingBatchCurrencyAmountsEvaluator(),
+			new MultiCurrencyBookingsCurrencyAmountsEvaluator()
+		};
+		for (IStatelessBookingsCurrencyAmountsEvaluator evaluator : evaluators) {
+			for (long invoiceRecipientPK = 0; invoiceRecipientPK < NUMBER_INVOICE_RECIPIENT; invoiceRecipientPK++) {
+				assertSameResult(expected.get(invoiceRecipientPK), evaluator.evaluate(fixtures, invoiceRecipientPK));
+			}
+		}
+	}
+
+	@Test
+	public void testSharedInstance() throws Exception {
+		IStatelessBookingsCurrencyAmountsEvaluator evaluator = new StatelessBookingsCurrencyAmountsEvaluator();
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<CurrencyAmountsResult>> futures = new ArrayList<>();
+			for (int i = 0; i < 200; i++) {
+				Long invoiceRecipientPK = Long.valueOf(i % NUMBER_INVOICE_RECIPIENT);
+				futures.add(executor.submit(() -> evaluator.evaluate(fixtures, invoiceRecipientPK)));
+			}
+			for (int i = 0; i < futures.size(); i++) {
+				assertSameResult(expected.get((long) (i % NUMBER_INVOICE_RECIPIENT)), futures.get(i).get());
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testAdapter() throws InconsistentCurrenciesException {
+		BookingsCurrencyAmountsEvaluatorAdapter adapter = new BookingsCurrencyAmountsEvaluatorAdapter();
+		adapter.calculate(fixtures, 0L);
+		Assert.assertEquals(expected.get(0L).getTotalAmount(), adapter.getTotalAmount());
+		Assert.assertEquals(expected.get(0L).getTotalOpenAmount(), adapter.getTotalOpenAmount());
+
+		// the last invoice recipient has bookings in EUR and THB
+		try {
+			adapter.calculate(fixtures, (long) NUMBER_INVOICE_RECIPIENT - 1);
+			Assert.fail("InconsistentCurrenciesException expected");
+		}
+		catch (InconsistentCurrenciesException e) {
+			Assert.assertNull(adapter.getTotalAmount());
+		}
+	}
+}
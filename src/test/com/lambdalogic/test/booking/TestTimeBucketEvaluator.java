@@ -0,0 +1,193 @@
+package com.lambdalogic.test.booking;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.SortedMap;
+import java.util.TimeZone;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.lambdalogic.test.booking.index.BookingDateIndex;
+import com.lambdalogic.test.booking.model.Booking;
+import com.lambdalogic.test.booking.model.BookingDateField;
+import com.lambdalogic.test.booking.model.CurrencyAmount;
+import com.lambdalogic.test.booking.model.CurrencyAmountsResult;
+import com.lambdalogic.test.booking.model.TimeBucketing;
+import com.lambdalogic.test.booking.util.EpochDays;
+import com.lambdalogic.test.booking.utils.BuildBookingRecipient;
+
+public class TestTimeBucketEvaluator extends BuildBookingRecipient {
+
+	private static final int NUMBER_INVOICE_RECIPIENT = 6;
+
+	/**
+	 * 2024-03-01
+	 */
+	private static final int REFERENCE_DAY = 19783;
+
+	private List<Booking> fixtures;
+
+	@Before
+	public void setup() {
+		fixtures = buildMixedBookingList(3000, NUMBER_INVOICE_RECIPIENT, 13);
+		Random random = new Random(13);
+		for (Booking booking : fixtures) {
+			if (random.nextInt(20) != 0) {
+				booking.setBookingDate(EpochDays.toDate(REFERENCE_DAY - random.nextInt(120)));
+			}
+		}
+	}
+
+	private List<Booking> getBookingsOfBucket(TimeBucketing bucketing, int bucket, Long invoiceRecipientPK) {
+		List<Booking> result = new ArrayList<>();
+		for (Booking booking : fixtures) {
+			if (booking.getBookingDate() != null
+				&& bucketing.getBucket(EpochDays.toEpochDay(booking.getBookingDate())) == bucket
+				&& (invoiceRecipientPK == null || invoiceRecipientPK.equals(booking.getInvoiceRecipientPK()))) {
+				result.add(booking);
+			}
+		}
+		return result;
+	}
+
+	@Test
+	public void testAgingBucketsOfInvoiceRecipients() {
+		TimeBucketing aging = TimeBucketing.aging(REFERENCE_DAY);
+		Map<Long, SortedMap<Integer, CurrencyAmountsResult>> results =
+			new TimeBucketEvaluator(BookingDateField.BOOKING_DATE, aging).calculateByInvoiceRecipient(fixtures);
+
+		BookingsCurrencyAmountsBatchEvaluator evaluator = new BookingsCurrencyAmountsBatchEvaluator();
+		for (long invoiceRecipientPK = 0; invoiceRecipientPK < NUMBER_INVOICE_RECIPIENT - 1; invoiceRecipientPK++) {
+			SortedMap<Integer, CurrencyAmountsResult> buckets = results.get(invoiceRecipientPK);
+			Assert.assertEquals(4, buckets.size());
+			for (int bucket = 0; bucket < 4; bucket++) {
+				CurrencyAmountsResult expected =
+					evaluator.calculateAll(getBookingsOfBucket(aging, bucket, invoiceRecipientPK)).get(invoiceRecipientPK);
+				CurrencyAmountsResult result = buckets.get(bucket);
+				Assert.assertEquals(Long.valueOf(invoiceRecipientPK), result.getInvoiceRecipientPK());
+				Assert.assertEquals(expected.getTotalAmount(), result.getTotalAmount());
+				Assert.assertEquals(expected.getTotalPaidAmount(), result.getTotalPaidAmount());
+				Assert.assertEquals(expected.getTotalOpenAmount(), result.getTotalOpenAmount());
+			}
+		}
+
+		// the last invoice recipient has bookings in EUR and THB
+		Assert.assertFalse(results.get((long) NUMBER_INVOICE_RECIPIENT - 1).get(0).isSuccessful());
+	}
+
+	@Test
+	public void testWeeklyBuckets() {
+		List<Booking> bookings = new ArrayList<>();
+		// 2024-03-04 is a Monday
+		bookings.add(booking(1, 19786, "100.00", "19", false));
+		bookings.add(booking(2, 19792, "10.00", "19", true));
+		bookings.add(booking(3, 19793, "0.10", "19", false));
+		bookings.add(booking(4, 19793, "0.10", "19", false));
+		bookings.add(booking(5, 19785, "0", "19", true));
+
+		SortedMap<Integer, CurrencyAmountsResult> results =
+			new TimeBucketEvaluator(BookingDateField.BOOKING_DATE, TimeBucketing.WEEKLY).calculate(bookings);
+
+		// the zero booking of the week before is not relevant
+		Assert.assertEquals(2, results.size());
+		Assert.assertEquals(amount("129.00"), results.get(19786).getTotalAmount());
+		Assert.assertNull(results.get(19786).getInvoiceRecipientPK());
+		// the net amounts of a bucket are converted once
+		Assert.assertEquals(amount("0.24"), results.get(19793).getTotalAmount());
+	}
+
+	@Test
+	public void testDateRangeOfIndex() {
+		TimeBucketEvaluator evaluator = new TimeBucketEvaluator(BookingDateField.BOOKING_DATE, TimeBucketing.DAILY);
+		List<Booking> eurBookings = new ArrayList<>();
+		for (Booking booking : fixtures) {
+			if (booking.getInvoiceRecipientPK() < NUMBER_INVOICE_RECIPIENT - 1) {
+				eurBookings.add(booking);
+			}
+		}
+		BookingDateIndex index = new BookingDateIndex(eurBookings, BookingDateField.BOOKING_DATE);
+
+		SortedMap<Integer, CurrencyAmountsResult> all = evaluator.calculate(eurBookings);
+		SortedMap<Integer, CurrencyAmountsResult> range = evaluator.evaluate(index, REFERENCE_DAY - 30, REFERENCE_DAY - 10);
+		Assert.assertEquals(21, range.size());
+		Assert.assertEquals(Integer.valueOf(REFERENCE_DAY - 30), range.firstKey());
+		for (Map.Entry<Integer, CurrencyAmountsResult> entry : range.entrySet()) {
+			Assert.assertEquals(all.get(entry.getKey()).getTotalAmount(), entry.getValue().getTotalAmount());
+			Assert.assertEquals(all.get(entry.getKey()).getTotalOpenAmount(), entry.getValue().getTotalOpenAmount());
+		}
+	}
+
+	@Test
+	public void testLocalMidnightInOtherTimeZones() {
+		// 2024-03-10 and 2024-03-11 in Bangkok (UTC+7) start on the day before in UTC
+		TimeZone defaultTimeZone = TimeZone.getDefault();
+		TimeZone.setDefault(TimeZone.getTimeZone("Asia/Bangkok"));
+		try {
+			List<Booking> bookings = new ArrayList<>();
+			bookings.add(localBooking(1, LocalDate.of(2024, 3, 10), ZoneId.systemDefault(), "100.00"));
+			bookings.add(localBooking(2, LocalDate.of(2024, 3, 11), ZoneId.systemDefault(), "10.00"));
+
+			SortedMap<Integer, CurrencyAmountsResult> results =
+				new TimeBucketEvaluator(BookingDateField.BOOKING_DATE, TimeBucketing.DAILY).calculate(bookings);
+			Assert.assertEquals(amount("100.00"), results.get((int) LocalDate.of(2024, 3, 10).toEpochDay()).getTotalAmount());
+			Assert.assertEquals(amount("10.00"), results.get((int) LocalDate.of(2024, 3, 11).toEpochDay()).getTotalAmount());
+
+			int day = (int) LocalDate.of(2024, 3, 10).toEpochDay();
+			BookingDateIndex index = new BookingDateIndex(bookings, BookingDateField.BOOKING_DATE);
+			Assert.assertEquals(Arrays.asList(bookings.get(0)), index.getBookings(day, day));
+		}
+		finally {
+			TimeZone.setDefault(defaultTimeZone);
+		}
+
+		// an explicit time zone does not depend on the default
+		ZoneId berlin = ZoneId.of("Europe/Berlin");
+		List<Booking> bookings = new ArrayList<>();
+		bookings.add(localBooking(1, LocalDate.of(2024, 3, 31), berlin, "100.00"));
+		bookings.add(localBooking(2, LocalDate.of(2024, 4, 1), berlin, "10.00"));
+		TimeBucketEvaluator evaluator = new TimeBucketEvaluator(BookingDateField.BOOKING_DATE, TimeBucketing.WEEKLY, berlin);
+		SortedMap<Integer, CurrencyAmountsResult> results =
+			evaluator.evaluate(new BookingDateIndex(bookings, BookingDateField.BOOKING_DATE, berlin), 0, Integer.MAX_VALUE);
+		Assert.assertEquals(amount("100.00"), results.get((int) LocalDate.of(2024, 3, 25).toEpochDay()).getTotalAmount());
+		Assert.assertEquals(amount("10.00"), results.get((int) LocalDate.of(2024, 4, 1).toEpochDay()).getTotalAmount());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testIndexOfOtherTimeZone() {
+		new TimeBucketEvaluator(BookingDateField.BOOKING_DATE, TimeBucketing.DAILY, ZoneId.of("Europe/Berlin")).evaluate(
+			new BookingDateIndex(fixtures, BookingDateField.BOOKING_DATE, ZoneId.of("Asia/Bangkok")), 0, 1
+		);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testIndexOfOtherDate() {
+		new TimeBucketEvaluator(BookingDateField.BOOKING_DATE, TimeBucketing.DAILY).evaluate(
+			new BookingDateIndex(fixtures, BookingDateField.CANCELATION_DATE), 0, 1
+		);
+	}
+
+	private Booking booking(long id, int epochDay, String amount, String taxRate, boolean isGross) {
+		Booking booking = buildBooking(id, 1L, amount, "EUR", taxRate, isGross, "0");
+		booking.setBookingDate(EpochDays.toDate(epochDay));
+		return booking;
+	}
+
+	private Booking localBooking(long id, LocalDate localDate, ZoneId zone, String amount) {
+		Booking booking = buildBooking(id, 1L, amount, "EUR", "0", true, "0");
+		booking.setBookingDate(Date.from(localDate.atStartOfDay(zone).toInstant()));
+		return booking;
+	}
+
+	private static CurrencyAmount amount(String value) {
+		return new CurrencyAmount(new BigDecimal(value), "EUR");
+	}
+}
@@ -0,0 +1,73 @@
+package com.lambdalogic.test.booking.index;
+
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.lambdalogic.test.booking.model.Booking;
+import com.lambdalogic.test.booking.model.BookingDateField;
+import com.lambdalogic.test.booking.util.EpochDays;
+import com.lambdalogic.test.booking.utils.BuildBookingRecipient;
+
+public class TestBookingDateIndex extends BuildBookingRecipient {
+
+	private List<Booking> fixtures;
+	private BookingDateIndex index;
+
+	@Before
+	public void setup() {
+		fixtures = buildMixedBookingList(2000, 5, 21);
+		Random random = new Random(21);
+		for (Booking booking : fixtures) {
+			if (random.nextInt(10) != 0) {
+				// also dates before 1970 and times during the day
+				booking.setCancelationDate(new Date((random.nextInt(400) - 200) * EpochDays.MILLIS_PER_DAY + random.nextInt(86400000)));
+			}
+		}
+		index = new BookingDateIndex(fixtures, BookingDateField.CANCELATION_DATE, ZoneOffset.UTC);
+	}
+
+	private List<Booking> scan(int fromDay, int toDay) {
+		List<Booking> result = new ArrayList<>();
+		for (int day = fromDay; day <= toDay; day++) {
+			for (Booking booking : fixtures) {
+				if (EpochDays.toEpochDay(booking.getCancelationDate(), ZoneOffset.UTC) == day) {
+					result.add(booking);
+				}
+			}
+		}
+		return result;
+	}
+
+	@Test
+	public void testRanges() {
+		int[][] ranges = { {-200, 199}, {-10, 10}, {0, 0}, {-1, -1}, {150, 400}, {-500, -150}, {300, 400}, {5, 4} };
+		for (int[] range : ranges) {
+			List<Booking> expected = scan(range[0], range[1]);
+			Assert.assertEquals(expected, index.getBookings(range[0], range[1]));
+			Assert.assertEquals(expected.size(), index.count(range[0], range[1]));
+		}
+	}
+
+	@Test
+	public void testBookingsWithoutDateAreNotIndexed() {
+		Assert.assertEquals(scan(-200, 199).size(), index.size());
+		Assert.assertEquals(-200, index.getFirstDay());
+		Assert.assertEquals(199, index.getLastDay());
+		Assert.assertEquals(index.size(), index.count(Integer.MIN_VALUE, Integer.MAX_VALUE));
+	}
+
+	@Test
+	public void testEmptyIndex() {
+		BookingDateIndex empty = new BookingDateIndex(new ArrayList<Booking>(), BookingDateField.BOOKING_DATE);
+		Assert.assertEquals(0, empty.size());
+		Assert.assertEquals(EpochDays.NO_DAY, empty.getFirstDay());
+		Assert.assertTrue(empty.getBookings(0, 100).isEmpty());
+	}
+}
@@ -0,0 +1,151 @@
+package com.lambdalogic.test.booking.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.lambdalogic.test.booking.model.Booking;
+import com.lambdalogic.test.booking.utils.BuildBookingRecipient;
+
+public class TestBookingIndex extends BuildBookingRecipient {
+
+	private List<Booking> fixtures;
+
+	@Before
+	public void setup() {
+		fixtures = buildMixedBookingList(5000, 30, 3L);
+	}
+
+	/**
+	 * Return the bookings of an invoice recipient by scanning the list.
+	 */
+	private static List<Booking> filter(List<Booking> bookings, Long invoiceRecipientPK) {
+		List<Booking> result = new ArrayList<>();
+		for (Booking booking : bookings) {
+			if (invoiceRecipientPK == null ? booking.getInvoiceRecipientPK() == null : invoiceRecipientPK.equals(booking.getInvoiceRecipientPK())) {
+				result.add(booking);
+			}
+		}
+		return result;
+	}
+
+	@Test
+	public void testBookingsOfInvoiceRecipientInListOrder() {
+		BookingIndex index = new BookingIndex(fixtures);
+		Assert.assertEquals(fixtures.size(), index.size());
+		for (long pk = 0; pk < 30; pk++) {
+			Assert.assertEquals(filter(fixtures, pk), index.getBookings(pk));
+			Assert.assertEquals(filter(fixtures, pk).size(), index.getBookingCount(pk));
+		}
+		Assert.assertTrue(index.getBookings(99L).isEmpty());
+		Assert.assertEquals(30, index.getInvoiceRecipientPKs().length);
+		Assert.assertSame(fixtures.get(17), index.get(fixtures.get(17).getID()));
+	}
+
+	@Test
+	public void testInsertRemoveUpdate() {
+		Random random = new Random(5);
+		BookingIndex index = new BookingIndex();
+		List<Booking> expected = new ArrayList<>();
+		for (Booking booking : fixtures) {
+			index.insert(booking);
+			expected.add(booking);
+
+			int action = random.nextInt(4);
+			if (action == 0) {
+				Booking removed = expected.remove(random.nextInt(expected.size()));
+				Assert.assertTrue(index.remove(removed));
+				Assert.assertFalse(index.remove(removed.getID()));
+			}
+			else if (action == 1) {
+				Booking changed = expected.get(random.nextInt(expected.size()));
+				changed.setInvoiceRecipientPK(random.nextInt(5) == 0 ? null : (long) random.nextInt(30));
+				index.update(changed);
+			}
+		}
+
+		Assert.assertEquals(expected.size(), index.size());
+		for (long pk = 0; pk < 30; pk++) {
+			Assert.assertEquals(filter(expected, pk), index.getBookings(pk));
+		}
+		Assert.assertEquals(filter(expected, null), index.getBookings(null));
+	}
+
+	@Test
+	public void testCompactionKeepsOrder() {
+		BookingIndex index = new BookingIndex(fixtures);
+		List<Booking> expected = new ArrayList<>(fixtures);
+		// remove more than half of the bookings, which compacts the positions
+		for (int i = 0; i < 4000; i++) {
+			Assert.assertTrue(index.remove(expected.remove(0)));
+		}
+
+		Assert.assertEquals(expected.size(), index.size());
+		for (long pk = 0; pk < 30; pk++) {
+			Assert.assertEquals(filter(expected, pk), index.getBookings(pk));
+		}
+
+		// bookings can still be removed and inserted after the compaction
+		Booking booking = expected.get(100);
+		Assert.assertTrue(index.remove(booking));
+		index.insert(booking);
+		Assert.assertSame(booking, index.get(booking.getID()));
+	}
+
+	@Test
+	public void testOfferingAndBenefitRecipientIndexes() {
+		Random random = new Random(8);
+		for (Booking booking : fixtures) {
+			booking.setBenefitRecipientPKs(Arrays.asList((long) random.nextInt(50), (long) random.nextInt(50)));
+		}
+		BookingIndex index = new BookingIndex(fixtures);
+
+		// change and remove some bookings
+		for (int i = 0; i < 200; i++) {
+			Booking changed = fixtures.get(i * 7);
+			changed.setOfferingPK((long) random.nextInt(10));
+			changed.setBenefitRecipientPKs(Arrays.asList((long) random.nextInt(50)));
+			index.update(changed);
+			index.remove(fixtures.remove(i * 3));
+		}
+
+		for (long offeringPK = 0; offeringPK < 10; offeringPK++) {
+			List<Booking> expected = new ArrayList<>();
+			for (Booking booking : fixtures) {
+				if (booking.getOfferingPK() == offeringPK) {
+					expected.add(booking);
+				}
+			}
+			Assert.assertEquals(expected, index.getBookingsOfOffering(offeringPK));
+			Assert.assertEquals(expected.size(), index.getBookingCountOfOffering(offeringPK));
+		}
+		Assert.assertEquals(10, index.getOfferingPKs().length);
+
+		for (long benefitRecipientPK = 0; benefitRecipientPK < 50; benefitRecipientPK++) {
+			List<Booking> expected = new ArrayList<>();
+			for (Booking booking : fixtures) {
+				if (booking.getBenefitRecipientPKs().contains(benefitRecipientPK)) {
+					expected.add(booking);
+				}
+			}
+			// a booking is listed once, even if a benefit recipient appears twice
+			Assert.assertEquals(expected, index.getBookingsOfBenefitRecipient(benefitRecipientPK));
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testDuplicateID() {
+		new BookingIndex(Arrays.asList(fixtures.get(0), fixtures.get(0)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMissingID() {
+		new BookingIndex().insert(new Booking());
+	}
+
+}
@@ -0,0 +1,59 @@
+package com.lambdalogic.test.booking.index;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestLongIntHashMap {
+
+	@Test
+	public void testSameBehaviourAsHashMap() {
+		Random random = new Random(11);
+		LongIntHashMap map = new LongIntHashMap();
+		Map<Long, Integer> expected = new HashMap<>();
+
+		for (int i = 0; i < 100000; i++) {
+			// few keys, so that there are many collisions and removals
+			long key = random.nextInt(2000) - 1000L;
+			if (random.nextInt(10) == 0) {
+				key = Long.MIN_VALUE;
+			}
+
+			if (random.nextInt(3) == 0) {
+				Integer removed = expected.remove(key);
+				Assert.assertEquals(removed == null ? LongIntHashMap.NO_VALUE : removed.intValue(), map.remove(key));
+			}
+			else {
+				Integer previous = expected.put(key, i);
+				Assert.assertEquals(previous == null ? LongIntHashMap.NO_VALUE : previous.intValue(), map.put(key, i));
+			}
+			Assert.assertEquals(expected.size(), map.size());
+		}
+
+		for (long key = -1000; key < 1000; key++) {
+			Integer value = expected.get(key);
+			Assert.assertEquals(value == null ? LongIntHashMap.NO_VALUE : value.intValue(), map.get(key));
+		}
+
+		long[] keys = map.keys();
+		Arrays.sort(keys);
+		Assert.assertArrayEquals(expected.keySet().stream().mapToLong(Long::longValue).sorted().toArray(), keys);
+	}
+
+	@Test
+	public void testClear() {
+		LongIntHashMap map = new LongIntHashMap(1);
+		map.put(1, 1);
+		map.put(2, 2);
+		map.clear();
+		Assert.assertTrue(map.isEmpty());
+		Assert.assertFalse(map.containsKey(1));
+		Assert.assertEquals(LongIntHashMap.NO_VALUE, map.put(1, 3));
+		Assert.assertEquals(3, map.get(1));
+	}
+
+}
@@ -0,0 +1,226 @@
+package com.lambdalogic.test.booking.io;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.lambdalogic.test.booking.BookingsCurrencyAmountsBatchEvaluator;
+import com.lambdalogic.test.booking.exception.BookingImportException;
+import com.lambdalogic.test.booking.model.Booking;
+import com.lambdalogic.test.booking.model.BookingBatch;
+import com.lambdalogic.test.booking.model.CurrencyAmountsResult;
+import com.lambdalogic.test.booking.model.CurrencyRegistry;
+import com.lambdalogic.test.booking.util.EpochDays;
+import com.lambdalogic.test.booking.utils.BuildBookingRecipient;
+
+public class TestBookingCsvImporter extends BuildBookingRecipient {
+
+	private Path file;
+	private List<Booking> fixtures;
+
+	@Before
+	public void setup() throws IOException {
+		file = Files.createTempFile("bookings", ".csv");
+		fixtures = buildMixedBookingList(5000, 50, 42L);
+		fixtures.get(0).setBookingDate(new Date(1700000000000L));
+		fixtures.get(0).setBenefitRecipientPKs(Arrays.asList(3L, 4L));
+		new BookingCsvWriter().write(fixtures, file);
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(file);
+	}
+
+	/**
+	 * Small chunks, so that the file is split into many parts that are parsed in parallel.
+	 */
+	private BookingCsvImporter importer(Path path) {
+		return new BookingCsvImporter(path, ';', 4096, ForkJoinPool.commonPool());
+	}
+
+	private void write(String content) throws IOException {
+		Files.write(file, content.getBytes(StandardCharsets.ISO_8859_1));
+	}
+
+	@Test
+	public void testReadBookingsKeepsOrderAndValues() throws IOException {
+		List<Booking> bookings = importer(file).readBookings();
+		Assert.assertEquals(fixtures.size(), bookings.size());
+		for (int i = 0; i < fixtures.size(); i++) {
+			Booking expected = fixtures.get(i);
+			Booking actual = bookings.get(i);
+			Assert.assertEquals(expected.getID(), actual.getID());
+			Assert.assertEquals(expected.getInvoiceRecipientPK(), actual.getInvoiceRecipientPK());
+			Assert.assertEquals(expected.getOfferingPK(), actual.getOfferingPK());
+			Assert.assertEquals(expected.getCurrency(), actual.getCurrency());
+			Assert.assertEquals(expected.isGross(), actual.isGross());
+			Assert.assertEquals(expected.getTotalAmountGross(), actual.getTotalAmountGross());
+			Assert.assertEquals(expected.getTotalAmountNet(), actual.getTotalAmountNet());
+			Assert.assertEquals(expected.getPaidAmount(), actual.getPaidAmount());
+		}
+
+		Booking first = bookings.get(0);
+		Assert.assertEquals(Arrays.asList(3L, 4L), first.getBenefitRecipientPKs());
+		// dates are stored without time of day
+		Assert.assertEquals(EpochDays.toDate(EpochDays.toEpochDay(new Date(1700000000000L))), first.getBookingDate());
+		Assert.assertNull(first.getCancelationDate());
+	}
+
+	@Test
+	public void testDatesInOtherTimeZones() throws IOException {
+		// local midnight in Berlin is the evening before in UTC
+		ZoneId berlin = ZoneId.of("Europe/Berlin");
+		Date winter = EpochDays.toDate((int) LocalDate.of(2026, 1, 15).toEpochDay(), berlin);
+		Date summer = EpochDays.toDate((int) LocalDate.of(2026, 7, 1).toEpochDay(), berlin);
+		fixtures.get(0).setBookingDate(winter);
+		fixtures.get(0).setCancelationDate(summer);
+		new BookingCsvWriter(';', berlin).write(fixtures, file);
+		Assert.assertTrue(new String(Files.readAllBytes(file), StandardCharsets.ISO_8859_1).contains(";2026-01-15;2026-07-01\n"));
+
+		Booking first = new BookingCsvImporter(file, ';', 4096, ForkJoinPool.commonPool(), berlin).readBookings().get(0);
+		Assert.assertEquals(winter, first.getBookingDate());
+		Assert.assertEquals(summer, first.getCancelationDate());
+
+		// the default constructors use the default time zone on both sides
+		TimeZone defaultTimeZone = TimeZone.getDefault();
+		TimeZone.setDefault(TimeZone.getTimeZone("Asia/Bangkok"));
+		try {
+			Date local = EpochDays.toDate((int) LocalDate.of(2026, 1, 15).toEpochDay());
+			fixtures.get(0).setBookingDate(local);
+			new BookingCsvWriter().write(fixtures, file);
+			Assert.assertEquals(local, importer(file).readBookings().get(0).getBookingDate());
+		}
+		finally {
+			TimeZone.setDefault(defaultTimeZone);
+		}
+	}
+
+	@Test
+	public void testForEachBookingIsSequential() throws IOException {
+		List<Long> ids = new ArrayList<>();
+		importer(file).forEachBooking(booking -> ids.add(booking.getID()));
+		Assert.assertEquals(fixtures.size(), ids.size());
+		for (int i = 0; i < ids.size(); i++) {
+			Assert.assertEquals(fixtures.get(i).getID(), ids.get(i));
+		}
+	}
+
+	@Test
+	public void testCalculateAllEqualsBatchEvaluator() throws IOException {
+		Map<Long, CurrencyAmountsResult> expected = new BookingsCurrencyAmountsBatchEvaluator().calculateAll(fixtures);
+		Map<Long, CurrencyAmountsResult> actual = importer(file).calculateAll();
+		Assert.assertEquals(expected.keySet(), actual.keySet());
+		for (Long pk : expected.keySet()) {
+			assertSameResult(expected.get(pk), actual.get(pk));
+			assertSameResult(expected.get(pk), importer(file).calculate(pk));
+		}
+		// the last invoice recipient has bookings in EUR and THB
+		Assert.assertFalse(actual.get(49L).isSuccessful());
+	}
+
+	@Test
+	public void testForEachBatchEqualsBookings() throws IOException {
+		List<BookingBatch> batches = new ArrayList<>();
+		importer(file).forEachBatch(batches::add);
+		Assert.assertTrue(batches.size() > 1);
+
+		BookingBatch expected = new BookingBatch(fixtures);
+		int index = 0;
+		for (BookingBatch batch : batches) {
+			for (int i = 0; i < batch.size(); i++, index++) {
+				Assert.assertEquals(expected.getInvoiceRecipientPK(index), batch.getInvoiceRecipientPK(i));
+				Assert.assertEquals(expected.getCurrencyID(index), batch.getCurrencyID(i));
+				Assert.assertEquals(expected.isGross(index), batch.isGross(i));
+				Assert.assertEquals(expected.getPaidCents(index), batch.getPaidCents(i));
+				for (int p = 0; p < BookingBatch.PRICE_COUNT; p++) {
+					Assert.assertEquals(expected.getAmountCents(p, index), batch.getAmountCents(p, i));
+				}
+			}
+		}
+		Assert.assertEquals(fixtures.size(), index);
+	}
+
+	@Test
+	public void testHeaderOrderLineEndingsAndMissingColumns() throws IOException {
+		write(
+			"mainAmount;invoiceRecipientPK;mainTaxRate;gross;currency;unknown\r\n" +
+			"100;1;19;false;EUR;x\r\n" +
+			"\r\n" +
+			" 10,5 ; 1 ;7;false;EUR\r\n" +
+			"20;2"
+		);
+		List<Booking> bookings = importer(file).readBookings();
+		Assert.assertEquals(3, bookings.size());
+		Assert.assertEquals(new BigDecimal("119.00"), bookings.get(0).getTotalAmountGross());
+		Assert.assertEquals(new BigDecimal("11.24"), bookings.get(1).getTotalAmountGross());
+		Assert.assertEquals(Long.valueOf(2L), bookings.get(2).getInvoiceRecipientPK());
+		Assert.assertTrue(bookings.get(2).isGross());
+		Assert.assertNull(bookings.get(2).getCurrency());
+		Assert.assertNull(bookings.get(2).getID());
+	}
+
+	@Test
+	public void testEmptyFile() throws IOException {
+		write("");
+		Assert.assertTrue(importer(file).readBookings().isEmpty());
+		Assert.assertTrue(importer(file).calculateAll().isEmpty());
+	}
+
+	@Test
+	public void testInvalidValueReportsOffset() throws IOException {
+		write("id;mainAmount\n1;10\n2;1x\n");
+		try {
+			importer(file).readBookings();
+			Assert.fail("BookingImportException expected");
+		}
+		catch (BookingImportException e) {
+			Assert.assertTrue(e.getMessage(), e.getMessage().contains("'1x'"));
+			Assert.assertTrue(e.getMessage(), e.getMessage().contains("mainAmount"));
+			Assert.assertTrue(e.getMessage(), e.getMessage().contains("byte offset 19 "));
+		}
+	}
+
+	@Test
+	public void testInvalidCurrency() throws IOException {
+		int idCount = CurrencyRegistry.getIDCount();
+		write("id;mainAmount;currency\n1;10;EUR\n2;10;Euro\n");
+		try {
+			importer(file).readBookings();
+			Assert.fail("BookingImportException expected");
+		}
+		catch (BookingImportException e) {
+			Assert.assertTrue(e.getMessage(), e.getMessage().contains("currency"));
+		}
+		Assert.assertEquals(idCount, CurrencyRegistry.getIDCount());
+	}
+
+	@Test
+	public void testInvalidDate() throws IOException {
+		write("id;bookingDate\n1;2023-02-30\n");
+		try {
+			importer(file).readBookings();
+			Assert.fail("BookingImportException expected");
+		}
+		catch (BookingImportException e) {
+			Assert.assertTrue(e.getMessage(), e.getMessage().contains("bookingDate"));
+		}
+	}
+
+}
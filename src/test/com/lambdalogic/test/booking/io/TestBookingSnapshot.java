@@ -0,0 +1,109 @@
+package com.lambdalogic.test.booking.io;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.lambdalogic.test.booking.BookingBatchCurrencyAmountsEvaluator;
+import com.lambdalogic.test.booking.BookingsCurrencyAmountsBatchEvaluator;
+import com.lambdalogic.test.booking.exception.BookingImportException;
+import com.lambdalogic.test.booking.model.Booking;
+import com.lambdalogic.test.booking.model.BookingColumns;
+import com.lambdalogic.test.booking.model.CurrencyAmountsResult;
+import com.lambdalogic.test.booking.utils.BuildBookingRecipient;
+
+public class TestBookingSnapshot extends BuildBookingRecipient {
+
+	private Path file;
+	private List<Booking> fixtures;
+
+	@Before
+	public void setup() throws IOException {
+		file = Files.createTempFile("bookings", ".snapshot");
+		fixtures = buildMixedBookingList(3000, 20, 7L);
+		fixtures.get(0).setBookingDate(new Date(1700000000123L));
+		fixtures.get(1).setCancelationDate(new Date(1600000000000L));
+		fixtures.get(1).setBenefitRecipientPKs(Arrays.asList(5L, 6L, 7L));
+		fixtures.get(2).setInvoiceRecipientPK(null);
+		Assert.assertEquals(fixtures.size(), new BookingSnapshotWriter().write(fixtures, file));
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(file);
+	}
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		// small segments, so that the records are spread over several buffers
+		BookingSnapshot snapshot = BookingSnapshot.open(file, 10);
+		Assert.assertEquals(fixtures.size(), snapshot.size());
+
+		List<Booking> bookings = snapshot.getBookings();
+		for (int i = 0; i < fixtures.size(); i++) {
+			Booking expected = fixtures.get(i);
+			Booking actual = bookings.get(i);
+			Assert.assertEquals(expected.getID(), actual.getID());
+			Assert.assertEquals(expected.getInvoiceRecipientPK(), actual.getInvoiceRecipientPK());
+			Assert.assertEquals(expected.getOfferingPK(), actual.getOfferingPK());
+			Assert.assertEquals(expected.getCurrency(), actual.getCurrency());
+			Assert.assertEquals(expected.isGross(), actual.isGross());
+			Assert.assertEquals(expected.getMainPriceOrZero().getAmount(), actual.getMainPriceOrZero().getAmount());
+			Assert.assertEquals(expected.getMainPriceOrZero().getTaxRate(), actual.getMainPriceOrZero().getTaxRate());
+			Assert.assertEquals(expected.getTotalAmountGross(), actual.getTotalAmountGross());
+			Assert.assertEquals(expected.getTotalAmountNet(), actual.getTotalAmountNet());
+			Assert.assertEquals(expected.getPaidAmount(), actual.getPaidAmount());
+			Assert.assertEquals(expected.getBookingDate(), actual.getBookingDate());
+			Assert.assertEquals(expected.getCancelationDate(), actual.getCancelationDate());
+			Assert.assertEquals(expected.getBenefitRecipientPKs(), actual.getBenefitRecipientPKs());
+		}
+
+		Assert.assertEquals(BookingColumns.NULL_PK, snapshot.getInvoiceRecipientPK(2));
+	}
+
+	@Test
+	public void testEvaluateMappedColumns() throws IOException {
+		BookingSnapshot snapshot = BookingSnapshot.open(file, 10);
+		Map<Long, CurrencyAmountsResult> expected = new BookingsCurrencyAmountsBatchEvaluator().calculateAll(fixtures);
+		BookingBatchCurrencyAmountsEvaluator evaluator = new BookingBatchCurrencyAmountsEvaluator();
+		for (Map.Entry<Long, CurrencyAmountsResult> entry : expected.entrySet()) {
+			long pk = entry.getKey() == null ? BookingColumns.NULL_PK : entry.getKey().longValue();
+			CurrencyAmountsResult actual = evaluator.evaluate(snapshot, pk);
+			Assert.assertEquals(entry.getValue().isSuccessful(), actual.isSuccessful());
+			Assert.assertEquals(entry.getValue().getTotalAmount(), actual.getTotalAmount());
+			Assert.assertEquals(entry.getValue().getTotalPaidAmount(), actual.getTotalPaidAmount());
+			Assert.assertEquals(entry.getValue().getTotalOpenAmount(), actual.getTotalOpenAmount());
+		}
+	}
+
+	@Test
+	public void testEmptySnapshot() throws IOException {
+		new BookingSnapshotWriter().write(Arrays.asList(), file);
+		BookingSnapshot snapshot = BookingSnapshot.open(file);
+		Assert.assertEquals(0, snapshot.size());
+		Assert.assertTrue(snapshot.getBookings().isEmpty());
+	}
+
+	@Test(expected = BookingImportException.class)
+	public void testInvalidFile() throws IOException {
+		Files.write(file, new byte[100]);
+		BookingSnapshot.open(file);
+	}
+
+	@Test(expected = BookingImportException.class)
+	public void testTruncatedFile() throws IOException {
+		byte[] bytes = Files.readAllBytes(file);
+		Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+		BookingSnapshot.open(file);
+	}
+
+}
@@ -0,0 +1,47 @@
+package com.lambdalogic.test.booking.metrics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestLatencyHistogram {
+
+	@Test
+	public void testBuckets() {
+		Assert.assertEquals(0, LatencyHistogram.getBucket(0));
+		Assert.assertEquals(0, LatencyHistogram.getBucket(1000));
+		Assert.assertEquals(1, LatencyHistogram.getBucket(1001));
+		Assert.assertEquals(1, LatencyHistogram.getBucket(2000));
+		Assert.assertEquals(2, LatencyHistogram.getBucket(2001));
+		Assert.assertEquals(10, LatencyHistogram.getBucket(1024000));
+		Assert.assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.getBucket(Long.MAX_VALUE));
+
+		for (int bucket = 0; bucket < LatencyHistogram.BUCKET_COUNT - 1; bucket++) {
+			long upperBound = LatencyHistogram.getUpperBoundNanos(bucket);
+			Assert.assertEquals(bucket, LatencyHistogram.getBucket(upperBound));
+			Assert.assertEquals(bucket + 1, LatencyHistogram.getBucket(upperBound + 1));
+		}
+	}
+
+	@Test
+	public void testPercentiles() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		Assert.assertEquals(0, histogram.getPercentileNanos(50));
+
+		for (int i = 0; i < 98; i++) {
+			histogram.record(1500);
+		}
+		histogram.record(30000);
+		histogram.record(-5);
+
+		Assert.assertEquals(100, histogram.getCount());
+		Assert.assertEquals((98 * 1500 + 30000) / 100, histogram.getMeanNanos());
+		Assert.assertEquals(1000, histogram.getPercentileNanos(0));
+		Assert.assertEquals(2000, histogram.getPercentileNanos(50));
+		Assert.assertEquals(2000, histogram.getPercentileNanos(99));
+		Assert.assertEquals(32000, histogram.getPercentileNanos(100));
+
+		histogram.reset();
+		Assert.assertEquals(0, histogram.getCount());
+		Assert.assertEquals(0, histogram.getMeanNanos());
+	}
+}
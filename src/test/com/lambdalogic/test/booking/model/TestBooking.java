@@ -0,0 +1,76 @@
+package com.lambdalogic.test.booking.model;
+
+import java.math.BigDecimal;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestBooking {
+
+	@Test
+	public void testTotalsDoNotChangeBooking() {
+		Booking booking = new Booking();
+		booking.setMainPrice(new Price(new BigDecimal("100.00"), "EUR", new BigDecimal("19"), false));
+		booking.setPaidAmount(new BigDecimal("20.00"));
+
+		Assert.assertEquals(new BigDecimal("119.00"), booking.getTotalAmountGross());
+		Assert.assertEquals(new BigDecimal("100.00"), booking.getTotalAmountNet());
+		Assert.assertEquals(new BigDecimal("19.00"), booking.getTotalAmountTax());
+		Assert.assertEquals(new BigDecimal("100.00"), booking.getTotalAmount());
+		Assert.assertEquals(new BigDecimal("99.00"), booking.getOpenAmount());
+		Assert.assertFalse(booking.isZero());
+
+		Assert.assertNull(booking.add1Price);
+		Assert.assertNull(booking.add2Price);
+		Assert.assertNull(booking.cancelFeePrice);
+	}
+
+	@Test
+	public void testEmptyBooking() {
+		Booking booking = new Booking();
+		Assert.assertTrue(booking.isZero());
+		Assert.assertEquals(Price.ZERO, booking.getTotalAmountGross());
+		Assert.assertNull(booking.getCurrency());
+		Assert.assertTrue(booking.isGross());
+		Assert.assertNull(booking.mainPrice);
+		Assert.assertEquals(BigDecimal.ZERO, booking.getPaidAmountOrZero());
+		Assert.assertNull(booking.paidAmount);
+
+		// the public getters still create the prices
+		Assert.assertNotNull(booking.getAdd1Price());
+		Assert.assertSame(booking.add1Price, booking.getAdd1PriceOrZero());
+	}
+
+	@Test
+	public void testVersion() {
+		Booking booking = new Booking();
+		long version = booking.getVersion();
+
+		booking.setInvoiceRecipientPK(1L);
+		Assert.assertTrue(booking.getVersion() > version);
+		version = booking.getVersion();
+
+		Price price = new Price(new BigDecimal("100.00"), "EUR", new BigDecimal("19"), false);
+		booking.setMainPrice(price);
+		Assert.assertTrue(booking.getVersion() > version);
+		version = booking.getVersion();
+
+		// changes of the prices change the version of the booking
+		price.setTaxRate(new BigDecimal("7"));
+		Assert.assertTrue(booking.getVersion() > version);
+		version = booking.getVersion();
+
+		booking.setCurrency("THB");
+		Assert.assertTrue(booking.getVersion() > version);
+		version = booking.getVersion();
+
+		booking.getTotalAmountGross();
+		booking.getOpenAmount();
+		Assert.assertEquals(version, booking.getVersion());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testZeroPriceIsImmutable() {
+		new Booking().getCancelFeePriceOrZero().setAmount(BigDecimal.TEN);
+	}
+}
@@ -0,0 +1,73 @@
+package com.lambdalogic.test.booking.model;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestBookingList {
+
+	@Test
+	public void testListChanges() {
+		BookingList bookingList = new BookingList();
+		long version = bookingList.getVersion();
+
+		Booking booking = new Booking();
+		bookingList.add(booking);
+		Assert.assertNotEquals(version, bookingList.getVersion());
+		version = bookingList.getVersion();
+
+		bookingList.set(0, new Booking());
+		Assert.assertNotEquals(version, bookingList.getVersion());
+		version = bookingList.getVersion();
+
+		// the replaced booking does not belong to the list anymore
+		booking.setPaidAmount(BigDecimal.ONE);
+		Assert.assertEquals(version, bookingList.getVersion());
+
+		bookingList.remove(0);
+		Assert.assertNotEquals(version, bookingList.getVersion());
+		version = bookingList.getVersion();
+
+		bookingList.addAll(Arrays.asList(new Booking(), new Booking()));
+		bookingList.clear();
+		Assert.assertTrue(bookingList.isEmpty());
+		Assert.assertNotEquals(version, bookingList.getVersion());
+	}
+
+	@Test
+	public void testBookingChanges() {
+		Booking booking = new Booking();
+		BookingList bookingList = new BookingList(Arrays.asList(booking));
+		long version = bookingList.getVersion();
+
+		booking.setInvoiceRecipientPK(1L);
+		Assert.assertNotEquals(version, bookingList.getVersion());
+		version = bookingList.getVersion();
+
+		// changes of the prices are passed on by the booking
+		Price price = booking.getMainPrice();
+		Assert.assertEquals(version, bookingList.getVersion());
+		price.setAmount(BigDecimal.TEN);
+		Assert.assertNotEquals(version, bookingList.getVersion());
+		version = bookingList.getVersion();
+
+		booking.setMainPrice(new Price(BigDecimal.ONE, "EUR", BigDecimal.ZERO, true));
+		version = bookingList.getVersion();
+		price.setAmount(BigDecimal.ONE);
+		Assert.assertEquals(version, bookingList.getVersion());
+
+		// a booking notifies only the list it has been added to last
+		BookingList other = new BookingList(bookingList);
+		long otherVersion = other.getVersion();
+		booking.setCurrency("THB");
+		Assert.assertEquals(version, bookingList.getVersion());
+		Assert.assertNotEquals(otherVersion, other.getVersion());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNull() {
+		new BookingList().add(null);
+	}
+}
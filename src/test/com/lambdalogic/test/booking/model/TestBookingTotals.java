@@ -0,0 +1,67 @@
+package com.lambdalogic.test.booking.model;
+
+import java.math.BigDecimal;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.lambdalogic.test.booking.utils.BuildBookingRecipient;
+
+public class TestBookingTotals {
+
+	private static void assertSameTotals(Booking booking, BookingTotals totals) {
+		Assert.assertEquals(0, booking.getTotalAmountGross().compareTo(totals.getGross()));
+		Assert.assertEquals(0, booking.getTotalAmountNet().compareTo(totals.getNet()));
+		Assert.assertEquals(0, booking.getTotalAmountTax().compareTo(totals.getTax()));
+		Assert.assertEquals(0, booking.getPaidAmount().compareTo(totals.getPaid()));
+		Assert.assertEquals(0, booking.getOpenAmount().compareTo(totals.getOpen()));
+	}
+
+	@Test
+	public void testSameAsBooking() {
+		BookingTotals totals = new BookingTotals();
+		for (Booking booking : new BuildBookingRecipient().buildMixedBookingList(2000, 5, 29)) {
+			assertSameTotals(booking, totals.compute(booking));
+			Assert.assertEquals(Cents.toCents(booking.getTotalAmountGross()), totals.getGrossCents());
+			Assert.assertEquals(Cents.toCents(booking.getOpenAmount()), totals.getOpenCents());
+		}
+	}
+
+	@Test
+	public void testCents() {
+		Booking booking = new Booking();
+		booking.setMainPrice(new Price(new BigDecimal("100.00"), "EUR", new BigDecimal("19"), false));
+		booking.setAdd1Price(new Price(new BigDecimal("0.10"), "EUR", new BigDecimal("19"), false));
+		booking.setPaidAmount(new BigDecimal("20.00"));
+
+		BookingTotals totals = BookingTotals.of(booking);
+		Assert.assertEquals(11912, totals.getGrossCents());
+		Assert.assertEquals(10010, totals.getNetCents());
+		Assert.assertEquals(1902, totals.getTaxCents());
+		Assert.assertEquals(2000, totals.getPaidCents());
+		Assert.assertEquals(9912, totals.getOpenCents());
+	}
+
+	@Test
+	public void testValuesBeyondCents() {
+		Booking booking = new Booking();
+		// too large for cents and a tax rate that has no basis points
+		booking.setMainPrice(new Price(new BigDecimal("100000000000000000.00"), "EUR", new BigDecimal("19"), true));
+		booking.setAdd1Price(new Price(new BigDecimal("10.00"), "EUR", new BigDecimal("7.125"), false));
+		booking.setPaidAmount(new BigDecimal("0.001"));
+
+		BookingTotals totals = BookingTotals.of(booking);
+		assertSameTotals(booking, totals);
+		Assert.assertEquals(Cents.NaN, totals.getGrossCents());
+		Assert.assertEquals(Cents.NaN, totals.getOpenCents());
+		Assert.assertEquals(Cents.NaN, totals.getPaidCents());
+
+		// the holder can be reused
+		booking.setMainPrice(new Price(new BigDecimal("11.90"), "EUR", new BigDecimal("19"), true));
+		booking.setAdd1Price(null);
+		booking.setPaidAmount(null);
+		assertSameTotals(booking, totals.compute(booking));
+		Assert.assertEquals(1190, totals.getOpenCents());
+		Assert.assertEquals(190, totals.getTaxCents());
+	}
+}
@@ -0,0 +1,81 @@
+package com.lambdalogic.test.booking.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestCents {
+
+	private static final String[] TAX_RATES = { "0", "7", "7.5", "10", "19", "19.00", "99.99" };
+
+	@Test
+	public void testPriceFastPathIsBitIdenticalToBigDecimal() {
+		Random random = new Random(4711);
+		for (int i = 0; i < 20000; i++) {
+			BigDecimal amount = BigDecimal.valueOf(random.nextInt(2000001) - 1000000, 2);
+			BigDecimal taxRate = new BigDecimal(TAX_RATES[i % TAX_RATES.length]);
+			BigDecimal taxRateDiv100 = taxRate.divide(Price.BD_100);
+			BigDecimal taxRateDiv100Add1 = taxRateDiv100.add(BigDecimal.ONE);
+
+			Price net = new Price(amount, "EUR", taxRate, false);
+			BigDecimal expectedGross = amount.multiply(taxRateDiv100Add1).setScale(2, RoundingMode.HALF_UP);
+			Assert.assertEquals(expectedGross, net.getAmountGross());
+			Assert.assertEquals(Cents.toCents(expectedGross), net.getAmountGrossCents());
+			BigDecimal expectedTax = taxRate.signum() == 0
+				? Price.ZERO
+				: amount.multiply(taxRateDiv100).setScale(2, RoundingMode.HALF_UP);
+			Assert.assertEquals(expectedTax, net.getAmountTax());
+
+			Price gross = new Price(amount, "EUR", taxRate, true);
+			BigDecimal expectedNet = amount.divide(taxRateDiv100Add1, 2, RoundingMode.HALF_UP);
+			Assert.assertEquals(expectedNet, gross.getAmountNet());
+			Assert.assertEquals(Cents.toCents(expectedNet), gross.getAmountNetCents());
+			BigDecimal expectedGrossTax = taxRate.signum() == 0 ? Price.ZERO : amount.subtract(expectedNet);
+			Assert.assertEquals(expectedGrossTax, gross.getAmountTax());
+			Assert.assertEquals(Cents.toCents(expectedGrossTax), gross.getAmountTaxCents());
+		}
+	}
+
+	@Test
+	public void testHalfUpRounding() {
+		Assert.assertEquals(3, Cents.divideHalfUp(25, 10));
+		Assert.assertEquals(-3, Cents.divideHalfUp(-25, 10));
+		Assert.assertEquals(2, Cents.divideHalfUp(24, 10));
+		Assert.assertEquals(-2, Cents.divideHalfUp(-24, 10));
+		// 0.10 net with 19% is 0.119 gross which is rounded to 0.12
+		Assert.assertEquals(12, Cents.grossOfNet(10, 1900));
+	}
+
+	@Test
+	public void testUnrepresentableValues() {
+		Assert.assertEquals(Cents.NaN, Cents.toCents(new BigDecimal("0.001")));
+		Assert.assertEquals(100, Cents.toCents(new BigDecimal("1.000")));
+		Assert.assertEquals(Cents.NaN, Cents.toCents(new BigDecimal("1E+30")));
+		Assert.assertEquals(Cents.NO_BASIS_POINTS, Cents.toBasisPoints(new BigDecimal("19.125")));
+		Assert.assertEquals(Cents.NaN, Cents.grossOfNet(Long.MAX_VALUE / 2, 1900));
+	}
+
+	@Test
+	public void testMoneySumFallsBackOnOverflow() {
+		MoneySum sum = new MoneySum();
+		sum.add(Long.MAX_VALUE - 1);
+		sum.add(10);
+		sum.add(new BigDecimal("0.001"));
+		BigDecimal expected = BigDecimal.valueOf(Long.MAX_VALUE - 1, 2)
+			.add(new BigDecimal("0.10"))
+			.add(new BigDecimal("0.001"));
+		Assert.assertEquals(0, expected.compareTo(sum.toBigDecimal()));
+		Assert.assertFalse(sum.isCents());
+	}
+
+	@Test
+	public void testLargePriceFallsBackToBigDecimal() {
+		BigDecimal amount = new BigDecimal("12345678901234567.89");
+		Price net = new Price(amount, "EUR", new BigDecimal("19"), false);
+		Assert.assertEquals(Cents.NaN, net.getAmountGrossCents());
+		Assert.assertEquals(amount.multiply(new BigDecimal("1.19")).setScale(2, RoundingMode.HALF_UP), net.getAmountGross());
+	}
+}
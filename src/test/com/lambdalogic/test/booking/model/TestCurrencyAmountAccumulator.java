@@ -0,0 +1,55 @@
+package com.lambdalogic.test.booking.model;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestCurrencyAmountAccumulator {
+
+	@Test
+	public void testSameResultAsCurrencyAmountAdd() {
+		List<CurrencyAmount> amounts = new ArrayList<>();
+		CurrencyAmount expected = new CurrencyAmount(BigDecimal.ZERO, "EUR");
+		for (int i = 0; i < 1000; i++) {
+			CurrencyAmount amount = new CurrencyAmount(BigDecimal.valueOf(i * 37 - 10000, 2), "EUR");
+			amounts.add(amount);
+			expected = expected.add(amount);
+		}
+		amounts.add(new CurrencyAmount(new BigDecimal("92233720368547758.07"), "EUR"));
+		expected = expected.add(new CurrencyAmount(new BigDecimal("92233720368547758.07"), "EUR"));
+
+		Assert.assertEquals(expected, CurrencyAmountAccumulator.sum(amounts));
+		Assert.assertEquals(expected, CurrencyAmountAccumulator.sum(amounts, "EUR"));
+	}
+
+	@Test
+	public void testEmpty() {
+		Assert.assertEquals(new CurrencyAmount(BigDecimal.ZERO, null), CurrencyAmountAccumulator.sum(Collections.emptyList()));
+		Assert.assertEquals(new CurrencyAmount(BigDecimal.ZERO, "THB"), CurrencyAmountAccumulator.sum(Collections.emptyList(), "THB"));
+	}
+
+	@Test
+	public void testReuse() {
+		CurrencyAmountAccumulator accumulator = new CurrencyAmountAccumulator();
+		accumulator.add(new CurrencyAmount(new BigDecimal("1.50"), "EUR")).add(new BigDecimal("2.25"));
+		accumulator.subtract(new CurrencyAmount(new BigDecimal("0.75"), "EUR"));
+		Assert.assertEquals(new CurrencyAmount(new BigDecimal("3.00"), "EUR"), accumulator.toCurrencyAmount());
+
+		accumulator.clear();
+		accumulator.add(new CurrencyAmount(new BigDecimal("1.00"), "THB"));
+		Assert.assertEquals(new CurrencyAmount(new BigDecimal("1.00"), "THB"), accumulator.toCurrencyAmount());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testDifferentCurrencies() {
+		CurrencyAmountAccumulator.sum(Arrays.asList(
+			new CurrencyAmount(BigDecimal.ONE, "EUR"),
+			new CurrencyAmount(BigDecimal.ONE, "THB")
+		));
+	}
+}
@@ -0,0 +1,126 @@
+package com.lambdalogic.test.booking.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestCurrencyConverter {
+
+	private CurrencyConverter converter;
+
+	@Before
+	public void setup() {
+		converter = new CurrencyConverter();
+		converter.setRate("EUR", "THB", new BigDecimal("38.4567"));
+		converter.setRate("EUR", "USD", new BigDecimal("1.0832"));
+	}
+
+	@Test
+	public void testSameResultAsCurrencyAmountConvert() {
+		Random random = new Random(5);
+		BigDecimal rate = new BigDecimal("38.4567");
+		for (int i = 0; i < 10000; i++) {
+			CurrencyAmount amount = new CurrencyAmount(BigDecimal.valueOf(random.nextInt(2000000) - 1000000, 2), "EUR");
+			Assert.assertEquals(amount.convert(rate, "THB"), converter.convert(amount, "THB"));
+		}
+
+		CurrencyAmount large = new CurrencyAmount(new BigDecimal("92233720368547758.07"), "EUR");
+		Assert.assertEquals(large.convert(rate, "THB"), converter.convert(large, "THB"));
+	}
+
+	@Test
+	public void testRoundToMinorUnitsOfTargetCurrency() {
+		converter.setRate("EUR", "JPY", new BigDecimal("161.237"));
+		converter.setRate("EUR", "BHD", new BigDecimal("0.40873"));
+		CurrencyAmount amount = new CurrencyAmount(new BigDecimal("10.25"), "EUR");
+
+		// 10.25 * 161.237 = 1652.67925 JPY, rounded to whole yen
+		Assert.assertEquals(new BigDecimal("1653.00"), converter.convert(amount, "JPY").getAmount());
+		// 10.25 * 0.40873 = 4.1894825 BHD, rounded to fils
+		Assert.assertEquals(new BigDecimal("4.189"), converter.convert(amount, "BHD").getAmount());
+		Assert.assertEquals(
+			new BigDecimal("8.378"),
+			converter.convertAndSum(Arrays.asList(amount, amount), "BHD").getAmount()
+		);
+		Assert.assertEquals(new BigDecimal("4.189"), converter.convertAll(Arrays.asList(amount), "BHD").get(0).getAmount());
+	}
+
+	@Test
+	public void testInverseAndCrossRatesAreRoundedOnce() {
+		// 100 THB = 100 / 38.4567 EUR = 2.6003...
+		Assert.assertEquals(
+			new CurrencyAmount(new BigDecimal("2.60"), "EUR"),
+			converter.convert(new CurrencyAmount(new BigDecimal("100.00"), "THB"), "EUR")
+		);
+
+		// 1000 THB = 1000 * 1.0832 / 38.4567 USD = 28.1667...
+		BigDecimal expected = new BigDecimal("1000.00").multiply(new BigDecimal("1.0832"))
+			.divide(new BigDecimal("38.4567"), 2, RoundingMode.HALF_UP);
+		Assert.assertEquals(
+			new CurrencyAmount(expected, "USD"),
+			converter.convert(new CurrencyAmount(new BigDecimal("1000.00"), "THB"), "USD")
+		);
+		Assert.assertTrue(converter.canConvert("USD", "THB"));
+		Assert.assertFalse(converter.canConvert("USD", "JPY"));
+
+		// looking up invalid codes does not register them
+		int idCount = CurrencyRegistry.getIDCount();
+		Assert.assertFalse(converter.canConvert("USD", "QQQ"));
+		Assert.assertEquals(idCount, CurrencyRegistry.getIDCount());
+	}
+
+	@Test
+	public void testBatchConversion() {
+		List<CurrencyAmount> amounts = Arrays.asList(
+			new CurrencyAmount(new BigDecimal("10.00"), "EUR"),
+			new CurrencyAmount(new BigDecimal("384.57"), "THB"),
+			new CurrencyAmount(new BigDecimal("5.55"), "USD")
+		);
+		List<CurrencyAmount> converted = converter.convertAll(amounts, "EUR");
+		BigDecimal sum = BigDecimal.ZERO;
+		for (int i = 0; i < amounts.size(); i++) {
+			Assert.assertEquals(converter.convert(amounts.get(i), "EUR"), converted.get(i));
+			sum = sum.add(converted.get(i).getAmount());
+		}
+		Assert.assertEquals(new CurrencyAmount(sum, "EUR"), converter.convertAndSum(amounts, "EUR"));
+
+		long[] cents = converter.convertCents(new long[] { 1000, -1000, Cents.NaN }, "EUR", "USD");
+		Assert.assertArrayEquals(new long[] { 1083, -1083, Cents.NaN }, cents);
+
+		BigDecimal[] column = converter.convert(new BigDecimal[] { new BigDecimal("10.00"), null }, "EUR", "USD");
+		Assert.assertEquals(new BigDecimal("10.83"), column[0]);
+		Assert.assertNull(column[1]);
+	}
+
+	@Test
+	public void testChangedRateReplacesDerivedRates() throws Exception {
+		Assert.assertEquals(new BigDecimal("28.17"), converter.getRate("THB", "USD").convert(new BigDecimal("1000.00")));
+
+		converter.setRate("EUR", "USD", new BigDecimal("2"));
+		Assert.assertEquals(new BigDecimal("52.01"), converter.getRate("THB", "USD").convert(new BigDecimal("1000.00")));
+
+		// rates that are derived while a rate is set must not survive
+		Thread reader = new Thread(() -> {
+			for (int i = 0; i < 20000; i++) {
+				converter.getRate("THB", "USD");
+			}
+		});
+		reader.start();
+		for (int i = 0; i < 200; i++) {
+			converter.setRate("EUR", "USD", BigDecimal.valueOf(100 + i, 2));
+		}
+		reader.join();
+		Assert.assertEquals(new BigDecimal("77.75"), converter.getRate("THB", "USD").convert(new BigDecimal("1000.00")));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMissingRate() {
+		converter.convert(new CurrencyAmount(BigDecimal.ONE, "EUR"), "JPY");
+	}
+}
@@ -0,0 +1,84 @@
+package com.lambdalogic.test.booking.model;
+
+import java.math.BigDecimal;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestCurrencyRegistry {
+
+	@Test
+	public void testIDs() {
+		int eurID = CurrencyRegistry.getID("EUR");
+		Assert.assertNotEquals(CurrencyRegistry.NO_CURRENCY, eurID);
+		Assert.assertEquals(eurID, CurrencyRegistry.getID(new StringBuilder("EU").append('R')));
+		Assert.assertNotEquals(eurID, CurrencyRegistry.getID("THB"));
+		Assert.assertEquals(CurrencyRegistry.NO_CURRENCY, CurrencyRegistry.getID(null));
+		Assert.assertNull(CurrencyRegistry.getCode(CurrencyRegistry.NO_CURRENCY));
+		Assert.assertTrue(eurID < CurrencyRegistry.getIDCount());
+
+		int otherID = CurrencyRegistry.register("Bitcoin");
+		Assert.assertEquals(otherID, CurrencyRegistry.getID(new String("Bitcoin")));
+		Assert.assertEquals(otherID, CurrencyRegistry.register("Bitcoin"));
+		Assert.assertEquals("Bitcoin", CurrencyRegistry.getCode(otherID));
+	}
+
+	@Test
+	public void testIntern() {
+		String parsed = new String(new char[] { 'E', 'U', 'R' });
+		Assert.assertSame(CurrencyRegistry.intern("EUR"), CurrencyRegistry.intern(parsed));
+
+		Price price = new Price(BigDecimal.ONE, parsed, null, true);
+		Assert.assertSame(CurrencyRegistry.intern("EUR"), price.getCurrency());
+		Assert.assertEquals(CurrencyRegistry.getID("EUR"), price.getCurrencyID());
+		Assert.assertEquals(CurrencyRegistry.getID("EUR"), new CurrencyAmount(BigDecimal.ONE, parsed).getCurrencyID());
+	}
+
+	@Test
+	public void testValidCodes() {
+		int idCount = CurrencyRegistry.getIDCount();
+		Assert.assertEquals(CurrencyRegistry.UNKNOWN_CURRENCY, CurrencyRegistry.find("XYZ"));
+		Assert.assertEquals(CurrencyRegistry.UNKNOWN_CURRENCY, CurrencyRegistry.find("Dogecoin"));
+		Assert.assertFalse(CurrencyRegistry.isValid("XYZ"));
+		Assert.assertFalse(CurrencyRegistry.isValid("Dogecoin"));
+		Assert.assertFalse(CurrencyRegistry.isValid(null));
+		Assert.assertTrue(CurrencyRegistry.isValid(new StringBuilder("BHD")));
+		Assert.assertEquals(idCount, CurrencyRegistry.getIDCount());
+
+		CurrencyRegistry.register("Dogecoin");
+		Assert.assertTrue(CurrencyRegistry.isValid("Dogecoin"));
+		Assert.assertNotEquals(CurrencyRegistry.UNKNOWN_CURRENCY, CurrencyRegistry.find("Dogecoin"));
+	}
+
+	@Test
+	public void testModelAcceptsAnyCode() {
+		// the model does not validate codes, it only gives them IDs
+		Price lowerCase = new Price(BigDecimal.TEN, "eur", null, true);
+		Assert.assertEquals("eur", lowerCase.getCurrency());
+		Assert.assertNotEquals(CurrencyRegistry.getID("EUR"), lowerCase.getCurrencyID());
+		Assert.assertEquals(lowerCase.getCurrencyID(), new CurrencyAmount(BigDecimal.ONE, "eur").getCurrencyID());
+		Assert.assertEquals("Euro", new CurrencyAmount(BigDecimal.ONE, "Euro").getCurrency());
+		Assert.assertEquals("", new Price(BigDecimal.ONE, "", null, true).getCurrency());
+		Assert.assertFalse(CurrencyRegistry.isValid("eur"));
+	}
+
+	@Test
+	public void testMinorUnits() {
+		Assert.assertEquals(2, CurrencyRegistry.getMinorUnits(CurrencyRegistry.getID("EUR")));
+		Assert.assertEquals(0, CurrencyRegistry.getMinorUnits(CurrencyRegistry.getID("JPY")));
+		Assert.assertEquals(3, CurrencyRegistry.getMinorUnits(CurrencyRegistry.getID("BHD")));
+		Assert.assertEquals(
+			CurrencyRegistry.DEFAULT_MINOR_UNITS,
+			CurrencyRegistry.getMinorUnits(CurrencyRegistry.register("Bitcoin"))
+		);
+		Assert.assertEquals(CurrencyRegistry.DEFAULT_MINOR_UNITS, CurrencyRegistry.getMinorUnits(CurrencyRegistry.NO_CURRENCY));
+
+		// BHD amounts may have 3 decimal places
+		Assert.assertEquals(new BigDecimal("1.235"), new CurrencyAmount(new BigDecimal("1.235"), "BHD").getAmount());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnknownID() {
+		CurrencyRegistry.getCode(Integer.MAX_VALUE);
+	}
+}
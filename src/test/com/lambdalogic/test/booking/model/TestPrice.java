@@ -0,0 +1,48 @@
+package com.lambdalogic.test.booking.model;
+
+import java.math.BigDecimal;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestPrice {
+
+	@Test
+	public void testDerivedAmountsAreCached() {
+		Price price = new Price(new BigDecimal("100.00"), "EUR", new BigDecimal("19"), false);
+		BigDecimal gross = price.getAmountGross();
+		Assert.assertEquals(new BigDecimal("119.00"), gross);
+		Assert.assertSame(gross, price.getAmountGross());
+		Assert.assertSame(price.getAmountTax(), price.getAmountTax());
+	}
+
+	@Test
+	public void testDerivedAmountsFollowChanges() {
+		Price price = new Price(new BigDecimal("100.00"), "EUR", new BigDecimal("19"), false);
+		assertAmounts(price, "119.00", "100.00", "19.00");
+
+		price.setAmount(new BigDecimal("200.00"));
+		assertAmounts(price, "238.00", "200.00", "38.00");
+
+		price.setTaxRate(new BigDecimal("7"));
+		assertAmounts(price, "214.00", "200.00", "14.00");
+
+		price.setGross(true);
+		assertAmounts(price, "200.00", "186.92", "13.08");
+
+		price.negate();
+		assertAmounts(price, "-200.00", "-186.92", "-13.08");
+
+		price.copyFrom(new Price(new BigDecimal("10.00"), "EUR", null, false));
+		assertAmounts(price, "10.00", "10.00", "0.00");
+
+		price.setAmount(new BigDecimal("50.00"), true);
+		assertAmounts(price, "50.00", "50.00", "0.00");
+	}
+
+	private static void assertAmounts(Price price, String gross, String net, String tax) {
+		Assert.assertEquals(new BigDecimal(gross), price.getAmountGross());
+		Assert.assertEquals(new BigDecimal(net), price.getAmountNet());
+		Assert.assertEquals(new BigDecimal(tax), price.getAmountTax());
+	}
+}
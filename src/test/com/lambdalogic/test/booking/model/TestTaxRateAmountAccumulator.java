@@ -0,0 +1,84 @@
+package com.lambdalogic.test.booking.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestTaxRateAmountAccumulator {
+
+	@Test
+	public void testNetAmountsAreRoundedOncePerTaxRate() {
+		TaxRateAmountAccumulator accumulator = new TaxRateAmountAccumulator();
+		for (int i = 0; i < 10; i++) {
+			accumulator.add(price("0.10", "19", false));
+		}
+		Assert.assertEquals(new BigDecimal("1.19"), accumulator.toGross());
+		Assert.assertEquals(new BigDecimal("1.00"), accumulator.toNet());
+		Assert.assertEquals(new BigDecimal("0.19"), accumulator.toTax());
+	}
+
+	@Test
+	public void testGrossAmountsAreRoundedOncePerTaxRate() {
+		TaxRateAmountAccumulator accumulator = new TaxRateAmountAccumulator();
+		for (int i = 0; i < 10; i++) {
+			accumulator.add(price("0.12", "19", true));
+		}
+		// 1.20 / 1.19 = 1.0084 -> 1.01 instead of 10 * 0.10
+		Assert.assertEquals(new BigDecimal("1.20"), accumulator.toGross());
+		Assert.assertEquals(new BigDecimal("1.01"), accumulator.toNet());
+		Assert.assertEquals(new BigDecimal("0.19"), accumulator.toTax());
+	}
+
+	@Test
+	public void testManyTaxRatesMergeAndSubtract() {
+		TaxRateAmountAccumulator all = new TaxRateAmountAccumulator();
+		TaxRateAmountAccumulator even = new TaxRateAmountAccumulator();
+		TaxRateAmountAccumulator odd = new TaxRateAmountAccumulator();
+		BigDecimal expectedGross = Price.ZERO;
+
+		for (int taxRate = 0; taxRate < 30; taxRate++) {
+			Price price = price("3.33", String.valueOf(taxRate), taxRate % 3 == 0);
+			all.add(price);
+			(taxRate % 2 == 0 ? even : odd).add(price);
+			expectedGross = expectedGross.add(price.getAmountGross());
+		}
+
+		Assert.assertEquals(expectedGross, all.toGross());
+
+		TaxRateAmountAccumulator merged = new TaxRateAmountAccumulator(even);
+		merged.merge(odd);
+		Assert.assertEquals(all.toGross(), merged.toGross());
+		Assert.assertEquals(all.toNet(), merged.toNet());
+		Assert.assertEquals(all.toTax(), merged.toTax());
+
+		merged.subtract(odd);
+		Assert.assertEquals(even.toGross(), merged.toGross());
+		merged.subtract(even);
+		Assert.assertTrue(merged.isZero());
+	}
+
+	@Test
+	public void testValuesBeyondCents() {
+		TaxRateAmountAccumulator accumulator = new TaxRateAmountAccumulator();
+		BigDecimal large = new BigDecimal("90000000000000000.00");
+		accumulator.add(price("90000000000000000.00", "19", false));
+		accumulator.add(price("90000000000000000.00", "19", false));
+		accumulator.add(price("10.00", "19.125", false));
+
+		BigDecimal expected = large.add(large).multiply(new BigDecimal("1.19"))
+			.add(new BigDecimal("10.00").multiply(new BigDecimal("1.19125")).setScale(2, RoundingMode.HALF_UP));
+		Assert.assertEquals(expected.setScale(2, RoundingMode.HALF_UP), accumulator.toGross());
+		Assert.assertEquals(new BigDecimal("180000000000000010.00"), accumulator.toNet());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidBasisPoints() {
+		new TaxRateAmountAccumulator().addNet(10000, 1);
+	}
+
+	private static Price price(String amount, String taxRate, boolean gross) {
+		return new Price(new BigDecimal(amount), "EUR", new BigDecimal(taxRate), gross);
+	}
+}
@@ -0,0 +1,38 @@
+package com.lambdalogic.test.booking.model;
+
+import java.math.BigDecimal;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestTaxRateFactors {
+
+	@Test
+	public void testSameInstanceForSameTaxRate() {
+		Assert.assertSame(TaxRateFactors.of(new BigDecimal("19")), TaxRateFactors.of(new BigDecimal("19")));
+		Assert.assertSame(TaxRateFactors.of(new BigDecimal("7.50")), TaxRateFactors.of(new BigDecimal("7.50")));
+		Assert.assertSame(TaxRateFactors.ZERO, TaxRateFactors.of(null));
+		Assert.assertSame(TaxRateFactors.ZERO, TaxRateFactors.of(Price.ZERO));
+	}
+
+	@Test
+	public void testFactors() {
+		TaxRateFactors factors = TaxRateFactors.of(new BigDecimal("19"));
+		Assert.assertEquals(0, new BigDecimal("0.19").compareTo(factors.getTaxRateDiv100()));
+		Assert.assertEquals(0, new BigDecimal("1.19").compareTo(factors.getTaxRateDiv100Add1()));
+		Assert.assertEquals(1900, factors.getBasisPoints());
+
+		factors = TaxRateFactors.of(new BigDecimal("7.125"));
+		Assert.assertEquals(0, new BigDecimal("1.07125").compareTo(factors.getTaxRateDiv100Add1()));
+		Assert.assertEquals(Cents.NO_BASIS_POINTS, factors.getBasisPoints());
+	}
+
+	@Test
+	public void testPricesShareFactors() {
+		Price price0 = new Price(new BigDecimal("10.00"), "EUR", new BigDecimal("19"), false);
+		Price price1 = new Price(new BigDecimal("20.00"), "EUR", new BigDecimal("19"), true);
+		Assert.assertSame(price0.taxRateDiv100Add1, price1.taxRateDiv100Add1);
+		Assert.assertEquals(new BigDecimal("11.90"), price0.getAmountGross());
+		Assert.assertEquals(new BigDecimal("16.81"), price1.getAmountNet());
+	}
+}
@@ -0,0 +1,84 @@
+package com.lambdalogic.test.booking.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Date;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.lambdalogic.test.booking.util.EpochDays;
+
+public class TestTimeBucketing {
+
+	/**
+	 * 2024-03-01
+	 */
+	private static final int REFERENCE_DAY = 19783;
+
+	@Test
+	public void testEpochDays() {
+		Assert.assertEquals(0, EpochDays.toEpochDay(new Date(0), ZoneOffset.UTC));
+		Assert.assertEquals(-1, EpochDays.toEpochDay(new Date(-1), ZoneOffset.UTC));
+		Assert.assertEquals(
+			REFERENCE_DAY,
+			EpochDays.toEpochDay(new Date(REFERENCE_DAY * EpochDays.MILLIS_PER_DAY + 1000), ZoneOffset.UTC)
+		);
+		Assert.assertEquals(EpochDays.NO_DAY, EpochDays.toEpochDay((Date) null));
+		Assert.assertNull(EpochDays.toDate(EpochDays.NO_DAY));
+	}
+
+	@Test
+	public void testEpochDaysOfLocalDates() {
+		// 2024-03-31 is the start of daylight saving time in Berlin, 2024-11-03 the end in New York
+		String[] zones = { "Europe/Berlin", "Asia/Bangkok", "America/New_York", "Pacific/Auckland" };
+		LocalDate[] localDates = {
+			LocalDate.of(2024, 3, 10), LocalDate.of(2024, 3, 31), LocalDate.of(2024, 11, 3), LocalDate.of(1969, 12, 31)
+		};
+		for (String zoneName : zones) {
+			ZoneId zone = ZoneId.of(zoneName);
+			for (LocalDate localDate : localDates) {
+				int epochDay = (int) localDate.toEpochDay();
+				Date midnight = Date.from(localDate.atStartOfDay(zone).toInstant());
+				Date lastMinute = Date.from(LocalDateTime.of(localDate, LocalTime.of(23, 59)).atZone(zone).toInstant());
+				Assert.assertEquals(zoneName + " " + localDate, epochDay, EpochDays.toEpochDay(midnight, zone));
+				Assert.assertEquals(zoneName + " " + localDate, epochDay, EpochDays.toEpochDay(lastMinute, zone));
+				Assert.assertEquals(midnight, EpochDays.toDate(epochDay, zone));
+				Assert.assertEquals(epochDay, TimeBucketing.DAILY.getBucket(midnight, zone));
+			}
+		}
+	}
+
+	@Test
+	public void testWeekly() {
+		// 1970-01-01 was a Thursday
+		Assert.assertEquals(-3, TimeBucketing.WEEKLY.getBucket(0));
+		Assert.assertEquals(-3, TimeBucketing.WEEKLY.getBucket(-3));
+		Assert.assertEquals(-10, TimeBucketing.WEEKLY.getBucket(-4));
+		Assert.assertEquals(4, TimeBucketing.WEEKLY.getBucket(10));
+		Assert.assertEquals("1969-12-29", TimeBucketing.WEEKLY.getLabel(-3));
+		Assert.assertEquals(TimeBucketing.NO_BUCKET, TimeBucketing.WEEKLY.getBucket(EpochDays.NO_DAY));
+	}
+
+	@Test
+	public void testAging() {
+		TimeBucketing aging = TimeBucketing.aging(REFERENCE_DAY);
+		Assert.assertEquals(0, aging.getBucket(REFERENCE_DAY + 5));
+		Assert.assertEquals(0, aging.getBucket(REFERENCE_DAY - 30));
+		Assert.assertEquals(1, aging.getBucket(REFERENCE_DAY - 31));
+		Assert.assertEquals(2, aging.getBucket(REFERENCE_DAY - 90));
+		Assert.assertEquals(3, aging.getBucket(REFERENCE_DAY - 91));
+		Assert.assertEquals(3, aging.getBucket(EpochDays.MIN_DAY));
+		Assert.assertEquals("0-30", aging.getLabel(0));
+		Assert.assertEquals("61-90", aging.getLabel(2));
+		Assert.assertEquals("91+", aging.getLabel(3));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testAgingBoundsNotAscending() {
+		TimeBucketing.aging(REFERENCE_DAY, 30, 30);
+	}
+}
@@ -0,0 +1,115 @@
+package com.lambdalogic.test.booking.util;
+
+import java.math.BigDecimal;
+import java.text.ParseException;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.lambdalogic.test.booking.model.Cents;
+
+public class TestTypeHelper {
+
+	private static final String[] VALUES = {
+		"0", "-0", "+0", "12.34", "-12.34", "12,34", " 1 234,56 ", "\t-7.5\n", ".5", "5.", "-.5", "1e3", "1E+3",
+		"1.5e-2", "-2,5E2", "00012.3400", "92233720368547758.07", "-92233720368547758.08", "123456789012345678901234.5",
+		"1 e 3", "- 5", "", " ", ".", ",", "-", "+", "e3", "1e", "1e+", "1.2.3", "1,2.3", "12a", "a12", "1-2", "1e999999999999",
+		"--1", "0x10", "1_000",
+	};
+
+	@Test
+	public void testSameResultsAsBigDecimalConstructor() {
+		for (String value : VALUES) {
+			Assert.assertEquals(value, reference(value), TypeHelper.parseBigDecimal(value));
+		}
+
+		Random random = new Random(42);
+		String alphabet = "0123456789.,-+eE \t";
+		for (int i = 0; i < 100000; i++) {
+			StringBuilder sb = new StringBuilder();
+			int length = 1 + random.nextInt(8);
+			for (int j = 0; j < length; j++) {
+				sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+			}
+			String value = sb.toString();
+			Assert.assertEquals(value, reference(value), TypeHelper.parseBigDecimal(value));
+		}
+	}
+
+	@Test
+	public void testRangesAndCharArrays() {
+		String text = "x;12,50;-3.1;y";
+		Assert.assertEquals(new BigDecimal("12.50"), TypeHelper.parseBigDecimal(text, 2, 7));
+		Assert.assertEquals(new BigDecimal("-3.1"), TypeHelper.parseBigDecimal(text.toCharArray(), 8, 12));
+		Assert.assertNull(TypeHelper.parseBigDecimal(text, 0, 3));
+	}
+
+	@Test
+	public void testUnscaled() {
+		Assert.assertEquals(1234, TypeHelper.parseUnscaled("12.34", 0, 5, 2));
+		Assert.assertEquals(1200, TypeHelper.parseUnscaled("12", 0, 2, 2));
+		Assert.assertEquals(-1230, TypeHelper.parseUnscaled("-12,300", 0, 7, 2));
+		Assert.assertEquals(150000, TypeHelper.parseUnscaled("1.5E3", 0, 5, 2));
+		Assert.assertEquals(Cents.NaN, TypeHelper.parseUnscaled("12.345", 0, 6, 2));
+		Assert.assertEquals(Cents.NaN, TypeHelper.parseUnscaled("99999999999999999999", 0, 20, 2));
+		Assert.assertEquals(Cents.NaN, TypeHelper.parseUnscaled("abc".toCharArray(), 0, 3, 2));
+
+		long[] column = TypeHelper.parseUnscaled(new CharSequence[] { "1", null, "x", "0.07" }, 2);
+		Assert.assertArrayEquals(new long[] { 100, Cents.NaN, Cents.NaN, 7 }, column);
+
+		String text = "1.00;2,5;bad";
+		long[] target = new long[3];
+		TypeHelper.parseUnscaled(text, new int[] { 0, 5, 9 }, new int[] { 4, 8, 12 }, 3, 2, target);
+		Assert.assertArrayEquals(new long[] { 100, 250, Cents.NaN }, target);
+	}
+
+	@Test
+	public void testBigDecimalColumn() {
+		BigDecimal[] column = TypeHelper.parseBigDecimals(new CharSequence[] { "1,5", null, "x", "123456789012345678901234.5" });
+		Assert.assertArrayEquals(
+			new BigDecimal[] { new BigDecimal("1.5"), null, null, new BigDecimal("123456789012345678901234.5") },
+			column
+		);
+	}
+
+	@Test
+	public void testToBigDecimal() throws ParseException {
+		Assert.assertEquals(new BigDecimal("3.14"), TypeHelper.toBigDecimal(3.14));
+		Assert.assertEquals(new BigDecimal("2.5"), TypeHelper.toBigDecimal(2.5f));
+		Assert.assertEquals(new BigDecimal("1234.5"), TypeHelper.toBigDecimal(" 1 234,5"));
+		Assert.assertNull(TypeHelper.toBigDecimal(""));
+	}
+
+	@Test(expected = ParseException.class)
+	public void testToBigDecimalInvalid() throws ParseException {
+		TypeHelper.toBigDecimal("12a");
+	}
+
+	/**
+	 * The way {@link TypeHelper#toBigDecimal(Object)} parsed Strings before.
+	 */
+	private static BigDecimal reference(String value) {
+		try {
+			return new BigDecimal(value);
+		}
+		catch (Exception e) {
+		}
+
+		StringBuilder sb = new StringBuilder(value.length());
+		for (char c : value.toCharArray()) {
+			if (c == ',') {
+				sb.append('.');
+			}
+			else if (!Character.isWhitespace(c)) {
+				sb.append(c);
+			}
+		}
+		try {
+			return new BigDecimal(sb.toString());
+		}
+		catch (Exception e) {
+			return null;
+		}
+	}
+}
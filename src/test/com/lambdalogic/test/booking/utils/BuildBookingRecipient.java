@@ -9,7 +9,10 @@ import java.util.Date;
 import java.util.List;
 import java.util.Random;
 
+import org.junit.Assert;
+
 import com.lambdalogic.test.booking.model.Booking;
+import com.lambdalogic.test.booking.model.CurrencyAmountsResult;
 import com.lambdalogic.test.booking.model.Price;
 import com.lambdalogic.test.booking.util.TypeHelper;
 
@@ -75,6 +78,76 @@ public class BuildBookingRecipient {
 		return results;
 	}
 	
+	/**
+	 * Build a booking with a main price only.
+	 */
+	public Booking buildBooking(long bookingId, long invoiceRecipientPK, String amount,
+			String currency, String taxRate, boolean isGross, String paidAmount) {
+		Price mainPrice = new Price(new BigDecimal(amount), currency, new BigDecimal(taxRate), isGross);
+		Booking booking = new Booking();
+		booking.setID(bookingId);
+		booking.setMainPrice(mainPrice);
+		booking.setPaidAmount(new BigDecimal(paidAmount));
+		booking.setInvoiceRecipientPK(invoiceRecipientPK);
+		return booking;
+	}
+
+	/**
+	 * Build a reproducible list of gross and net bookings with different tax rates and optional prices.
+	 * All bookings of the invoice recipient <code>numberInvoiceRecipient - 1</code> alternate between EUR and THB,
+	 * all other bookings are in EUR.
+	 */
+	public List<Booking> buildMixedBookingList(int numberBooking, int numberInvoiceRecipient, long seed) {
+		Random random = new Random(seed);
+		String[] taxRates = { "0", "7", "19" };
+		List<Booking> results = new ArrayList<>(numberBooking);
+
+		for (int bookingId = 0; bookingId < numberBooking; bookingId++) {
+			long invoiceRecipientPK = random.nextInt(numberInvoiceRecipient);
+			boolean isGross = random.nextBoolean();
+			String currency = (invoiceRecipientPK == numberInvoiceRecipient - 1 && bookingId % 2 == 1)
+					? CurrencyISO.THB.toString()
+					: defaultCurrency;
+
+			Booking booking = new Booking();
+			booking.setID((long)bookingId + 1);
+			booking.setInvoiceRecipientPK(invoiceRecipientPK);
+			booking.setOfferingPK((long)random.nextInt(10));
+			booking.setMainPrice(randomPrice(random, currency, taxRates, isGross));
+			if (random.nextBoolean()) {
+				booking.setAdd1Price(randomPrice(random, currency, taxRates, isGross));
+			}
+			if (random.nextInt(4) == 0) {
+				booking.setAdd2Price(randomPrice(random, currency, taxRates, isGross));
+			}
+			if (random.nextInt(8) == 0) {
+				booking.setCancelFeePrice(randomPrice(random, currency, taxRates, isGross));
+			}
+			booking.setPaidAmount(BigDecimal.valueOf(random.nextInt(5) == 0 ? random.nextInt(10000) : 0, 2));
+			results.add(booking);
+		}
+
+		return results;
+	}
+
+	/**
+	 * Assert that two evaluators have calculated the same result for the same invoice recipient.
+	 */
+	protected static void assertSameResult(CurrencyAmountsResult expectedResult, CurrencyAmountsResult result) {
+		Assert.assertEquals(expectedResult.getInvoiceRecipientPK(), result.getInvoiceRecipientPK());
+		Assert.assertEquals(expectedResult.getCurrency(), result.getCurrency());
+		Assert.assertEquals(expectedResult.getTotalAmount(), result.getTotalAmount());
+		Assert.assertEquals(expectedResult.getTotalPaidAmount(), result.getTotalPaidAmount());
+		Assert.assertEquals(expectedResult.getTotalOpenAmount(), result.getTotalOpenAmount());
+		Assert.assertEquals(expectedResult.isSuccessful(), result.isSuccessful());
+	}
+
+	private Price randomPrice(Random random, String currency, String[] taxRates, boolean isGross) {
+		BigDecimal amount = BigDecimal.valueOf(random.nextInt(10) == 0 ? 0 : random.nextInt(100000), 2);
+		BigDecimal taxRate = new BigDecimal(taxRates[random.nextInt(taxRates.length)]);
+		return new Price(amount, currency, taxRate, isGross);
+	}
+
 	private List<Long> getFixedRecipientList(int numberRecipient) {
 		List<Long> results = new ArrayList<Long>();
 		